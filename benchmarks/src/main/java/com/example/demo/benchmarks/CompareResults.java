@@ -0,0 +1,71 @@
+package com.example.demo.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files (e.g. from two commits) and prints the change per
+ * benchmark. A change is flagged only when the score moved by more than both runs' errors.
+ *
+ * Usage: CompareResults baseline.json candidate.json
+ */
+public final class CompareResults {
+
+    private record Score(double value, double error, String unit) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CompareResults baseline.json candidate.json");
+            System.exit(2);
+        }
+        Map<String, Score> baseline = read(new File(args[0]));
+        Map<String, Score> candidate = read(new File(args[1]));
+
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Candidate", "Change");
+        for (Map.Entry<String, Score> entry : candidate.entrySet()) {
+            Score after = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s%n", entry.getKey(), "-", after.value(), "new");
+                continue;
+            }
+            double change = (after.value() - before.value()) / before.value() * 100;
+            boolean significant = Math.abs(after.value() - before.value()) > before.error() + after.error();
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%%s %s%n", entry.getKey(), before.value(), after.value(),
+                    change, significant ? "*" : " ", after.unit());
+        }
+        System.out.println("* difference larger than the combined 99.9% error margins");
+    }
+
+    // Keyed by benchmark name plus its parameters, e.g. "...staticBatch[batch=32]"
+    private static Map<String, Score> read(File file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(run.get("benchmark").asText());
+            JsonNode params = run.get("params");
+            if (params != null) {
+                key.append('[');
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    key.append(field.getKey()).append('=').append(field.getValue().asText());
+                    if (fields.hasNext()) {
+                        key.append(',');
+                    }
+                }
+                key.append(']');
+            }
+            JsonNode metric = run.get("primaryMetric");
+            double error = metric.get("scoreError").isNumber() ? metric.get("scoreError").asDouble() : 0;
+            scores.put(key.toString(), new Score(metric.get("score").asDouble(), error, metric.get("scoreUnit").asText()));
+        }
+        return scores;
+    }
+}
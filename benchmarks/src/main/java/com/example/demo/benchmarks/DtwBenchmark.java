@@ -0,0 +1,87 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.inference.DistanceKernel;
+import com.example.demo.inference.DtwMatcher;
+import com.example.demo.inference.SignTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scoring one practice attempt against every reference, as PracticeScoringService does.
+ * The attempt is a time-warped, noisier replay of one reference, so pruning behaves roughly as
+ * it would for a learner imitating a sign. "best" is the vector kernel when the benchmarks
+ * were built with -Pvector-api, and the scalar one otherwise.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class DtwBenchmark {
+
+    private static final int RECORDINGS_PER_SIGN = 3;
+
+    @Param({"22", "100"})
+    public int signs;
+
+    @Param({"scalar", "best"})
+    public String kernel;
+
+    DtwMatcher matcher;
+    List<SignTemplate> templates;
+    float[] attempt;
+    int attemptFrames;
+
+    @Setup
+    public void setup() {
+        matcher = new DtwMatcher(64, 0.1, 1.5f, "scalar".equals(kernel) ? DistanceKernel.scalar() : DistanceKernel.best());
+        Random random = new Random(42);
+        templates = new ArrayList<>();
+        float[] target = null;
+        for (int s = 0; s < signs; s++) {
+            for (int r = 0; r < RECORDINGS_PER_SIGN; r++) {
+                float[] window = SyntheticLandmarks.dynamicWindow(random);
+                templates.add(matcher.prepare("sign-" + s, window, window.length / DtwMatcher.FEATURES));
+                if (target == null) {
+                    target = window;
+                }
+            }
+        }
+        attemptFrames = 60;
+        attempt = warp(target, target.length / DtwMatcher.FEATURES, attemptFrames, random);
+    }
+
+    // Replays the frames slower at the start and faster at the end, with extra jitter
+    private static float[] warp(float[] frames, int count, int length, Random random) {
+        float[] out = new float[length * DtwMatcher.FEATURES];
+        for (int i = 0; i < length; i++) {
+            double t = Math.pow(i / (double) (length - 1), 1.4) * (count - 1);
+            int source = (int) Math.round(t);
+            for (int k = 0; k < DtwMatcher.FEATURES; k++) {
+                float v = frames[source * DtwMatcher.FEATURES + k];
+                out[i * DtwMatcher.FEATURES + k] = v == 0f ? 0f : v + (float) (random.nextGaussian() * 0.005);
+            }
+        }
+        return out;
+    }
+
+    @Benchmark
+    public DtwMatcher.Result scoreAgainstAll() {
+        return matcher.match(attempt, attemptFrames, templates, "sign-0", 3);
+    }
+}
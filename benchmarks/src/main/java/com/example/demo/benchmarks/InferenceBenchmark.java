@@ -0,0 +1,116 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.inference.DynamicSignModel;
+import com.example.demo.inference.DynamicSignSession;
+import com.example.demo.inference.StaticSignModel;
+import com.example.demo.inference.WeightPrecision;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forward passes of the two TFJS models in the Java engine, on seeded random landmarks.
+ * Fails at setup if the model files are not on the classpath.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InferenceBenchmark {
+
+    @State(Scope.Thread)
+    public static class StaticInput {
+        @Param({"1", "32", "256"})
+        public int batch;
+
+        @Param({"float32", "int8"})
+        public String weights;
+
+        StaticSignModel model;
+        float[] input;
+        float[] output;
+
+        @Setup
+        public void setup() throws IOException {
+            model = StaticSignModel.load(
+                    new ClassPathResource("static/isl_static_model_tfjs/model.json"),
+                    new ClassPathResource("static/label_mapping_static.json"),
+                    WeightPrecision.parse(weights));
+            input = randomArray(new Random(42), batch * StaticSignModel.FEATURES);
+            output = new float[batch * model.classes()];
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class DynamicInput {
+        @Param({"float32", "int8"})
+        public String weights;
+
+        DynamicSignModel model;
+        DynamicSignSession session;
+        float[] window;
+        float[] output;
+        float[][] frames;
+        int nextFrame;
+
+        @Setup
+        public void setup() throws IOException {
+            model = DynamicSignModel.load(
+                    new ClassPathResource("static/isl_dynamic_model_tfjs/model.json"),
+                    new ClassPathResource("static/label_mapping_dynamic.json"),
+                    WeightPrecision.parse(weights));
+            Random random = new Random(42);
+            window = randomArray(random, DynamicSignModel.WINDOW * DynamicSignModel.FEATURES);
+            output = new float[model.classes()];
+            frames = new float[DynamicSignModel.WINDOW * 2][];
+            for (int i = 0; i < frames.length; i++) {
+                frames[i] = randomArray(random, DynamicSignModel.FEATURES);
+            }
+            // Fill the window so every pushed frame produces a prediction
+            session = model.newSession();
+            for (int i = 0; i < DynamicSignModel.WINDOW; i++) {
+                session.push(frames[i], 0);
+            }
+        }
+    }
+
+    @Benchmark
+    public float[] staticBatch(StaticInput in) {
+        in.model.predict(in.input, in.batch, in.output);
+        return in.output;
+    }
+
+    @Benchmark
+    public float[] dynamicFullWindow(DynamicInput in) {
+        in.model.predict(in.window, in.output);
+        return in.output;
+    }
+
+    @Benchmark
+    public boolean dynamicStreamingFrame(DynamicInput in) {
+        in.nextFrame = (in.nextFrame + 1) % in.frames.length;
+        return in.session.push(in.frames[in.nextFrame], 0);
+    }
+
+    static float[] randomArray(Random random, int length) {
+        float[] values = new float[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = random.nextFloat();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.model.User;
+import com.example.demo.model.UserProgress;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.LessonCatalog;
+import com.example.demo.service.LessonCompletionService;
+import com.example.demo.service.LessonCompletionService.LessonCompletionResult;
+import com.example.demo.service.UserProgressService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Progress writes through the real services and repositories on embedded H2. Users are
+ * visited round-robin and each pass moves on to the next catalog lesson, so early passes
+ * add new lessons and later ones re-complete existing ones (the common revisit case).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProgressServiceBenchmark {
+
+    private static final int USERS = 500;
+
+    private ConfigurableApplicationContext context;
+    private UserProgressService userProgressService;
+    private LessonCompletionService lessonCompletionService;
+    private long[] userIds;
+    private String[] lessonIds;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApp.start("progress");
+        userProgressService = context.getBean(UserProgressService.class);
+        lessonCompletionService = context.getBean(LessonCompletionService.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+
+        userIds = new long[USERS];
+        for (int i = 0; i < USERS; i++) {
+            User user = userRepository.save(User.builder()
+                    .name("Bench " + i)
+                    .email("bench" + i + "@example.com")
+                    .password("Passw0rd!")
+                    .build());
+            userIds[i] = user.getId();
+            userProgressService.createInitialProgress(user.getId());
+        }
+        lessonIds = context.getBean(LessonCatalog.class).modules().stream()
+                .flatMap(m -> m.lessonIds().stream())
+                .toArray(String[]::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserProgress completeLesson(Cursor cursor) {
+        int n = cursor.next++;
+        return userProgressService.completeLesson(userIds[n % USERS], lessonIds[(n / USERS) % lessonIds.length]);
+    }
+
+    @Benchmark
+    public LessonCompletionResult lessonCompletionEndpoint(Cursor cursor) {
+        int n = cursor.next++;
+        return lessonCompletionService.completeLesson(userIds[n % USERS], lessonIds[(n / USERS) % lessonIds.length], 5);
+    }
+
+    @Benchmark
+    public UserProgress updateStudyStreak(Cursor cursor) {
+        return userProgressService.updateStudyStreak(userIds[cursor.next++ % USERS]);
+    }
+
+    @Benchmark
+    public UserProgress getProgress(Cursor cursor) {
+        return userProgressService.getProgressByUserId(userIds[cursor.next++ % USERS]);
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.inference.DynamicSignModel;
+import com.example.demo.inference.DynamicSignSession;
+import com.example.demo.inference.InferenceMath;
+import com.example.demo.inference.StaticSignModel;
+import com.example.demo.inference.WeightPrecision;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Measures how far quantized models drift from the float32 engine: top-1 agreement, whether
+ * the float answer stays in the top 3, and the largest probability change, per model and
+ * variant. Variants are the server's int8 per-channel engine plus any TFJS artifacts passed
+ * in (e.g. from QuantizeModel), which are evaluated the way the browser would compute them.
+ *
+ * Fixtures are NDJSON lines {"static": [126 floats]} or {"dynamic": [[258 floats] x 45]}, e.g.
+ * landmarks recorded from the translator page. Without a file, seeded synthetic hands and
+ * motions are generated instead; those only approximate real input, so a release decision
+ * should rest on recorded fixtures.
+ *
+ * Usage: QuantizationReport [--fixtures file.ndjson] [--synthetic N] [--static model.json]... [--dynamic model.json]...
+ */
+public final class QuantizationReport {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Agreement is also reported for the inputs the float model is this sure about
+    private static final float CONFIDENT = 0.6f;
+
+    private interface Model {
+        int classes();
+
+        void predict(float[] input, float[] probabilities);
+    }
+
+    private record Variant(String name, Model model, long weightBytes) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path fixtures = null;
+        int synthetic = 2000;
+        List<String> staticArtifacts = new ArrayList<>();
+        List<String> dynamicArtifacts = new ArrayList<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--fixtures" -> fixtures = Path.of(args[i + 1]);
+                case "--synthetic" -> synthetic = Integer.parseInt(args[i + 1]);
+                case "--static" -> staticArtifacts.add(args[i + 1]);
+                case "--dynamic" -> dynamicArtifacts.add(args[i + 1]);
+                default -> {
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(2);
+                }
+            }
+        }
+
+        List<float[]> staticInputs = new ArrayList<>();
+        List<float[]> dynamicInputs = new ArrayList<>();
+        String source;
+        if (fixtures != null) {
+            readFixtures(fixtures, staticInputs, dynamicInputs);
+            source = "recorded fixtures from " + fixtures;
+        } else {
+            Random random = new Random(7);
+            for (int i = 0; i < synthetic; i++) {
+                staticInputs.add(SyntheticLandmarks.staticFrame(random));
+            }
+            for (int i = 0; i < synthetic / 4; i++) {
+                dynamicInputs.add(SyntheticLandmarks.dynamicWindow(random));
+            }
+            source = "seeded synthetic landmarks (not recorded input)";
+        }
+
+        Resource staticLabels = new ClassPathResource("static/label_mapping_static.json");
+        Resource dynamicLabels = new ClassPathResource("static/label_mapping_dynamic.json");
+        Resource staticJson = new ClassPathResource("static/isl_static_model_tfjs/model.json");
+        Resource dynamicJson = new ClassPathResource("static/isl_dynamic_model_tfjs/model.json");
+
+        List<Variant> staticVariants = new ArrayList<>();
+        staticVariants.add(staticVariant("float32", StaticSignModel.load(staticJson, staticLabels)));
+        staticVariants.add(staticVariant("int8 per-channel (server)",
+                StaticSignModel.load(staticJson, staticLabels, WeightPrecision.INT8)));
+        for (String artifact : staticArtifacts) {
+            staticVariants.add(staticVariant(artifact, StaticSignModel.load(new FileSystemResource(artifact), staticLabels)));
+        }
+        List<Variant> dynamicVariants = new ArrayList<>();
+        dynamicVariants.add(dynamicVariant("float32", DynamicSignModel.load(dynamicJson, dynamicLabels)));
+        dynamicVariants.add(dynamicVariant("int8 per-channel (server)",
+                DynamicSignModel.load(dynamicJson, dynamicLabels, WeightPrecision.INT8)));
+        for (String artifact : dynamicArtifacts) {
+            dynamicVariants.add(dynamicVariant(artifact, DynamicSignModel.load(new FileSystemResource(artifact), dynamicLabels)));
+        }
+
+        System.out.println("Inputs: " + source);
+        System.out.println();
+        System.out.println("| Model | Variant | Resident weights (KB) | Inputs | Float classes hit | Top-1 agreement "
+                + "| Agreement (float p >= " + CONFIDENT + ") | Float top-1 in top-3 | Max abs dp |");
+        System.out.println("|---|---|---|---|---|---|---|---|---|");
+        compare("static", staticVariants, staticInputs);
+        compare("dynamic", dynamicVariants, dynamicInputs);
+    }
+
+    private static Variant staticVariant(String name, StaticSignModel model) {
+        return new Variant(name, new Model() {
+            public int classes() {
+                return model.classes();
+            }
+
+            public void predict(float[] input, float[] probabilities) {
+                model.predict(input, 1, probabilities);
+            }
+        }, model.weightBytes());
+    }
+
+    // Streams the window through a session, the path the WebSocket translator uses
+    private static Variant dynamicVariant(String name, DynamicSignModel model) {
+        return new Variant(name, new Model() {
+            public int classes() {
+                return model.classes();
+            }
+
+            public void predict(float[] window, float[] probabilities) {
+                DynamicSignSession session = model.newSession();
+                float[] frame = new float[DynamicSignModel.FEATURES];
+                for (int t = 0; t < DynamicSignModel.WINDOW; t++) {
+                    System.arraycopy(window, t * DynamicSignModel.FEATURES, frame, 0, DynamicSignModel.FEATURES);
+                    session.push(frame, 0);
+                }
+                System.arraycopy(session.probabilities(), 0, probabilities, 0, model.classes());
+            }
+        }, model.weightBytes());
+    }
+
+    private static void compare(String modelName, List<Variant> variants, List<float[]> inputs) {
+        if (inputs.isEmpty()) {
+            return;
+        }
+        Variant reference = variants.get(0);
+        int classes = reference.model().classes();
+        float[][] expected = new float[inputs.size()][classes];
+        Set<Integer> hit = new HashSet<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            reference.model().predict(inputs.get(i), expected[i]);
+            hit.add(InferenceMath.argMax(expected[i], 0, classes));
+        }
+
+        float[] actual = new float[classes];
+        for (Variant variant : variants) {
+            int agree = 0;
+            int confident = 0;
+            int confidentAgree = 0;
+            int inTop3 = 0;
+            float maxDelta = 0f;
+            for (int i = 0; i < inputs.size(); i++) {
+                variant.model().predict(inputs.get(i), actual);
+                int want = InferenceMath.argMax(expected[i], 0, classes);
+                int got = InferenceMath.argMax(actual, 0, classes);
+                agree += want == got ? 1 : 0;
+                if (expected[i][want] >= CONFIDENT) {
+                    confident++;
+                    confidentAgree += want == got ? 1 : 0;
+                }
+                inTop3 += rank(actual, want) < 3 ? 1 : 0;
+                for (int c = 0; c < classes; c++) {
+                    maxDelta = Math.max(maxDelta, Math.abs(actual[c] - expected[i][c]));
+                }
+            }
+            System.out.printf("| %s | %s | %.0f | %d | %d / %d | %.2f%% | %s | %.2f%% | %.4f |%n", modelName, variant.name(),
+                    variant.weightBytes() / 1024.0, inputs.size(), hit.size(), classes, 100.0 * agree / inputs.size(),
+                    confident == 0 ? "-" : String.format("%.2f%% of %d", 100.0 * confidentAgree / confident, confident),
+                    100.0 * inTop3 / inputs.size(), maxDelta);
+        }
+    }
+
+    private static int rank(float[] probabilities, int index) {
+        int rank = 0;
+        for (float p : probabilities) {
+            rank += p > probabilities[index] ? 1 : 0;
+        }
+        return rank;
+    }
+
+    private static void readFixtures(Path file, List<float[]> staticInputs, List<float[]> dynamicInputs) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node = MAPPER.readTree(line);
+                if (node.has("static")) {
+                    staticInputs.add(MAPPER.convertValue(node.get("static"), float[].class));
+                } else if (node.has("dynamic")) {
+                    float[][] frames = MAPPER.convertValue(node.get("dynamic"), float[][].class);
+                    float[] window = new float[DynamicSignModel.WINDOW * DynamicSignModel.FEATURES];
+                    for (int t = 0; t < DynamicSignModel.WINDOW; t++) {
+                        System.arraycopy(frames[t], 0, window, t * DynamicSignModel.FEATURES, DynamicSignModel.FEATURES);
+                    }
+                    dynamicInputs.add(window);
+                }
+            }
+        }
+    }
+}
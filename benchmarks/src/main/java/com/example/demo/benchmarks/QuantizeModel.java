@@ -0,0 +1,123 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.inference.InferenceMath;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes a quantized copy of a TFJS graph model in the converter's own formats, so
+ * browsers load it with the stock tf.loadGraphModel and the server with TfjsModelLoader:
+ * uint8 stores each float tensor as bytes with one affine (min, scale) pair per tensor,
+ * float16 as half floats. int32 tensors are copied unchanged.
+ *
+ * Usage: QuantizeModel path/to/model.json output-dir uint8|float16
+ */
+public final class QuantizeModel {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String SHARD = "group1-shard1of1.bin";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3 || !(args[2].equals("uint8") || args[2].equals("float16"))) {
+            System.err.println("Usage: QuantizeModel path/to/model.json output-dir uint8|float16");
+            System.exit(2);
+        }
+        Path modelJson = Path.of(args[0]);
+        Path outDir = Path.of(args[1]);
+        String dtype = args[2];
+
+        ObjectNode root = (ObjectNode) MAPPER.readTree(modelJson.toFile());
+        ByteArrayOutputStream shard = new ByteArrayOutputStream();
+        ArrayNode entries = MAPPER.createArrayNode();
+        for (JsonNode group : root.path("weightsManifest")) {
+            ByteBuffer buffer = readGroup(modelJson.getParent(), group.path("paths"));
+            for (JsonNode weight : group.path("weights")) {
+                ObjectNode entry = ((ObjectNode) weight).deepCopy();
+                int count = 1;
+                for (JsonNode dim : weight.path("shape")) {
+                    count *= dim.asInt();
+                }
+                if (weight.has("quantization")) {
+                    throw new IOException(weight.path("name").asText() + " is already quantized");
+                }
+                if ("float32".equals(weight.path("dtype").asText())) {
+                    float[] values = new float[count];
+                    buffer.asFloatBuffer().get(values);
+                    buffer.position(buffer.position() + count * Float.BYTES);
+                    entry.set("quantization", dtype.equals("uint8") ? writeUint8(values, shard) : writeFloat16(values, shard));
+                } else {
+                    byte[] raw = new byte[count * 4]; // int32
+                    buffer.get(raw);
+                    shard.write(raw);
+                }
+                entries.add(entry);
+            }
+        }
+
+        ObjectNode group = MAPPER.createObjectNode();
+        group.putArray("paths").add(SHARD);
+        group.set("weights", entries);
+        root.putArray("weightsManifest").add(group);
+
+        Files.createDirectories(outDir);
+        Files.write(outDir.resolve(SHARD), shard.toByteArray());
+        MAPPER.writeValue(outDir.resolve("model.json").toFile(), root);
+        long before = Files.size(modelJson.getParent().resolve(SHARD));
+        System.out.printf("Wrote %s: %d -> %d weight bytes (%.1fx smaller)%n", outDir.resolve("model.json"),
+                before, shard.size(), (double) before / shard.size());
+    }
+
+    /**
+     * Affine uint8 with the range nudged so that 0 is exactly representable, as the TFJS
+     * converter does (ReLU zeros and zero padding stay exact).
+     */
+    private static ObjectNode writeUint8(float[] values, ByteArrayOutputStream out) {
+        float min = 0f;
+        float max = 0f;
+        for (float v : values) {
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        float scale = max > min ? (max - min) / 255f : 1f;
+        int zeroPoint = Math.round(-min / scale);
+        float nudgedMin = -zeroPoint * scale;
+        for (float v : values) {
+            out.write(Math.max(0, Math.min(255, Math.round((v - nudgedMin) / scale))));
+        }
+        ObjectNode quantization = MAPPER.createObjectNode();
+        quantization.put("dtype", "uint8");
+        quantization.put("min", nudgedMin);
+        quantization.put("scale", scale);
+        quantization.put("original_dtype", "float32");
+        return quantization;
+    }
+
+    private static ObjectNode writeFloat16(float[] values, ByteArrayOutputStream out) {
+        ByteBuffer halves = ByteBuffer.allocate(values.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+        for (float v : values) {
+            halves.putShort(InferenceMath.floatToHalf(v));
+        }
+        out.writeBytes(halves.array());
+        ObjectNode quantization = MAPPER.createObjectNode();
+        quantization.put("dtype", "float16");
+        quantization.put("original_dtype", "float32");
+        return quantization;
+    }
+
+    private static ByteBuffer readGroup(Path dir, JsonNode paths) throws IOException {
+        ByteArrayOutputStream all = new ByteArrayOutputStream();
+        for (JsonNode path : paths) {
+            all.writeBytes(Files.readAllBytes(dir.resolve(path.asText())));
+        }
+        return ByteBuffer.wrap(all.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.model.User;
+import com.example.demo.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserService.registerUser: a full registration (validation, duplicate check, insert) and
+ * a rejected one that fails on the last password rule, which isolates the validation cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegistrationBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+
+    @State(Scope.Thread)
+    public static class Counter {
+        long next;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkApp.start("registration");
+        userService = context.getBean(UserService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public User register(Counter counter) {
+        long n = counter.next++;
+        return userService.registerUser(User.builder()
+                .name("Learner " + n)
+                .email("learner" + Thread.currentThread().getId() + "x" + n + "@example.com")
+                .password("Passw0rd!")
+                .build());
+    }
+
+    @Benchmark
+    public Object rejectWeakPassword() {
+        try {
+            return userService.registerUser(User.builder()
+                    .name("Learner")
+                    .email("learner@example.com")
+                    .password("Password123")
+                    .build());
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.model.Achievement;
+import com.example.demo.model.AchievementMetric;
+import com.example.demo.model.UserProgress;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the dashboard payloads, with the ObjectMapper configured the
+ * way Spring MVC builds it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Set<Achievement> achievements;
+
+    // Only the progress payload depends on how many lessons were completed
+    @State(Scope.Benchmark)
+    public static class Progress {
+        @Param({"6", "100"})
+        public int completedLessons;
+
+        UserProgress progress;
+
+        @Setup
+        public void setup() {
+            Set<String> lessons = new HashSet<>();
+            for (int i = 0; i < completedLessons; i++) {
+                lessons.add("lesson-" + i);
+            }
+            progress = UserProgress.builder()
+                    .id(1L)
+                    .lessonsCompleted(completedLessons)
+                    .studyStreak(12)
+                    .totalStudyTime(840)
+                    .completedLessons(lessons)
+                    .lastStudiedDate(new Date())
+                    .build();
+        }
+    }
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        achievements = new HashSet<>();
+        for (long id = 1; id <= 8; id++) {
+            achievements.add(Achievement.builder()
+                    .id(id)
+                    .name("Achievement " + id)
+                    .description("Reach milestone number " + id + ".")
+                    .icon("fa-star")
+                    .metric(AchievementMetric.LESSONS_COMPLETED)
+                    .threshold((int) id)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public byte[] progress(Progress state) throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(state.progress);
+    }
+
+    @Benchmark
+    public byte[] achievements() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(achievements);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.inference.DynamicSignModel;
+import com.example.demo.inference.StaticSignModel;
+
+import java.util.Random;
+
+/**
+ * Seeded stand-ins for MediaPipe output in normalized image coordinates: hands built from a
+ * wrist, five fingers with random spread and curl, and a roughly upright pose. Closer to the
+ * models' input distribution than uniform noise, but not a substitute for recorded landmarks.
+ */
+final class SyntheticLandmarks {
+
+    private static final int HAND = 63;
+    private static final int POSE = 33 * 4;
+
+    // Base direction of each finger relative to the hand axis, thumb first
+    private static final double[] SPREAD = {-0.9, -0.3, 0.0, 0.25, 0.5};
+    private static final double[] SEGMENT = {0.35, 0.25, 0.2, 0.17};
+
+    private SyntheticLandmarks() {
+    }
+
+    // Right hand first, then left, as the translator page sends them
+    static float[] staticFrame(Random random) {
+        float[] frame = new float[StaticSignModel.FEATURES];
+        double presence = random.nextDouble();
+        if (presence < 0.8) {
+            hand(randomHand(random), frame, 0);
+        }
+        if (presence > 0.5) {
+            hand(randomHand(random), frame, HAND);
+        }
+        return frame;
+    }
+
+    /**
+     * A window in which the hands move and re-shape linearly between two random poses, with
+     * per-frame jitter; pose, then left hand, then right hand per frame.
+     */
+    static float[] dynamicWindow(Random random) {
+        float[] window = new float[DynamicSignModel.WINDOW * DynamicSignModel.FEATURES];
+        float[] pose = new float[POSE];
+        for (int i = 0; i < 33; i++) {
+            pose[i * 4] = (float) (0.5 + (random.nextDouble() - 0.5) * 0.35);
+            pose[i * 4 + 1] = (float) (0.2 + i / 33.0 * 0.7 + random.nextGaussian() * 0.03);
+            pose[i * 4 + 2] = (float) (random.nextGaussian() * 0.2);
+            pose[i * 4 + 3] = (float) (0.5 + random.nextDouble() * 0.5);
+        }
+        double[] leftFrom = randomHand(random);
+        double[] leftTo = randomHand(random);
+        double[] rightFrom = randomHand(random);
+        double[] rightTo = randomHand(random);
+        boolean leftVisible = random.nextDouble() < 0.6;
+        for (int t = 0; t < DynamicSignModel.WINDOW; t++) {
+            int base = t * DynamicSignModel.FEATURES;
+            for (int i = 0; i < POSE; i++) {
+                window[base + i] = pose[i] + (float) (random.nextGaussian() * 0.003);
+            }
+            double f = t / (double) (DynamicSignModel.WINDOW - 1);
+            if (leftVisible) {
+                hand(jitter(lerp(leftFrom, leftTo, f), random), window, base + POSE);
+            }
+            hand(jitter(lerp(rightFrom, rightTo, f), random), window, base + POSE + HAND);
+        }
+        return window;
+    }
+
+    // Parameters: wrist x, y, hand size, rotation, then a curl per finger
+    private static double[] randomHand(Random random) {
+        double[] p = new double[9];
+        p[0] = 0.25 + random.nextDouble() * 0.5;
+        p[1] = 0.3 + random.nextDouble() * 0.5;
+        p[2] = 0.12 + random.nextDouble() * 0.12;
+        p[3] = -Math.PI / 2 + random.nextGaussian() * 0.5;
+        for (int finger = 0; finger < 5; finger++) {
+            p[4 + finger] = random.nextDouble() * 1.6;
+        }
+        return p;
+    }
+
+    private static void hand(double[] p, float[] out, int offset) {
+        out[offset] = (float) p[0];
+        out[offset + 1] = (float) p[1];
+        out[offset + 2] = 0f; // MediaPipe reports wrist depth as 0
+        for (int finger = 0; finger < 5; finger++) {
+            double angle = p[3] + SPREAD[finger];
+            double x = p[0];
+            double y = p[1];
+            for (int joint = 0; joint < 4; joint++) {
+                if (joint > 0) {
+                    angle += p[4 + finger] / 3; // the curl is spread over the three finger joints
+                }
+                x += Math.cos(angle) * p[2] * SEGMENT[joint];
+                y += Math.sin(angle) * p[2] * SEGMENT[joint];
+                int landmark = 1 + finger * 4 + joint;
+                out[offset + landmark * 3] = (float) x;
+                out[offset + landmark * 3 + 1] = (float) y;
+                out[offset + landmark * 3 + 2] = (float) (-0.01 * (joint + 1) * (1 + p[4 + finger]));
+            }
+        }
+    }
+
+    private static double[] lerp(double[] from, double[] to, double f) {
+        double[] p = new double[from.length];
+        for (int i = 0; i < p.length; i++) {
+            p[i] = from[i] + (to[i] - from[i]) * f;
+        }
+        return p;
+    }
+
+    private static double[] jitter(double[] p, Random random) {
+        for (int i = 0; i < p.length; i++) {
+            p[i] += random.nextGaussian() * (i < 2 ? 0.002 : 0.01);
+        }
+        return p;
+    }
+}
@@ -0,0 +1,105 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replays a class-start burst against a running server: every simulated learner starts at
+ * the same moment and loads the dashboard (progress + achievements), then sends study-time
+ * heartbeats. Prints throughput, latency percentiles and failures for one run.
+ *
+ * Usage: java docs/loadtest/ClassStartBurst.java [baseUrl] [learners] [heartbeats] [firstUserId] [userCount]
+ */
+public class ClassStartBurst {
+
+    public static void main(String[] args) throws Exception {
+        String base = args.length > 0 ? args[0] : "http://localhost:8080";
+        int learners = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int heartbeats = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        long firstUserId = args.length > 3 ? Long.parseLong(args[3]) : 1;
+        int userCount = args.length > 4 ? Integer.parseInt(args[4]) : 100;
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        ExecutorService pool = Executors.newFixedThreadPool(learners);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(learners);
+        long[][] latencies = new long[learners][];
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger timeouts = new AtomicInteger();
+
+        for (int i = 0; i < learners; i++) {
+            int learner = i;
+            long userId = firstUserId + (i % userCount);
+            pool.execute(() -> {
+                List<Long> own = new ArrayList<>();
+                try {
+                    start.await();
+                    send(client, get(base + "/api/progress/" + userId), own, failures, timeouts);
+                    send(client, get(base + "/api/achievements/" + userId), own, failures, timeouts);
+                    for (int h = 0; h < heartbeats; h++) {
+                        HttpRequest heartbeat = HttpRequest.newBuilder(URI.create(base + "/api/progress/add-study-time/" + userId))
+                                .timeout(Duration.ofSeconds(10))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString("1"))
+                                .build();
+                        send(client, heartbeat, own, failures, timeouts);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    latencies[learner] = own.stream().mapToLong(Long::longValue).toArray();
+                    done.countDown();
+                }
+            });
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        done.await();
+        double seconds = (System.nanoTime() - began) / 1e9;
+        pool.shutdown();
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("requests=%d failures=%d timeouts=%d wall=%.2fs throughput=%.0f req/s%n",
+                all.length + failures.get(), failures.get(), timeouts.get(), seconds, all.length / seconds);
+        System.out.printf("latency ms p50=%.1f p95=%.1f p99=%.1f max=%.1f%n",
+                pct(all, 0.50), pct(all, 0.95), pct(all, 0.99), all.length > 0 ? all[all.length - 1] / 1e6 : 0);
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(10)).GET().build();
+    }
+
+    // Records the latency of successful calls; errors and timeouts are only counted
+    private static void send(HttpClient client, HttpRequest request, List<Long> latencies,
+                             AtomicInteger failures, AtomicInteger timeouts) {
+        long t0 = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 400) {
+                failures.incrementAndGet();
+            } else {
+                latencies.add(System.nanoTime() - t0);
+            }
+        } catch (java.net.http.HttpTimeoutException e) {
+            timeouts.incrementAndGet();
+        } catch (Exception e) {
+            failures.incrementAndGet();
+        }
+    }
+
+    private static double pct(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+}
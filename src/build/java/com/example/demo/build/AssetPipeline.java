@@ -0,0 +1,224 @@
+package com.example.demo.build;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Build step (run by Maven in process-classes, see pom.xml) that fingerprints the static
+ * scripts, styles, data and TFJS models: each file gets a content-hashed copy under
+ * static/assets/ with precompressed .gz (and .br when a brotli CLI is on the PATH)
+ * variants, listed in static/asset-manifest.json. Model weight paths inside model.json
+ * and the script/style references in every HTML page are rewritten to the hashed names,
+ * so everything they point at can be cached as immutable. Maven launches it from source
+ * (single-file mode), so it is never compiled into the application jar.
+ *
+ * Usage: AssetPipeline sourceStaticDir outputStaticDir
+ */
+public final class AssetPipeline {
+
+    public static final String ASSETS_DIR = "assets";
+    public static final String MANIFEST = "asset-manifest.json";
+
+    // Paths under static/ that get fingerprinted
+    private static final List<String> INCLUDE = List.of("js/", "styles/", "data/",
+            "isl_static_model_tfjs/", "isl_dynamic_model_tfjs/", "label_mapping_");
+
+    // Compressed variants are only kept when they save at least this fraction (model weights barely compress)
+    private static final double MIN_SAVING = 0.05;
+
+    private static final Pattern REFERENCE = Pattern.compile("(src|href)=\"/?([^\"?#:]+)\"");
+
+    private final Path source;
+    private final Path output;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, String> manifest = new TreeMap<>();
+    private final boolean brotli = brotliAvailable();
+    private long originalBytes;
+    private long gzipBytes;
+
+    private AssetPipeline(Path source, Path output) {
+        this.source = source;
+        this.output = output;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: AssetPipeline sourceStaticDir outputStaticDir");
+        }
+        new AssetPipeline(Path.of(args[0]), Path.of(args[1])).run();
+    }
+
+    private void run() throws IOException {
+        Path assets = output.resolve(ASSETS_DIR);
+        if (Files.exists(assets)) {
+            try (Stream<Path> stale = Files.walk(assets)) {
+                for (Path path : stale.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+
+        List<String> files = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(source)) {
+            walk.filter(Files::isRegularFile)
+                    .map(path -> source.relativize(path).toString().replace('\\', '/'))
+                    .filter(path -> INCLUDE.stream().anyMatch(path::startsWith))
+                    .sorted()
+                    .forEach(files::add);
+        }
+        // model.json refers to its weight shards, so the shards are hashed first
+        for (String path : files) {
+            if (!path.endsWith("/model.json")) {
+                fingerprint(path, Files.readAllBytes(source.resolve(path)));
+            }
+        }
+        for (String path : files) {
+            if (path.endsWith("/model.json")) {
+                fingerprint(path, rewriteWeightPaths(path));
+            }
+        }
+
+        Files.write(output.resolve(MANIFEST), objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(manifest));
+        List<String> pages = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(source)) {
+            walk.filter(Files::isRegularFile)
+                    .map(path -> source.relativize(path).toString().replace('\\', '/'))
+                    .filter(path -> path.endsWith(".html") && !path.startsWith(ASSETS_DIR + "/"))
+                    .sorted()
+                    .forEach(pages::add);
+        }
+        for (String page : pages) {
+            Path target = output.resolve(page);
+            Files.createDirectories(target.getParent());
+            Files.writeString(target, rewriteReferences(page, Files.readString(source.resolve(page))));
+        }
+        System.out.printf("Asset pipeline: %d files, %d pages, %d KB -> %d KB gzipped%s%n", manifest.size(),
+                pages.size(), originalBytes / 1024, gzipBytes / 1024, brotli ? " (+ brotli)" : " (brotli CLI not found, .br skipped)");
+    }
+
+    private void fingerprint(String path, byte[] content) throws IOException {
+        int slash = path.lastIndexOf('/');
+        int dot = path.lastIndexOf('.');
+        String hash = hash(content);
+        String hashed = dot > slash
+                ? path.substring(0, dot) + "." + hash + path.substring(dot)
+                : path + "." + hash;
+        Path target = output.resolve(ASSETS_DIR).resolve(hashed);
+        Files.createDirectories(target.getParent());
+        Files.write(target, content);
+
+        byte[] gzip = gzip(content);
+        originalBytes += content.length;
+        if (gzip.length <= content.length * (1 - MIN_SAVING)) {
+            Files.write(Path.of(target + ".gz"), gzip);
+            gzipBytes += gzip.length;
+        } else {
+            gzipBytes += content.length;
+        }
+        if (brotli) {
+            compressWithBrotli(target, content.length);
+        }
+        manifest.put(path, ASSETS_DIR + "/" + hashed);
+    }
+
+    // Points weightsManifest[].paths at the hashed shard names (paths are relative to model.json)
+    private byte[] rewriteWeightPaths(String modelPath) throws IOException {
+        String dir = modelPath.substring(0, modelPath.lastIndexOf('/') + 1);
+        JsonNode model = objectMapper.readTree(source.resolve(modelPath).toFile());
+        for (JsonNode group : model.path("weightsManifest")) {
+            ArrayNode paths = (ArrayNode) group.path("paths");
+            for (int i = 0; i < paths.size(); i++) {
+                String hashed = manifest.get(dir + paths.get(i).asText());
+                if (hashed != null) {
+                    paths.set(i, hashed.substring(hashed.lastIndexOf('/') + 1));
+                }
+            }
+        }
+        return objectMapper.writeValueAsBytes(model);
+    }
+
+    // Relative references resolve against the page's directory; pages below the root get root-absolute links
+    private String rewriteReferences(String page, String html) {
+        String dir = page.substring(0, page.lastIndexOf('/') + 1);
+        Matcher matcher = REFERENCE.matcher(html);
+        StringBuilder out = new StringBuilder();
+        while (matcher.find()) {
+            boolean absolute = matcher.group().contains("=\"/");
+            String path = absolute ? matcher.group(2) : Path.of(dir + matcher.group(2)).normalize().toString().replace('\\', '/');
+            String hashed = manifest.get(path);
+            String prefix = absolute || !dir.isEmpty() ? "/" : "";
+            String replacement = hashed == null ? matcher.group() : matcher.group(1) + "=\"" + prefix + hashed + "\"";
+            matcher.appendReplacement(out, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(out);
+        return out.toString();
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return HexFormat.of().formatHex(digest, 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 3 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {{ def.setLevel(Deflater.BEST_COMPRESSION); }}) {
+            gzip.write(content);
+        }
+        return out.toByteArray();
+    }
+
+    private void compressWithBrotli(Path target, long originalLength) throws IOException {
+        Path br = Path.of(target + ".br");
+        try {
+            Process process = new ProcessBuilder("brotli", "-q", "11", "-f", "-o", br.toString(), target.toString())
+                    .inheritIO().start();
+            if (!process.waitFor(2, TimeUnit.MINUTES) || process.exitValue() != 0) {
+                throw new IOException("brotli failed for " + target);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        if (Files.size(br) > originalLength * (1 - MIN_SAVING)) {
+            Files.delete(br);
+        }
+    }
+
+    private static boolean brotliAvailable() {
+        try {
+            Process process = new ProcessBuilder("brotli", "--version").redirectErrorStream(true).start();
+            process.getInputStream().readAllBytes();
+            return process.waitFor(10, TimeUnit.SECONDS) && process.exitValue() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
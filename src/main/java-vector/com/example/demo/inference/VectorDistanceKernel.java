@@ -0,0 +1,60 @@
+package com.example.demo.inference;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link DistanceKernel} on the incubating Vector API, at the widest float shape the CPU
+ * supports. Only compiled by the vector-api profile; loaded reflectively by
+ * {@link DistanceKernel#best()}, which falls back to the scalar kernel when the module is
+ * missing at runtime.
+ */
+final class VectorDistanceKernel implements DistanceKernel {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public float squared(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int k = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; k < bound; k += SPECIES.length()) {
+            FloatVector d = FloatVector.fromArray(SPECIES, a, aOffset + k)
+                    .sub(FloatVector.fromArray(SPECIES, b, bOffset + k));
+            acc = d.fma(d, acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; k < length; k++) {
+            float d = a[aOffset + k] - b[bOffset + k];
+            sum += d * d;
+        }
+        return sum;
+    }
+
+    @Override
+    public float envelopeGap(float[] q, int qOffset, float[] upper, float[] lower, int offset, int length) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        FloatVector zero = FloatVector.zero(SPECIES);
+        int k = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; k < bound; k += SPECIES.length()) {
+            FloatVector v = FloatVector.fromArray(SPECIES, q, qOffset + k);
+            FloatVector above = v.sub(FloatVector.fromArray(SPECIES, upper, offset + k));
+            FloatVector below = FloatVector.fromArray(SPECIES, lower, offset + k).sub(v);
+            FloatVector d = above.max(below).max(zero);
+            acc = d.fma(d, acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; k < length; k++) {
+            float d = ScalarDistanceKernel.gap(q[qOffset + k], upper[offset + k], lower[offset + k]);
+            sum += d * d;
+        }
+        return sum;
+    }
+
+    @Override
+    public String name() {
+        return "vector (" + SPECIES.length() + " lanes)";
+    }
+}
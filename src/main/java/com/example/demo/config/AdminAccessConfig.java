@@ -0,0 +1,29 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Set;
+
+// Endpoints for staff and operators rather than learners; see AdminAccessInterceptor
+@Configuration
+public class AdminAccessConfig implements WebMvcConfigurer {
+
+    @Value("${admin.api-token:}")
+    private String token;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Bulk account creation and the progress export (names and emails of every learner)
+        registry.addInterceptor(new AdminAccessInterceptor(token, Set.of()))
+                .addPathPatterns("/api/roster/**");
+        // Activate, rollback and traffic split; the status and the browsers' manifest stay public
+        registry.addInterceptor(new AdminAccessInterceptor(token, Set.of("POST", "PUT")))
+                .addPathPatterns("/api/models/**");
+        // Adding and deleting practice references; listing them and scoring attempts stay public
+        registry.addInterceptor(new AdminAccessInterceptor(token, Set.of("POST", "DELETE")))
+                .addPathPatterns("/api/practice/references/**");
+    }
+}
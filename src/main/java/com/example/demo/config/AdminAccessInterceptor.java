@@ -0,0 +1,48 @@
+package com.example.demo.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Set;
+
+/**
+ * Lets a request through only with an {@code X-Admin-Token} header matching
+ * {@code admin.api-token}. Without a configured token the guarded endpoints are disabled.
+ * Only the given methods are guarded; an empty set guards them all.
+ */
+public class AdminAccessInterceptor implements HandlerInterceptor {
+
+    public static final String HEADER = "X-Admin-Token";
+
+    private final byte[] token;
+    private final Set<String> methods;
+
+    public AdminAccessInterceptor(String token, Set<String> methods) {
+        this.token = token == null || token.isBlank() ? null : token.getBytes(StandardCharsets.UTF_8);
+        this.methods = methods;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (CorsUtils.isPreFlightRequest(request) || !methods.isEmpty() && !methods.contains(request.getMethod())) {
+            return true;
+        }
+        if (token == null) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "Admin endpoints are disabled (admin.api-token is not set)");
+            return false;
+        }
+        String given = request.getHeader(HEADER);
+        // Constant time, so the token can't be guessed a byte at a time
+        if (given == null || !MessageDigest.isEqual(token, given.getBytes(StandardCharsets.UTF_8))) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Missing or wrong " + HEADER + " header");
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.demo.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Bounded Caffeine caches for the dashboard reads; stats are recorded for the Actuator cache metrics
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PROGRESS = "progress";
+    public static final String ACHIEVEMENTS = "achievements";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${cache.progress.spec:maximumSize=10000,expireAfterWrite=10m}") String progressSpec,
+            @Value("${cache.achievements.spec:maximumSize=10000,expireAfterWrite=5m}") String achievementsSpec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(PROGRESS, Caffeine.from(progressSpec).recordStats().build());
+        cacheManager.registerCustomCache(ACHIEVEMENTS, Caffeine.from(achievementsSpec).recordStats().build());
+        // Puts and evictions made inside a transaction are applied after it commits
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -1,10 +1,24 @@
 package com.example.demo.config;
 
 import com.example.demo.model.Achievement;
+import com.example.demo.model.AchievementMetric;
+import com.example.demo.model.UserProgress;
 import com.example.demo.repository.AchievementRepository;
+import com.example.demo.service.AchievementRuleIndex;
+import com.example.demo.service.CatalogService;
+import com.example.demo.service.LeaderboardService;
+import com.example.demo.service.LessonOrdinals;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Component
@@ -13,23 +27,93 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private AchievementRepository achievementRepository;
 
+    @Autowired
+    private AchievementRuleIndex achievementRuleIndex;
+
+    @Autowired
+    private LessonOrdinals lessonOrdinals;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Override
     public void run(String... args) throws Exception {
         System.out.println("Checking and initializing achievements...");
 
         // Use a helper method to avoid repetition
-        createAchievementIfNotExists("First Steps", "Complete your first lesson.", "fa-shoe-prints");
-        createAchievementIfNotExists("Quick Learner", "Complete 5 lessons.", "fa-graduation-cap");
-        createAchievementIfNotExists("Consistent Coder", "Maintain a 3-day study streak.", "fa-calendar-check");
+        createAchievementIfNotExists("First Steps", "Complete your first lesson.", "fa-shoe-prints",
+                AchievementMetric.LESSONS_COMPLETED, 1, null);
+        createAchievementIfNotExists("Quick Learner", "Complete 5 lessons.", "fa-graduation-cap",
+                AchievementMetric.LESSONS_COMPLETED, 5, null);
+        createAchievementIfNotExists("Consistent Coder", "Maintain a 3-day study streak.", "fa-calendar-check",
+                AchievementMetric.STUDY_STREAK, 3, null);
+        createAchievementIfNotExists("Week Warrior", "Maintain a 7-day study streak.", "fa-fire",
+                AchievementMetric.STUDY_STREAK, 7, null);
+        createAchievementIfNotExists("Dedicated Learner", "Study for a total of 60 minutes.", "fa-hourglass-half",
+                AchievementMetric.STUDY_TIME, 60, null);
+        // A null threshold means every lesson in the module
+        createAchievementIfNotExists("Basics Mastered", "Complete every lesson in ISL Basics.", "fa-hands",
+                AchievementMetric.MODULE_LESSONS, null, "basics");
+        createAchievementIfNotExists("Conversationalist", "Complete every lesson in Everyday Communication.", "fa-comments",
+                AchievementMetric.MODULE_LESSONS, null, "everyday-communication");
+        createAchievementIfNotExists("Number Cruncher", "Complete every lesson in Numbers.", "fa-calculator",
+                AchievementMetric.MODULE_LESSONS, null, "numbers-math");
 
+        // Compile the rules once; awarding never queries the achievements table again
+        achievementRuleIndex.reload();
         System.out.println("Achievements initialized successfully.");
+
+        lessonOrdinals.reload();
+        migrateCompletedLessons();
+        catalogService.publish();
+        leaderboardService.reload();
+    }
+
+    /**
+     * Folds the rows of the old user_completed_lessons table into the completed-lessons
+     * bitset. Only progress rows without a bitset are touched, so this runs once per row;
+     * the old table is left in place and can be dropped once the migration has run.
+     */
+    private void migrateCompletedLessons() {
+        Map<Long, List<String>> legacy = new HashMap<>();
+        try {
+            jdbcTemplate.query("SELECT c.progress_id, c.lesson_id FROM user_completed_lessons c "
+                            + "JOIN user_progress p ON p.id = c.progress_id WHERE p.completed_lessons_bits IS NULL",
+                    (RowCallbackHandler) rs -> legacy.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(rs.getString(2)));
+        } catch (BadSqlGrammarException e) {
+            // Schema created after the switch to bitsets; nothing to migrate
+        }
+
+        if (!legacy.isEmpty()) {
+            // Lessons no longer in the catalog still get an ordinal so their completion is kept
+            lessonOrdinals.register(legacy.values().stream().flatMap(List::stream).filter(Objects::nonNull).toList());
+            List<Object[]> args = new ArrayList<>();
+            legacy.forEach((progressId, lessonIds) -> {
+                UserProgress progress = new UserProgress();
+                lessonIds.stream().filter(Objects::nonNull)
+                        .forEach(lessonId -> progress.completeLesson(lessonOrdinals.ordinalOf(lessonId)));
+                args.add(new Object[]{progress.getCompletedLessonsBits(), progress.getLessonsCompleted(), progressId});
+            });
+            jdbcTemplate.batchUpdate("UPDATE user_progress SET completed_lessons_bits = ?, lessons_completed = ? "
+                    + "WHERE id = ? AND completed_lessons_bits IS NULL", args);
+            System.out.println(" -> Migrated completed lessons of " + legacy.size() + " learners to bitsets");
+        }
+        jdbcTemplate.update("UPDATE user_progress SET completed_lessons_bits = ? WHERE completed_lessons_bits IS NULL",
+                (Object) new byte[0]);
     }
 
     /**
      * Helper method to check if an achievement with a given name exists,
      * and create it if it doesn't. This lets the database handle the ID.
      */
-    private void createAchievementIfNotExists(String name, String description, String icon) {
+    private void createAchievementIfNotExists(String name, String description, String icon,
+                                              AchievementMetric metric, Integer threshold, String moduleId) {
         // Find by name to prevent creating duplicates on every restart
         Optional<Achievement> existingAchievement = achievementRepository.findByName(name);
         if (existingAchievement.isEmpty()) {
@@ -37,9 +121,19 @@ public class DataInitializer implements CommandLineRunner {
                 .name(name)
                 .description(description)
                 .icon(icon)
+                .metric(metric)
+                .threshold(threshold)
+                .moduleId(moduleId)
                 .build();
             achievementRepository.save(newAchievement);
             System.out.println(" -> Created achievement: " + name);
+        } else if (existingAchievement.get().getMetric() == null) {
+            // Rows created before achievements carried their rule
+            Achievement achievement = existingAchievement.get();
+            achievement.setMetric(metric);
+            achievement.setThreshold(threshold);
+            achievement.setModuleId(moduleId);
+            achievementRepository.save(achievement);
         }
     }
 }
\ No newline at end of file
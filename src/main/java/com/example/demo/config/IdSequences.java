@@ -0,0 +1,57 @@
+package com.example.demo.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.sequence.SequenceSupport;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves the pooled id sequences of users, user_progress and achievements past the ids
+ * already in their tables. Those tables used IDENTITY before, and a newly created sequence
+ * (on MySQL a one-row table emulating it) starts at 1, so it would hand out taken ids.
+ * Runs before the web server starts taking requests.
+ */
+@Slf4j
+@Component
+public class IdSequences {
+
+    // Matches allocationSize on the entities' @SequenceGenerator
+    static final int ALLOCATION_SIZE = 50;
+
+    private static final Map<String, String> TABLES = Map.of(
+            "users_seq", "users",
+            "user_progress_seq", "user_progress",
+            "achievements_seq", "achievements");
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory; // the schema update has run once it exists
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void align() {
+        SequenceSupport sequences = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport();
+        TABLES.forEach((sequence, table) -> {
+            long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            // The pooled optimizer hands out the block ending at the value it reads
+            long floor = maxId + ALLOCATION_SIZE;
+            if (sequences.supportsSequences()) {
+                Long next = jdbcTemplate.queryForObject(sequences.getSequenceNextValString(sequence), Long.class);
+                if (next != null && next < floor) {
+                    jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + floor);
+                    log.info("Restarted {} at {} (max id in {} is {})", sequence, floor, table, maxId);
+                }
+            } else if (jdbcTemplate.update("UPDATE " + sequence + " SET next_val = ? WHERE next_val < ?", floor, floor) > 0) {
+                log.info("Moved {} to {} (max id in {} is {})", sequence, floor, table, maxId);
+            }
+        });
+    }
+}
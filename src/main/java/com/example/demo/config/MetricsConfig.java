@@ -0,0 +1,58 @@
+package com.example.demo.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Metrics scraped from /actuator/prometheus: latency histograms for the REST API and the
+ * connection pool, @Timed service methods, and JDBC statement counts per request.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // Backs the class-level @Timed on the progress and achievement services
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    // Histogram buckets only for /api routes and pool waits; static files would add series nobody reads
+    @Bean
+    public MeterFilter latencyHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                boolean api = id.getName().equals("http.server.requests")
+                        && String.valueOf(id.getTag("uri")).startsWith("/api/");
+                boolean pool = id.getName().equals("hikaricp.connections.acquire");
+                if (api || pool) {
+                    return DistributionStatisticConfig.builder().percentilesHistogram(true).build().merge(config);
+                }
+                return config;
+            }
+        };
+    }
+
+    // Counting at the DataSource covers JdbcTemplate as well as Hibernate; static so it applies to the pool bean itself
+    @Bean
+    public static BeanPostProcessor queryCountingDataSource(ObjectProvider<QueryCounter> queryCounter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof QueryCountingDataSource)) {
+                    return new QueryCountingDataSource(dataSource, queryCounter.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
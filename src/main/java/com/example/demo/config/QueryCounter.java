@@ -0,0 +1,43 @@
+package com.example.demo.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the JDBC statements executed on the current thread between {@link #begin()} and
+ * {@link #end()}, and logs statements slower than {@code jdbc.slow-query-ms}. Fed by
+ * {@link QueryCountingDataSource}, so Hibernate, JdbcTemplate and the batch jobs are all
+ * seen; a JDBC batch counts as one statement.
+ */
+@Slf4j
+@Component
+public class QueryCounter {
+
+    private final ThreadLocal<int[]> count = new ThreadLocal<>();
+
+    @Value("${jdbc.slow-query-ms:200}")
+    private long slowQueryMs;
+
+    public void begin() {
+        count.set(new int[1]);
+    }
+
+    // Returns the number of statements since begin(), or 0 if counting wasn't started
+    public int end() {
+        int[] current = count.get();
+        count.remove();
+        return current == null ? 0 : current[0];
+    }
+
+    void executed(String sql, long nanos) {
+        int[] current = count.get();
+        if (current != null) {
+            current[0]++;
+        }
+        long millis = nanos / 1_000_000;
+        if (millis >= slowQueryMs) {
+            log.warn("Slow query ({} ms): {}", millis, sql);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.demo.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Wraps the pool so every statement execution, whoever issues it, is reported to the
+ * {@link QueryCounter} with its SQL and duration. Connections and statements are JDK
+ * proxies that forward everything else untouched; {@code unwrap} still reaches the pool.
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+    private final QueryCounter queryCounter;
+
+    public QueryCountingDataSource(DataSource target, QueryCounter queryCounter) {
+        super(target);
+        this.queryCounter = queryCounter;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(super.getConnection(username, password));
+    }
+
+    private Connection connection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    return switch (method.getName()) {
+                        case "createStatement" -> statement(Statement.class, (Statement) result, null);
+                        case "prepareStatement" -> statement(PreparedStatement.class, (Statement) result, (String) args[0]);
+                        case "prepareCall" -> statement(CallableStatement.class, (Statement) result, (String) args[0]);
+                        default -> result;
+                    };
+                });
+    }
+
+    // Prepared statements carry their SQL; plain statements get it with each execute call
+    private Statement statement(Class<? extends Statement> type, Statement target, String preparedSql) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(target, method, args);
+            }
+            String sql = preparedSql != null ? preparedSql
+                    : args != null && args.length > 0 && args[0] instanceof String text ? text : "(batch)";
+            long started = System.nanoTime();
+            try {
+                return invoke(target, method, args);
+            } finally {
+                queryCounter.executed(sql, System.nanoTime() - started);
+            }
+        };
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.demo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Enables @Scheduled housekeeping tasks (e.g. evicting idle recognition sessions)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,37 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+// Serves the fingerprinted copies written by the build's AssetPipeline: a name only ever maps to one content,
+// so they are cached as immutable, and the precompressed .br/.gz variant is picked from Accept-Encoding
+@Configuration
+public class StaticAssetConfig implements WebMvcConfigurer {
+
+    // Must match AssetPipeline.ASSETS_DIR in src/build/java
+    public static final String ASSETS_DIR = "assets";
+
+    @Value("${models.registry.dir:data/models}")
+    private String modelsDirectory;
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler("/" + ASSETS_DIR + "/**")
+                .addResourceLocations("classpath:/static/" + ASSETS_DIR + "/")
+                .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+        // Registry versions are immutable directories, so their URLs never change content either
+        String location = Path.of(modelsDirectory).toAbsolutePath().toUri().toString();
+        registry.addResourceHandler("/models/**")
+                .addResourceLocations(location.endsWith("/") ? location : location + "/")
+                .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable());
+    }
+}
@@ -3,9 +3,12 @@ package com.example.demo.controllers;
 import com.example.demo.model.Achievement;
 import com.example.demo.service.AchievementService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Set;
 
 @RestController
@@ -16,12 +19,27 @@ public class AchievementController {
     @Autowired
     private AchievementService achievementService;
 
+    // GET endpoint for the full achievement catalog (rarely changes, so clients may cache it briefly)
+    @GetMapping
+    public ResponseEntity<List<Achievement>> getCatalog() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(10)).cachePublic())
+                .body(achievementService.getCatalog());
+    }
+
     // GET endpoint to fetch a user's unlocked achievements
     @GetMapping("/{userId}")
     public ResponseEntity<Set<Achievement>> getUserAchievements(@PathVariable Long userId) {
         return ResponseEntity.ok(achievementService.getAchievementsForUser(userId));
     }
 
+    // GET endpoint to poll for achievements awarded after the last notification the client has seen
+    @GetMapping("/{userId}/notifications")
+    public ResponseEntity<List<AchievementService.Notification>> getNotifications(@PathVariable Long userId,
+                                                                                  @RequestParam(defaultValue = "0") long after) {
+        return ResponseEntity.ok(achievementService.getNotifications(userId, after));
+    }
+
     // POST endpoint to trigger an achievement check for a user
     @PostMapping("/check/{userId}")
     public ResponseEntity<Set<Achievement>> checkAchievements(@PathVariable Long userId) {
@@ -0,0 +1,76 @@
+package com.example.demo.controllers;
+
+import com.example.demo.service.CatalogService;
+import com.example.demo.service.CatalogService.Body;
+import com.example.demo.service.CatalogService.CatalogChanges;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/catalog")
+@CrossOrigin(origins = "*")
+public class CatalogController {
+
+    @Autowired
+    private CatalogService catalogService;
+
+    // GET endpoint for the module index: module metadata and lesson titles, without lesson content
+    @GetMapping
+    public ResponseEntity<byte[]> getIndex(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return serve(catalogService.index(), acceptEncoding);
+    }
+
+    // GET endpoint for one module with the full lesson content
+    @GetMapping("/modules/{moduleId}")
+    public ResponseEntity<byte[]> getModule(@PathVariable String moduleId,
+                                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Body body = catalogService.module(moduleId);
+        if (body == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return serve(body, acceptEncoding);
+    }
+
+    // GET endpoint listing the modules changed or removed after the client's catalog version
+    @GetMapping("/changes")
+    public ResponseEntity<CatalogChanges> getChanges(@RequestParam int since) {
+        try {
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .body(catalogService.changesSince(since));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Bodies are precompressed; a matching If-None-Match is answered with 304 by Spring
+    private static ResponseEntity<byte[]> serve(Body body, String acceptEncoding) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(body.etag(gzip))
+                .cacheControl(CacheControl.noCache().cachePublic())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(gzip ? body.gzip() : body.identity());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
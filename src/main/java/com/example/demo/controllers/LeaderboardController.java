@@ -0,0 +1,63 @@
+package com.example.demo.controllers;
+
+import com.example.demo.service.LeaderboardService;
+import com.example.demo.service.LeaderboardService.Metric;
+import com.example.demo.service.LeaderboardService.Ranking;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/leaderboard")
+@CrossOrigin(origins = "*")
+public class LeaderboardController {
+
+    private static final int MAX_LIMIT = 100;
+    private static final int MAX_RADIUS = 25;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    // GET endpoint for the top learners by "lessons-completed", "study-streak" or "study-time"; optionally within a cohort
+    @GetMapping("/{metric}")
+    public ResponseEntity<Ranking> getTop(@PathVariable String metric,
+                                          @RequestParam(required = false) String cohort,
+                                          @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(leaderboardService.top(Metric.parse(metric), cohort, clamp(limit, MAX_LIMIT)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // GET endpoint for one learner's rank
+    @GetMapping("/{metric}/users/{userId}")
+    public ResponseEntity<Ranking> getRank(@PathVariable String metric, @PathVariable Long userId,
+                                     @RequestParam(required = false) String cohort) {
+        return around(metric, cohort, userId, 0);
+    }
+
+    // GET endpoint for a learner's rank with the learners just above and below
+    @GetMapping("/{metric}/users/{userId}/neighbours")
+    public ResponseEntity<Ranking> getNeighbours(@PathVariable String metric, @PathVariable Long userId,
+                                           @RequestParam(required = false) String cohort,
+                                           @RequestParam(defaultValue = "5") int radius) {
+        return around(metric, cohort, userId, clamp(radius, MAX_RADIUS));
+    }
+
+    private ResponseEntity<Ranking> around(String metric, String cohort, Long userId, int radius) {
+        try {
+            Ranking ranking = leaderboardService.around(Metric.parse(metric), cohort, userId, radius);
+            if (ranking.standings().isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(ranking);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(value, max));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.controllers;
+
+import com.example.demo.service.ModelRegistry;
+import com.example.demo.service.ModelRegistry.Manifest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/models")
+@CrossOrigin(origins = "*")
+public class ModelController {
+
+    @Autowired
+    private ModelRegistry modelRegistry;
+
+    // Request body for a traffic split; percent 0 ends it
+    public static class SplitRequest {
+        public String version;
+        public int percent;
+    }
+
+    // GET endpoint for the active, rollback and canary versions plus everything that could be activated
+    @GetMapping
+    public ResponseEntity<?> getStatus() {
+        return ResponseEntity.ok(modelRegistry.status());
+    }
+
+    // GET endpoint telling a browser which model files to load; revalidated with If-None-Match on every page load
+    @GetMapping("/manifest")
+    public ResponseEntity<Manifest> getManifest(@RequestParam(required = false) String client) {
+        Manifest manifest = modelRegistry.manifest(client);
+        return ResponseEntity.ok()
+                .eTag(manifest.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(manifest);
+    }
+
+    // POST endpoint to load, warm up and switch to a version
+    @PostMapping("/{version}/activate")
+    public ResponseEntity<?> activate(@PathVariable String version) {
+        try {
+            return ResponseEntity.ok(modelRegistry.activate(version));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body("Could not load model version " + version + ": " + e.getMessage());
+        }
+    }
+
+    // POST endpoint to switch back to the version that was active before
+    @PostMapping("/rollback")
+    public ResponseEntity<?> rollback() {
+        try {
+            return ResponseEntity.ok(modelRegistry.rollback());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // PUT endpoint to send a percentage of traffic to a second version
+    @PutMapping("/split")
+    public ResponseEntity<?> split(@RequestBody SplitRequest request) {
+        try {
+            return ResponseEntity.ok(modelRegistry.split(request.version, request.percent));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body("Could not load model version " + request.version + ": " + e.getMessage());
+        }
+    }
+}
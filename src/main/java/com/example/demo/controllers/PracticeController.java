@@ -0,0 +1,69 @@
+package com.example.demo.controllers;
+
+import com.example.demo.service.PracticeScoringService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/practice")
+@CrossOrigin(origins = "*")
+public class PracticeController {
+
+    @Autowired
+    private PracticeScoringService practiceScoringService;
+
+    // Request body: the attempt as 258-float frames (pose x4, left hand, right hand) and the sign it was meant to be
+    public static class ScoreRequest {
+        public float[][] frames;
+        public String sign;
+        public Integer topK;
+    }
+
+    // Request body: one reference recording in the same layout
+    public static class ReferenceRequest {
+        public float[][] frames;
+    }
+
+    // POST endpoint grading an attempt against the references, with the frame-by-frame alignment
+    @PostMapping("/score")
+    public ResponseEntity<?> score(@RequestBody ScoreRequest request) {
+        try {
+            int topK = request.topK != null ? request.topK : 3;
+            return ResponseEntity.ok(practiceScoringService.score(request.frames, request.sign, topK));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+
+    // GET endpoint listing the signs that have references and how many recordings each
+    @GetMapping("/references")
+    public ResponseEntity<?> listReferences() {
+        return ResponseEntity.ok(practiceScoringService.listReferences());
+    }
+
+    // POST endpoint adding a reference recording for a sign
+    @PostMapping("/references/{sign}")
+    public ResponseEntity<?> addReference(@PathVariable String sign, @RequestBody ReferenceRequest request) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(practiceScoringService.addReference(sign, request.frames));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // DELETE endpoint removing every reference recording of a sign
+    @DeleteMapping("/references/{sign}")
+    public ResponseEntity<?> removeReferences(@PathVariable String sign) {
+        try {
+            return ResponseEntity.ok(Map.of("removed", practiceScoringService.removeReferences(sign)));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.demo.controllers;
+
+import com.example.demo.inference.Prediction;
+import com.example.demo.service.RecognitionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/recognize")
+@CrossOrigin(origins = "*")
+public class RecognitionController {
+
+    @Autowired
+    private RecognitionService recognitionService;
+
+    // Request body: a batch of 126-float landmark vectors ([right hand, left hand] x 21 x xyz)
+    public static class StaticRecognitionRequest {
+        public float[][] frames;
+        public Integer topK;
+    }
+
+    // POST endpoint returning the top-k static signs for each frame in the batch
+    @PostMapping("/static")
+    public ResponseEntity<?> recognizeStatic(@RequestBody StaticRecognitionRequest request) {
+        try {
+            int topK = request.topK != null ? request.topK : 3;
+            List<List<Prediction>> predictions = recognitionService.recognizeStatic(request.frames, topK);
+            return ResponseEntity.ok(predictions);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Request body for the dynamic model: 258-float frames (pose x4, left hand, right hand)
+    public static class DynamicRecognitionRequest {
+        public float[][] frames;
+        public Integer topK;
+    }
+
+    // POST endpoint for a complete 45-frame window
+    @PostMapping("/dynamic")
+    public ResponseEntity<?> recognizeDynamic(@RequestBody DynamicRecognitionRequest request) {
+        try {
+            int topK = request.topK != null ? request.topK : 3;
+            return ResponseEntity.ok(recognitionService.recognizeDynamic(request.frames, topK));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // POST endpoint to open a streaming session that accepts frames one at a time
+    @PostMapping("/dynamic/sessions")
+    public ResponseEntity<?> openSession() {
+        try {
+            String sessionId = recognitionService.openSession();
+            return ResponseEntity.ok(Map.of("sessionId", sessionId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        }
+    }
+
+    // POST endpoint to append frames to a session and get the prediction for the newest window
+    @PostMapping("/dynamic/sessions/{sessionId}/frames")
+    public ResponseEntity<?> pushFrames(@PathVariable String sessionId, @RequestBody DynamicRecognitionRequest request) {
+        try {
+            int topK = request.topK != null ? request.topK : 3;
+            return ResponseEntity.ok(recognitionService.pushFrames(sessionId, request.frames, topK));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // DELETE endpoint to close a session
+    @DeleteMapping("/dynamic/sessions/{sessionId}")
+    public ResponseEntity<?> closeSession(@PathVariable String sessionId) {
+        try {
+            recognitionService.closeSession(sessionId);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
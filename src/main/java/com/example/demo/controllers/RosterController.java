@@ -0,0 +1,76 @@
+package com.example.demo.controllers;
+
+import com.example.demo.service.RosterService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Bulk onboarding for schools. The import takes the roster as the raw request body
+ * (text/csv or application/x-ndjson) and reads it as it arrives; the export streams
+ * progress straight to the response. Both need the admin token (AdminAccessConfig), and the
+ * export must also be switched on with roster.export.enabled.
+ */
+@RestController
+@RequestMapping("/api/roster")
+@CrossOrigin(origins = "*")
+public class RosterController {
+
+    @Autowired
+    private RosterService rosterService;
+
+    @Value("${roster.export.enabled:false}")
+    private boolean exportEnabled;
+
+    // POST endpoint to create students in bulk; per-row problems are reported, not fatal
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> importRoster(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                          InputStream body) throws IOException {
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        Charset charset = mediaType.getCharset() != null ? mediaType.getCharset() : StandardCharsets.UTF_8;
+        try {
+            return ResponseEntity.ok(rosterService.importRoster(new InputStreamReader(body, charset),
+                    RosterService.Format.parse(mediaType.getSubtype())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // GET endpoint for teachers to download progress, e.g. ?cohort=class-7b&format=csv
+    @GetMapping("/export")
+    public void exportProgress(@RequestParam(required = false) String cohort,
+                               @RequestParam(defaultValue = "csv") String format,
+                               HttpServletResponse response) throws IOException {
+        if (!exportEnabled) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "The progress export is disabled (roster.export.enabled)");
+            return;
+        }
+        RosterService.Format parsed;
+        try {
+            parsed = RosterService.Format.parse(format);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        boolean csv = parsed == RosterService.Format.CSV;
+        response.setContentType(csv ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"progress." + (csv ? "csv" : "ndjson") + "\"");
+        Writer out = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        rosterService.exportProgress(cohort, parsed, out);
+        out.flush();
+    }
+}
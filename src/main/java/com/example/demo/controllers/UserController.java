@@ -2,6 +2,8 @@ package com.example.demo.controllers;
 
 import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.repository.UserRepository.UserProfile;
+import com.example.demo.service.LeaderboardService;
 import com.example.demo.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
@@ -20,13 +22,16 @@ public class UserController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private LeaderboardService leaderboardService;
+
     // POST - Register/Create user
     @PostMapping("/register")
     public ResponseEntity<?> registerUser(@RequestBody User user) {
     try {
             // The controller just calls the service and handles the result
             User savedUser = userService.registerUser(user);
-            return ResponseEntity.ok(savedUser);
+            return ResponseEntity.ok(UserProfile.of(savedUser));
         } catch (IllegalArgumentException | IllegalStateException e) {
             // If the service finds a problem, it throws an exception,
             // and the controller's job is to turn that into a nice error response.
@@ -36,26 +41,23 @@ public class UserController {
 
     @PostMapping("/login")
     public ResponseEntity<?> loginUser(@RequestBody User loginRequest) {
-    Optional<User> optionalUser = userRepository.findByEmail(loginRequest.getEmail());
-
-    if (optionalUser.isEmpty()) {
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid email or password.");
-    }
+    // One indexed select of id, password and name; the entity would also pull in its progress row
+    Optional<UserRepository.Credentials> credentials = loginRequest.getEmail() == null
+            ? Optional.empty() : userRepository.findCredentialsByEmail(loginRequest.getEmail());
 
-    User user = optionalUser.get();
-    if (!user.getPassword().equals(loginRequest.getPassword())) {
+    if (credentials.isEmpty() || !credentials.get().password().equals(loginRequest.getPassword())) {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid email or password.");
     }
 
-    // Exclude password before returning
-    user.setPassword(null);
-    return ResponseEntity.ok(user);
+    // Only the identity goes back; the client loads the rest of the profile when it shows it
+    UserRepository.Credentials user = credentials.get();
+    return ResponseEntity.ok(new UserProfile(user.id(), user.name(), loginRequest.getEmail(), null, null, null));
     }
 
     // GET - Retrieve a single user by ID
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
-        return userRepository.findById(id)
+    public ResponseEntity<UserProfile> getUserById(@PathVariable Long id) {
+        return userRepository.findProfileById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -65,8 +67,7 @@ public class UserController {
     public ResponseEntity<?> updateUser(@PathVariable Long id, @RequestBody User userDetails) {
         try {
             User updatedUser = userService.updateUser(id, userDetails);
-            updatedUser.setPassword(null); // Never return the password
-            return ResponseEntity.ok(updatedUser);
+            return ResponseEntity.ok(UserProfile.of(updatedUser));
         } catch (IllegalArgumentException | IllegalStateException e) {
             // Return a clear error message if validation fails or user not found
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -79,6 +80,7 @@ public class UserController {
         return userRepository.findById(id)
                 .map(user -> {
                     userRepository.delete(user);
+                    leaderboardService.remove(id);
                     // Return 204 No Content on successful deletion
                     return ResponseEntity.noContent().build();
                 }).orElse(ResponseEntity.notFound().build());
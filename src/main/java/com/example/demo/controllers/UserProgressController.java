@@ -1,8 +1,12 @@
 package com.example.demo.controllers;
 
 import com.example.demo.model.UserProgress;
+import com.example.demo.service.LessonCompletionService;
+import com.example.demo.service.LessonCompletionService.LessonCompletionResult;
 import com.example.demo.service.UserProgressService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,6 +18,9 @@ public class UserProgressController {
     @Autowired
     private UserProgressService userProgressService;
 
+    @Autowired
+    private LessonCompletionService lessonCompletionService;
+
     // GET endpoint to fetch a user's progress
     @GetMapping("/{userId}")
     public ResponseEntity<UserProgress> getProgress(@PathVariable Long userId) {
@@ -24,6 +31,16 @@ public class UserProgressController {
         return ResponseEntity.ok(progress);
     }
 
+    // GET endpoint for a user's progress as rebuilt from the event log, for auditing the stored row
+    @GetMapping("/{userId}/replayed")
+    public ResponseEntity<UserProgress> getReplayedProgress(@PathVariable Long userId) {
+        UserProgress progress = userProgressService.getReplayedProgress(userId);
+        if (progress == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(progress);
+    }
+
     // POST endpoint to update a user's progress
     @PostMapping("/update/{userId}")
     public ResponseEntity<UserProgress> updateProgress(@PathVariable Long userId, @RequestBody UserProgress progressDetails) {
@@ -32,8 +49,10 @@ public class UserProgressController {
     }
 
     // This class would be a simple DTO with a lessonId field.
+    // minutes is optional and only used by the combined lesson-completion endpoint.
     public static class CompleteLessonRequest {
         public String lessonId;
+        public Integer minutes;
     }
 
     @PostMapping("/complete-lesson/{userId}")
@@ -41,8 +60,27 @@ public class UserProgressController {
         try {
             UserProgress updatedProgress = userProgressService.completeLesson(userId, request.lessonId);
             return ResponseEntity.ok(updatedProgress);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.notFound().build();
+        } catch (OptimisticLockingFailureException e) {
+            // Still contended after the bounded retries; safe for the client to repeat
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    // Single round trip for the end of a lesson: lesson, study time, streak and achievements
+    @PostMapping("/lesson-completion/{userId}")
+    public ResponseEntity<LessonCompletionResult> finishLesson(@PathVariable Long userId, @RequestBody CompleteLessonRequest request) {
+        try {
+            return ResponseEntity.ok(lessonCompletionService.completeLesson(userId, request.lessonId, request.minutes));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (IllegalStateException e) {
             return ResponseEntity.notFound().build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
     }
 
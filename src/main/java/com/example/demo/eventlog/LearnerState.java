@@ -0,0 +1,104 @@
+package com.example.demo.eventlog;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.BitSet;
+
+/**
+ * A learner's progress folded from their events. Follows the same rules as
+ * UserProgress: a lesson counts once, and a study day continues the streak only if it is
+ * the day after the last one.
+ */
+public final class LearnerState {
+
+    private static final long NO_DAY = Long.MIN_VALUE;
+
+    private final BitSet lessons;
+    private int lessonsCompleted;
+    private long studyMinutes;
+    private int streak;
+    private long lastStudyDay = NO_DAY;
+
+    LearnerState() {
+        this.lessons = new BitSet();
+    }
+
+    private LearnerState(LearnerState other) {
+        this.lessons = (BitSet) other.lessons.clone();
+        this.lessonsCompleted = other.lessonsCompleted;
+        this.studyMinutes = other.studyMinutes;
+        this.streak = other.streak;
+        this.lastStudyDay = other.lastStudyDay;
+    }
+
+    void apply(ProgressEvent event) {
+        switch (event.type()) {
+            case LESSON_COMPLETED -> {
+                if (!lessons.get(event.value())) {
+                    lessons.set(event.value());
+                    lessonsCompleted++;
+                }
+            }
+            case MINUTES_STUDIED -> studyMinutes += event.value();
+            case STREAK_TOUCHED -> {
+                long day = event.value();
+                if (lastStudyDay == NO_DAY || lastStudyDay < day) {
+                    streak = lastStudyDay == day - 1 ? streak + 1 : 1;
+                    lastStudyDay = day;
+                }
+            }
+            case LESSON_COUNT_SET -> lessonsCompleted = event.value();
+            case STREAK_SET -> streak = event.value();
+            case STUDY_TIME_SET -> studyMinutes = event.value();
+        }
+    }
+
+    LearnerState copy() {
+        return new LearnerState(this);
+    }
+
+    public BitSet lessons() {
+        return (BitSet) lessons.clone();
+    }
+
+    public int lessonsCompleted() {
+        return lessonsCompleted;
+    }
+
+    public long studyMinutes() {
+        return studyMinutes;
+    }
+
+    // The streak as of the given day: broken if the last study day is before yesterday
+    public int streak(LocalDate today) {
+        return lastStudyDay != NO_DAY && lastStudyDay >= today.toEpochDay() - 1 ? streak : 0;
+    }
+
+    public LocalDate lastStudyDay() {
+        return lastStudyDay == NO_DAY ? null : LocalDate.ofEpochDay(lastStudyDay);
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        byte[] bits = lessons.toByteArray();
+        out.writeInt(lessonsCompleted);
+        out.writeLong(studyMinutes);
+        out.writeInt(streak);
+        out.writeLong(lastStudyDay);
+        out.writeShort(bits.length);
+        out.write(bits);
+    }
+
+    static LearnerState read(DataInputStream in) throws IOException {
+        LearnerState state = new LearnerState();
+        state.lessonsCompleted = in.readInt();
+        state.studyMinutes = in.readLong();
+        state.streak = in.readInt();
+        state.lastStudyDay = in.readLong();
+        byte[] bits = new byte[in.readUnsignedShort()];
+        in.readFully(bits);
+        state.lessons.or(BitSet.valueOf(bits));
+        return state;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.demo.eventlog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * A preallocated, memory-mapped file of fixed-size event records. Record layout
+ * (36 bytes, big-endian):
+ *
+ * <pre>
+ *   0  sequence   long
+ *   8  timestamp  long   epoch millis
+ *  16  userId     long
+ *  24  value      int
+ *  28  type       int
+ *  32  crc        int    CRC32C of bytes 0..31
+ * </pre>
+ *
+ * On open the records are scanned up to the first one whose checksum or sequence doesn't
+ * match, which is where a torn or never-written record starts; appends continue from there.
+ * Not thread-safe; the store serializes appends.
+ */
+final class LogSegment implements Closeable {
+
+    static final int RECORD_SIZE = 36;
+
+    private final long baseSequence;
+    private final int capacity;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final CRC32C crc = new CRC32C();
+    private int count;
+
+    private LogSegment(long baseSequence, int capacity, FileChannel channel, MappedByteBuffer buffer) {
+        this.baseSequence = baseSequence;
+        this.capacity = capacity;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static LogSegment open(Path file, long baseSequence, int capacity, boolean writable) throws IOException {
+        FileChannel channel = writable
+                ? FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ);
+        long size = writable ? (long) capacity * RECORD_SIZE : Math.min(channel.size(), (long) capacity * RECORD_SIZE);
+        MappedByteBuffer buffer = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 0, size);
+        LogSegment segment = new LogSegment(baseSequence, (int) (size / RECORD_SIZE), channel, buffer);
+        segment.count = segment.scan();
+        return segment;
+    }
+
+    private int scan() {
+        int valid = 0;
+        while (valid < capacity && intact(valid)) {
+            valid++;
+        }
+        return valid;
+    }
+
+    private boolean intact(int index) {
+        int offset = index * RECORD_SIZE;
+        return buffer.getLong(offset) == baseSequence + index
+                && ProgressEvent.Type.of(buffer.getInt(offset + 28)) != null
+                && buffer.getInt(offset + 32) == checksum(offset);
+    }
+
+    private int checksum(int offset) {
+        crc.reset();
+        crc.update(buffer.slice(offset, RECORD_SIZE - 4));
+        return (int) crc.getValue();
+    }
+
+    long baseSequence() {
+        return baseSequence;
+    }
+
+    int count() {
+        return count;
+    }
+
+    boolean full() {
+        return count >= capacity;
+    }
+
+    // Returns the record's sequence; the caller rolls to a new segment when this one is full
+    long append(long timestamp, long userId, ProgressEvent.Type type, int value) {
+        int offset = count * RECORD_SIZE;
+        long sequence = baseSequence + count;
+        buffer.putLong(offset, sequence);
+        buffer.putLong(offset + 8, timestamp);
+        buffer.putLong(offset + 16, userId);
+        buffer.putInt(offset + 24, value);
+        buffer.putInt(offset + 28, type.code);
+        buffer.putInt(offset + 32, checksum(offset));
+        count++;
+        return sequence;
+    }
+
+    // Visits records [from, to) of this segment by index
+    void read(int from, int to, Consumer<ProgressEvent> consumer) {
+        ByteBuffer view = buffer.duplicate();
+        for (int index = Math.max(0, from); index < to; index++) {
+            int offset = index * RECORD_SIZE;
+            consumer.accept(new ProgressEvent(view.getLong(offset), view.getLong(offset + 8), view.getLong(offset + 16),
+                    ProgressEvent.Type.of(view.getInt(offset + 28)), view.getInt(offset + 24)));
+        }
+    }
+
+    // Writes the dirty pages of the mapping to disk
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.eventlog;
+
+/**
+ * One entry of the progress event log. {@code value} depends on the type: a lesson
+ * ordinal, a number of minutes, an epoch day, or the value a field was set to.
+ */
+public record ProgressEvent(long sequence, long timestamp, long userId, Type type, int value) {
+
+    public enum Type {
+        LESSON_COMPLETED(1),
+        MINUTES_STUDIED(2),
+        STREAK_TOUCHED(3),
+        LESSON_COUNT_SET(4),
+        STREAK_SET(5),
+        STUDY_TIME_SET(6);
+
+        // Stored on disk; never renumber
+        final int code;
+
+        Type(int code) {
+            this.code = code;
+        }
+
+        static Type of(int code) {
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.example.demo.eventlog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of progress events in a directory of memory-mapped segments
+ * ({@code events-<first sequence>.log}), plus snapshots of the folded per-learner state
+ * ({@code snapshot-<last sequence>.bin}).
+ *
+ * Appends only write into the mapping; {@link #sync()} forces the dirty pages to disk
+ * without holding up appends, so the caller decides how many appends share one fsync. Opening the log loads the newest
+ * snapshot and replays the records after it, so the in-memory state is always
+ * snapshot + tail. Segments are kept after a snapshot for replay by analytics.
+ */
+public final class ProgressEventLog implements Closeable {
+
+    private static final int SNAPSHOT_MAGIC = 0x50455331; // "PES1"
+    private static final int SNAPSHOTS_KEPT = 2;
+
+    private final Path directory;
+    private final int segmentRecords;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private FileChannel lockFile;
+    // Closed segments by first sequence; only the active one stays mapped
+    private final TreeMap<Long, Path> closed = new TreeMap<>();
+    private final Map<Long, LearnerState> states = new HashMap<>();
+    private LogSegment active;
+    private long unsynced;
+    private long snapshotSequence = -1;
+
+    private ProgressEventLog(Path directory, int segmentRecords) {
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+    }
+
+    public static ProgressEventLog open(Path directory, int segmentRecords) throws IOException {
+        Files.createDirectories(directory);
+        ProgressEventLog log = new ProgressEventLog(directory, segmentRecords);
+        log.claim();
+        log.recover();
+        return log;
+    }
+
+    // One writer per directory; a second process (or context) would interleave sequences
+    private void claim() throws IOException {
+        lockFile = FileChannel.open(directory.resolve("LOCK"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock claimed;
+        try {
+            claimed = lockFile.tryLock();
+        } catch (OverlappingFileLockException e) {
+            claimed = null;
+        }
+        if (claimed == null) {
+            lockFile.close();
+            throw new IllegalStateException("Event log directory is in use: " + directory);
+        }
+    }
+
+    private void recover() throws IOException {
+        loadSnapshot();
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Long base = sequenceOf(file, "events-", ".log");
+                if (base != null) {
+                    segments.put(base, file);
+                }
+            });
+        }
+        long next = snapshotSequence + 1;
+        for (Map.Entry<Long, Path> entry : segments.entrySet()) {
+            boolean last = entry.getKey().equals(segments.lastKey());
+            LogSegment segment = LogSegment.open(entry.getValue(), entry.getKey(), segmentRecords, last);
+            segment.read((int) Math.max(0, snapshotSequence + 1 - entry.getKey()), segment.count(), this::fold);
+            next = Math.max(next, entry.getKey() + segment.count());
+            if (last) {
+                active = segment;
+            } else {
+                segment.close();
+                closed.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (active == null || active.full()) {
+            roll(next);
+        }
+    }
+
+    private void fold(ProgressEvent event) {
+        if (event.sequence() > snapshotSequence) {
+            states.computeIfAbsent(event.userId(), id -> new LearnerState()).apply(event);
+        }
+    }
+
+    /**
+     * Appends one event and folds it into the learner's state. Returns its sequence number.
+     */
+    public long append(long userId, ProgressEvent.Type type, int value) throws IOException {
+        lock.lock();
+        try {
+            if (active.full()) {
+                active.force();
+                active.close();
+                closed.put(active.baseSequence(), segmentPath(active.baseSequence()));
+                roll(active.baseSequence() + active.count());
+            }
+            long timestamp = System.currentTimeMillis();
+            long sequence = active.append(timestamp, userId, type, value);
+            states.computeIfAbsent(userId, id -> new LearnerState())
+                    .apply(new ProgressEvent(sequence, timestamp, userId, type, value));
+            unsynced++;
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void roll(long baseSequence) throws IOException {
+        active = LogSegment.open(segmentPath(baseSequence), baseSequence, segmentRecords, true);
+    }
+
+    // Appends since the last sync, i.e. what a crash of the machine could still lose
+    public long unsynced() {
+        return unsynced;
+    }
+
+    // The msync runs outside the lock, so appends keep writing into the mapping while it flushes
+    public void sync() {
+        LogSegment segment;
+        long pending;
+        lock.lock();
+        try {
+            if (unsynced == 0) {
+                return;
+            }
+            segment = active;
+            pending = unsynced;
+            unsynced = 0;
+        } finally {
+            lock.unlock();
+        }
+        // A segment rolled meanwhile was forced before it closed; forcing its mapping again is harmless
+        try {
+            segment.force();
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                unsynced += pending;
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    public Optional<LearnerState> state(long userId) {
+        lock.lock();
+        try {
+            LearnerState state = states.get(userId);
+            return Optional.ofNullable(state != null ? state.copy() : null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long nextSequence() {
+        lock.lock();
+        try {
+            return active.baseSequence() + active.count();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Feeds every event from {@code fromSequence} up to the current end to the consumer, in
+     * order. Appends made meanwhile are not included.
+     */
+    public void replay(long fromSequence, Consumer<ProgressEvent> consumer) throws IOException {
+        List<Map.Entry<Long, Path>> older;
+        LogSegment current;
+        int currentCount;
+        lock.lock();
+        try {
+            Long floor = closed.floorKey(fromSequence);
+            older = new ArrayList<>(closed.tailMap(floor != null ? floor : fromSequence, true).entrySet());
+            current = active;
+            currentCount = active.count();
+        } finally {
+            lock.unlock();
+        }
+        for (Map.Entry<Long, Path> entry : older) {
+            try (LogSegment segment = LogSegment.open(entry.getValue(), entry.getKey(), segmentRecords, false)) {
+                segment.read((int) Math.max(0, fromSequence - entry.getKey()), segment.count(), consumer);
+            }
+        }
+        current.read((int) Math.max(0, fromSequence - current.baseSequence()), currentCount, consumer);
+    }
+
+    /**
+     * Writes the folded state of every learner as of the current sequence (write, fsync,
+     * rename) and removes older snapshots beyond the newest two.
+     */
+    public long snapshot() throws IOException {
+        Map<Long, LearnerState> copy = new HashMap<>();
+        long through;
+        LogSegment segment;
+        lock.lock();
+        try {
+            through = active.baseSequence() + active.count() - 1;
+            if (through == snapshotSequence) {
+                return through;
+            }
+            states.forEach((userId, state) -> copy.put(userId, state.copy()));
+            segment = active;
+        } finally {
+            lock.unlock();
+        }
+        // Every record the snapshot covers is on disk before the snapshot is; recovery appends after both
+        segment.force();
+        Path target = directory.resolve(String.format("snapshot-%019d.bin", through));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(through);
+            out.writeInt(copy.size());
+            for (Map.Entry<Long, LearnerState> entry : copy.entrySet()) {
+                out.writeLong(entry.getKey());
+                entry.getValue().write(out);
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        lock.lock();
+        try {
+            snapshotSequence = Math.max(snapshotSequence, through);
+        } finally {
+            lock.unlock();
+        }
+        List<Path> snapshots = snapshotFiles();
+        for (int i = 0; i < snapshots.size() - SNAPSHOTS_KEPT; i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+        return through;
+    }
+
+    private void loadSnapshot() throws IOException {
+        List<Path> snapshots = snapshotFiles();
+        // Newest first; a damaged snapshot falls back to the one before it
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            try (InputStream file = Files.newInputStream(snapshots.get(i))) {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(file));
+                if (in.readInt() != SNAPSHOT_MAGIC) {
+                    continue;
+                }
+                long through = in.readLong();
+                int learners = in.readInt();
+                Map<Long, LearnerState> loaded = new HashMap<>();
+                for (int n = 0; n < learners; n++) {
+                    loaded.put(in.readLong(), LearnerState.read(in));
+                }
+                states.putAll(loaded);
+                snapshotSequence = through;
+                return;
+            } catch (IOException e) {
+                // Truncated or unreadable; try the previous one
+            }
+        }
+    }
+
+    private List<Path> snapshotFiles() throws IOException {
+        TreeMap<Long, Path> snapshots = new TreeMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Long through = sequenceOf(file, "snapshot-", ".bin");
+                if (through != null) {
+                    snapshots.put(through, file);
+                }
+            });
+        }
+        return new ArrayList<>(snapshots.values());
+    }
+
+    private Path segmentPath(long baseSequence) {
+        return directory.resolve(String.format("events-%019d.log", baseSequence));
+    }
+
+    private static Long sequenceOf(Path file, String prefix, String suffix) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(prefix) || !name.endsWith(suffix)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            active.force();
+            active.close();
+            lockFile.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.demo.inference;
+
+import java.util.Arrays;
+
+/**
+ * A width-3, stride-1, "valid" 1D convolution over time (TFJS exports these
+ * as Conv2D with a [1, 3, in, out] kernel). Outputs are produced one time
+ * column at a time so callers can compute only the columns they are missing.
+ * The kernel is either float32 or int8 per output channel ({@link #quantized()}).
+ */
+public final class Conv1DLayer {
+
+    public static final int WIDTH = 3;
+
+    private final int inputs;
+    private final int outputs;
+    private final float[] kernel; // [WIDTH][inputs][outputs], row-major; null when quantized
+    private final QuantizedKernel quantized;
+    private final float[] bias;
+    private final boolean relu;
+
+    public Conv1DLayer(TfjsModelLoader.Tensor kernel, TfjsModelLoader.Tensor bias, boolean relu) {
+        int[] shape = kernel.shape();
+        if (shape.length != 4 || shape[0] != 1 || shape[1] != WIDTH) {
+            throw new IllegalArgumentException("Expected a [1, " + WIDTH + ", in, out] convolution kernel");
+        }
+        if (bias.shape()[0] != shape[3]) {
+            throw new IllegalArgumentException("Kernel and bias shapes do not match");
+        }
+        this.inputs = shape[2];
+        this.outputs = shape[3];
+        this.kernel = kernel.data();
+        this.quantized = null;
+        this.bias = bias.data();
+        this.relu = relu;
+    }
+
+    private Conv1DLayer(Conv1DLayer source, QuantizedKernel quantized) {
+        this.inputs = source.inputs;
+        this.outputs = source.outputs;
+        this.kernel = null;
+        this.quantized = quantized;
+        this.bias = source.bias;
+        this.relu = source.relu;
+    }
+
+    /**
+     * The same layer with its kernel quantized to int8 (one scale per output channel across
+     * all three taps); this one if it already is.
+     */
+    public Conv1DLayer quantized() {
+        return quantized != null ? this
+                : new Conv1DLayer(this, QuantizedKernel.quantize(kernel, WIDTH * inputs, outputs));
+    }
+
+    public long weightBytes() {
+        return (quantized != null ? quantized.bytes() : (long) kernel.length * Float.BYTES) + (long) bias.length * Float.BYTES;
+    }
+
+    public int inputs() {
+        return inputs;
+    }
+
+    public int outputs() {
+        return outputs;
+    }
+
+    /**
+     * Computes the output column whose receptive field is the three input rows {@code r0, r1, r2}
+     * (each {@code inputs()} wide, read from their given offsets) and writes it to {@code out} at {@code outOffset}.
+     */
+    public void forwardColumn(float[] r0, int o0, float[] r1, int o1, float[] r2, int o2, float[] out, int outOffset) {
+        if (quantized != null) {
+            Arrays.fill(out, outOffset, outOffset + outputs, 0f);
+            accumulateInt8(r0, o0, 0, out, outOffset);
+            accumulateInt8(r1, o1, 1, out, outOffset);
+            accumulateInt8(r2, o2, 2, out, outOffset);
+            float[] scales = quantized.scales();
+            for (int o = 0; o < outputs; o++) {
+                out[outOffset + o] = out[outOffset + o] * scales[o] + bias[o];
+            }
+        } else {
+            System.arraycopy(bias, 0, out, outOffset, outputs);
+            accumulate(r0, o0, 0, out, outOffset);
+            accumulate(r1, o1, 1, out, outOffset);
+            accumulate(r2, o2, 2, out, outOffset);
+        }
+        if (relu) {
+            for (int o = outOffset; o < outOffset + outputs; o++) {
+                if (out[o] < 0f) {
+                    out[o] = 0f;
+                }
+            }
+        }
+    }
+
+    private void accumulate(float[] row, int rowOffset, int tap, float[] out, int outOffset) {
+        int base = tap * inputs * outputs;
+        for (int c = 0; c < inputs; c++) {
+            float a = row[rowOffset + c];
+            if (a == 0f) {
+                continue;
+            }
+            int k = base + c * outputs;
+            for (int o = 0; o < outputs; o++) {
+                out[outOffset + o] += a * kernel[k + o];
+            }
+        }
+    }
+
+    // Unscaled sums against the int8 weights; forwardColumn applies the channel scales
+    private void accumulateInt8(float[] row, int rowOffset, int tap, float[] out, int outOffset) {
+        byte[] q = quantized.values();
+        int base = tap * inputs * outputs;
+        for (int c = 0; c < inputs; c++) {
+            float a = row[rowOffset + c];
+            if (a == 0f) {
+                continue;
+            }
+            int k = base + c * outputs;
+            for (int o = 0; o < outputs; o++) {
+                out[outOffset + o] += a * q[k + o];
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.demo.inference;
+
+import java.util.Arrays;
+
+/**
+ * A fully connected layer (y = x * W + b, optionally followed by ReLU)
+ * operating on a batch of row vectors packed into a single float array.
+ * The kernel is either float32 or int8 per output channel ({@link #quantized()}).
+ */
+public final class DenseLayer {
+
+    private final int inputs;
+    private final int outputs;
+    private final float[] kernel; // [inputs][outputs], row-major; null when quantized
+    private final QuantizedKernel quantized;
+    private final float[] bias;
+    private final boolean relu;
+
+    public DenseLayer(TfjsModelLoader.Tensor kernel, TfjsModelLoader.Tensor bias, boolean relu) {
+        if (kernel.shape().length != 2 || bias.shape()[0] != kernel.shape()[1]) {
+            throw new IllegalArgumentException("Kernel and bias shapes do not match");
+        }
+        this.inputs = kernel.shape()[0];
+        this.outputs = kernel.shape()[1];
+        this.kernel = kernel.data();
+        this.quantized = null;
+        this.bias = bias.data();
+        this.relu = relu;
+    }
+
+    private DenseLayer(DenseLayer source, QuantizedKernel quantized) {
+        this.inputs = source.inputs;
+        this.outputs = source.outputs;
+        this.kernel = null;
+        this.quantized = quantized;
+        this.bias = source.bias;
+        this.relu = source.relu;
+    }
+
+    /**
+     * The same layer with its kernel quantized to int8; this one if it already is.
+     */
+    public DenseLayer quantized() {
+        return quantized != null ? this : new DenseLayer(this, QuantizedKernel.quantize(kernel, inputs, outputs));
+    }
+
+    public long weightBytes() {
+        return (quantized != null ? quantized.bytes() : (long) kernel.length * Float.BYTES) + (long) bias.length * Float.BYTES;
+    }
+
+    public int inputs() {
+        return inputs;
+    }
+
+    public int outputs() {
+        return outputs;
+    }
+
+    /**
+     * Runs the layer for {@code batch} rows of {@code in} and writes the results into {@code out}.
+     * Neither array is allocated here; callers own and reuse them.
+     */
+    public void forward(float[] in, float[] out, int batch) {
+        if (quantized != null) {
+            forwardInt8(in, out, batch);
+            return;
+        }
+        for (int b = 0; b < batch; b++) {
+            int inRow = b * inputs;
+            int outRow = b * outputs;
+            System.arraycopy(bias, 0, out, outRow, outputs);
+
+            // i-k-j order keeps the inner loop streaming over contiguous kernel rows
+            for (int i = 0; i < inputs; i++) {
+                float a = in[inRow + i];
+                if (a == 0f) {
+                    continue; // ReLU outputs are mostly zeros
+                }
+                int k = i * outputs;
+                for (int o = 0; o < outputs; o++) {
+                    out[outRow + o] += a * kernel[k + o];
+                }
+            }
+
+            if (relu) {
+                for (int o = outRow; o < outRow + outputs; o++) {
+                    if (out[o] < 0f) {
+                        out[o] = 0f;
+                    }
+                }
+            }
+        }
+    }
+
+    // Accumulates against the int8 weights, then applies each channel's scale once
+    private void forwardInt8(float[] in, float[] out, int batch) {
+        byte[] q = quantized.values();
+        float[] scales = quantized.scales();
+        for (int b = 0; b < batch; b++) {
+            int inRow = b * inputs;
+            int outRow = b * outputs;
+            Arrays.fill(out, outRow, outRow + outputs, 0f);
+
+            for (int i = 0; i < inputs; i++) {
+                float a = in[inRow + i];
+                if (a == 0f) {
+                    continue;
+                }
+                int k = i * outputs;
+                for (int o = 0; o < outputs; o++) {
+                    out[outRow + o] += a * q[k + o];
+                }
+            }
+
+            for (int o = 0; o < outputs; o++) {
+                float v = out[outRow + o] * scales[o] + bias[o];
+                out[outRow + o] = relu && v < 0f ? 0f : v;
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.inference;
+
+/**
+ * The two inner loops of sequence matching, over one frame of {@code length} floats.
+ * {@link #best()} picks the Vector API implementation when the build includes it (the
+ * vector-api Maven profile) and the JVM runs with {@code --add-modules jdk.incubator.vector},
+ * and the scalar one otherwise.
+ */
+public interface DistanceKernel {
+
+    /** Squared Euclidean distance between two frames. */
+    float squared(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    /**
+     * Squared distance from a frame to the box between {@code lower} and {@code upper}: the
+     * per-frame term of LB_Keogh. Zero for every value that lies inside the envelope.
+     */
+    float envelopeGap(float[] q, int qOffset, float[] upper, float[] lower, int offset, int length);
+
+    String name();
+
+    static DistanceKernel scalar() {
+        return ScalarDistanceKernel.INSTANCE;
+    }
+
+    static DistanceKernel best() {
+        try {
+            return (DistanceKernel) Class.forName("com.example.demo.inference.VectorDistanceKernel")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Not compiled in, or the incubator module isn't enabled on this JVM
+            return scalar();
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.example.demo.inference;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grades a practice attempt against reference recordings with dynamic time warping.
+ *
+ * Attempts and references get the same preparation. Frames arrive in the dynamic model's
+ * 258-float layout. Each frame is moved into a body frame: the origin is between the
+ * shoulders and one unit is a shoulder width, so where the learner stands doesn't count.
+ * Visibility and the legs are dropped. Then the sequence is resampled to a fixed length,
+ * which makes every pair comparable under one Sakoe-Chiba band.
+ *
+ * Candidates are visited in order of a coarse LB_Keogh bound taken over every eighth frame.
+ * Before a candidate's DTW runs, the bound is completed over the remaining frames. A
+ * candidate is dropped as soon as its bound, or a full row of its DTW matrix, can no longer
+ * beat the current cut-off. The ranked answers are exact without computing most of them.
+ *
+ * Thread-safe; scratch rows live in per-thread buffers.
+ */
+public final class DtwMatcher {
+
+    public static final int FEATURES = DynamicSignModel.FEATURES;
+
+    // Pose is 33 x (x, y, z, visibility), then left and right hand 21 x (x, y, z) each
+    private static final int POSE_STRIDE = 4;
+    private static final int UPPER_BODY = 25;
+    private static final int LEFT_SHOULDER = 11;
+    private static final int RIGHT_SHOULDER = 12;
+    private static final int HANDS_OFFSET = 33 * POSE_STRIDE;
+    private static final int HAND_VALUES = 21 * 3;
+
+    // Prepared frames keep x, y, z of the upper body and both hands, zero-padded to a multiple of 16 floats
+    private static final int LANDMARKS = UPPER_BODY + 42;
+    private static final int DIMS = (LANDMARKS * 3 + 15) / 16 * 16;
+
+    // Stride of the coarse bound used for ordering
+    private static final int COARSE = 8;
+
+    private static final float INF = Float.POSITIVE_INFINITY;
+
+    private final int length;
+    private final int band;
+    private final float tolerance;
+    private final DistanceKernel kernel;
+    // [0] prepared attempt, [1] and [2] DTW rows, [3] full cost matrix for the alignment
+    private final ThreadLocal<float[][]> workspace;
+
+    public record Alignment(int attemptFrame, int referenceFrame, float distance) {
+    }
+
+    /**
+     * {@code distance} is the RMS landmark distance along the warping path, in shoulder
+     * widths. {@code score} maps it to 0-100, reaching 0 at the matcher's tolerance.
+     */
+    public record Candidate(String sign, float distance, int score) {
+    }
+
+    /**
+     * The closest signs, the requested sign (null if none was given), and the frame-by-frame
+     * alignment against the requested sign or else the best match.
+     */
+    public record Result(List<Candidate> ranking, Candidate target, List<Alignment> alignment,
+                         int evaluated, int pruned) {
+    }
+
+    public DtwMatcher(int length, double bandFraction, float tolerance, DistanceKernel kernel) {
+        if (length < 2) {
+            throw new IllegalArgumentException("length must be at least 2");
+        }
+        this.length = length;
+        this.band = Math.max(1, (int) Math.round(bandFraction * length));
+        this.tolerance = tolerance;
+        this.kernel = kernel;
+        this.workspace = ThreadLocal.withInitial(() -> new float[][]{
+                new float[length * DIMS], new float[length], new float[length], null});
+    }
+
+    public DistanceKernel kernel() {
+        return kernel;
+    }
+
+    public SignTemplate prepare(String sign, float[] frames, int count) {
+        float[] resampled = new float[length * DIMS];
+        prepareInto(frames, count, resampled);
+        float[] upper = new float[length * DIMS];
+        float[] lower = new float[length * DIMS];
+        for (int i = 0; i < length; i++) {
+            int row = i * DIMS;
+            System.arraycopy(resampled, row, upper, row, DIMS);
+            System.arraycopy(resampled, row, lower, row, DIMS);
+            for (int j = Math.max(0, i - band); j <= Math.min(length - 1, i + band); j++) {
+                int other = j * DIMS;
+                for (int k = 0; k < DIMS; k++) {
+                    upper[row + k] = Math.max(upper[row + k], resampled[other + k]);
+                    lower[row + k] = Math.min(lower[row + k], resampled[other + k]);
+                }
+            }
+        }
+        return new SignTemplate(sign, count, resampled, upper, lower);
+    }
+
+    /**
+     * Scores {@code count} frames against every template. Signs are ranked by their closest
+     * template, and only the top {@code topK} are computed exactly. The target sign, if any,
+     * is always computed exactly.
+     */
+    public Result match(float[] attempt, int count, List<SignTemplate> templates, String target, int topK) {
+        float[][] ws = workspace.get();
+        float[] query = ws[0];
+        prepareInto(attempt, count, query);
+
+        // Bound bits (non-negative floats sort like ints) above the template index, so one primitive sort orders both
+        int m = templates.size();
+        long[] order = new long[m];
+        for (int t = 0; t < m; t++) {
+            float bound = lowerBound(query, templates.get(t), 0, COARSE, INF);
+            order[t] = (long) Float.floatToRawIntBits(bound) << 32 | t;
+        }
+        Arrays.sort(order);
+
+        Map<String, Float> best = new HashMap<>();
+        Map<String, SignTemplate> closest = new HashMap<>();
+        float kth = INF;
+        int evaluated = 0;
+        int pruned = 0;
+        for (long entry : order) {
+            SignTemplate template = templates.get((int) entry);
+            float bound = Float.intBitsToFloat((int) (entry >>> 32));
+            Float current = best.get(template.sign);
+            // A template only matters if it beats its own sign's best or, for a new sign, the k-th best
+            float cutoff = current != null ? current : template.sign.equalsIgnoreCase(target) ? INF : kth;
+            for (int start = 1; start < COARSE && bound < cutoff; start++) {
+                bound += lowerBound(query, template, start, COARSE, cutoff - bound);
+            }
+            if (bound >= cutoff) {
+                pruned++;
+                continue;
+            }
+            evaluated++;
+            float cost = dtw(query, template, cutoff, ws);
+            if (cost < cutoff) {
+                best.put(template.sign, cost);
+                closest.put(template.sign, template);
+                kth = kthBest(best, topK);
+            }
+        }
+
+        List<Map.Entry<String, Float>> sorted = new ArrayList<>(best.entrySet());
+        sorted.sort(Map.Entry.comparingByValue());
+        List<Candidate> ranking = new ArrayList<>();
+        Candidate targetCandidate = null;
+        for (Map.Entry<String, Float> entry : sorted) {
+            Candidate candidate = candidate(entry.getKey(), entry.getValue());
+            if (ranking.size() < topK) {
+                ranking.add(candidate);
+            }
+            if (entry.getKey().equalsIgnoreCase(target)) {
+                targetCandidate = candidate;
+            }
+        }
+
+        SignTemplate aligned = targetCandidate != null ? closest.get(targetCandidate.sign())
+                : ranking.isEmpty() ? null : closest.get(ranking.get(0).sign());
+        List<Alignment> alignment = aligned != null ? align(query, count, aligned, ws) : List.of();
+        return new Result(ranking, targetCandidate, alignment, evaluated, pruned);
+    }
+
+    private Candidate candidate(String sign, float cost) {
+        float rms = (float) Math.sqrt(cost / (length * LANDMARKS));
+        int score = (int) Math.round(100 * Math.max(0.0, 1.0 - rms / tolerance));
+        return new Candidate(sign, rms, score);
+    }
+
+    private static float kthBest(Map<String, Float> best, int k) {
+        if (best.size() < k) {
+            return INF;
+        }
+        float[] values = new float[best.size()];
+        int i = 0;
+        for (float v : best.values()) {
+            values[i++] = v;
+        }
+        Arrays.sort(values);
+        return values[k - 1];
+    }
+
+    /**
+     * LB_Keogh over frames {@code start}, {@code start + step}, ...: every attempt frame is
+     * matched to some reference frame inside its envelope. Any subset of frames still gives a
+     * lower bound. Stops early once the sum reaches {@code limit}.
+     */
+    private float lowerBound(float[] query, SignTemplate template, int start, int step, float limit) {
+        float sum = 0f;
+        for (int i = start; i < length && sum < limit; i += step) {
+            sum += kernel.envelopeGap(query, i * DIMS, template.upper, template.lower, i * DIMS, DIMS);
+        }
+        return sum;
+    }
+
+    // Banded DTW over two rows; gives up with +inf once a whole row is at or past the cut-off
+    private float dtw(float[] query, SignTemplate template, float cutoff, float[][] ws) {
+        float[] prev = ws[1];
+        float[] curr = ws[2];
+        Arrays.fill(prev, INF);
+        for (int i = 0; i < length; i++) {
+            Arrays.fill(curr, INF);
+            float rowMin = INF;
+            int to = Math.min(length - 1, i + band);
+            for (int j = Math.max(0, i - band); j <= to; j++) {
+                float previous = i == 0 && j == 0 ? 0f
+                        : j == 0 ? prev[0]
+                        : Math.min(prev[j - 1], Math.min(prev[j], curr[j - 1]));
+                curr[j] = previous + kernel.squared(query, i * DIMS, template.frames, j * DIMS, DIMS);
+                rowMin = Math.min(rowMin, curr[j]);
+            }
+            if (rowMin >= cutoff) {
+                return INF;
+            }
+            float[] swap = prev;
+            prev = curr;
+            curr = swap;
+        }
+        return prev[length - 1];
+    }
+
+    // Full banded matrix and backtrack, for the one template whose alignment is returned
+    private List<Alignment> align(float[] query, int attemptFrames, SignTemplate template, float[][] ws) {
+        if (ws[3] == null) {
+            ws[3] = new float[length * length];
+        }
+        float[] cost = ws[3];
+        Arrays.fill(cost, INF);
+        for (int i = 0; i < length; i++) {
+            int to = Math.min(length - 1, i + band);
+            for (int j = Math.max(0, i - band); j <= to; j++) {
+                float previous = i == 0 && j == 0 ? 0f
+                        : Math.min(i > 0 && j > 0 ? cost[(i - 1) * length + j - 1] : INF,
+                        Math.min(i > 0 ? cost[(i - 1) * length + j] : INF, j > 0 ? cost[i * length + j - 1] : INF));
+                cost[i * length + j] = previous + kernel.squared(query, i * DIMS, template.frames, j * DIMS, DIMS);
+            }
+        }
+
+        List<Alignment> path = new ArrayList<>();
+        int i = length - 1;
+        int j = length - 1;
+        while (true) {
+            float d = (float) Math.sqrt(kernel.squared(query, i * DIMS, template.frames, j * DIMS, DIMS) / LANDMARKS);
+            path.add(new Alignment(sourceIndex(i, attemptFrames), sourceIndex(j, template.sourceFrames), d));
+            if (i == 0 && j == 0) {
+                break;
+            }
+            float diagonal = i > 0 && j > 0 ? cost[(i - 1) * length + j - 1] : INF;
+            float up = i > 0 ? cost[(i - 1) * length + j] : INF;
+            float left = j > 0 ? cost[i * length + j - 1] : INF;
+            if (diagonal <= up && diagonal <= left) {
+                i--;
+                j--;
+            } else if (up <= left) {
+                i--;
+            } else {
+                j--;
+            }
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    // Resampled index back to the recorded frame it was interpolated around
+    private int sourceIndex(int index, int frames) {
+        return Math.round(index * (frames - 1) / (float) (length - 1));
+    }
+
+    private void prepareInto(float[] frames, int count, float[] out) {
+        if (count < 2 || frames.length < count * FEATURES) {
+            throw new IllegalArgumentException("A sequence needs at least 2 frames of " + FEATURES + " values.");
+        }
+        float[] normalized = normalize(frames, count);
+        for (int i = 0; i < length; i++) {
+            float t = i * (count - 1) / (float) (length - 1);
+            int lo = Math.min((int) t, count - 2);
+            float f = t - lo;
+            int a = lo * DIMS;
+            int b = a + DIMS;
+            int o = i * DIMS;
+            for (int k = 0; k < DIMS; k++) {
+                out[o + k] = normalized[a + k] + f * (normalized[b + k] - normalized[a + k]);
+            }
+        }
+    }
+
+    /**
+     * Body-relative x, y, z of the upper body and both hands. Visibility and the legs say
+     * nothing about the sign, so they are left out. Missing hands stay all-zero. A frame
+     * without a pose reuses the last shoulders seen; if none were seen, it assumes a learner
+     * centred in the frame.
+     */
+    static float[] normalize(float[] frames, int count) {
+        float[] out = new float[count * DIMS];
+        float cx = 0.5f;
+        float cy = 0.5f;
+        float scale = 0.25f;
+        for (int f = 0; f < count; f++) {
+            int base = f * FEATURES;
+            int l = base + LEFT_SHOULDER * POSE_STRIDE;
+            int r = base + RIGHT_SHOULDER * POSE_STRIDE;
+            float width = (float) Math.hypot(frames[l] - frames[r], frames[l + 1] - frames[r + 1]);
+            if (width > 1e-3f) {
+                cx = (frames[l] + frames[r]) / 2;
+                cy = (frames[l + 1] + frames[r + 1]) / 2;
+                scale = width;
+            }
+            int o = f * DIMS;
+            for (int p = 0; p < UPPER_BODY; p++, o += 3) {
+                int i = base + p * POSE_STRIDE;
+                out[o] = (frames[i] - cx) / scale;
+                out[o + 1] = (frames[i + 1] - cy) / scale;
+                out[o + 2] = frames[i + 2] / scale;
+            }
+            for (int hand = base + HANDS_OFFSET; hand < base + FEATURES; hand += HAND_VALUES, o += HAND_VALUES) {
+                if (isEmpty(frames, hand, HAND_VALUES)) {
+                    continue;
+                }
+                for (int i = hand, j = o; i < hand + HAND_VALUES; i += 3, j += 3) {
+                    out[j] = (frames[i] - cx) / scale;
+                    out[j + 1] = (frames[i + 1] - cy) / scale;
+                    out[j + 2] = frames[i + 2] / scale;
+                }
+            }
+        }
+        return out;
+    }
+
+    private static boolean isEmpty(float[] values, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (values[i] != 0f) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
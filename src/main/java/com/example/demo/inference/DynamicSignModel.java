@@ -0,0 +1,213 @@
+package com.example.demo.inference;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pure-Java forward pass of the dynamic (motion) sign model:
+ * [45 frames x 258] -> Conv1D(64) -> MaxPool(2) -> Conv1D(128) -> MaxPool(2)
+ * -> Flatten(9 x 128) -> Dense(128) -> Dense(64) -> Dense(22) -> softmax.
+ *
+ * Besides whole-window prediction, the model hands out {@link DynamicSignSession}s
+ * that accept frames one at a time and only compute the convolution columns a
+ * new frame introduces.
+ */
+public final class DynamicSignModel {
+
+    /** Frames per prediction window. */
+    public static final int WINDOW = 45;
+
+    /** Pose (33 x 4) + left hand (21 x 3) + right hand (21 x 3). */
+    public static final int FEATURES = 258;
+
+    static final int POOL = 2;
+
+    final Conv1DLayer conv1;
+    final Conv1DLayer conv2;
+    final DenseLayer[] dense;
+    private final String[] labels;
+    final int pooledColumns;
+    private final ThreadLocal<Workspace> workspace;
+
+    // Activations of one whole-window pass, reused by each calling thread
+    private static final class Workspace {
+        final float[] c1;
+        final float[] p1;
+        final float[] c2;
+        final float[] flat;
+        final float[][] scratch;
+
+        Workspace(DynamicSignModel model) {
+            int c1Cols = WINDOW - (Conv1DLayer.WIDTH - 1);
+            int c2Cols = c1Cols / POOL - (Conv1DLayer.WIDTH - 1);
+            c1 = new float[c1Cols * model.conv1.outputs()];
+            p1 = new float[c1Cols / POOL * model.conv1.outputs()];
+            c2 = new float[c2Cols * model.conv2.outputs()];
+            flat = new float[model.pooledColumns * model.conv2.outputs()];
+            scratch = new float[model.dense.length - 1][];
+        }
+    }
+
+    private DynamicSignModel(Conv1DLayer conv1, Conv1DLayer conv2, DenseLayer[] dense, String[] labels) {
+        if (conv1.inputs() != FEATURES || conv2.inputs() != conv1.outputs()) {
+            throw new IllegalArgumentException("Convolution layers do not match the " + FEATURES + "-feature frame layout");
+        }
+        // valid conv (-2), pool (/2), valid conv (-2), pool (/2)
+        this.pooledColumns = ((WINDOW - (Conv1DLayer.WIDTH - 1)) / POOL - (Conv1DLayer.WIDTH - 1)) / POOL;
+        if (dense[0].inputs() != pooledColumns * conv2.outputs()) {
+            throw new IllegalArgumentException("Flatten size " + pooledColumns * conv2.outputs()
+                    + " does not match the first dense layer (" + dense[0].inputs() + " inputs)");
+        }
+        if (dense[dense.length - 1].outputs() != labels.length) {
+            throw new IllegalArgumentException("Model has " + dense[dense.length - 1].outputs()
+                    + " outputs but the label mapping has " + labels.length + " entries");
+        }
+        this.conv1 = conv1;
+        this.conv2 = conv2;
+        this.dense = dense;
+        this.labels = labels;
+        this.workspace = ThreadLocal.withInitial(() -> new Workspace(this));
+    }
+
+    /**
+     * Builds the model from a TFJS graph-model export and its label mapping.
+     */
+    public static DynamicSignModel load(Resource modelJson, Resource labelMapping) throws IOException {
+        return load(modelJson, labelMapping, WeightPrecision.FLOAT32);
+    }
+
+    /**
+     * Builds the model keeping its kernels at the given precision.
+     */
+    public static DynamicSignModel load(Resource modelJson, Resource labelMapping, WeightPrecision precision) throws IOException {
+        boolean int8 = precision == WeightPrecision.INT8;
+        TfjsModelLoader.Graph graph = TfjsModelLoader.load(modelJson);
+
+        List<TfjsModelLoader.Node> convs = graph.nodesOfType("_FusedConv2D");
+        if (convs.size() != 2) {
+            throw new IOException("Expected two convolution layers in " + modelJson.getDescription() + " but found " + convs.size());
+        }
+        Conv1DLayer[] conv = new Conv1DLayer[2];
+        for (int i = 0; i < 2; i++) {
+            TfjsModelLoader.Node node = convs.get(i);
+            conv[i] = new Conv1DLayer(graph.weight(node.inputs().get(1)), graph.weight(node.inputs().get(2)),
+                    node.fusedOps().contains("Relu") || feedsRelu(graph, node.name()));
+            if (int8) {
+                conv[i] = conv[i].quantized();
+            }
+        }
+
+        List<DenseLayer> dense = new ArrayList<>();
+        for (TfjsModelLoader.Node node : graph.nodesOfType("_FusedMatMul")) {
+            DenseLayer layer = new DenseLayer(graph.weight(node.inputs().get(1)), graph.weight(node.inputs().get(2)),
+                    node.fusedOps().contains("Relu"));
+            dense.add(int8 ? layer.quantized() : layer);
+        }
+        return new DynamicSignModel(conv[0], conv[1], dense.toArray(DenseLayer[]::new), TfjsModelLoader.loadLabels(labelMapping));
+    }
+
+    // TFJS keeps the activation of a Conv1D as a separate Relu node behind a Squeeze
+    private static boolean feedsRelu(TfjsModelLoader.Graph graph, String convName) {
+        for (TfjsModelLoader.Node relu : graph.nodesOfType("Relu")) {
+            for (TfjsModelLoader.Node squeeze : graph.nodesOfType("Squeeze")) {
+                if (relu.inputs().contains(squeeze.name()) && squeeze.inputs().contains(convName)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public int classes() {
+        return labels.length;
+    }
+
+    public String label(int index) {
+        return labels[index];
+    }
+
+    // Resident size of the kernels and biases
+    public long weightBytes() {
+        long bytes = conv1.weightBytes() + conv2.weightBytes();
+        for (DenseLayer layer : dense) {
+            bytes += layer.weightBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the {@code k} most likely labels of a probability row of length {@link #classes()}.
+     */
+    public List<Prediction> topK(float[] probabilities, int k) {
+        return InferenceMath.topK(probabilities, 0, labels, k);
+    }
+
+    public DynamicSignSession newSession() {
+        return new DynamicSignSession(this);
+    }
+
+    /**
+     * Runs the whole model on one window of {@code WINDOW * FEATURES} floats and writes
+     * {@link #classes()} probabilities into {@code probabilities}. Activations live in
+     * per-thread buffers, so this does not allocate after a thread's first call; streaming
+     * callers should still use a {@link DynamicSignSession}, which only computes new columns.
+     */
+    public void predict(float[] window, float[] probabilities) {
+        Workspace ws = workspace.get();
+        float[] c1 = ws.c1;
+        float[] p1 = ws.p1;
+        float[] c2 = ws.c2;
+        float[] flat = ws.flat;
+
+        int c1Cols = WINDOW - (Conv1DLayer.WIDTH - 1);
+        for (int t = 0; t < c1Cols; t++) {
+            conv1.forwardColumn(window, t * FEATURES, window, (t + 1) * FEATURES, window, (t + 2) * FEATURES,
+                    c1, t * conv1.outputs());
+        }
+        maxPool(c1, c1Cols, conv1.outputs(), p1);
+
+        int p1Cols = c1Cols / POOL;
+        int c2Cols = p1Cols - (Conv1DLayer.WIDTH - 1);
+        int ch1 = conv1.outputs();
+        for (int t = 0; t < c2Cols; t++) {
+            conv2.forwardColumn(p1, t * ch1, p1, (t + 1) * ch1, p1, (t + 2) * ch1, c2, t * conv2.outputs());
+        }
+        maxPool(c2, c2Cols, conv2.outputs(), flat);
+
+        dense(flat, probabilities, ws.scratch);
+    }
+
+    /**
+     * Runs the dense head and softmax on a flattened feature vector. {@code scratch} holds one
+     * reusable activation buffer per hidden layer and is filled in lazily.
+     */
+    void dense(float[] flat, float[] probabilities, float[][] scratch) {
+        float[] in = flat;
+        for (int l = 0; l < dense.length; l++) {
+            float[] out;
+            if (l == dense.length - 1) {
+                out = probabilities;
+            } else {
+                if (scratch[l] == null) {
+                    scratch[l] = new float[dense[l].outputs()];
+                }
+                out = scratch[l];
+            }
+            dense[l].forward(in, out, 1);
+            in = out;
+        }
+        InferenceMath.softmax(probabilities, 0, labels.length);
+    }
+
+    private static void maxPool(float[] in, int columns, int channels, float[] out) {
+        int pooled = columns / POOL;
+        for (int t = 0; t < pooled; t++) {
+            for (int c = 0; c < channels; c++) {
+                out[t * channels + c] = Math.max(in[2 * t * channels + c], in[(2 * t + 1) * channels + c]);
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.demo.inference;
+
+/**
+ * Incremental sliding-window recognizer over a stream of frames.
+ *
+ * Every layer before Flatten only looks at a few neighbouring time steps, so when the
+ * window slides by one frame almost all intermediate columns are unchanged. The session
+ * keeps those columns in ring buffers indexed by absolute time and, per frame, computes
+ * exactly one new column of each stage:
+ *
+ * <pre>
+ *   c1[t] = conv1(F[t], F[t+1], F[t+2])          (needs 3 frames)
+ *   p1[t] = max(c1[t], c1[t+1])                  (pooling pairs for both window parities)
+ *   c2[t] = conv2(p1[t], p1[t+2], p1[t+4])
+ *   p2[t] = max(c2[t], c2[t+2])
+ * </pre>
+ *
+ * The window starting at frame {@code w} then flattens {@code p2[w], p2[w+4], ..., p2[w+32]}
+ * into the dense head, which is the only part re-run in full for each frame.
+ *
+ * A session is not thread-safe; callers serialize access per session.
+ */
+public final class DynamicSignSession {
+
+    private static final int FRAME_RING = 4;
+    private static final int C1_RING = 4;
+    private static final int P1_RING = 8;
+    private static final int C2_RING = 4;
+    private static final int P2_RING = 64;
+
+    private final DynamicSignModel model;
+    private final int ch1;
+    private final int ch2;
+
+    private final float[] frames;
+    private final float[] c1;
+    private final float[] p1;
+    private final float[] c2;
+    private final float[] p2;
+
+    private final float[] flat;
+    private final float[][] scratch;
+    private final float[] probabilities;
+
+    private long frameCount;
+
+    DynamicSignSession(DynamicSignModel model) {
+        this.model = model;
+        this.ch1 = model.conv1.outputs();
+        this.ch2 = model.conv2.outputs();
+        this.frames = new float[FRAME_RING * DynamicSignModel.FEATURES];
+        this.c1 = new float[C1_RING * ch1];
+        this.p1 = new float[P1_RING * ch1];
+        this.c2 = new float[C2_RING * ch2];
+        this.p2 = new float[P2_RING * ch2];
+        this.flat = new float[model.pooledColumns * ch2];
+        this.scratch = new float[model.dense.length - 1][];
+        this.probabilities = new float[model.classes()];
+    }
+
+    public DynamicSignModel model() {
+        return model;
+    }
+
+    public long frameCount() {
+        return frameCount;
+    }
+
+    /**
+     * True once enough frames have arrived to fill a whole window.
+     */
+    public boolean isReady() {
+        return frameCount >= DynamicSignModel.WINDOW;
+    }
+
+    /**
+     * Probabilities for the most recent full window, valid while {@link #isReady()} is true.
+     * The array is owned by the session and overwritten by the next {@link #push}.
+     */
+    public float[] probabilities() {
+        return probabilities;
+    }
+
+    /**
+     * Appends one frame of {@code FEATURES} floats read from {@code frame} at {@code offset}.
+     *
+     * @return true if the window is full and {@link #probabilities()} now holds a fresh prediction
+     */
+    public boolean push(float[] frame, int offset) {
+        long f = frameCount++;
+        System.arraycopy(frame, offset, frames, slot(f, FRAME_RING) * DynamicSignModel.FEATURES, DynamicSignModel.FEATURES);
+
+        long t1 = f - 2;
+        if (t1 < 0) {
+            return false;
+        }
+        model.conv1.forwardColumn(
+                frames, slot(t1, FRAME_RING) * DynamicSignModel.FEATURES,
+                frames, slot(t1 + 1, FRAME_RING) * DynamicSignModel.FEATURES,
+                frames, slot(t1 + 2, FRAME_RING) * DynamicSignModel.FEATURES,
+                c1, slot(t1, C1_RING) * ch1);
+
+        long tp1 = t1 - 1;
+        if (tp1 < 0) {
+            return false;
+        }
+        max(c1, slot(tp1, C1_RING) * ch1, slot(tp1 + 1, C1_RING) * ch1, p1, slot(tp1, P1_RING) * ch1, ch1);
+
+        long t2 = tp1 - 4;
+        if (t2 < 0) {
+            return false;
+        }
+        model.conv2.forwardColumn(
+                p1, slot(t2, P1_RING) * ch1,
+                p1, slot(t2 + 2, P1_RING) * ch1,
+                p1, slot(t2 + 4, P1_RING) * ch1,
+                c2, slot(t2, C2_RING) * ch2);
+
+        long tp2 = t2 - 2;
+        if (tp2 < 0) {
+            return false;
+        }
+        max(c2, slot(tp2, C2_RING) * ch2, slot(tp2 + 2, C2_RING) * ch2, p2, slot(tp2, P2_RING) * ch2, ch2);
+
+        if (!isReady()) {
+            return false;
+        }
+        long w = frameCount - DynamicSignModel.WINDOW;
+        for (int k = 0; k < model.pooledColumns; k++) {
+            System.arraycopy(p2, slot(w + 4L * k, P2_RING) * ch2, flat, k * ch2, ch2);
+        }
+        model.dense(flat, probabilities, scratch);
+        return true;
+    }
+
+    /**
+     * Forgets all frames, e.g. after the hands left the camera view.
+     */
+    public void reset() {
+        frameCount = 0;
+    }
+
+    private static int slot(long t, int ring) {
+        return (int) (t & (ring - 1));
+    }
+
+    private static void max(float[] src, int a, int b, float[] dst, int d, int channels) {
+        for (int c = 0; c < channels; c++) {
+            dst[d + c] = Math.max(src[a + c], src[b + c]);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.demo.inference;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Small numeric helpers shared by the sign models.
+ */
+public final class InferenceMath {
+
+    private InferenceMath() {
+    }
+
+    /**
+     * In-place, numerically stable softmax over {@code data[offset .. offset + length)}.
+     */
+    public static void softmax(float[] data, int offset, int length) {
+        float max = Float.NEGATIVE_INFINITY;
+        for (int i = offset; i < offset + length; i++) {
+            max = Math.max(max, data[i]);
+        }
+        float sum = 0f;
+        for (int i = offset; i < offset + length; i++) {
+            data[i] = (float) Math.exp(data[i] - max);
+            sum += data[i];
+        }
+        for (int i = offset; i < offset + length; i++) {
+            data[i] /= sum;
+        }
+    }
+
+    /**
+     * Index of the largest value in {@code data[offset .. offset + length)}, relative to {@code offset}.
+     */
+    public static int argMax(float[] data, int offset, int length) {
+        int best = 0;
+        for (int i = 1; i < length; i++) {
+            if (data[offset + i] > data[offset + best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * The {@code k} highest-scoring labels of the probability row starting at {@code offset}, best first.
+     */
+    public static List<Prediction> topK(float[] probabilities, int offset, String[] labels, int k) {
+        k = Math.min(k, labels.length);
+        int[] best = new int[k];
+        int filled = 0;
+        for (int i = 0; i < labels.length; i++) {
+            float p = probabilities[offset + i];
+            // Insertion into a tiny sorted array beats sorting all classes
+            int pos = filled;
+            while (pos > 0 && probabilities[offset + best[pos - 1]] < p) {
+                pos--;
+            }
+            if (pos < k) {
+                int last = Math.min(filled, k - 1);
+                System.arraycopy(best, pos, best, pos + 1, last - pos);
+                best[pos] = i;
+                filled = Math.min(filled + 1, k);
+            }
+        }
+
+        List<Prediction> result = new ArrayList<>(k);
+        for (int i = 0; i < k; i++) {
+            result.add(new Prediction(labels[best[i]], probabilities[offset + best[i]]));
+        }
+        return result;
+    }
+
+    /**
+     * IEEE 754 half-precision bits to float (Float.float16ToFloat needs Java 20).
+     */
+    public static float halfToFloat(short half) {
+        int bits = half & 0xFFFF;
+        int sign = (bits & 0x8000) << 16;
+        int exponent = (bits >>> 10) & 0x1F;
+        int mantissa = bits & 0x3FF;
+        if (exponent == 0x1F) {
+            return Float.intBitsToFloat(sign | 0x7F800000 | (mantissa << 13)); // infinity or NaN
+        }
+        if (exponent == 0) {
+            if (mantissa == 0) {
+                return Float.intBitsToFloat(sign);
+            }
+            // Subnormal: value is mantissa * 2^-24
+            float value = mantissa * 0x1p-24f;
+            return sign != 0 ? -value : value;
+        }
+        return Float.intBitsToFloat(sign | ((exponent + 112) << 23) | (mantissa << 13));
+    }
+
+    /**
+     * Float to IEEE 754 half-precision bits, rounding to nearest even; out-of-range values
+     * become infinity.
+     */
+    public static short floatToHalf(float value) {
+        int bits = Float.floatToIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int exponent = ((bits >>> 23) & 0xFF) - 127 + 15;
+        int mantissa = bits & 0x7FFFFF;
+        if (((bits >>> 23) & 0xFF) == 0xFF) {
+            return (short) (sign | 0x7C00 | (mantissa != 0 ? 0x200 : 0)); // infinity or NaN
+        }
+        if (exponent >= 0x1F) {
+            return (short) (sign | 0x7C00);
+        }
+        if (exponent <= 0) {
+            if (exponent < -10) {
+                return (short) sign; // underflows to zero
+            }
+            // Subnormal: shift the implicit leading one into the mantissa
+            mantissa |= 0x800000;
+            int shift = 14 - exponent;
+            int half = mantissa >> shift;
+            int rest = mantissa & ((1 << shift) - 1);
+            int halfway = 1 << (shift - 1);
+            if (rest > halfway || (rest == halfway && (half & 1) != 0)) {
+                half++;
+            }
+            return (short) (sign | half);
+        }
+        int half = (exponent << 10) | (mantissa >> 13);
+        int rest = mantissa & 0x1FFF;
+        if (rest > 0x1000 || (rest == 0x1000 && (half & 1) != 0)) {
+            half++; // may carry into the exponent, which is still correct
+        }
+        return (short) (sign | half);
+    }
+}
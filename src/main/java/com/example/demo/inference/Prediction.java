@@ -0,0 +1,7 @@
+package com.example.demo.inference;
+
+/**
+ * A single recognized sign and the model's confidence in it.
+ */
+public record Prediction(String label, float confidence) {
+}
@@ -0,0 +1,51 @@
+package com.example.demo.inference;
+
+/**
+ * Turns a noisy per-frame classification stream into stable predictions, the same way
+ * translator.js does with its predictionBuffer: a sign is stable only when the last
+ * {@code bufferSize} frames all agree on it and all have at least {@code confThreshold}
+ * confidence.
+ */
+public final class PredictionDebouncer {
+
+    private final int[] classes;
+    private final float[] confidences;
+    private final float confThreshold;
+    private int next;
+    private int filled;
+
+    public PredictionDebouncer(int bufferSize, float confThreshold) {
+        this.classes = new int[bufferSize];
+        this.confidences = new float[bufferSize];
+        this.confThreshold = confThreshold;
+    }
+
+    /**
+     * Records one frame's top class and returns the stable class index, or -1 if there is none.
+     */
+    public int accept(int classIndex, float confidence) {
+        classes[next] = classIndex;
+        confidences[next] = confidence;
+        next = (next + 1) % classes.length;
+        filled = Math.min(filled + 1, classes.length);
+
+        // Unlike the client, which accepts a partially filled buffer, require all N frames
+        if (filled < classes.length) {
+            return -1;
+        }
+        for (int i = 0; i < filled; i++) {
+            if (classes[i] != classIndex || confidences[i] < confThreshold) {
+                return -1;
+            }
+        }
+        return classIndex;
+    }
+
+    /**
+     * Forgets buffered frames, e.g. when no hands are visible.
+     */
+    public void reset() {
+        next = 0;
+        filled = 0;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.inference;
+
+/**
+ * A row-major [rows][columns] weight matrix quantized to int8 with one scale per column,
+ * i.e. per output channel: {@code w[r][c] ~= values[r * columns + c] * scales[c]}. The scale
+ * maps the column's largest magnitude to 127, so no column loses range to another's outliers.
+ */
+public final class QuantizedKernel {
+
+    private final int rows;
+    private final int columns;
+    private final byte[] values;
+    private final float[] scales;
+
+    private QuantizedKernel(int rows, int columns, byte[] values, float[] scales) {
+        this.rows = rows;
+        this.columns = columns;
+        this.values = values;
+        this.scales = scales;
+    }
+
+    public static QuantizedKernel quantize(float[] weights, int rows, int columns) {
+        if (weights.length != rows * columns) {
+            throw new IllegalArgumentException("Expected " + rows * columns + " weights but got " + weights.length);
+        }
+        float[] scales = new float[columns];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                scales[c] = Math.max(scales[c], Math.abs(weights[r * columns + c]));
+            }
+        }
+        for (int c = 0; c < columns; c++) {
+            scales[c] = scales[c] == 0f ? 1f : scales[c] / 127f; // an all-zero column stays zero
+        }
+        byte[] values = new byte[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            values[i] = (byte) Math.round(weights[i] / scales[i % columns]);
+        }
+        return new QuantizedKernel(rows, columns, values, scales);
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int columns() {
+        return columns;
+    }
+
+    // Shared, not copied: the layers read them in their inner loops
+    byte[] values() {
+        return values;
+    }
+
+    float[] scales() {
+        return scales;
+    }
+
+    public float dequantize(int row, int column) {
+        return values[row * columns + column] * scales[column];
+    }
+
+    public long bytes() {
+        return values.length + (long) scales.length * Float.BYTES;
+    }
+}
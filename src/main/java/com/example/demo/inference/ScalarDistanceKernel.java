@@ -0,0 +1,62 @@
+package com.example.demo.inference;
+
+// Four independent accumulators let the JIT overlap the adds instead of chaining them
+final class ScalarDistanceKernel implements DistanceKernel {
+
+    static final ScalarDistanceKernel INSTANCE = new ScalarDistanceKernel();
+
+    private ScalarDistanceKernel() {
+    }
+
+    @Override
+    public float squared(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        int k = 0;
+        for (; k + 3 < length; k += 4) {
+            float d0 = a[aOffset + k] - b[bOffset + k];
+            float d1 = a[aOffset + k + 1] - b[bOffset + k + 1];
+            float d2 = a[aOffset + k + 2] - b[bOffset + k + 2];
+            float d3 = a[aOffset + k + 3] - b[bOffset + k + 3];
+            s0 += d0 * d0;
+            s1 += d1 * d1;
+            s2 += d2 * d2;
+            s3 += d3 * d3;
+        }
+        for (; k < length; k++) {
+            float d = a[aOffset + k] - b[bOffset + k];
+            s0 += d * d;
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @Override
+    public float envelopeGap(float[] q, int qOffset, float[] upper, float[] lower, int offset, int length) {
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        int k = 0;
+        for (; k + 3 < length; k += 4) {
+            float d0 = gap(q[qOffset + k], upper[offset + k], lower[offset + k]);
+            float d1 = gap(q[qOffset + k + 1], upper[offset + k + 1], lower[offset + k + 1]);
+            float d2 = gap(q[qOffset + k + 2], upper[offset + k + 2], lower[offset + k + 2]);
+            float d3 = gap(q[qOffset + k + 3], upper[offset + k + 3], lower[offset + k + 3]);
+            s0 += d0 * d0;
+            s1 += d1 * d1;
+            s2 += d2 * d2;
+            s3 += d3 * d3;
+        }
+        for (; k < length; k++) {
+            float d = gap(q[qOffset + k], upper[offset + k], lower[offset + k]);
+            s0 += d * d;
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    // Distance from v to [l, u] without branches: |v - u| + |v - l| exceeds u - l by twice that distance
+    static float gap(float v, float u, float l) {
+        return (Math.abs(v - u) + Math.abs(v - l) - (u - l)) * 0.5f;
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.demo.inference;
+
+/**
+ * A reference recording prepared by {@link DtwMatcher#prepare}: normalized, resampled to the
+ * matcher's length, with the LB_Keogh envelope for the matcher's band. Immutable.
+ */
+public final class SignTemplate {
+
+    final String sign;
+    final int sourceFrames;
+    final float[] frames;
+    final float[] upper;
+    final float[] lower;
+
+    SignTemplate(String sign, int sourceFrames, float[] frames, float[] upper, float[] lower) {
+        this.sign = sign;
+        this.sourceFrames = sourceFrames;
+        this.frames = frames;
+        this.upper = upper;
+        this.lower = lower;
+    }
+
+    public String sign() {
+        return sign;
+    }
+
+    public int sourceFrames() {
+        return sourceFrames;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.demo.inference;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pure-Java forward pass of the static (single-frame) hand-shape model:
+ * a stack of dense layers, 126 -> 256 -> 128 -> 35, followed by a softmax.
+ *
+ * Instances are immutable and thread-safe. Intermediate activations live in
+ * per-thread buffers that are reused across calls, so steady-state inference
+ * does not allocate.
+ */
+public final class StaticSignModel {
+
+    /** Two hands x 21 landmarks x (x, y, z), right hand first. */
+    public static final int FEATURES = 126;
+
+    private final DenseLayer[] layers;
+    private final String[] labels;
+    private final ThreadLocal<float[][]> workspace;
+
+    private StaticSignModel(DenseLayer[] layers, String[] labels) {
+        if (layers[0].inputs() != FEATURES) {
+            throw new IllegalArgumentException("Expected a model with " + FEATURES + " inputs but got " + layers[0].inputs());
+        }
+        if (layers[layers.length - 1].outputs() != labels.length) {
+            throw new IllegalArgumentException("Model has " + layers[layers.length - 1].outputs()
+                    + " outputs but the label mapping has " + labels.length + " entries");
+        }
+        this.layers = layers;
+        this.labels = labels;
+        this.workspace = ThreadLocal.withInitial(() -> new float[layers.length - 1][]);
+    }
+
+    /**
+     * Builds the model from a TFJS graph-model export and its label mapping.
+     */
+    public static StaticSignModel load(Resource modelJson, Resource labelMapping) throws IOException {
+        return load(modelJson, labelMapping, WeightPrecision.FLOAT32);
+    }
+
+    /**
+     * Builds the model keeping its kernels at the given precision.
+     */
+    public static StaticSignModel load(Resource modelJson, Resource labelMapping, WeightPrecision precision) throws IOException {
+        TfjsModelLoader.Graph graph = TfjsModelLoader.load(modelJson);
+
+        List<DenseLayer> layers = new ArrayList<>();
+        for (TfjsModelLoader.Node node : graph.nodesOfType("_FusedMatMul")) {
+            DenseLayer layer = new DenseLayer(
+                    graph.weight(node.inputs().get(1)),
+                    graph.weight(node.inputs().get(2)),
+                    node.fusedOps().contains("Relu"));
+            layers.add(precision == WeightPrecision.INT8 ? layer.quantized() : layer);
+        }
+        if (layers.isEmpty()) {
+            throw new IOException("No dense layers found in " + modelJson.getDescription());
+        }
+        return new StaticSignModel(layers.toArray(DenseLayer[]::new), TfjsModelLoader.loadLabels(labelMapping));
+    }
+
+    public int classes() {
+        return labels.length;
+    }
+
+    public String label(int index) {
+        return labels[index];
+    }
+
+    // Resident size of the kernels and biases
+    public long weightBytes() {
+        long bytes = 0;
+        for (DenseLayer layer : layers) {
+            bytes += layer.weightBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Runs the model on {@code batch} feature rows packed into {@code input}
+     * ({@code batch * FEATURES} floats) and writes class probabilities into
+     * {@code probabilities} ({@code batch * classes()} floats).
+     */
+    public void predict(float[] input, int batch, float[] probabilities) {
+        float[][] buffers = workspace.get();
+        float[] in = input;
+        for (int l = 0; l < layers.length; l++) {
+            DenseLayer layer = layers[l];
+            float[] out;
+            if (l == layers.length - 1) {
+                out = probabilities;
+            } else {
+                int needed = batch * layer.outputs();
+                if (buffers[l] == null || buffers[l].length < needed) {
+                    buffers[l] = new float[needed];
+                }
+                out = buffers[l];
+            }
+            layer.forward(in, out, batch);
+            in = out;
+        }
+
+        for (int b = 0; b < batch; b++) {
+            InferenceMath.softmax(probabilities, b * labels.length, labels.length);
+        }
+    }
+
+    /**
+     * Returns the {@code k} most likely labels of one row of a {@link #predict} result.
+     */
+    public List<Prediction> topK(float[] probabilities, int row, int k) {
+        return InferenceMath.topK(probabilities, row * labels.length, labels, k);
+    }
+}
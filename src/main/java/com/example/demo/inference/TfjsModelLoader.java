@@ -0,0 +1,174 @@
+package com.example.demo.inference;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the weights of a TFJS graph model (model.json + binary shards) into
+ * plain float arrays, keyed by the weight name used in the model topology.
+ * Weights the converter quantized (uint8, uint16, float16) are expanded to float32.
+ */
+public final class TfjsModelLoader {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private TfjsModelLoader() {
+    }
+
+    /**
+     * A single weight tensor in row-major order.
+     */
+    public record Tensor(int[] shape, float[] data) {
+    }
+
+    /**
+     * One op of the model graph. {@code fusedOps} lists the ops TFJS folded into it (e.g. BiasAdd, Relu).
+     */
+    public record Node(String name, String op, List<String> inputs, List<String> fusedOps) {
+    }
+
+    /**
+     * The graph nodes in topological order together with their float weights.
+     */
+    public record Graph(List<Node> nodes, Map<String, Tensor> weights) {
+
+        public List<Node> nodesOfType(String op) {
+            return nodes.stream().filter(n -> n.op().equals(op)).toList();
+        }
+
+        public Tensor weight(String name) {
+            Tensor tensor = weights.get(name);
+            if (tensor == null) {
+                throw new IllegalStateException("Weight '" + name + "' not found in model");
+            }
+            return tensor;
+        }
+    }
+
+    /**
+     * Loads the topology and every float32 weight listed in the manifest of the given model.json,
+     * dequantizing stored quantized ones. Non-float tensors (e.g. the int32 dims TFJS stores for ExpandDims) are skipped.
+     */
+    public static Graph load(Resource modelJson) throws IOException {
+        JsonNode root;
+        try (InputStream in = modelJson.getInputStream()) {
+            root = MAPPER.readTree(in);
+        }
+
+        List<Node> nodes = new ArrayList<>();
+        for (JsonNode node : root.path("modelTopology").path("node")) {
+            List<String> inputs = new ArrayList<>();
+            node.path("input").forEach(i -> inputs.add(i.asText()));
+            List<String> fused = new ArrayList<>();
+            node.path("attr").path("fused_ops").path("list").path("s")
+                    .forEach(s -> fused.add(new String(Base64.getDecoder().decode(s.asText()), StandardCharsets.UTF_8)));
+            nodes.add(new Node(node.path("name").asText(), node.path("op").asText(), inputs, fused));
+        }
+        return new Graph(nodes, loadWeights(modelJson, root.path("weightsManifest")));
+    }
+
+    private static Map<String, Tensor> loadWeights(Resource modelJson, JsonNode manifest) throws IOException {
+        Map<String, Tensor> weights = new HashMap<>();
+        for (JsonNode group : manifest) {
+            ByteBuffer buffer = readShards(modelJson, group.path("paths"));
+            for (JsonNode entry : group.path("weights")) {
+                int[] shape = MAPPER.convertValue(entry.path("shape"), int[].class);
+                int count = 1;
+                for (int dim : shape) {
+                    count *= dim;
+                }
+
+                String dtype = entry.path("dtype").asText();
+                JsonNode quantization = entry.path("quantization");
+                if (quantization.isObject()) {
+                    float[] data = dequantize(buffer, count, quantization, modelJson);
+                    if ("float32".equals(dtype)) {
+                        weights.put(entry.path("name").asText(), new Tensor(shape, data));
+                    }
+                } else if ("float32".equals(dtype)) {
+                    float[] data = new float[count];
+                    buffer.asFloatBuffer().get(data);
+                    buffer.position(buffer.position() + count * Float.BYTES);
+                    weights.put(entry.path("name").asText(), new Tensor(shape, data));
+                } else if ("int32".equals(dtype)) {
+                    buffer.position(buffer.position() + count * Integer.BYTES);
+                } else {
+                    throw new IOException("Unsupported weight dtype '" + dtype + "' in " + modelJson.getDescription());
+                }
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Decodes a weight stored in one of the TFJS converter's quantized forms: affine
+     * uint8 / uint16 ({@code min + q * scale}, one pair per tensor) or float16.
+     */
+    private static float[] dequantize(ByteBuffer buffer, int count, JsonNode quantization, Resource modelJson) throws IOException {
+        String stored = quantization.path("dtype").asText();
+        float min = (float) quantization.path("min").asDouble();
+        float scale = (float) quantization.path("scale").asDouble();
+        float[] data = new float[count];
+        switch (stored) {
+            case "uint8" -> {
+                for (int i = 0; i < count; i++) {
+                    data[i] = min + (buffer.get() & 0xFF) * scale;
+                }
+            }
+            case "uint16" -> {
+                for (int i = 0; i < count; i++) {
+                    data[i] = min + (buffer.getShort() & 0xFFFF) * scale;
+                }
+            }
+            case "float16" -> {
+                for (int i = 0; i < count; i++) {
+                    data[i] = InferenceMath.halfToFloat(buffer.getShort());
+                }
+            }
+            default -> throw new IOException("Unsupported weight quantization '" + stored + "' in " + modelJson.getDescription());
+        }
+        return data;
+    }
+
+    /**
+     * Loads a label mapping file of the form {"0": "A", "1": "B", ...} into an index-ordered array.
+     */
+    public static String[] loadLabels(Resource labelMapping) throws IOException {
+        JsonNode root;
+        try (InputStream in = labelMapping.getInputStream()) {
+            root = MAPPER.readTree(in);
+        }
+        String[] labels = new String[root.size()];
+        root.properties().forEach(e -> labels[Integer.parseInt(e.getKey())] = e.getValue().asText());
+        return labels;
+    }
+
+    private static ByteBuffer readShards(Resource modelJson, JsonNode paths) throws IOException {
+        // Shards of a group are one logical buffer split across files
+        byte[][] parts = new byte[paths.size()][];
+        int total = 0;
+        for (int i = 0; i < parts.length; i++) {
+            try (InputStream in = modelJson.createRelative(paths.get(i).asText()).getInputStream()) {
+                parts[i] = in.readAllBytes();
+            }
+            total += parts[i].length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(total).order(ByteOrder.LITTLE_ENDIAN);
+        for (byte[] part : parts) {
+            buffer.put(part);
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.inference;
+
+import java.util.Locale;
+
+/**
+ * How the Java engine keeps dense and convolution kernels in memory. Biases and
+ * activations stay float32 either way.
+ */
+public enum WeightPrecision {
+
+    /** The weights as exported. */
+    FLOAT32,
+
+    /** Symmetric int8 per output channel (see {@link QuantizedKernel}); a quarter of the memory. */
+    INT8;
+
+    public static WeightPrecision parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown weight precision '" + value + "' (use float32 or int8)");
+        }
+    }
+}
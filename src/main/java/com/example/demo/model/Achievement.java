@@ -14,13 +14,23 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 @Table(name = "achievements")
 public class Achievement {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "achievements_seq")
+    @SequenceGenerator(name = "achievements_seq", sequenceName = "achievements_seq", allocationSize = 50)
     private Long id;
 
     private String name; // e.g., "First Lesson"
     private String description; // e.g., "Complete your first lesson"
     private String icon; // e.g., "fa-book-open"
 
+    // Award rule: earned once the metric reaches the threshold
+    @Enumerated(EnumType.STRING)
+    private AchievementMetric metric;
+
+    // For MODULE_LESSONS a null threshold means every lesson in the module
+    private Integer threshold;
+
+    private String moduleId; // only for MODULE_LESSONS, e.g., "basics"
+
     @ManyToMany(mappedBy = "unlockedAchievements")
     @JsonIgnore // Prevent infinite loops
     private Set<User> users;
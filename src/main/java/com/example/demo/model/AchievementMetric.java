@@ -0,0 +1,12 @@
+package com.example.demo.model;
+
+/**
+ * The progress value an achievement rule is checked against.
+ */
+public enum AchievementMetric {
+    LESSONS_COMPLETED,
+    STUDY_STREAK,
+    STUDY_TIME,
+    // Lessons completed within one module (Achievement.moduleId)
+    MODULE_LESSONS
+}
@@ -0,0 +1,45 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+/**
+ * Restart point of a batch job run: every user_progress row up to {@code lastId} has been
+ * processed, and the partial figures cover exactly those rows. A rerun for the same day
+ * continues after {@code lastId}.
+ */
+@Entity
+@Table(name = "batch_checkpoints")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchCheckpoint {
+
+    @Id
+    private String job;
+
+    @Column(nullable = false)
+    private LocalDate runDay;
+
+    private long lastId;
+
+    private boolean completed;
+
+    private long learners;
+
+    private long activeLearners;
+
+    private long totalStudyMinutes;
+
+    private long totalLessonsCompleted;
+
+    private long streaksReset;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date updatedAt;
+}
@@ -0,0 +1,31 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Date;
+
+/**
+ * Cluster-wide lease on a batch job, so only one instance runs it at a time. The holder
+ * renews {@code lockedUntil} while it works; a lease left behind by a crashed instance can
+ * be taken over once it has expired.
+ */
+@Entity
+@Table(name = "batch_locks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchLock {
+
+    @Id
+    private String job;
+
+    @Column(nullable = false)
+    private String owner;
+
+    @Column(nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date lockedUntil;
+}
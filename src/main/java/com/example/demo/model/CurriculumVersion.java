@@ -0,0 +1,39 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.util.Date;
+
+/**
+ * One module change in a published curriculum version: the module's new ETag, or null
+ * when the module was removed. Clients holding version N fetch only modules changed after N.
+ */
+@Entity
+@Table(name = "curriculum_versions",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"version", "module_id"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CurriculumVersion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private int version;
+
+    @Column(name = "module_id", nullable = false)
+    private String moduleId;
+
+    private String etag; // null when the module was removed in this version
+
+    @CreationTimestamp
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(updatable = false)
+    private Date publishedAt;
+}
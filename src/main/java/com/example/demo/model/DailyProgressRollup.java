@@ -0,0 +1,43 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+/**
+ * Platform-wide progress figures for one day, written by the nightly batch. Totals are
+ * snapshots of user_progress when the job ran; the per-day figures are the difference to
+ * the previous day's totals (null for the first rollup).
+ */
+@Entity
+@Table(name = "daily_progress_rollups")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyProgressRollup {
+
+    @Id
+    private LocalDate day;
+
+    private long learners;
+
+    // Learners whose last study day is the rolled-up day or later
+    private long activeLearners;
+
+    private long totalStudyMinutes;
+
+    private long totalLessonsCompleted;
+
+    private Long minutesStudied;
+
+    private Long lessonsFinished;
+
+    private long streaksReset;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date completedAt;
+}
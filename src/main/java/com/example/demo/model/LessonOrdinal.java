@@ -0,0 +1,25 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Bit position of a lesson in {@link UserProgress#getCompletedLessonsBits()}. Assigned once
+ * and never reused, so stored bitsets stay valid when lessons are added or retired.
+ */
+@Entity
+@Table(name = "lesson_ordinals")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LessonOrdinal {
+
+    @Id
+    @Column(name = "lesson_id")
+    private String lessonId;
+
+    @Column(nullable = false, unique = true)
+    private int ordinal;
+}
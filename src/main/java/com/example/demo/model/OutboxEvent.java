@@ -0,0 +1,43 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Date;
+
+/**
+ * A progress event handed off for asynchronous processing. Rows stay until every
+ * subscriber has handled the event ({@code processedAt} set); unprocessed rows are
+ * re-dispatched, so subscribers must be idempotent. Written and read with JDBC batches.
+ */
+@Entity
+@Table(name = "progress_outbox", indexes = @Index(name = "idx_outbox_pending", columnList = "processed_at, created_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @Column(length = 36)
+    private String id; // random UUID, assigned when the event is published
+
+    @Column(nullable = false, length = 32)
+    private String type;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    private String payload; // lesson id, minutes or study day, depending on the type
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "created_at", nullable = false)
+    private Date createdAt;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "processed_at")
+    private Date processedAt;
+
+    private int attempts;
+}
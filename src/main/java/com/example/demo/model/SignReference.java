@@ -0,0 +1,39 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.util.Date;
+
+/**
+ * A reference recording of one sign for practice scoring: {@code frameCount} frames in the
+ * dynamic model's 258-value layout, packed as little-endian float32. A sign may have several.
+ */
+@Entity
+@Table(name = "sign_references", indexes = @Index(name = "idx_sign_reference_sign", columnList = "sign"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SignReference {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String sign;
+
+    @Column(name = "frame_count", nullable = false)
+    private int frameCount;
+
+    @Column(nullable = false, length = 4 * 1024 * 1024)
+    private byte[] landmarks;
+
+    @CreationTimestamp
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(updatable = false)
+    private Date createdAt;
+}
@@ -1,5 +1,7 @@
 package com.example.demo.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Builder.Default;
@@ -18,10 +20,12 @@ import lombok.*;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = @UniqueConstraint(name = "uk_users_email", columnNames = "email"))
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled: one sequence call per 50 ids, and unlike IDENTITY it lets Hibernate batch the inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Name cannot be empty")
@@ -29,14 +33,20 @@ public class User {
 
     @NotBlank(message = "Email cannot be empty")
     @Email(message = "Please provide a valid email format")
+    @Column(nullable = false) // unique index: registration relies on it instead of a lookup, login seeks on it
     private String email;
 
     @NotBlank(message = "Password cannot be empty")
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY) // accepted in request bodies, never serialized
     private String password;
 
     @Column(columnDefinition = "TEXT") // Use TEXT for potentially long bio content
     private String bio;
 
+    // Class or group the learner studies with; scopes the cohort leaderboards
+    @Column(length = 64)
+    private String cohort;
+
     @CreationTimestamp // This annotation automatically sets the date on creation
     @Temporal(TemporalType.TIMESTAMP)
     @Column(name = "join_date", updatable = false)
@@ -46,12 +56,14 @@ public class User {
     private Date passwordLastUpdated;
 
     @OneToOne(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @JsonIgnore // Served by /api/progress; never loaded just to render a user
     private UserProgress userProgress;
 
     @ManyToMany(fetch = FetchType.LAZY, cascade = CascadeType.PERSIST)
     @JoinTable(name = "user_achievements",
             joinColumns = @JoinColumn(name = "user_id"),
             inverseJoinColumns = @JoinColumn(name = "achievement_id"))
+    @JsonIgnore // Served by /api/achievements
     @Default
     private Set<Achievement> unlockedAchievements = new HashSet<>();
 
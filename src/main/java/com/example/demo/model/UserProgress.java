@@ -3,17 +3,25 @@ package com.example.demo.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
+import java.time.LocalDate;
+import java.util.BitSet;
 import java.util.Date;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * Entity representing a user's learning progress.
  * Tracks completed lessons, study streak, and total study time.
+ * Completed lessons are stored as a bitset over the lesson ordinals (see LessonOrdinals);
+ * the lesson ids and per-module counts in responses are filled in from it by the service.
  */
 @Entity
 @Table(name = "user_progress")
+@DynamicUpdate // Only write changed columns so entity saves don't overwrite buffered SQL increments
 @Getter
 @Setter
 @NoArgsConstructor
@@ -22,12 +30,13 @@ import java.util.Set;
 public class UserProgress {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_progress_seq")
+    @SequenceGenerator(name = "user_progress_seq", sequenceName = "user_progress_seq", allocationSize = 50)
     private Long id;
 
     /**
      * Total number of lessons completed.
-     * This should always stay in sync with completedLessons.size().
+     * This should always stay in sync with the number of bits set in completedLessonsBits.
      */
     @Builder.Default
     private int lessonsCompleted = 0;
@@ -45,17 +54,27 @@ public class UserProgress {
     private int totalStudyTime = 0;
 
     /**
-     * Stores IDs of completed lessons.
-     * Ensures persistence across multiple logins/days.
+     * Completed lessons as a bitset indexed by lesson ordinal (BitSet.toByteArray layout).
+     * One column read instead of a row per lesson.
      */
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(
-        name = "user_completed_lessons",
-        joinColumns = @JoinColumn(name = "progress_id")
-    )
-    @Column(name = "lesson_id")
+    @Column(name = "completed_lessons_bits", length = 1024)
+    @JsonIgnore
     @Builder.Default
-    private Set<String> completedLessons = new HashSet<>();
+    private byte[] completedLessonsBits = new byte[0];
+
+    /**
+     * IDs of completed lessons, decoded from the bitset for API responses; not persisted.
+     */
+    @Transient
+    @Builder.Default
+    private Set<String> completedLessons = new LinkedHashSet<>();
+
+    /**
+     * Completed lessons per module, decoded from the bitset for API responses; not persisted.
+     */
+    @Transient
+    @Builder.Default
+    private Map<String, Integer> moduleCounts = new LinkedHashMap<>();
 
     /**
      * Link back to the user.
@@ -71,15 +90,35 @@ public class UserProgress {
     @Temporal(TemporalType.DATE)
     private Date lastStudiedDate;
 
+    /**
+     * Optimistic lock version. Entity saves and lesson / streak writes check and bump it;
+     * the atomic study-time increments commute with everything and leave it alone.
+     */
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    @JsonIgnore
+    @Builder.Default
+    private long version = 0L;
+
     // --- Utility Methods ---
 
     /**
-     * Marks a lesson as completed. Updates both completedLessons set and lessonsCompleted count.
+     * Marks the lesson with the given ordinal as completed and updates lessonsCompleted.
+     * Returns false if it already was.
      */
-    public void completeLesson(String lessonId) {
-        if (this.completedLessons.add(lessonId)) {
-            this.lessonsCompleted = this.completedLessons.size();
+    public boolean completeLesson(int ordinal) {
+        BitSet bits = lessonBits();
+        if (bits.get(ordinal)) {
+            return false;
         }
+        bits.set(ordinal);
+        this.completedLessonsBits = bits.toByteArray();
+        this.lessonsCompleted = bits.cardinality();
+        return true;
+    }
+
+    public BitSet lessonBits() {
+        return completedLessonsBits == null ? new BitSet() : BitSet.valueOf(completedLessonsBits);
     }
 
     /**
@@ -102,4 +141,36 @@ public class UserProgress {
     public void incrementStreak() {
         this.studyStreak++;
     }
+
+    /**
+     * Records a study session on the given day: the streak grows if the last session was
+     * the day before, restarts at 1 after a gap, and is unchanged for a day that is not
+     * after the last studied date. Applying the same day twice is therefore harmless.
+     */
+    public void recordStudyDay(LocalDate day) {
+        LocalDate last = lastStudiedDate == null ? null : new java.sql.Date(lastStudiedDate.getTime()).toLocalDate();
+        if (last != null && !last.isBefore(day)) {
+            return;
+        }
+        this.studyStreak = last != null && last.equals(day.minusDays(1)) ? this.studyStreak + 1 : 1;
+        this.lastStudiedDate = java.sql.Date.valueOf(day);
+    }
+
+    /**
+     * Returns a detached copy of the progress values (without the user link),
+     * safe to modify without affecting the persistent entity.
+     */
+    public UserProgress copy() {
+        return UserProgress.builder()
+                .id(id)
+                .lessonsCompleted(lessonsCompleted)
+                .studyStreak(studyStreak)
+                .totalStudyTime(totalStudyTime)
+                .completedLessonsBits(completedLessonsBits == null ? null : completedLessonsBits.clone())
+                .completedLessons(new LinkedHashSet<>(completedLessons))
+                .moduleCounts(new LinkedHashMap<>(moduleCounts))
+                .lastStudiedDate(lastStudiedDate)
+                .version(version)
+                .build();
+    }
 }
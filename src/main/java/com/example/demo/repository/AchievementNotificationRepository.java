@@ -0,0 +1,10 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.AchievementNotification;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface AchievementNotificationRepository extends JpaRepository<AchievementNotification, Long> {
+    List<AchievementNotification> findTop50ByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long afterId);
+}
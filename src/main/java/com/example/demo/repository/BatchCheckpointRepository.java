@@ -0,0 +1,7 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.BatchCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface BatchCheckpointRepository extends JpaRepository<BatchCheckpoint, String> {
+}
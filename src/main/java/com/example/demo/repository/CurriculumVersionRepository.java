@@ -0,0 +1,10 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.CurriculumVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface CurriculumVersionRepository extends JpaRepository<CurriculumVersion, Long> {
+    List<CurriculumVersion> findAllByOrderByVersionAsc();
+}
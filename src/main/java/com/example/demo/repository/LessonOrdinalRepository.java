@@ -0,0 +1,7 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.LessonOrdinal;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface LessonOrdinalRepository extends JpaRepository<LessonOrdinal, String> {
+}
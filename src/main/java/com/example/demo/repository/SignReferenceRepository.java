@@ -0,0 +1,21 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.SignReference;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface SignReferenceRepository extends JpaRepository<SignReference, Long> {
+
+    // [sign, recordings], without loading the landmark blobs
+    @Query("select r.sign, count(r) from SignReference r group by r.sign order by r.sign")
+    List<Object[]> countBySign();
+
+    @Query("select coalesce(max(r.id), 0) from SignReference r")
+    long maxId();
+
+    @Transactional
+    long deleteBySignIgnoreCase(String sign);
+}
@@ -2,8 +2,35 @@ package com.example.demo.repository;
 
 import com.example.demo.model.UserProgress;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
 import java.util.Optional;
 
 public interface UserProgressRepository extends JpaRepository<UserProgress, Long> {
     Optional<UserProgress> findByUserId(Long userId);
-}
\ No newline at end of file
+
+    // Lesson and streak columns plus the version they were read at, for an optimistic update
+    interface ProgressState {
+        Long getId();
+        int getLessonsCompleted();
+        byte[] getCompletedLessonsBits();
+        int getStudyStreak();
+        Date getLastStudiedDate();
+        long getVersion();
+    }
+
+    Optional<ProgressState> findProgressStateByUserId(Long userId);
+
+    // Returns 0 if another writer changed the row since it was read
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE UserProgress p SET p.completedLessonsBits = :bits, p.lessonsCompleted = :lessons, "
+            + "p.studyStreak = :streak, p.lastStudiedDate = :day, p.version = p.version + 1 "
+            + "WHERE p.id = :id AND p.version = :version")
+    int updateLessonsAndStreak(@Param("id") Long id, @Param("bits") byte[] bits, @Param("lessons") int lessons,
+                               @Param("streak") int streak, @Param("day") Date day, @Param("version") long version);
+}
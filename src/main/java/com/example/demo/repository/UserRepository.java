@@ -3,8 +3,25 @@ package com.example.demo.repository;
 import com.example.demo.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Date;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByEmail(String email);
+
+    // The columns a login needs, read through the unique email index
+    record Credentials(Long id, String password, String name) {
+    }
+
+    Optional<Credentials> findCredentialsByEmail(String email);
+
+    // What the user endpoints return: the profile columns only, never the password or associations
+    record UserProfile(Long id, String name, String email, String bio, String cohort, Date joinDate) {
+        public static UserProfile of(User user) {
+            return new UserProfile(user.getId(), user.getName(), user.getEmail(), user.getBio(),
+                    user.getCohort(), user.getJoinDate());
+        }
+    }
+
+    // One select of the profile columns; loading the entity would also fetch the mapped-by progress row
+    Optional<UserProfile> findProfileById(Long id);
 }
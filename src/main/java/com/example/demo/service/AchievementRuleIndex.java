@@ -0,0 +1,145 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Achievement;
+import com.example.demo.model.AchievementMetric;
+import com.example.demo.repository.AchievementRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The achievement rules from the achievements table, compiled once into per-metric lists
+ * sorted by threshold. Finding the rules a metric change crosses is a binary search, so
+ * adding achievements doesn't add queries to the progress endpoints.
+ */
+@Component
+public class AchievementRuleIndex {
+
+    @Autowired
+    private AchievementRepository achievementRepository;
+
+    @Autowired
+    private LessonCatalog lessonCatalog;
+
+    private volatile Index index = new Index(Map.of(), Map.of(), Map.of());
+
+    private record Index(Map<Long, Achievement> byId,
+                         Map<AchievementMetric, Rules> byMetric,
+                         Map<String, Rules> byModule) {
+    }
+
+    // Achievements sorted by threshold, with the thresholds copied out for searching
+    private static final class Rules {
+        final int[] thresholds;
+        final Achievement[] achievements;
+
+        Rules(List<Achievement> rules, Map<Achievement, Integer> resolved) {
+            rules.sort(Comparator.comparing(resolved::get));
+            this.achievements = rules.toArray(new Achievement[0]);
+            this.thresholds = rules.stream().mapToInt(resolved::get).toArray();
+        }
+
+        // Rules with from < threshold <= to
+        void crossed(int from, int to, List<Achievement> out) {
+            int i = firstAbove(from);
+            while (i < thresholds.length && thresholds[i] <= to) {
+                out.add(achievements[i++]);
+            }
+        }
+
+        private int firstAbove(int value) {
+            int i = Arrays.binarySearch(thresholds, value);
+            if (i < 0) {
+                return -i - 1;
+            }
+            // Skip rules sharing this threshold
+            while (i < thresholds.length && thresholds[i] == value) {
+                i++;
+            }
+            return i;
+        }
+    }
+
+    /**
+     * Rebuilds the index from the database; call after achievements are added or changed.
+     */
+    public void reload() {
+        Map<Long, Achievement> byId = new HashMap<>();
+        Map<AchievementMetric, List<Achievement>> metricRules = new EnumMap<>(AchievementMetric.class);
+        Map<String, List<Achievement>> moduleRules = new HashMap<>();
+        Map<Achievement, Integer> resolved = new HashMap<>();
+
+        for (Achievement achievement : achievementRepository.findAll()) {
+            byId.put(achievement.getId(), achievement);
+            Integer threshold = resolveThreshold(achievement);
+            if (threshold == null) {
+                continue; // no rule, or a module the catalog doesn't know
+            }
+            resolved.put(achievement, threshold);
+            if (achievement.getMetric() == AchievementMetric.MODULE_LESSONS) {
+                moduleRules.computeIfAbsent(achievement.getModuleId(), m -> new ArrayList<>()).add(achievement);
+            } else {
+                metricRules.computeIfAbsent(achievement.getMetric(), m -> new ArrayList<>()).add(achievement);
+            }
+        }
+
+        Map<AchievementMetric, Rules> byMetric = new EnumMap<>(AchievementMetric.class);
+        metricRules.forEach((metric, rules) -> byMetric.put(metric, new Rules(rules, resolved)));
+        Map<String, Rules> byModule = new HashMap<>();
+        moduleRules.forEach((module, rules) -> byModule.put(module, new Rules(rules, resolved)));
+        index = new Index(Map.copyOf(byId), byMetric, Map.copyOf(byModule));
+    }
+
+    public Achievement get(Long id) {
+        return index.byId().get(id);
+    }
+
+    public Collection<Achievement> all() {
+        return index.byId().values();
+    }
+
+    // Modules that have at least one rule; only these need per-module counts
+    public Set<String> ruleModules() {
+        return index.byModule().keySet();
+    }
+
+    /**
+     * Collects the achievements whose threshold lies in (from, to] for the given metric.
+     */
+    public void crossed(AchievementMetric metric, int from, int to, List<Achievement> out) {
+        Rules rules = index.byMetric().get(metric);
+        if (rules != null && to > from) {
+            rules.crossed(from, to, out);
+        }
+    }
+
+    public void crossedInModule(String moduleId, int from, int to, List<Achievement> out) {
+        Rules rules = index.byModule().get(moduleId);
+        if (rules != null && to > from) {
+            rules.crossed(from, to, out);
+        }
+    }
+
+    private Integer resolveThreshold(Achievement achievement) {
+        if (achievement.getMetric() == null) {
+            return null;
+        }
+        if (achievement.getMetric() != AchievementMetric.MODULE_LESSONS) {
+            return achievement.getThreshold() != null ? achievement.getThreshold() : 1;
+        }
+        LessonCatalog.Module module = lessonCatalog.module(achievement.getModuleId());
+        if (module == null) {
+            return null;
+        }
+        return achievement.getThreshold() != null ? achievement.getThreshold() : module.lessonIds().size();
+    }
+}
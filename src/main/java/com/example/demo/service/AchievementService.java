@@ -1,61 +1,289 @@
 package com.example.demo.service;
 
+import com.example.demo.config.CacheConfig;
 import com.example.demo.model.Achievement;
-import com.example.demo.model.User;
+import com.example.demo.model.AchievementMetric;
+import com.example.demo.model.AchievementNotification;
 import com.example.demo.model.UserProgress;
-import com.example.demo.repository.AchievementRepository;
+import com.example.demo.repository.AchievementNotificationRepository;
+import com.example.demo.repository.UserProgressRepository;
 import com.example.demo.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
 
+@Timed(value = "service.method", histogram = true)
 @Service
-public class AchievementService {
+public class AchievementService implements ProgressEventSubscriber {
+
+    // The NOT EXISTS makes re-crossing a threshold (e.g. after a streak reset) a no-op
+    private static final String AWARD_SQL =
+            "INSERT INTO user_achievements (user_id, achievement_id) SELECT ?, ? FROM (SELECT 1) AS one "
+            + "WHERE NOT EXISTS (SELECT 1 FROM user_achievements WHERE user_id = ? AND achievement_id = ?)";
 
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private AchievementRepository achievementRepository;
+    private UserProgressRepository userProgressRepository;
+
+    @Autowired
+    private ProgressWriteBuffer progressWriteBuffer;
 
     @Autowired
-    private UserProgressService userProgressService;
+    private AchievementRuleIndex achievementRuleIndex;
 
-    private void checkAchievement(User user, Set<Achievement> existing, Long achievementId, boolean criteriaMet) {
-        boolean hasAchievement = existing.stream().anyMatch(a -> a.getId().equals(achievementId));
+    @Autowired
+    private LessonOrdinals lessonOrdinals;
 
-        // If the user meets the criteria and doesn't already have the achievement
-        if (criteriaMet && !hasAchievement) {
-            // Find the achievement from the database (it was pre-loaded by DataInitializer)
-            Achievement achievement = achievementRepository.findById(achievementId)
-                    .orElseThrow(() -> new IllegalStateException("Achievement with ID " + achievementId + " not found in database!"));
-            user.getUnlockedAchievements().add(achievement);
+    @Autowired
+    private LessonCatalog lessonCatalog;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AchievementNotificationRepository notificationRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Striped per-user award generations; a collision only costs the other user an extra miss
+    private static final int GENERATION_STRIPES = 4096;
+
+    // Earned achievement ids per user; the achievements themselves come from the rule index
+    private Cache achievementsCache;
+
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * A newly awarded achievement, as shown to the learner.
+     */
+    public record Notification(Long id, Achievement achievement, Date awardedAt) {
+    }
+
+    /**
+     * Cached earned ids, stamped with the award generation read before they were loaded. A
+     * read that raced an award can still put its stale list after the commit evicted the
+     * entry; the stamp no longer matches, so it is treated as a miss instead of being served.
+     */
+    record EarnedIds(long generation, List<Long> ids) {
+    }
+
+    @PostConstruct
+    public void initCache() {
+        achievementsCache = cacheManager.getCache(CacheConfig.ACHIEVEMENTS);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // What a batch of events changed for one learner
+    private static final class Changes {
+        final Set<AchievementMetric> metrics = EnumSet.noneOf(AchievementMetric.class);
+        final Set<String> modules = new HashSet<>();
+    }
+
+    /**
+     * Evaluates, off the request thread, only the rules for the metrics the events changed:
+     * study time, the streak, or the lesson count plus the lesson's module. Events carry no
+     * "before" state, so those rules are checked from zero against current progress; earned
+     * ones are skipped, which also makes redelivered events find nothing new.
+     */
+    @Override
+    public void onProgressEvents(List<ProgressEventBus.Event> events) {
+        Map<Long, Changes> byUser = new LinkedHashMap<>();
+        for (ProgressEventBus.Event event : events) {
+            Changes changes = byUser.computeIfAbsent(event.userId(), id -> new Changes());
+            if (event instanceof ProgressEventBus.StudyTimeAdded) {
+                changes.metrics.add(AchievementMetric.STUDY_TIME);
+            } else if (event instanceof ProgressEventBus.StudyDayRecorded) {
+                changes.metrics.add(AchievementMetric.STUDY_STREAK);
+            } else if (event instanceof ProgressEventBus.LessonCompleted lesson) {
+                changes.metrics.add(AchievementMetric.LESSONS_COMPLETED);
+                String moduleId = lessonCatalog.moduleOf(lesson.lessonId());
+                if (moduleId != null) {
+                    changes.modules.add(moduleId);
+                }
+            }
+        }
+        byUser.forEach((userId, changes) -> {
+            UserProgress progress = progressWriteBuffer.read(userId,
+                    () -> userProgressRepository.findByUserId(userId).orElse(null));
+            if (progress != null) {
+                awardForMetrics(userId, progress, changes);
+            }
+        });
+    }
+
+    private void awardForMetrics(Long userId, UserProgress progress, Changes changes) {
+        List<Achievement> candidates = new ArrayList<>();
+        for (AchievementMetric metric : changes.metrics) {
+            int value = switch (metric) {
+                case LESSONS_COMPLETED -> progress.getLessonsCompleted();
+                case STUDY_STREAK -> progress.getStudyStreak();
+                case STUDY_TIME -> progress.getTotalStudyTime();
+                default -> 0;
+            };
+            achievementRuleIndex.crossed(metric, 0, value, candidates);
+        }
+        Set<String> modules = new HashSet<>(changes.modules);
+        modules.retainAll(achievementRuleIndex.ruleModules());
+        if (!modules.isEmpty()) {
+            Map<String, Integer> counts = lessonOrdinals.countByModule(progress.lessonBits());
+            for (String moduleId : modules) {
+                achievementRuleIndex.crossedInModule(moduleId, 0, counts.getOrDefault(moduleId, 0), candidates);
+            }
+        }
+        awardNew(userId, candidates);
+    }
+
+    // Awards the learner hasn't been shown yet, oldest first, after the given notification id
+    public List<Notification> getNotifications(Long userId, long afterId) {
+        List<Notification> notifications = new ArrayList<>();
+        for (AchievementNotification row : notificationRepository.findTop50ByUserIdAndIdGreaterThanOrderByIdAsc(userId, afterId)) {
+            Achievement achievement = achievementRuleIndex.get(row.getAchievementId());
+            if (achievement != null) {
+                notifications.add(new Notification(row.getId(), achievement, row.getCreatedAt()));
+            }
         }
+        return notifications;
     }
 
     // This method checks all achievements and awards new ones if criteria are met
     public Set<Achievement> checkAndAwardAchievements(Long userId) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new IllegalStateException("User not found"));
-        UserProgress progress = userProgressService.getProgressByUserId(userId);
-        Set<Achievement> userAchievements = user.getUnlockedAchievements();
+        UserProgress progress = progressWriteBuffer.read(userId,
+                () -> userProgressRepository.findByUserId(userId).orElse(null));
+        if (progress == null && !userRepository.existsById(userId)) {
+            throw new IllegalStateException("User not found");
+        }
+        if (progress != null) {
+            // Evaluating from zero re-checks every rule; already earned ones are skipped
+            awardForChange(userId, null, progress);
+        }
+        return getAchievementsForUser(userId);
+    }
+
+    /**
+     * Awards the achievements whose thresholds were crossed between two states of a user's
+     * progress ({@code before} null means from scratch). Only rules indexed under a metric
+     * that changed are looked at. Returns the newly awarded achievements.
+     */
+    public Set<Achievement> awardForChange(Long userId, UserProgress before, UserProgress after) {
+        List<Achievement> candidates = new ArrayList<>();
+        achievementRuleIndex.crossed(AchievementMetric.LESSONS_COMPLETED,
+                before != null ? before.getLessonsCompleted() : 0, after.getLessonsCompleted(), candidates);
+        achievementRuleIndex.crossed(AchievementMetric.STUDY_STREAK,
+                before != null ? before.getStudyStreak() : 0, after.getStudyStreak(), candidates);
+        achievementRuleIndex.crossed(AchievementMetric.STUDY_TIME,
+                before != null ? before.getTotalStudyTime() : 0, after.getTotalStudyTime(), candidates);
 
-        // --- Achievement Logic ---
+        Set<String> ruleModules = achievementRuleIndex.ruleModules();
+        boolean lessonsChanged = before == null || !Arrays.equals(before.getCompletedLessonsBits(), after.getCompletedLessonsBits());
+        if (!ruleModules.isEmpty() && lessonsChanged) {
+            Map<String, Integer> countsBefore = before != null ? lessonOrdinals.countByModule(before.lessonBits()) : Map.of();
+            Map<String, Integer> countsAfter = lessonOrdinals.countByModule(after.lessonBits());
+            for (String moduleId : ruleModules) {
+                achievementRuleIndex.crossedInModule(moduleId,
+                        countsBefore.getOrDefault(moduleId, 0), countsAfter.getOrDefault(moduleId, 0), candidates);
+            }
+        }
 
-        // Achievement 1: First Lesson Complete
-        checkAchievement(user, userAchievements, 1L, progress.getLessonsCompleted() >= 1);
+        return awardNew(userId, candidates);
+    }
 
-        // Achievement 2: Five Lessons Complete
-        checkAchievement(user, userAchievements, 2L, progress.getLessonsCompleted() >= 5);
+    // Awards the candidates the learner hasn't earned yet; returns those newly awarded
+    private Set<Achievement> awardNew(Long userId, List<Achievement> candidates) {
+        Set<Achievement> awarded = new LinkedHashSet<>();
+        if (candidates.isEmpty()) {
+            return awarded;
+        }
+        Set<Long> earned = new HashSet<>();
+        getAchievementsForUser(userId).forEach(achievement -> earned.add(achievement.getId()));
+        for (Achievement achievement : candidates) {
+            if (!earned.contains(achievement.getId()) && award(userId, achievement.getId())) {
+                awarded.add(achievement);
+            }
+        }
+        return awarded;
+    }
 
-        // Achievement 3: Study Streak of 3 days
-        checkAchievement(user, userAchievements, 3L, progress.getStudyStreak() >= 3);
-        
-        userRepository.save(user);
-        return user.getUnlockedAchievements();
+    // Every achievement, served from the rule index loaded at startup
+    public List<Achievement> getCatalog() {
+        List<Achievement> catalog = new ArrayList<>(achievementRuleIndex.all());
+        catalog.sort(Comparator.comparing(Achievement::getId));
+        return catalog;
     }
 
     public Set<Achievement> getAchievementsForUser(Long userId) {
-        return userRepository.findById(userId).map(User::getUnlockedAchievements).orElse(Set.of());
+        long generation = generations.get(stripe(userId));
+        EarnedIds cached = achievementsCache.get(userId, EarnedIds.class);
+        if (cached == null || cached.generation() != generation) {
+            cached = new EarnedIds(generation, List.copyOf(jdbcTemplate.queryForList(
+                    "SELECT achievement_id FROM user_achievements WHERE user_id = ?", Long.class, userId)));
+            achievementsCache.put(userId, cached);
+        }
+        Set<Achievement> achievements = new HashSet<>();
+        for (Long id : cached.ids()) {
+            Achievement achievement = achievementRuleIndex.get(id);
+            if (achievement != null) {
+                achievements.add(achievement);
+            }
+        }
+        return achievements;
+    }
+
+    // Writes the join row directly instead of loading the user's achievement collection; the notification commits with it
+    private boolean award(Long userId, Long achievementId) {
+        try {
+            boolean inserted = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (jdbcTemplate.update(AWARD_SQL, userId, achievementId, userId, achievementId) == 0) {
+                    return false;
+                }
+                notificationRepository.save(AchievementNotification.builder()
+                        .userId(userId).achievementId(achievementId).build());
+                // Both deferred until commit, so a list loaded before the new row was visible is never current
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        generations.incrementAndGet(stripe(userId));
+                    }
+                });
+                achievementsCache.evict(userId);
+                return true;
+            }));
+            return inserted;
+        } catch (DuplicateKeyException e) {
+            return false; // a concurrent request awarded it first
+        }
+    }
+
+    private static int stripe(Long userId) {
+        return Long.hashCode(userId) & (GENERATION_STRIPES - 1);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.UUID;
+
+/**
+ * Database leases on batch jobs (batch_locks), so a scheduled job fires on every instance but
+ * runs on one. Plain conditional statements, no held connection or transaction: a lease is
+ * taken when it is free, expired or already ours, and kept alive by {@link #renew}.
+ */
+@Component
+public class BatchJobLock {
+
+    private static final String TAKE_SQL =
+            "UPDATE batch_locks SET owner = ?, locked_until = ? WHERE job = ? AND (locked_until < ? OR owner = ?)";
+
+    private static final String CREATE_SQL = "INSERT INTO batch_locks (job, owner, locked_until) VALUES (?, ?, ?)";
+
+    private static final String RENEW_SQL = "UPDATE batch_locks SET locked_until = ? WHERE job = ? AND owner = ?";
+
+    private static final String RELEASE_SQL = "DELETE FROM batch_locks WHERE job = ? AND owner = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${batch.lock.lease-ms:600000}")
+    private long leaseMs;
+
+    private final String owner = UUID.randomUUID().toString();
+
+    // True if this instance now holds the lease
+    public boolean tryAcquire(String job) {
+        long now = System.currentTimeMillis();
+        Timestamp until = new Timestamp(now + leaseMs);
+        if (jdbcTemplate.update(TAKE_SQL, owner, until, job, new Timestamp(now), owner) == 1) {
+            return true;
+        }
+        try {
+            return jdbcTemplate.update(CREATE_SQL, job, owner, until) == 1;
+        } catch (DuplicateKeyException e) {
+            return false; // held by another instance
+        }
+    }
+
+    /**
+     * Extends a lease this instance holds; throws if it was lost (expired and taken over), in
+     * which case the caller must stop writing.
+     */
+    public void renew(String job) {
+        Timestamp until = new Timestamp(System.currentTimeMillis() + leaseMs);
+        if (jdbcTemplate.update(RENEW_SQL, until, job, owner) != 1) {
+            throw new IllegalStateException("Lost the lease on batch job " + job);
+        }
+    }
+
+    public void release(String job) {
+        jdbcTemplate.update(RELEASE_SQL, job, owner);
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.demo.service;
+
+import com.example.demo.model.CurriculumVersion;
+import com.example.demo.repository.CurriculumVersionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves the curriculum from memory as a light module index plus one body per module.
+ * Every body is serialized once at startup, together with its gzip bytes and a strong
+ * ETag from the content hash. Module ETags are compared with the last published ones, and
+ * any difference is recorded as a new curriculum version in curriculum_versions, so
+ * clients can ask which modules changed since the version they hold.
+ */
+@Slf4j
+@Service
+public class CatalogService {
+
+    // Lesson fields left out of the index; they are only in the module bodies
+    private static final String LESSON_BODY_FIELD = "content";
+
+    @Autowired
+    private LessonCatalog lessonCatalog;
+
+    @Autowired
+    private CurriculumVersionRepository curriculumVersionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private volatile Snapshot snapshot;
+
+    private record Snapshot(int version, Body index, Map<String, Body> modules, List<CurriculumVersion> history) {
+    }
+
+    /**
+     * A serialized response body with its precompressed variant. Each encoding has its own
+     * strong ETag, because the bytes differ.
+     */
+    public record Body(byte[] identity, byte[] gzip, String etag) {
+
+        public String etag(boolean gzipped) {
+            return gzipped ? etag.substring(0, etag.length() - 1) + "-gz\"" : etag;
+        }
+    }
+
+    public record ModuleChange(String id, String etag) {
+    }
+
+    public record CatalogChanges(int version, int since, List<ModuleChange> changed, List<String> removed) {
+    }
+
+    /**
+     * Serializes the catalog and publishes a new version if any module changed since the
+     * last published one.
+     */
+    public synchronized void publish() {
+        Map<String, Body> modules = new LinkedHashMap<>();
+        for (Map<String, Object> module : lessonCatalog.definitions()) {
+            modules.put((String) module.get("id"), body(module));
+        }
+
+        List<CurriculumVersion> history;
+        try {
+            history = record(modules);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance published the same change at the same time
+            history = record(modules);
+        }
+        int version = history.isEmpty() ? 0 : history.get(history.size() - 1).getVersion();
+
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (Map<String, Object> module : lessonCatalog.definitions()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            module.forEach((key, value) -> {
+                if (!"lessons".equals(key)) {
+                    entry.put(key, value);
+                }
+            });
+            List<Map<String, Object>> lessons = new ArrayList<>();
+            for (Object lesson : (List<?>) module.getOrDefault("lessons", List.of())) {
+                Map<String, Object> summary = new LinkedHashMap<>(castMap(lesson));
+                summary.remove(LESSON_BODY_FIELD);
+                lessons.add(summary);
+            }
+            entry.put("lessons", lessons);
+            entry.put("etag", modules.get((String) module.get("id")).etag());
+            entries.add(entry);
+        }
+        Map<String, Object> index = new LinkedHashMap<>();
+        index.put("version", version);
+        index.put("modules", entries);
+
+        snapshot = new Snapshot(version, body(index), Map.copyOf(modules), List.copyOf(history));
+        log.info("Catalog version {}: {} modules, index {} bytes ({} gzipped)",
+                version, modules.size(), snapshot.index().identity().length, snapshot.index().gzip().length);
+    }
+
+    // Appends a version for the modules whose ETag differs from the last published one; returns the full history
+    private List<CurriculumVersion> record(Map<String, Body> modules) {
+        List<CurriculumVersion> history = new ArrayList<>(curriculumVersionRepository.findAllByOrderByVersionAsc());
+        Map<String, String> published = new TreeMap<>();
+        int version = 0;
+        for (CurriculumVersion change : history) {
+            published.put(change.getModuleId(), change.getEtag());
+            version = change.getVersion();
+        }
+
+        List<CurriculumVersion> changes = new ArrayList<>();
+        int next = version + 1;
+        modules.forEach((moduleId, body) -> {
+            if (!Objects.equals(published.get(moduleId), body.etag())) {
+                changes.add(CurriculumVersion.builder().version(next).moduleId(moduleId).etag(body.etag()).build());
+            }
+        });
+        published.forEach((moduleId, etag) -> {
+            if (etag != null && !modules.containsKey(moduleId)) {
+                changes.add(CurriculumVersion.builder().version(next).moduleId(moduleId).build());
+            }
+        });
+        if (!changes.isEmpty()) {
+            history.addAll(curriculumVersionRepository.saveAll(changes));
+        }
+        return history;
+    }
+
+    public Body index() {
+        return current().index();
+    }
+
+    // Null for unknown modules
+    public Body module(String moduleId) {
+        return current().modules().get(moduleId);
+    }
+
+    /**
+     * Modules changed or removed after the given version, each listed once with its
+     * current ETag.
+     */
+    public CatalogChanges changesSince(int since) {
+        Snapshot current = current();
+        if (since < 0 || since > current.version()) {
+            throw new IllegalArgumentException("Unknown catalog version: " + since);
+        }
+        Map<String, String> latest = new LinkedHashMap<>();
+        for (CurriculumVersion change : current.history()) {
+            if (change.getVersion() > since) {
+                latest.put(change.getModuleId(), change.getEtag());
+            }
+        }
+        List<ModuleChange> changed = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        latest.forEach((moduleId, etag) -> {
+            if (etag == null) {
+                removed.add(moduleId);
+            } else {
+                changed.add(new ModuleChange(moduleId, etag));
+            }
+        });
+        return new CatalogChanges(current.version(), since, changed, removed);
+    }
+
+    // Requests can arrive before the startup runner has published; publish on their thread then
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    publish();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> castMap(Object value) {
+        return (Map<String, Object>) value;
+    }
+
+    private Body body(Object value) {
+        try {
+            byte[] identity = objectMapper.writeValueAsBytes(value);
+            return new Body(identity, gzip(identity), etag(identity));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the catalog", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        // Compressed once at startup, so the slowest level costs nothing per request
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {{ def.setLevel(Deflater.BEST_COMPRESSION); }}) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String etag(byte[] data) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(data);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash).substring(0, 27) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal parser for the JavaScript literal in data/modules.js: objects with bare or quoted
+ * keys, arrays, strings in all three quote styles, numbers, true/false/null, comments and
+ * trailing commas. Objects become LinkedHashMaps so key order survives re-serialization.
+ * Template literals are taken verbatim and must not contain ${} substitutions.
+ */
+final class JsLiteralParser {
+
+    private final String source;
+    private int pos;
+
+    private JsLiteralParser(String source, int pos) {
+        this.source = source;
+        this.pos = pos;
+    }
+
+    // Parses the first array literal in the source, e.g. the right-hand side of "window.x = [...]"
+    static List<Object> parseArray(String source) {
+        int start = source.indexOf('[');
+        if (start < 0) {
+            throw new IllegalStateException("Lesson catalog has no module array");
+        }
+        return new JsLiteralParser(source, start).array();
+    }
+
+    private Object value() {
+        skipBlank();
+        char c = peek();
+        if (c == '{') {
+            return object();
+        }
+        if (c == '[') {
+            return array();
+        }
+        if (c == '"' || c == '\'' || c == '`') {
+            return string();
+        }
+        if (c == '-' || Character.isDigit(c)) {
+            return number();
+        }
+        String word = identifier();
+        return switch (word) {
+            case "true" -> Boolean.TRUE;
+            case "false" -> Boolean.FALSE;
+            case "null" -> null;
+            default -> throw error("Unexpected '" + word + "'");
+        };
+    }
+
+    private Map<String, Object> object() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        pos++;
+        while (true) {
+            skipBlank();
+            if (peek() == '}') {
+                pos++;
+                return object;
+            }
+            char c = peek();
+            String key = c == '"' || c == '\'' ? string() : identifier();
+            skipBlank();
+            expect(':');
+            object.put(key, value());
+            if (!separator('}')) {
+                return object;
+            }
+        }
+    }
+
+    private List<Object> array() {
+        List<Object> array = new ArrayList<>();
+        pos++;
+        while (true) {
+            skipBlank();
+            if (peek() == ']') {
+                pos++;
+                return array;
+            }
+            array.add(value());
+            if (!separator(']')) {
+                return array;
+            }
+        }
+    }
+
+    // After an element: true to continue, false if the closing bracket was consumed
+    private boolean separator(char close) {
+        skipBlank();
+        char c = peek();
+        pos++;
+        if (c == ',') {
+            return true;
+        }
+        if (c == close) {
+            return false;
+        }
+        throw error("Expected ',' or '" + close + "'");
+    }
+
+    private String string() {
+        char quote = source.charAt(pos++);
+        StringBuilder out = new StringBuilder();
+        while (pos < source.length()) {
+            char c = source.charAt(pos++);
+            if (c == quote) {
+                return out.toString();
+            }
+            if (c == '\\') {
+                char e = source.charAt(pos++);
+                switch (e) {
+                    case 'n' -> out.append('\n');
+                    case 't' -> out.append('\t');
+                    case 'r' -> out.append('\r');
+                    case 'b' -> out.append('\b');
+                    case 'f' -> out.append('\f');
+                    case 'u' -> {
+                        out.append((char) Integer.parseInt(source.substring(pos, pos + 4), 16));
+                        pos += 4;
+                    }
+                    case '\n' -> { } // line continuation
+                    default -> out.append(e);
+                }
+            } else if (quote == '`' && c == '$' && pos < source.length() && source.charAt(pos) == '{') {
+                throw error("Template substitutions are not supported");
+            } else {
+                out.append(c);
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    private Number number() {
+        int start = pos;
+        if (peek() == '-') {
+            pos++;
+        }
+        while (pos < source.length() && (Character.isDigit(source.charAt(pos)) || "._eE+-".indexOf(source.charAt(pos)) >= 0)) {
+            pos++;
+        }
+        String text = source.substring(start, pos).replace("_", "");
+        return text.matches("-?\\d+") ? (Number) Long.valueOf(text) : (Number) Double.valueOf(text);
+    }
+
+    private String identifier() {
+        int start = pos;
+        while (pos < source.length() && Character.isJavaIdentifierPart(source.charAt(pos))) {
+            pos++;
+        }
+        if (start == pos) {
+            throw error("Unexpected character '" + peek() + "'");
+        }
+        return source.substring(start, pos);
+    }
+
+    private void expect(char c) {
+        if (peek() != c) {
+            throw error("Expected '" + c + "'");
+        }
+        pos++;
+    }
+
+    private char peek() {
+        if (pos >= source.length()) {
+            throw error("Unexpected end of input");
+        }
+        return source.charAt(pos);
+    }
+
+    // Whitespace and comments
+    private void skipBlank() {
+        while (pos < source.length()) {
+            char c = source.charAt(pos);
+            if (Character.isWhitespace(c)) {
+                pos++;
+            } else if (source.startsWith("//", pos)) {
+                int end = source.indexOf('\n', pos);
+                pos = end < 0 ? source.length() : end;
+            } else if (source.startsWith("/*", pos)) {
+                int end = source.indexOf("*/", pos + 2);
+                pos = end < 0 ? source.length() : end + 2;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private IllegalStateException error(String message) {
+        int line = 1;
+        for (int i = 0; i < Math.min(pos, source.length()); i++) {
+            if (source.charAt(i) == '\n') {
+                line++;
+            }
+        }
+        return new IllegalStateException(message + " in lesson catalog at line " + line);
+    }
+}
@@ -0,0 +1,349 @@
+package com.example.demo.service;
+
+import com.example.demo.inference.DynamicSignModel;
+import com.example.demo.inference.DynamicSignSession;
+import com.example.demo.inference.InferenceMath;
+import com.example.demo.inference.PredictionDebouncer;
+import com.example.demo.inference.StaticSignModel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Continuous translation over WebSocket. Frames from all connected streams are queued
+ * and drained on a fixed tick: static-model frames are packed into one batched model
+ * invocation per chunk, dynamic-model streams are advanced in parallel. Per-stream
+ * debouncing then decides which predictions are stable enough to push back.
+ */
+@Slf4j
+@Service
+public class LandmarkStreamService {
+
+    public enum ModelType { STATIC, DYNAMIC }
+
+    @Autowired
+    private ModelRegistry modelRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${recognition.stream.tick-ms:10}")
+    private long tickMs;
+
+    @Value("${recognition.max-batch:256}")
+    private int maxBatch;
+
+    @Value("${recognition.stream.max-pending-frames:32}")
+    private int maxPendingFrames;
+
+    @Value("${recognition.stream.buffer-size:8}")
+    private int bufferSize;
+
+    @Value("${recognition.stream.conf-threshold:0.85}")
+    private float confThreshold;
+
+    @Value("${recognition.stream.workers:0}")
+    private int workers;
+
+    private final Map<String, Stream> streams = new ConcurrentHashMap<>();
+    private final Queue<Frame> pending = new ConcurrentLinkedQueue<>();
+
+    private ScheduledExecutorService ticker;
+    private ExecutorService pool;
+
+    private Timer tickTimer;
+    private Timer staticInference;
+    private Timer dynamicInference;
+    private Counter droppedFrames;
+
+    private static final class Stream {
+        final WebSocketSession session;
+        final ModelType model;
+        final PredictionDebouncer debouncer;
+        // The model version is fixed when the stream opens, so a swap never changes it mid-stream
+        final StaticSignModel staticModel;
+        final DynamicSignSession dynamic;
+        final AtomicInteger queued = new AtomicInteger();
+        int lastStable = -1;
+
+        Stream(WebSocketSession session, ModelType model, PredictionDebouncer debouncer,
+               StaticSignModel staticModel, DynamicSignSession dynamic) {
+            this.session = session;
+            this.model = model;
+            this.debouncer = debouncer;
+            this.staticModel = staticModel;
+            this.dynamic = dynamic;
+        }
+    }
+
+    /**
+     * Pushed to the client whenever the stable sign changes; {@code sign} is null when nothing is stable.
+     */
+    public record StablePrediction(String sign, Float confidence) {
+    }
+
+    // A null data array marks a "no hands" frame
+    private record Frame(Stream stream, float[] data) {
+    }
+
+    // Up to maxBatch static frames that go through one model version in a single invocation
+    private record StaticChunk(StaticSignModel model, List<Frame> frames) {
+    }
+
+    @PostConstruct
+    public void start() {
+        tickTimer = Timer.builder("recognition.stream.tick")
+                .description("Time to drain the frame queue and run one round of inference")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        staticInference = RecognitionService.inferenceTimer(meterRegistry, "static", "stream");
+        dynamicInference = RecognitionService.inferenceTimer(meterRegistry, "dynamic", "stream");
+        droppedFrames = Counter.builder("recognition.stream.dropped")
+                .description("Frames shed because a stream fell behind")
+                .baseUnit("frames")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("recognition.stream.connections", List.of(), streams);
+        int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "landmark-infer");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "landmark-tick");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleWithFixedDelay(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    public int frameSize(ModelType model) {
+        return model == ModelType.STATIC ? StaticSignModel.FEATURES : DynamicSignModel.FEATURES;
+    }
+
+    public void open(WebSocketSession session, ModelType model) {
+        ModelRegistry.Bundle bundle = modelRegistry.select(session.getId());
+        DynamicSignSession dynamic = model == ModelType.DYNAMIC ? bundle.dynamicModel().newSession() : null;
+        streams.put(session.getId(), new Stream(session, model, new PredictionDebouncer(bufferSize, confThreshold),
+                bundle.staticModel(), dynamic));
+    }
+
+    public void close(String sessionId) {
+        streams.remove(sessionId);
+    }
+
+    /**
+     * Queues decoded frames for the next tick. {@code frames} is null for a "no hands" marker,
+     * which counts as one frame against the stream's budget. Returns false if the stream is
+     * too far behind and the frames were dropped.
+     */
+    public boolean enqueue(String sessionId, float[][] frames) {
+        Stream stream = streams.get(sessionId);
+        if (stream == null) {
+            return false;
+        }
+        int count = frames == null ? 1 : frames.length;
+        // Stale frames are worthless for live translation; shed load instead of queueing it
+        if (stream.queued.get() + count > maxPendingFrames) {
+            droppedFrames.increment(count);
+            return false;
+        }
+        stream.queued.addAndGet(count);
+        if (frames == null) {
+            pending.add(new Frame(stream, null));
+            return true;
+        }
+        for (float[] frame : frames) {
+            pending.add(new Frame(stream, frame));
+        }
+        return true;
+    }
+
+    // Package-private so tests can drive a tick without the scheduler
+    void tick() {
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            long started = System.nanoTime();
+            Map<StaticSignModel, List<Frame>> staticFrames = new LinkedHashMap<>();
+            Map<Stream, List<Frame>> dynamicFrames = new LinkedHashMap<>();
+            Frame frame;
+            while ((frame = pending.poll()) != null) {
+                // Released on dequeue (markers too), so a failed inference below can never leak a stream's budget
+                frame.stream().queued.decrementAndGet();
+                if (frame.stream().model == ModelType.STATIC) {
+                    staticFrames.computeIfAbsent(frame.stream().staticModel, m -> new ArrayList<>()).add(frame);
+                } else {
+                    dynamicFrames.computeIfAbsent(frame.stream(), s -> new ArrayList<>()).add(frame);
+                }
+            }
+
+            // Streams only share a batch when they are on the same model version; markers ride along
+            // in order but take no row
+            List<StaticChunk> chunks = new ArrayList<>();
+            for (Map.Entry<StaticSignModel, List<Frame>> group : staticFrames.entrySet()) {
+                List<Frame> chunk = new ArrayList<>();
+                int rows = 0;
+                for (Frame f : group.getValue()) {
+                    chunk.add(f);
+                    if (f.data() != null && ++rows == maxBatch) {
+                        chunks.add(new StaticChunk(group.getKey(), chunk));
+                        chunk = new ArrayList<>();
+                        rows = 0;
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    chunks.add(new StaticChunk(group.getKey(), chunk));
+                }
+            }
+
+            List<Future<?>> work = new ArrayList<>();
+            float[][] results = new float[chunks.size()][];
+            for (int c = 0; c < chunks.size(); c++) {
+                int index = c;
+                work.add(pool.submit(() -> results[index] = runStatic(chunks.get(index))));
+            }
+            for (Map.Entry<Stream, List<Frame>> entry : dynamicFrames.entrySet()) {
+                work.add(pool.submit(() -> runDynamic(entry.getKey(), entry.getValue())));
+            }
+            for (Future<?> f : work) {
+                f.get();
+            }
+
+            // Debounce static results in arrival order, which keeps each stream's frames ordered
+            for (int c = 0; c < chunks.size(); c++) {
+                StaticSignModel model = chunks.get(c).model();
+                int row = 0;
+                for (Frame f : chunks.get(c).frames()) {
+                    if (f.data() == null) {
+                        f.stream().debouncer.reset();
+                        publish(f.stream(), -1, 0f, null);
+                        continue;
+                    }
+                    if (results[c] == null) {
+                        continue; // the chunk failed; its frames are dropped
+                    }
+                    int offset = row++ * model.classes();
+                    int best = InferenceMath.argMax(results[c], offset, model.classes());
+                    float confidence = results[c][offset + best];
+                    int stable = f.stream().debouncer.accept(best, confidence);
+                    publish(f.stream(), stable, confidence, stable >= 0 ? model.label(stable) : null);
+                }
+            }
+            tickTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            log.warn("Landmark stream tick failed", e);
+        }
+    }
+
+    // Returns null if inference failed, so one bad chunk does not take the rest of the tick with it
+    private float[] runStatic(StaticChunk chunk) {
+        StaticSignModel model = chunk.model();
+        List<Frame> frames = chunk.frames();
+        int rows = 0;
+        for (Frame f : frames) {
+            if (f.data() != null) {
+                rows++;
+            }
+        }
+        if (rows == 0) {
+            return new float[0];
+        }
+        float[] input = new float[rows * StaticSignModel.FEATURES];
+        int row = 0;
+        for (Frame f : frames) {
+            if (f.data() != null) {
+                System.arraycopy(f.data(), 0, input, row++ * StaticSignModel.FEATURES, StaticSignModel.FEATURES);
+            }
+        }
+        int batch = rows;
+        float[] probabilities = new float[batch * model.classes()];
+        try {
+            staticInference.record(() -> model.predict(input, batch, probabilities));
+            return probabilities;
+        } catch (RuntimeException e) {
+            droppedFrames.increment(batch);
+            log.warn("Static inference failed for a batch of {} frames", batch, e);
+            return null;
+        }
+    }
+
+    private void runDynamic(Stream stream, List<Frame> frames) {
+        DynamicSignModel model = stream.dynamic.model();
+        for (Frame f : frames) {
+            if (f.data() == null) {
+                stream.dynamic.reset();
+                stream.debouncer.reset();
+                publish(stream, -1, 0f, null);
+                continue;
+            }
+            boolean fresh;
+            try {
+                long started = System.nanoTime();
+                fresh = stream.dynamic.push(f.data(), 0);
+                dynamicInference.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            } catch (RuntimeException e) {
+                // The session's rings may be half-updated; start the window over
+                stream.dynamic.reset();
+                droppedFrames.increment();
+                log.warn("Dynamic inference failed for stream {}", stream.session.getId(), e);
+                continue;
+            }
+            if (!fresh) {
+                continue;
+            }
+            float[] probabilities = stream.dynamic.probabilities();
+            int best = InferenceMath.argMax(probabilities, 0, model.classes());
+            int stable = stream.debouncer.accept(best, probabilities[best]);
+            publish(stream, stable, probabilities[best], stable >= 0 ? model.label(stable) : null);
+        }
+    }
+
+    // Only changes of the stable prediction are sent, mirroring what the client would display
+    private void publish(Stream stream, int stable, float confidence, String label) {
+        if (stable == stream.lastStable) {
+            return;
+        }
+        stream.lastStable = stable;
+        try {
+            StablePrediction message = new StablePrediction(label, label != null ? confidence : null);
+            stream.session.sendMessage(new TextMessage(objectMapper.writeValueAsString(message)));
+        } catch (IOException | IllegalStateException e) {
+            close(stream.session.getId());
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.demo.service;
+
+import com.example.demo.model.UserProgress;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * In-memory leaderboards: an order-statistic tree per metric over all learners, plus one
+ * per metric and cohort. Seeded from user_progress at startup, updated whenever progress
+ * changes and rebuilt from the database periodically to correct drift (e.g. writes made by
+ * another instance). Top-N, rank and neighbour queries cost O(log n + k).
+ */
+@Slf4j
+@Service
+public class LeaderboardService {
+
+    private static final String SEED_SQL =
+            "SELECT p.user_id, p.lessons_completed, p.study_streak, p.total_study_time, u.name, u.cohort "
+            + "FROM user_progress p JOIN users u ON u.id = p.user_id";
+
+    private static final String PROFILE_SQL = "SELECT name, cohort FROM users WHERE id = ?";
+
+    public enum Metric {
+        LESSONS_COMPLETED(UserProgress::getLessonsCompleted),
+        STUDY_STREAK(UserProgress::getStudyStreak),
+        STUDY_TIME(UserProgress::getTotalStudyTime);
+
+        private final ToLongFunction<UserProgress> score;
+
+        Metric(ToLongFunction<UserProgress> score) {
+            this.score = score;
+        }
+
+        // Accepts "study-time", "STUDY_TIME", ...
+        public static Metric parse(String value) {
+            try {
+                return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown leaderboard: " + value);
+            }
+        }
+    }
+
+    /**
+     * A learner's place on a board. Equal scores share a rank.
+     */
+    public record Standing(int rank, Long userId, String name, long score) {
+    }
+
+    public record Ranking(Metric metric, String cohort, int total, List<Standing> standings) {
+    }
+
+    private record Participant(String name, String cohort, long[] scores) {
+    }
+
+    private record BoardKey(Metric metric, String cohort) {
+    }
+
+    // One lock per snapshot: a change touches up to six trees, queries read one
+    private static final class Boards {
+        final Map<Long, Participant> participants = new HashMap<>();
+        final Map<BoardKey, OrderStatisticTree> trees = new HashMap<>();
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProgressWriteBuffer progressWriteBuffer;
+
+    private volatile Boards boards = new Boards();
+
+    // Changes made while a rebuild is loading; replayed onto the new boards before they go live
+    private volatile Map<Long, Participant> replay;
+
+    /**
+     * Rebuilds every board from the database. Buffered study time is flushed first so the
+     * stored rows are current.
+     */
+    @Scheduled(initialDelayString = "${leaderboard.reconcile-interval-ms:600000}",
+            fixedDelayString = "${leaderboard.reconcile-interval-ms:600000}")
+    public synchronized void reload() {
+        progressWriteBuffer.flush();
+        Map<Long, Participant> changes = new ConcurrentHashMap<>();
+        replay = changes;
+        Boards fresh = new Boards();
+        try {
+            jdbcTemplate.query(SEED_SQL, (RowCallbackHandler) rs -> {
+                long[] scores = {rs.getLong(2), rs.getLong(3), rs.getLong(4)};
+                place(fresh, rs.getLong(1), new Participant(rs.getString(5), normalize(rs.getString(6)), scores));
+            });
+            fresh.lock.writeLock().lock();
+            try {
+                boards = fresh;
+                replay = null;
+                changes.forEach((userId, participant) -> place(fresh, userId, participant));
+            } finally {
+                fresh.lock.writeLock().unlock();
+            }
+        } finally {
+            replay = null;
+        }
+        log.info("Leaderboards loaded: {} learners", fresh.participants.size());
+    }
+
+    /**
+     * Moves a learner to the scores of the given progress; called after every progress change.
+     */
+    public void update(Long userId, UserProgress progress) {
+        if (userId == null || progress == null) {
+            return;
+        }
+        long[] scores = scores(progress);
+        Participant known = participant(userId);
+        if (known != null) {
+            record(userId, new Participant(known.name(), known.cohort(), scores));
+            return;
+        }
+        // First appearance: the name and cohort come from the user row once
+        jdbcTemplate.query(PROFILE_SQL, (RowCallbackHandler) rs ->
+                record(userId, new Participant(rs.getString(1), normalize(rs.getString(2)), scores)), userId);
+    }
+
+    // Places a new learner whose name and cohort the caller already has, e.g. from a roster import
+    public void add(Long userId, String name, String cohort, UserProgress progress) {
+        record(userId, new Participant(name, normalize(cohort), scores(progress)));
+    }
+
+    // Changes the name or cohort shown for a learner; their scores move to the new cohort's boards
+    public void updateProfile(Long userId, String name, String cohort) {
+        Participant known = participant(userId);
+        if (known != null) {
+            record(userId, new Participant(name, normalize(cohort), known.scores()));
+        }
+    }
+
+    public void remove(Long userId) {
+        Map<Long, Participant> changes = replay;
+        if (changes != null) {
+            changes.put(userId, new Participant(null, null, null));
+        }
+        Boards current = boards;
+        current.lock.writeLock().lock();
+        try {
+            unplace(current, userId);
+        } finally {
+            current.lock.writeLock().unlock();
+        }
+    }
+
+    public Ranking top(Metric metric, String cohort, int limit) {
+        return query(metric, cohort, (tree, current) -> standings(tree, current, 0, limit));
+    }
+
+    /**
+     * The learner's standing with up to {@code radius} learners on either side; an empty
+     * list if the learner isn't on the board.
+     */
+    public Ranking around(Metric metric, String cohort, Long userId, int radius) {
+        return query(metric, cohort, (tree, current) -> {
+            Participant participant = current.participants.get(userId);
+            if (participant == null || !onBoard(participant, cohort)) {
+                return List.of();
+            }
+            int position = tree.countBefore(participant.scores()[metric.ordinal()], userId);
+            int from = Math.max(0, position - radius);
+            return standings(tree, current, from, position - from + radius + 1);
+        });
+    }
+
+    private interface BoardQuery {
+        List<Standing> run(OrderStatisticTree tree, Boards current);
+    }
+
+    private Ranking query(Metric metric, String cohort, BoardQuery query) {
+        String key = normalize(cohort);
+        Boards current = boards;
+        current.lock.readLock().lock();
+        try {
+            OrderStatisticTree tree = current.trees.get(new BoardKey(metric, key));
+            if (tree == null) {
+                return new Ranking(metric, key, 0, List.of());
+            }
+            return new Ranking(metric, key, tree.size(), query.run(tree, current));
+        } finally {
+            current.lock.readLock().unlock();
+        }
+    }
+
+    // Competition ranking: the rank is one more than the number of strictly higher scores
+    private static List<Standing> standings(OrderStatisticTree tree, Boards current, int from, int limit) {
+        List<Standing> standings = new ArrayList<>();
+        for (OrderStatisticTree.Entry entry : tree.range(from, limit)) {
+            int rank = tree.countBefore(entry.score(), Long.MIN_VALUE) + 1;
+            Participant participant = current.participants.get(entry.userId());
+            standings.add(new Standing(rank, entry.userId(), participant != null ? participant.name() : null, entry.score()));
+        }
+        return standings;
+    }
+
+    private static boolean onBoard(Participant participant, String cohort) {
+        String key = normalize(cohort);
+        return key == null || key.equals(participant.cohort());
+    }
+
+    private Participant participant(Long userId) {
+        Boards current = boards;
+        current.lock.readLock().lock();
+        try {
+            return current.participants.get(userId);
+        } finally {
+            current.lock.readLock().unlock();
+        }
+    }
+
+    private void record(Long userId, Participant participant) {
+        Map<Long, Participant> changes = replay;
+        if (changes != null) {
+            changes.put(userId, participant);
+        }
+        Boards current = boards;
+        current.lock.writeLock().lock();
+        try {
+            place(current, userId, participant);
+        } finally {
+            current.lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock (or owns the boards exclusively while loading)
+    private static void place(Boards target, Long userId, Participant participant) {
+        if (participant.scores() == null) {
+            unplace(target, userId); // a removal recorded during a rebuild
+            return;
+        }
+        unplace(target, userId);
+        target.participants.put(userId, participant);
+        for (Metric metric : Metric.values()) {
+            long score = participant.scores()[metric.ordinal()];
+            target.trees.computeIfAbsent(new BoardKey(metric, null), k -> new OrderStatisticTree()).insert(userId, score);
+            if (participant.cohort() != null) {
+                target.trees.computeIfAbsent(new BoardKey(metric, participant.cohort()), k -> new OrderStatisticTree())
+                        .insert(userId, score);
+            }
+        }
+    }
+
+    private static void unplace(Boards target, Long userId) {
+        Participant previous = target.participants.remove(userId);
+        if (previous == null) {
+            return;
+        }
+        for (Metric metric : Metric.values()) {
+            long score = previous.scores()[metric.ordinal()];
+            target.trees.get(new BoardKey(metric, null)).remove(userId, score);
+            if (previous.cohort() != null) {
+                OrderStatisticTree cohortTree = target.trees.get(new BoardKey(metric, previous.cohort()));
+                cohortTree.remove(userId, score);
+                if (cohortTree.size() == 0) {
+                    target.trees.remove(new BoardKey(metric, previous.cohort()));
+                }
+            }
+        }
+    }
+
+    private static long[] scores(UserProgress progress) {
+        long[] scores = new long[Metric.values().length];
+        for (Metric metric : Metric.values()) {
+            scores[metric.ordinal()] = metric.score.applyAsLong(progress);
+        }
+        return scores;
+    }
+
+    private static String normalize(String cohort) {
+        return cohort == null || cohort.isBlank() ? null : cohort.trim();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.demo.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Server-side view of the curriculum the client ships in data/modules.js, parsed once at
+ * startup: which lessons exist, which module each belongs to, and the full definitions.
+ */
+@Component
+public class LessonCatalog {
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Value("${lessons.catalog:classpath:static/data/modules.js}")
+    private String catalogLocation;
+
+    private List<Map<String, Object>> definitions = List.of();
+    private Map<String, Module> modules = Map.of();
+    private Map<String, String> moduleByLesson = Map.of();
+
+    public record Module(String id, List<String> lessonIds) {
+    }
+
+    @PostConstruct
+    public void load() throws IOException {
+        String source;
+        try (InputStream in = resourceLoader.getResource(catalogLocation).getInputStream()) {
+            source = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<Map<String, Object>> parsed = new ArrayList<>();
+        Map<String, Module> byId = new LinkedHashMap<>();
+        Map<String, String> lessons = new HashMap<>();
+        for (Object element : JsLiteralParser.parseArray(source)) {
+            Map<String, Object> module = asObject(element);
+            String moduleId = (String) module.get("id");
+            List<String> lessonIds = new ArrayList<>();
+            for (Object lesson : (List<?>) module.getOrDefault("lessons", List.of())) {
+                String lessonId = (String) asObject(lesson).get("id");
+                lessonIds.add(lessonId);
+                lessons.put(lessonId, moduleId);
+            }
+            byId.put(moduleId, new Module(moduleId, List.copyOf(lessonIds)));
+            parsed.add(module);
+        }
+        definitions = List.copyOf(parsed);
+        modules = byId;
+        moduleByLesson = lessons;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asObject(Object value) {
+        if (!(value instanceof Map)) {
+            throw new IllegalStateException("Lesson catalog entries must be objects");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    /**
+     * The full module definitions as parsed from the catalog (lesson content included),
+     * in catalog order. Treat as read-only.
+     */
+    public List<Map<String, Object>> definitions() {
+        return definitions;
+    }
+
+    public Collection<Module> modules() {
+        return modules.values();
+    }
+
+    public Module module(String moduleId) {
+        return modules.get(moduleId);
+    }
+
+    // Null for lesson ids the catalog doesn't know
+    public String moduleOf(String lessonId) {
+        return moduleByLesson.get(lessonId);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Achievement;
+import com.example.demo.model.UserProgress;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+
+/**
+ * Finishes a lesson: records the lesson and advances the streak. Each step is a single
+ * atomic statement (or an optimistic streak update), so concurrent completions for the same
+ * learner neither lose updates nor hold row locks across the whole call; study time is left
+ * to the write-behind buffer and achievements to the {@link ProgressEventBus} subscribers,
+ * which report new awards through the notifications endpoint.
+ */
+@Timed(value = "service.method", histogram = true)
+@Service
+public class LessonCompletionService {
+
+    @Autowired
+    private UserProgressService userProgressService;
+
+    @Autowired
+    private AchievementService achievementService;
+
+    @Autowired
+    private ProgressWriteBuffer progressWriteBuffer;
+
+    @Autowired
+    private ProgressEventStore progressEventStore;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private ProgressEventBus progressEventBus;
+
+    /**
+     * Everything the client needs after finishing a lesson. Awards from this lesson are made
+     * in the background and aren't in {@code achievements} yet; clients poll
+     * {@code /api/achievements/{userId}/notifications} for them.
+     */
+    public record LessonCompletionResult(UserProgress progress, Set<Achievement> achievements) {
+    }
+
+    public LessonCompletionResult completeLesson(Long userId, String lessonId, Integer minutes) {
+        if (lessonId == null || lessonId.isBlank()) {
+            throw new IllegalArgumentException("lessonId is required.");
+        }
+        if (userProgressService.getProgressByUserId(userId) == null) {
+            throw new IllegalStateException("User not found");
+        }
+
+        userProgressService.recordLessonAndStudyDay(userId, lessonId);
+        // Study time goes through the write-behind buffer like the heartbeats do
+        boolean studied = minutes != null && minutes > 0;
+        if (studied) {
+            progressWriteBuffer.addMinutes(userId, minutes);
+            progressEventStore.minutesStudied(userId, minutes);
+            progressEventBus.publish(new ProgressEventBus.StudyTimeAdded(userId, minutes));
+        }
+
+        UserProgress current = userProgressService.getProgressByUserId(userId);
+        if (studied) {
+            leaderboardService.update(userId, current);
+        }
+        // Awards from this lesson arrive asynchronously; this is what was earned so far
+        return new LessonCompletionResult(current, achievementService.getAchievementsForUser(userId));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.demo.service;
+
+import com.example.demo.model.LessonOrdinal;
+import com.example.demo.repository.LessonOrdinalRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps lesson ids to stable bit positions for the completed-lessons bitset. Ordinals live
+ * in lesson_ordinals: catalog lessons get the next free ordinal the first time they are
+ * seen, in catalog order, and keep it for good. Per-module masks are precomputed so module
+ * completion counts are a single AND + cardinality.
+ */
+@Component
+public class LessonOrdinals {
+
+    @Autowired
+    private LessonOrdinalRepository lessonOrdinalRepository;
+
+    @Autowired
+    private LessonCatalog lessonCatalog;
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), new String[0], Map.of());
+
+    private record Snapshot(Map<String, Integer> ordinals, String[] lessonIds, Map<String, BitSet> moduleMasks) {
+    }
+
+    /**
+     * Assigns ordinals to catalog lessons that don't have one yet and rebuilds the lookups.
+     */
+    public void reload() {
+        List<String> lessonIds = new ArrayList<>();
+        lessonCatalog.modules().forEach(module -> lessonIds.addAll(module.lessonIds()));
+        register(lessonIds);
+    }
+
+    /**
+     * Makes sure each of the lesson ids has an ordinal (also used for stored lessons the
+     * catalog no longer lists, so their bits are kept).
+     */
+    public synchronized void register(Collection<String> lessonIds) {
+        try {
+            assign(lessonIds);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance assigned the same ordinals first; take theirs
+            assign(lessonIds);
+        }
+    }
+
+    private void assign(Collection<String> lessonIds) {
+        Map<String, Integer> ordinals = new HashMap<>();
+        int next = 0;
+        for (LessonOrdinal stored : lessonOrdinalRepository.findAll()) {
+            ordinals.put(stored.getLessonId(), stored.getOrdinal());
+            next = Math.max(next, stored.getOrdinal() + 1);
+        }
+        List<LessonOrdinal> added = new ArrayList<>();
+        for (String lessonId : new LinkedHashSet<>(lessonIds)) {
+            if (!ordinals.containsKey(lessonId)) {
+                ordinals.put(lessonId, next);
+                added.add(LessonOrdinal.builder().lessonId(lessonId).ordinal(next++).build());
+            }
+        }
+        lessonOrdinalRepository.saveAll(added);
+
+        String[] byOrdinal = new String[next];
+        ordinals.forEach((lessonId, ordinal) -> byOrdinal[ordinal] = lessonId);
+        Map<String, BitSet> masks = new LinkedHashMap<>();
+        for (LessonCatalog.Module module : lessonCatalog.modules()) {
+            BitSet mask = new BitSet(next);
+            module.lessonIds().forEach(lessonId -> mask.set(ordinals.get(lessonId)));
+            masks.put(module.id(), mask);
+        }
+        snapshot = new Snapshot(Map.copyOf(ordinals), byOrdinal, masks);
+    }
+
+    public int ordinalOf(String lessonId) {
+        Integer ordinal = snapshot.ordinals().get(lessonId);
+        if (ordinal == null) {
+            throw new IllegalArgumentException("Unknown lesson: " + lessonId);
+        }
+        return ordinal;
+    }
+
+    // Lesson ids in ordinal order
+    public Set<String> lessonIds(BitSet bits) {
+        String[] byOrdinal = snapshot.lessonIds();
+        Set<String> lessonIds = new LinkedHashSet<>();
+        for (int i = bits.nextSetBit(0); i >= 0 && i < byOrdinal.length; i = bits.nextSetBit(i + 1)) {
+            if (byOrdinal[i] != null) {
+                lessonIds.add(byOrdinal[i]);
+            }
+        }
+        return lessonIds;
+    }
+
+    /**
+     * Completed lessons per catalog module, including modules with none.
+     */
+    public Map<String, Integer> countByModule(BitSet bits) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        snapshot.moduleMasks().forEach((moduleId, mask) -> {
+            BitSet inModule = (BitSet) mask.clone();
+            inModule.and(bits);
+            counts.put(moduleId, inModule.cardinality());
+        });
+        return counts;
+    }
+}
@@ -0,0 +1,402 @@
+package com.example.demo.service;
+
+import com.example.demo.inference.DynamicSignModel;
+import com.example.demo.inference.DynamicSignSession;
+import com.example.demo.inference.StaticSignModel;
+import com.example.demo.inference.WeightPrecision;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Versioned sign models. The models baked into the jar are version "builtin"; every other
+ * version is a directory under {@code models.registry.dir} with the same four files as
+ * src/main/resources/static. A version is loaded and warmed up with synthetic batches before
+ * it is swapped in, the version it replaced stays loaded for instant rollback, and a canary
+ * version can take a percentage of traffic.
+ *
+ * Readers only ever see a whole {@link Deployment} through one atomic reference; loads and
+ * swaps are serialized. Version directories are treated as immutable, since browsers cache
+ * their files for a year.
+ */
+@Slf4j
+@Service
+public class ModelRegistry {
+
+    public static final String BUILTIN = "builtin";
+
+    static final String STATIC_MODEL = "isl_static_model_tfjs/model.json";
+    static final String STATIC_LABELS = "label_mapping_static.json";
+    static final String DYNAMIC_MODEL = "isl_dynamic_model_tfjs/model.json";
+    static final String DYNAMIC_LABELS = "label_mapping_dynamic.json";
+
+    private static final Pattern VERSION = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]{0,63}");
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${recognition.static.model:classpath:static/" + STATIC_MODEL + "}")
+    private String staticModelLocation;
+
+    @Value("${recognition.static.labels:classpath:static/" + STATIC_LABELS + "}")
+    private String staticLabelsLocation;
+
+    @Value("${recognition.dynamic.model:classpath:static/" + DYNAMIC_MODEL + "}")
+    private String dynamicModelLocation;
+
+    @Value("${recognition.dynamic.labels:classpath:static/" + DYNAMIC_LABELS + "}")
+    private String dynamicLabelsLocation;
+
+    // float32 or int8 (per-channel quantized kernels, see docs/quantization.md)
+    @Value("${recognition.weights:float32}")
+    private String weights;
+
+    @Value("${recognition.max-batch:256}")
+    private int maxBatch;
+
+    @Value("${models.registry.dir:data/models}")
+    private String directory;
+
+    @Value("${models.registry.state-file:data/model-deployment.properties}")
+    private String stateLocation;
+
+    @Value("${models.registry.warmup-iterations:200}")
+    private int warmupIterations;
+
+    private WeightPrecision precision;
+    private Path root;
+    private Path stateFile;
+
+    private final AtomicReference<Deployment> deployment = new AtomicReference<>();
+
+    // Serializes loads and swaps; readers never take it
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public record Bundle(String version, StaticSignModel staticModel, DynamicSignModel dynamicModel) {
+    }
+
+    /**
+     * What serves traffic. The canary takes {@code canaryPercent} of it and the active version
+     * the rest; the previous version is only kept loaded for rollback.
+     */
+    public record Deployment(Bundle active, Bundle previous, Bundle canary, int canaryPercent) {
+    }
+
+    public record Status(String active, String previous, String canary, int canaryPercent, List<String> available) {
+    }
+
+    /**
+     * Where a browser fetches one version's files. Every URL changes with the version, so the
+     * files themselves can be cached for good.
+     */
+    public record Manifest(String version, String staticModel, String staticLabels, String dynamicModel, String dynamicLabels) {
+
+        public String etag() {
+            return "\"" + version + "\"";
+        }
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        precision = WeightPrecision.parse(weights);
+        root = Path.of(directory);
+        stateFile = Path.of(stateLocation);
+        Properties state = readState();
+        Map<String, Bundle> restored = new HashMap<>();
+        Bundle active = restore(state.getProperty("active"), restored);
+        if (active == null) {
+            active = warmUp(load(BUILTIN));
+        }
+        Bundle previous = restore(state.getProperty("previous"), restored);
+        Bundle canary = restore(state.getProperty("canary"), restored);
+        int percent = canary != null ? Integer.parseInt(state.getProperty("canary-percent", "0")) : 0;
+        deployment.set(new Deployment(active, previous, canary, percent));
+        log.info("Serving sign model version {} ({} weights, {} KB){}", active.version(),
+                precision.name().toLowerCase(Locale.ROOT), weightKb(active),
+                canary != null ? ", canary " + canary.version() + " at " + percent + "%" : "");
+    }
+
+    public Deployment current() {
+        return deployment.get();
+    }
+
+    // Per call: each request independently lands on the canary with its configured probability
+    public Bundle select() {
+        Deployment d = deployment.get();
+        boolean canary = d.canary() != null && ThreadLocalRandom.current().nextInt(100) < d.canaryPercent();
+        return count(canary ? d.canary() : d.active());
+    }
+
+    // Sticky: the same key stays on the same side of the split for as long as the split is unchanged
+    public Bundle select(String key) {
+        return count(pick(deployment.get(), key));
+    }
+
+    // The files a browser should load; clients without a key always get the active version
+    public Manifest manifest(String clientKey) {
+        Deployment d = deployment.get();
+        Bundle bundle = clientKey == null || clientKey.isBlank() ? d.active() : pick(d, clientKey);
+        String version = bundle.version();
+        String base = BUILTIN.equals(version) ? "/" : "/models/" + version + "/";
+        return new Manifest(version, base + STATIC_MODEL, base + STATIC_LABELS, base + DYNAMIC_MODEL, base + DYNAMIC_LABELS);
+    }
+
+    public Status status() {
+        Deployment d = deployment.get();
+        return new Status(d.active().version(), versionOf(d.previous()), versionOf(d.canary()), d.canaryPercent(), available());
+    }
+
+    /**
+     * Loads and warms up a version, then makes it the active one. The replaced version becomes
+     * the rollback target; a canary of the same version is promoted rather than loaded again.
+     */
+    public Status activate(String version) throws IOException {
+        lock.lock();
+        try {
+            Deployment d = deployment.get();
+            if (d.active().version().equals(version)) {
+                return status();
+            }
+            Bundle next = loaded(d, version);
+            boolean promoted = d.canary() != null && d.canary().version().equals(version);
+            swap(new Deployment(next, d.active(), promoted ? null : d.canary(), promoted ? 0 : d.canaryPercent()));
+            log.info("Activated sign model version {} (was {})", version, d.active().version());
+            return status();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Status rollback() {
+        lock.lock();
+        try {
+            Deployment d = deployment.get();
+            if (d.previous() == null) {
+                throw new IllegalStateException("There is no previous model version to roll back to.");
+            }
+            Bundle canary = d.canary() != null && d.canary().version().equals(d.previous().version()) ? null : d.canary();
+            swap(new Deployment(d.previous(), d.active(), canary, canary != null ? d.canaryPercent() : 0));
+            log.info("Rolled sign model back to version {} (was {})", d.previous().version(), d.active().version());
+            return status();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sends {@code percent} of traffic to {@code version} next to the active one. A percentage
+     * of 0 (or no version) ends the split.
+     */
+    public Status split(String version, int percent) throws IOException {
+        if (percent < 0 || percent > 100) {
+            throw new IllegalArgumentException("percent must be between 0 and 100.");
+        }
+        lock.lock();
+        try {
+            Deployment d = deployment.get();
+            if (version == null || percent == 0) {
+                swap(new Deployment(d.active(), d.previous(), null, 0));
+                log.info("Ended the sign model traffic split");
+                return status();
+            }
+            if (d.active().version().equals(version)) {
+                throw new IllegalArgumentException("Version " + version + " is already active.");
+            }
+            swap(new Deployment(d.active(), d.previous(), loaded(d, version), percent));
+            log.info("Sending {}% of sign model traffic to version {}", percent, version);
+            return status();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Reuses a bundle that is already loaded, so promoting or restoring a version is instant
+    private Bundle loaded(Deployment d, String version) throws IOException {
+        for (Bundle bundle : new Bundle[]{d.previous(), d.canary()}) {
+            if (bundle != null && bundle.version().equals(version)) {
+                return bundle;
+            }
+        }
+        return warmUp(load(version));
+    }
+
+    // The new deployment takes effect even if it can't be saved; it's then lost on restart
+    private void swap(Deployment next) {
+        deployment.set(next);
+        Properties state = new Properties();
+        state.setProperty("active", next.active().version());
+        if (next.previous() != null) {
+            state.setProperty("previous", next.previous().version());
+        }
+        if (next.canary() != null) {
+            state.setProperty("canary", next.canary().version());
+            state.setProperty("canary-percent", Integer.toString(next.canaryPercent()));
+        }
+        try {
+            // Written aside and renamed, so a crash never leaves a half-written file behind
+            Path parent = stateFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = parent.resolve(stateFile.getFileName() + ".tmp");
+            try (Writer out = Files.newBufferedWriter(temp)) {
+                state.store(out, "Sign model deployment");
+            }
+            Files.move(temp, stateFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("Could not save the sign model deployment to {}", stateFile, e);
+        }
+    }
+
+    private Bundle load(String version) throws IOException {
+        Resource[] files;
+        if (BUILTIN.equals(version)) {
+            files = new Resource[]{resourceLoader.getResource(staticModelLocation), resourceLoader.getResource(staticLabelsLocation),
+                    resourceLoader.getResource(dynamicModelLocation), resourceLoader.getResource(dynamicLabelsLocation)};
+        } else {
+            Path dir = versionDirectory(version);
+            if (!Files.isRegularFile(dir.resolve(STATIC_MODEL))) {
+                throw new IllegalArgumentException("Unknown model version " + version + ".");
+            }
+            files = new Resource[]{new FileSystemResource(dir.resolve(STATIC_MODEL)), new FileSystemResource(dir.resolve(STATIC_LABELS)),
+                    new FileSystemResource(dir.resolve(DYNAMIC_MODEL)), new FileSystemResource(dir.resolve(DYNAMIC_LABELS))};
+        }
+        StaticSignModel staticModel = StaticSignModel.load(files[0], files[1], precision);
+        DynamicSignModel dynamicModel = DynamicSignModel.load(files[2], files[3], precision);
+        return new Bundle(version, staticModel, dynamicModel);
+    }
+
+    /**
+     * Runs synthetic batches through both models so the JIT has compiled the forward passes
+     * before real traffic arrives. Inputs are seeded noise; only the code paths matter.
+     */
+    private Bundle warmUp(Bundle bundle) {
+        long started = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(42);
+        StaticSignModel staticModel = bundle.staticModel();
+        for (int batch : new int[]{1, Math.min(32, maxBatch)}) {
+            float[] input = noise(random, batch * StaticSignModel.FEATURES);
+            float[] probabilities = new float[batch * staticModel.classes()];
+            for (int i = 0; i < warmupIterations; i++) {
+                staticModel.predict(input, batch, probabilities);
+            }
+        }
+        DynamicSignSession session = bundle.dynamicModel().newSession();
+        float[] frame = noise(random, DynamicSignModel.FEATURES);
+        for (int i = 0; i < DynamicSignModel.WINDOW + warmupIterations; i++) {
+            frame[i % frame.length] = (float) random.nextDouble();
+            session.push(frame, 0);
+        }
+        float[] window = noise(random, DynamicSignModel.WINDOW * DynamicSignModel.FEATURES);
+        float[] probabilities = new float[bundle.dynamicModel().classes()];
+        for (int i = 0; i < Math.max(1, warmupIterations / 10); i++) {
+            bundle.dynamicModel().predict(window, probabilities);
+        }
+        log.info("Warmed up sign model version {} in {} ms", bundle.version(), (System.nanoTime() - started) / 1_000_000);
+        return bundle;
+    }
+
+    // A stored version that can no longer be loaded is dropped instead of failing startup
+    private Bundle restore(String version, Map<String, Bundle> restored) {
+        if (version == null) {
+            return null;
+        }
+        if (restored.containsKey(version)) {
+            return restored.get(version);
+        }
+        try {
+            Bundle bundle = warmUp(load(version));
+            restored.put(version, bundle);
+            return bundle;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not restore sign model version {}; leaving it out of the deployment", version, e);
+            return null;
+        }
+    }
+
+    private Properties readState() throws IOException {
+        Properties state = new Properties();
+        if (Files.isRegularFile(stateFile)) {
+            try (Reader in = Files.newBufferedReader(stateFile)) {
+                state.load(in);
+            }
+        }
+        return state;
+    }
+
+    private List<String> available() {
+        List<String> versions = new ArrayList<>();
+        versions.add(BUILTIN);
+        if (Files.isDirectory(root)) {
+            try (Stream<Path> dirs = Files.list(root)) {
+                dirs.filter(dir -> Files.isRegularFile(dir.resolve(STATIC_MODEL)))
+                        .map(dir -> dir.getFileName().toString())
+                        .filter(name -> VERSION.matcher(name).matches() && !BUILTIN.equals(name))
+                        .sorted()
+                        .forEach(versions::add);
+            } catch (IOException e) {
+                log.warn("Could not list model versions in {}", root, e);
+            }
+        }
+        return versions;
+    }
+
+    private Path versionDirectory(String version) {
+        if (version == null || !VERSION.matcher(version).matches()) {
+            throw new IllegalArgumentException("Invalid model version '" + version + "'.");
+        }
+        return root.resolve(version);
+    }
+
+    private static Bundle pick(Deployment d, String key) {
+        boolean canary = d.canary() != null && Math.floorMod(key.hashCode() * 0x9E3779B9, 100) < d.canaryPercent();
+        return canary ? d.canary() : d.active();
+    }
+
+    private Bundle count(Bundle bundle) {
+        meterRegistry.counter("recognition.model.selections", "version", bundle.version()).increment();
+        return bundle;
+    }
+
+    private static String versionOf(Bundle bundle) {
+        return bundle != null ? bundle.version() : null;
+    }
+
+    private static long weightKb(Bundle bundle) {
+        return (bundle.staticModel().weightBytes() + bundle.dynamicModel().weightBytes()) / 1024;
+    }
+
+    private static float[] noise(SplittableRandom random, int length) {
+        float[] values = new float[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = (float) random.nextDouble();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,287 @@
+package com.example.demo.service;
+
+import com.example.demo.config.CacheConfig;
+import com.example.demo.model.BatchCheckpoint;
+import com.example.demo.model.DailyProgressRollup;
+import com.example.demo.repository.BatchCheckpointRepository;
+import com.example.demo.repository.DailyProgressRollupRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Nightly pass over user_progress: resets the streaks of learners who didn't study
+ * yesterday or today, and writes the daily rollup for yesterday.
+ *
+ * Rows are walked in id order with keyset pagination; each chunk is an id range handled on
+ * a small worker pool with one bulk UPDATE and one aggregate query. A checkpoint records the
+ * highest id below which every chunk has finished, together with the partial figures, so an
+ * interrupted run resumes from there (both statements are idempotent). At most
+ * {@code parallelism} chunks are in flight, capped at a quarter of the Hikari pool, and
+ * each worker pauses between chunks so request traffic keeps its connections. The schedule
+ * fires on every instance; a {@link BatchJobLock} lease lets only one of them run.
+ */
+@Slf4j
+@Service
+public class NightlyProgressJob {
+
+    static final String JOB = "nightly-progress";
+
+    // Upper id of the next chunk; null once every row has been visited
+    private static final String CHUNK_END_SQL =
+            "SELECT MAX(id) FROM (SELECT id FROM user_progress WHERE id > ? ORDER BY id LIMIT ?) chunk";
+
+    private static final String TOTALS_SQL =
+            "SELECT COUNT(*), COALESCE(SUM(CASE WHEN last_studied_date >= ? THEN 1 ELSE 0 END), 0), "
+            + "COALESCE(SUM(total_study_time), 0), COALESCE(SUM(lessons_completed), 0) "
+            + "FROM user_progress WHERE id > ? AND id <= ?";
+
+    // The version bump makes in-flight optimistic writers reload instead of restoring the old streak
+    private static final String EXPIRE_STREAKS_SQL =
+            "UPDATE user_progress SET study_streak = 0, version = version + 1 "
+            + "WHERE id > ? AND id <= ? AND study_streak > 0 "
+            + "AND (last_studied_date IS NULL OR last_studied_date < ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ProgressWriteBuffer progressWriteBuffer;
+
+    @Autowired
+    private BatchCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private DailyProgressRollupRepository rollupRepository;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private BatchJobLock jobLock;
+
+    @Value("${batch.nightly.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${batch.nightly.parallelism:2}")
+    private int parallelism;
+
+    @Value("${batch.nightly.pause-ms:50}")
+    private long pauseMs;
+
+    // Keeps this instance's own scheduler and resume from racing before the database lease is even asked
+    private final ReentrantLock running = new ReentrantLock();
+
+    private record ChunkResult(long from, long to, long learners, long active, long minutes, long lessons, long reset) {
+    }
+
+    // Chunks finish out of order; the checkpoint only advances over a contiguous prefix
+    private final class Run {
+        final BatchCheckpoint checkpoint;
+        final Map<Long, ChunkResult> finished = new HashMap<>();
+
+        Run(BatchCheckpoint checkpoint) {
+            this.checkpoint = checkpoint;
+        }
+
+        synchronized void finish(ChunkResult result) {
+            jobLock.renew(JOB); // stops the run if another instance has taken over
+            finished.put(result.from(), result);
+            ChunkResult next;
+            while ((next = finished.remove(checkpoint.getLastId())) != null) {
+                checkpoint.setLearners(checkpoint.getLearners() + next.learners());
+                checkpoint.setActiveLearners(checkpoint.getActiveLearners() + next.active());
+                checkpoint.setTotalStudyMinutes(checkpoint.getTotalStudyMinutes() + next.minutes());
+                checkpoint.setTotalLessonsCompleted(checkpoint.getTotalLessonsCompleted() + next.lessons());
+                checkpoint.setStreaksReset(checkpoint.getStreaksReset() + next.reset());
+                checkpoint.setLastId(next.to());
+            }
+            checkpoint.setUpdatedAt(new java.util.Date());
+            checkpointRepository.save(checkpoint);
+        }
+    }
+
+    @Scheduled(cron = "${batch.nightly.cron:0 15 0 * * *}")
+    public void runNightly() {
+        run(LocalDate.now());
+    }
+
+    // A run cut short by a restart continues as soon as the application is up
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        checkpointRepository.findById(JOB)
+                .filter(checkpoint -> !checkpoint.isCompleted())
+                .ifPresent(checkpoint -> run(checkpoint.getRunDay()));
+    }
+
+    /**
+     * Runs (or resumes) the job for the given run day and returns the rollup of the day
+     * before it; empty if another run is in progress here or on another instance.
+     */
+    public Optional<DailyProgressRollup> run(LocalDate runDay) {
+        if (!running.tryLock()) {
+            log.warn("Nightly batch already running; skipping run for {}", runDay);
+            return Optional.empty();
+        }
+        try {
+            if (!jobLock.tryAcquire(JOB)) {
+                log.info("Nightly batch for {} is running on another instance; skipping", runDay);
+                return Optional.empty();
+            }
+            try {
+                return runLocked(runDay);
+            } finally {
+                jobLock.release(JOB);
+            }
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private Optional<DailyProgressRollup> runLocked(LocalDate runDay) {
+        BatchCheckpoint checkpoint = checkpointRepository.findById(JOB)
+                .filter(existing -> existing.getRunDay().equals(runDay))
+                .orElse(null);
+        if (checkpoint != null && checkpoint.isCompleted()) {
+            return rollupRepository.findById(runDay.minusDays(1));
+        }
+        if (checkpoint == null) {
+            checkpoint = BatchCheckpoint.builder().job(JOB).runDay(runDay).build();
+        } else {
+            log.info("Resuming nightly batch for {} after user_progress id {}", runDay, checkpoint.getLastId());
+        }
+        // Buffered streak touches must be in the rows before their dates are judged
+        progressWriteBuffer.flush();
+        long started = System.nanoTime();
+        try {
+            process(new Run(checkpoint), runDay.minusDays(1));
+        } finally {
+            // Streaks changed underneath the cached copies and the streak leaderboard
+            cacheManager.getCache(CacheConfig.PROGRESS).clear();
+            leaderboardService.reload();
+        }
+        jobLock.renew(JOB);
+        DailyProgressRollup rollup = writeRollup(checkpoint, runDay.minusDays(1));
+        checkpoint.setCompleted(true);
+        checkpoint.setUpdatedAt(new java.util.Date());
+        checkpointRepository.save(checkpoint);
+        log.info("Nightly batch for {}: {} learners, {} active, {} streaks reset in {} ms", runDay,
+                rollup.getLearners(), rollup.getActiveLearners(), rollup.getStreaksReset(),
+                (System.nanoTime() - started) / 1_000_000);
+        return Optional.of(rollup);
+    }
+
+    private void process(Run run, LocalDate rollupDay) {
+        int workers = workerCount();
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "nightly-batch-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        Semaphore inFlight = new Semaphore(workers);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        try {
+            long from = run.checkpoint.getLastId();
+            while (failure.get() == null) {
+                Long to = jdbcTemplate.queryForObject(CHUNK_END_SQL, Long.class, from, chunkSize);
+                if (to == null) {
+                    break;
+                }
+                inFlight.acquire();
+                long lower = from;
+                pool.execute(() -> {
+                    try {
+                        run.finish(processChunk(lower, to, rollupDay));
+                        Thread.sleep(pauseMs);
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+                from = to;
+            }
+            inFlight.acquire(workers); // wait for the chunks still in flight
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Nightly batch interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("Nightly batch stopped after user_progress id "
+                    + run.checkpoint.getLastId(), failure.get());
+        }
+    }
+
+    // Learners who last studied before the rolled-up day have broken their streak
+    private ChunkResult processChunk(long from, long to, LocalDate rollupDay) {
+        Date day = Date.valueOf(rollupDay);
+        long[] totals = jdbcTemplate.queryForObject(TOTALS_SQL,
+                (rs, n) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4)}, day, from, to);
+        int reset = jdbcTemplate.update(EXPIRE_STREAKS_SQL, from, to, day);
+        return new ChunkResult(from, to, totals[0], totals[1], totals[2], totals[3], reset);
+    }
+
+    private DailyProgressRollup writeRollup(BatchCheckpoint checkpoint, LocalDate day) {
+        // Daily figures are the change since the previous day's totals
+        Optional<DailyProgressRollup> previous = rollupRepository.findById(day.minusDays(1));
+        DailyProgressRollup rollup = DailyProgressRollup.builder()
+                .day(day)
+                .learners(checkpoint.getLearners())
+                .activeLearners(checkpoint.getActiveLearners())
+                .totalStudyMinutes(checkpoint.getTotalStudyMinutes())
+                .totalLessonsCompleted(checkpoint.getTotalLessonsCompleted())
+                .minutesStudied(previous.map(p -> checkpoint.getTotalStudyMinutes() - p.getTotalStudyMinutes()).orElse(null))
+                .lessonsFinished(previous.map(p -> checkpoint.getTotalLessonsCompleted() - p.getTotalLessonsCompleted()).orElse(null))
+                .streaksReset(checkpoint.getStreaksReset())
+                .completedAt(new java.util.Date())
+                .build();
+        return rollupRepository.save(rollup);
+    }
+
+    // Never more than a quarter of the pool, so request threads still find free connections
+    private int workerCount() {
+        int workers = Math.max(1, parallelism);
+        try {
+            // unwrap sees through proxies around the pool (metrics, tracing)
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+                workers = Math.min(workers, Math.max(1, hikari.getMaximumPoolSize() / 4));
+            }
+        } catch (SQLException e) {
+            log.debug("Could not unwrap the connection pool; using {} workers", workers, e);
+        }
+        return workers;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Treap of (score, userId) entries ordered by score descending, then user id ascending, with
+ * subtree sizes so rank and select run in O(log n) expected time. Not thread-safe; callers
+ * guard it with a lock.
+ */
+final class OrderStatisticTree {
+
+    record Entry(long userId, long score) {
+    }
+
+    private static final class Node {
+        final long score;
+        final long userId;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(long score, long userId, int priority) {
+            this.score = score;
+            this.userId = userId;
+            this.priority = priority;
+        }
+    }
+
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+
+    int size() {
+        return size(root);
+    }
+
+    void insert(long userId, long score) {
+        Node[] parts = split(root, score, userId, false);
+        root = merge(merge(parts[0], new Node(score, userId, random.nextInt())), parts[1]);
+    }
+
+    // Returns false if the entry wasn't present
+    boolean remove(long userId, long score) {
+        Node[] lower = split(root, score, userId, false);
+        Node[] upper = split(lower[1], score, userId, true);
+        root = merge(lower[0], upper[1]);
+        return upper[0] != null;
+    }
+
+    /**
+     * Number of entries ordered before (score, userId); with userId = Long.MIN_VALUE that is
+     * the number of entries with a strictly higher score.
+     */
+    int countBefore(long score, long userId) {
+        int count = 0;
+        Node node = root;
+        while (node != null) {
+            if (compare(node.score, node.userId, score, userId) < 0) {
+                count += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return count;
+    }
+
+    // Up to limit entries starting at the given zero-based position, in order
+    List<Entry> range(int from, int limit) {
+        List<Entry> out = new ArrayList<>(Math.max(0, Math.min(limit, size() - from)));
+        collect(root, Math.max(0, from), limit, out);
+        return out;
+    }
+
+    // In-order walk that skips whole subtrees before the start position
+    private static void collect(Node node, int skip, int limit, List<Entry> out) {
+        if (node == null || out.size() >= limit) {
+            return;
+        }
+        int leftSize = size(node.left);
+        if (skip < leftSize) {
+            collect(node.left, skip, limit, out);
+        }
+        if (out.size() < limit && skip <= leftSize) {
+            out.add(new Entry(node.userId, node.score));
+        }
+        collect(node.right, Math.max(0, skip - leftSize - 1), limit, out);
+    }
+
+    // Higher scores first, ties by ascending user id
+    private static int compare(long scoreA, long userA, long scoreB, long userB) {
+        if (scoreA != scoreB) {
+            return scoreA > scoreB ? -1 : 1;
+        }
+        return Long.compare(userA, userB);
+    }
+
+    /**
+     * Splits into entries before the key and the rest; with inclusive the key itself goes
+     * to the first part.
+     */
+    private static Node[] split(Node node, long score, long userId, boolean inclusive) {
+        if (node == null) {
+            return new Node[2];
+        }
+        int cmp = compare(node.score, node.userId, score, userId);
+        if (cmp < 0 || (inclusive && cmp == 0)) {
+            Node[] parts = split(node.right, score, userId, inclusive);
+            node.right = parts[0];
+            update(node);
+            parts[0] = node;
+            return parts;
+        }
+        Node[] parts = split(node.left, score, userId, inclusive);
+        node.left = parts[1];
+        update(node);
+        parts[1] = node;
+        return parts;
+    }
+
+    // All entries of a are ordered before those of b
+    private static Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+}
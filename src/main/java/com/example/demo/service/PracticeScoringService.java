@@ -0,0 +1,184 @@
+package com.example.demo.service;
+
+import com.example.demo.inference.DistanceKernel;
+import com.example.demo.inference.DtwMatcher;
+import com.example.demo.inference.SignTemplate;
+import com.example.demo.model.SignReference;
+import com.example.demo.repository.SignReferenceRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Scores a practice attempt by how closely its motion follows the reference recordings,
+ * rather than by what the classifier thinks it was. References are prepared once and kept
+ * in memory. Adding or removing references only prepares or drops those recordings; other
+ * instances, and this one as a safety net, pick up changes on the next scheduled refresh.
+ */
+@Slf4j
+@Service
+public class PracticeScoringService {
+
+    @Autowired
+    private SignReferenceRepository referenceRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${practice.scoring.length:64}")
+    private int length;
+
+    @Value("${practice.scoring.band:0.1}")
+    private double band;
+
+    @Value("${practice.scoring.tolerance:1.5}")
+    private float tolerance;
+
+    @Value("${practice.scoring.min-frames:10}")
+    private int minFrames;
+
+    @Value("${practice.scoring.max-frames:300}")
+    private int maxFrames;
+
+    private DtwMatcher matcher;
+
+    private Timer scoring;
+
+    private volatile List<SignTemplate> templates = List.of();
+
+    // Row count and highest id at the last load; either changes when references are added or removed
+    private volatile long loadedCount = -1;
+    private volatile long loadedMaxId = -1;
+
+    public record ReferenceSummary(String sign, long recordings) {
+    }
+
+    @PostConstruct
+    public void init() {
+        matcher = new DtwMatcher(length, band, tolerance, DistanceKernel.best());
+        scoring = Timer.builder("practice.scoring")
+                .description("Time to score one practice attempt against every reference")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        meterRegistry.gauge("practice.references", this, s -> s.templates.size());
+        reload();
+        log.info("Practice scoring: {} references, {} distance kernel", templates.size(), matcher.kernel().name());
+    }
+
+    public DtwMatcher.Result score(float[][] frames, String sign, int topK) {
+        if (topK < 1) {
+            throw new IllegalArgumentException("topK must be at least 1.");
+        }
+        float[] packed = pack(frames);
+        List<SignTemplate> current = templates;
+        if (sign != null && current.stream().noneMatch(t -> t.sign().equalsIgnoreCase(sign))) {
+            throw new IllegalStateException("No reference recording for sign " + sign);
+        }
+        if (current.isEmpty()) {
+            throw new IllegalStateException("No reference recordings yet.");
+        }
+        return scoring.record(() -> matcher.match(packed, frames.length, current, sign, topK));
+    }
+
+    public List<ReferenceSummary> listReferences() {
+        List<ReferenceSummary> summaries = new ArrayList<>();
+        for (Object[] row : referenceRepository.countBySign()) {
+            summaries.add(new ReferenceSummary((String) row[0], (Long) row[1]));
+        }
+        return summaries;
+    }
+
+    public ReferenceSummary addReference(String sign, float[][] frames) {
+        if (sign == null || sign.isBlank() || sign.length() > 64) {
+            throw new IllegalArgumentException("A sign name of 1-64 characters is required.");
+        }
+        float[] packed = pack(frames);
+        ByteBuffer bytes = ByteBuffer.allocate(packed.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.asFloatBuffer().put(packed);
+        referenceRepository.save(SignReference.builder()
+                .sign(sign.trim())
+                .frameCount(frames.length)
+                .landmarks(bytes.array())
+                .build());
+        SignTemplate template = matcher.prepare(sign.trim(), packed, frames.length);
+        update(current -> {
+            List<SignTemplate> next = new ArrayList<>(current);
+            next.add(template);
+            return next;
+        });
+        return listReferences().stream()
+                .filter(s -> s.sign().equalsIgnoreCase(sign.trim()))
+                .findFirst().orElseThrow();
+    }
+
+    public long removeReferences(String sign) {
+        long removed = referenceRepository.deleteBySignIgnoreCase(sign);
+        if (removed == 0) {
+            throw new IllegalStateException("No reference recording for sign " + sign);
+        }
+        update(current -> current.stream().filter(t -> !t.sign().equalsIgnoreCase(sign)).toList());
+        return removed;
+    }
+
+    @Scheduled(fixedDelayString = "${practice.references.refresh-ms:60000}")
+    public void refresh() {
+        if (referenceRepository.count() != loadedCount || referenceRepository.maxId() != loadedMaxId) {
+            reload();
+        }
+    }
+
+    // Serializes the read-modify-write of the list; nothing slow happens under the lock
+    private synchronized void update(UnaryOperator<List<SignTemplate>> change) {
+        templates = List.copyOf(change.apply(templates));
+    }
+
+    /**
+     * Prepares every reference again. Only runs at startup and on the scheduler. An add or
+     * remove racing with it may be overwritten, but the count and id taken first then no
+     * longer match, so the next refresh loads again.
+     */
+    private void reload() {
+        long count = referenceRepository.count();
+        long maxId = referenceRepository.maxId();
+        List<SignTemplate> loaded = new ArrayList<>();
+        for (SignReference reference : referenceRepository.findAll()) {
+            float[] frames = new float[reference.getFrameCount() * DtwMatcher.FEATURES];
+            ByteBuffer.wrap(reference.getLandmarks()).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(frames);
+            loaded.add(matcher.prepare(reference.getSign(), frames, reference.getFrameCount()));
+        }
+        templates = List.copyOf(loaded);
+        loadedCount = count;
+        loadedMaxId = maxId;
+        log.debug("Loaded {} practice references", loaded.size());
+    }
+
+    private float[] pack(float[][] frames) {
+        if (frames == null || frames.length < minFrames || frames.length > maxFrames) {
+            throw new IllegalArgumentException("Between " + minFrames + " and " + maxFrames + " frames are required.");
+        }
+        float[] packed = new float[frames.length * DtwMatcher.FEATURES];
+        for (int f = 0; f < frames.length; f++) {
+            if (frames[f] == null || frames[f].length != DtwMatcher.FEATURES) {
+                throw new IllegalArgumentException("Frame " + f + " must contain exactly " + DtwMatcher.FEATURES + " values.");
+            }
+            for (int k = 0; k < DtwMatcher.FEATURES; k++) {
+                if (!Float.isFinite(frames[f][k])) {
+                    throw new IllegalArgumentException("Frame " + f + " contains a non-finite value.");
+                }
+            }
+            System.arraycopy(frames[f], 0, packed, f * DtwMatcher.FEATURES, DtwMatcher.FEATURES);
+        }
+        return packed;
+    }
+}
@@ -0,0 +1,343 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process pipeline for the side effects of progress changes (achievements today).
+ * Request threads put events on a bounded ring buffer and return; a small consumer pool
+ * drains it in batches, hands the batch off to the progress_outbox table, dispatches it to
+ * every {@link ProgressEventSubscriber} and marks the rows processed.
+ *
+ * Two delivery guarantees:
+ * <ul>
+ * <li>{@link #recordInTransaction} is at-least-once. The event is written to the outbox with
+ * the change that caused it and only enters the ring after commit. Rows still unprocessed
+ * after {@code relay-delay-ms} (full ring, failed subscriber, crash) are re-dispatched by
+ * the relay.</li>
+ * <li>{@link #publish} is best-effort. The event reaches the outbox only when the ring stays
+ * full for {@code publish-timeout-ms}, or at shutdown; until a consumer handles it, it
+ * lives only in memory, and a crash loses it. It is used for the write-behind study-time
+ * and streak updates, whose own deltas are equally in memory until flushed. A lost event
+ * only delays an award: the rules are checked against current progress, so the learner's
+ * next event of that kind catches up.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class ProgressEventBus {
+
+    public sealed interface Event permits LessonCompleted, StudyTimeAdded, StudyDayRecorded {
+        Long userId();
+    }
+
+    public record LessonCompleted(Long userId, String lessonId) implements Event {
+    }
+
+    public record StudyTimeAdded(Long userId, int minutes) implements Event {
+    }
+
+    public record StudyDayRecorded(Long userId, LocalDate day) implements Event {
+    }
+
+    // attempts: failed dispatches so far, as stored in the outbox
+    private record Envelope(String id, Event event, Timestamp createdAt, boolean stored, int attempts) {
+    }
+
+    private record OutboxRow(String id, String type, long userId, String payload, Timestamp createdAt, int attempts) {
+    }
+
+    private static final String INSERT_SQL =
+            "INSERT INTO progress_outbox (id, type, user_id, payload, created_at, processed_at, attempts) "
+            + "VALUES (?, ?, ?, ?, ?, NULL, 0)";
+
+    private static final String PROCESSED_SQL = "UPDATE progress_outbox SET processed_at = ? WHERE id = ?";
+
+    private static final String FAILED_SQL = "UPDATE progress_outbox SET attempts = attempts + 1 WHERE id = ?";
+
+    // Rows at max attempts are never selected again; they stay (unprocessed) for inspection until purged by hand
+    private static final String DEAD_LETTER_SQL = "UPDATE progress_outbox SET attempts = ? WHERE id = ?";
+
+    private static final String PENDING_SQL =
+            "SELECT id, type, user_id, payload, created_at, attempts FROM progress_outbox "
+            + "WHERE processed_at IS NULL AND created_at < ? AND attempts < ? ORDER BY created_at LIMIT ?";
+
+    private static final String PURGE_SQL = "DELETE FROM progress_outbox WHERE processed_at < ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Resolved lazily: subscribers may depend on the services that publish here
+    @Autowired
+    private ObjectProvider<ProgressEventSubscriber> subscribers;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${progress.bus.capacity:8192}")
+    private int capacity;
+
+    @Value("${progress.bus.consumers:2}")
+    private int consumerCount;
+
+    @Value("${progress.bus.batch-size:256}")
+    private int batchSize;
+
+    @Value("${progress.bus.publish-timeout-ms:20}")
+    private long publishTimeoutMs;
+
+    @Value("${progress.outbox.relay-delay-ms:10000}")
+    private long relayDelayMs;
+
+    @Value("${progress.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${progress.outbox.retention-hours:24}")
+    private long retentionHours;
+
+    private BlockingQueue<Envelope> ring;
+    private ExecutorService consumers;
+    private Counter overflow;
+    private Counter deadLettered;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        ring = new ArrayBlockingQueue<>(capacity);
+        overflow = Counter.builder("progress.bus.overflow")
+                .description("Events written straight to the outbox because the ring was full")
+                .register(meterRegistry);
+        deadLettered = Counter.builder("progress.outbox.dead_lettered")
+                .description("Outbox events given up on: max attempts reached, or unreadable")
+                .register(meterRegistry);
+        meterRegistry.gaugeCollectionSize("progress.bus.queued", List.of(), ring);
+        running = true;
+        AtomicInteger threads = new AtomicInteger();
+        consumers = Executors.newFixedThreadPool(consumerCount, r -> {
+            Thread t = new Thread(r, "progress-events-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < consumerCount; i++) {
+            consumers.execute(this::consume);
+        }
+    }
+
+    // Whatever is still queued goes to the outbox, where the relay finds it after a restart
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        consumers.shutdown();
+        consumers.awaitTermination(5, TimeUnit.SECONDS);
+        List<Envelope> left = new ArrayList<>();
+        ring.drainTo(left);
+        store(left.stream().filter(envelope -> !envelope.stored()).toList());
+    }
+
+    /**
+     * Queues an event for the subscribers, best-effort: it is lost if the process dies before
+     * a consumer handles it (see the class comment). Never blocks for longer than the publish
+     * timeout. Use {@link #recordInTransaction} when the event must survive a crash.
+     */
+    public void publish(Event event) {
+        Envelope envelope = new Envelope(UUID.randomUUID().toString(), event, now(), false, 0);
+        try {
+            if (ring.offer(envelope, publishTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        overflow.increment();
+        store(List.of(envelope));
+    }
+
+    /**
+     * Writes the event to the outbox as part of the current transaction, so it exists if and
+     * only if the change that caused it commits; it is queued for dispatch after commit.
+     */
+    public void recordInTransaction(Event event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("recordInTransaction needs an active transaction");
+        }
+        Envelope envelope = new Envelope(UUID.randomUUID().toString(), event, now(), true, 0);
+        insert(List.of(envelope));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ring.offer(envelope); // if full, the relay dispatches it from the outbox
+            }
+        });
+    }
+
+    private void consume() {
+        List<Envelope> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Envelope first = ring.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                ring.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Progress event batch failed; the outbox keeps it for retry", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<Envelope> batch) {
+        store(batch.stream().filter(envelope -> !envelope.stored()).toList());
+        List<Event> events = batch.stream().map(Envelope::event).toList();
+        boolean failed = false;
+        for (ProgressEventSubscriber subscriber : subscribers) {
+            try {
+                subscriber.onProgressEvents(events);
+            } catch (RuntimeException e) {
+                failed = true;
+                log.warn("{} failed on {} progress events", subscriber.getClass().getSimpleName(), events.size(), e);
+            }
+        }
+        Timestamp processedAt = now();
+        if (failed) {
+            jdbcTemplate.batchUpdate(FAILED_SQL, batch, batch.size(), (ps, envelope) -> ps.setString(1, envelope.id()));
+            for (Envelope envelope : batch) {
+                if (envelope.attempts() + 1 >= maxAttempts) {
+                    deadLettered(envelope.id(), type(envelope.event()), envelope.event().userId(), "subscriber failed");
+                }
+            }
+        } else {
+            jdbcTemplate.batchUpdate(PROCESSED_SQL, batch, batch.size(), (ps, envelope) -> {
+                ps.setTimestamp(1, processedAt);
+                ps.setString(2, envelope.id());
+            });
+        }
+    }
+
+    /**
+     * Puts unprocessed rows older than the relay delay back on the ring, and purges old
+     * processed rows. A row that can't be turned into an event is skipped rather than left to
+     * block the rows behind it: an unknown type (perhaps from a newer instance) uses up an
+     * attempt, a malformed payload is dead-lettered at once. Only a full ring stops the pass.
+     */
+    @Scheduled(fixedDelayString = "${progress.outbox.relay-interval-ms:5000}")
+    public void relay() {
+        Timestamp cutoff = new Timestamp(System.currentTimeMillis() - relayDelayMs);
+        List<OutboxRow> pending = jdbcTemplate.query(PENDING_SQL, (rs, n) -> new OutboxRow(rs.getString(1),
+                rs.getString(2), rs.getLong(3), rs.getString(4), rs.getTimestamp(5), rs.getInt(6)),
+                cutoff, maxAttempts, batchSize);
+        int requeued = 0;
+        for (OutboxRow row : pending) {
+            Event event;
+            try {
+                event = event(row.type(), row.userId(), row.payload());
+            } catch (RuntimeException e) {
+                jdbcTemplate.update(DEAD_LETTER_SQL, maxAttempts, row.id());
+                deadLettered(row.id(), row.type(), row.userId(), "malformed payload '" + row.payload() + "'");
+                continue;
+            }
+            if (event == null) {
+                jdbcTemplate.update(FAILED_SQL, row.id());
+                if (row.attempts() + 1 >= maxAttempts) {
+                    deadLettered(row.id(), row.type(), row.userId(), "unknown type");
+                }
+                continue;
+            }
+            if (!ring.offer(new Envelope(row.id(), event, row.createdAt(), true, row.attempts()))) {
+                break; // the rest waits for the next pass
+            }
+            requeued++;
+        }
+        if (requeued > 0) {
+            log.info("Re-dispatching {} progress events from the outbox", requeued);
+        }
+        jdbcTemplate.update(PURGE_SQL, new Timestamp(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(retentionHours)));
+    }
+
+    private void deadLettered(String id, String type, long userId, String reason) {
+        deadLettered.increment();
+        log.error("Gave up on progress outbox event {} ({} for user {}): {}", id, type, userId, reason);
+    }
+
+    private void store(List<Envelope> envelopes) {
+        if (envelopes.isEmpty()) {
+            return;
+        }
+        try {
+            insert(envelopes);
+        } catch (RuntimeException e) {
+            // Dispatch still goes ahead; only the retry safety net is missing for these events
+            log.warn("Could not write {} progress events to the outbox", envelopes.size(), e);
+        }
+    }
+
+    private void insert(List<Envelope> envelopes) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, envelopes, envelopes.size(), (ps, envelope) -> {
+            ps.setString(1, envelope.id());
+            ps.setString(2, type(envelope.event()));
+            ps.setLong(3, envelope.event().userId());
+            ps.setString(4, payload(envelope.event()));
+            ps.setTimestamp(5, envelope.createdAt());
+        });
+    }
+
+    private static String type(Event event) {
+        if (event instanceof LessonCompleted) {
+            return "LESSON_COMPLETED";
+        }
+        return event instanceof StudyTimeAdded ? "STUDY_TIME_ADDED" : "STUDY_DAY_RECORDED";
+    }
+
+    private static String payload(Event event) {
+        if (event instanceof LessonCompleted lesson) {
+            return lesson.lessonId();
+        }
+        if (event instanceof StudyTimeAdded time) {
+            return Integer.toString(time.minutes());
+        }
+        return ((StudyDayRecorded) event).day().toString();
+    }
+
+    // Null for a type this version doesn't know (written by a newer instance); throws on a malformed payload
+    private static Event event(String type, Long userId, String payload) {
+        return switch (type) {
+            case "LESSON_COMPLETED" -> new LessonCompleted(userId, payload);
+            case "STUDY_TIME_ADDED" -> new StudyTimeAdded(userId, Integer.parseInt(payload));
+            case "STUDY_DAY_RECORDED" -> new StudyDayRecorded(userId, LocalDate.parse(payload));
+            default -> null;
+        };
+    }
+
+    private static Timestamp now() {
+        return new Timestamp(System.currentTimeMillis());
+    }
+}
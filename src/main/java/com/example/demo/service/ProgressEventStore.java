@@ -0,0 +1,231 @@
+package com.example.demo.service;
+
+import com.example.demo.eventlog.LearnerState;
+import com.example.demo.eventlog.ProgressEvent;
+import com.example.demo.eventlog.ProgressEventLog;
+import com.example.demo.model.UserProgress;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * History of every progress change as an append-only local event log: lessons completed,
+ * minutes studied, study days and explicit overwrites. Appends are sequential writes into
+ * a memory-mapped segment; fsyncs are batched (every {@code fsync-interval-ms} or
+ * {@code fsync-batch} appends) and the folded state is snapshotted periodically.
+ *
+ * user_progress stays the row the API serves and other instances share; the log is the
+ * replayable record of how it got there, and {@link #materialize} rebuilds a learner's
+ * progress from snapshot + tail. It costs an append on top of every row write and each
+ * instance only sees its own writes, so it is off by default and meant for single-instance
+ * deployments that want the history. On startup every row the log disagrees with (learners
+ * from before the log, changes made while it was off) is re-based with set events before
+ * requests are served. Events written since the last fsync can be lost if the machine (not
+ * just the process) crashes.
+ */
+@Slf4j
+@Service
+public class ProgressEventStore implements SmartInitializingSingleton {
+
+    private static final String ROWS_SQL = "SELECT user_id, lessons_completed, study_streak, total_study_time, "
+            + "last_studied_date, completed_lessons_bits FROM user_progress";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${progress.events.enabled:false}")
+    private boolean enabled;
+
+    @Value("${progress.events.dir:data/progress-events}")
+    private String directory;
+
+    @Value("${progress.events.segment-records:1048576}")
+    private int segmentRecords;
+
+    @Value("${progress.events.fsync-batch:1000}")
+    private int fsyncBatch;
+
+    private ProgressEventLog eventLog;
+
+    private long lastSnapshot = -1;
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            eventLog = ProgressEventLog.open(Path.of(directory), segmentRecords);
+        } catch (IllegalStateException e) {
+            // Progress keeps working without history rather than corrupting another writer's log
+            log.warn("Progress event log disabled: {}", e.getMessage());
+            return;
+        }
+        log.info("Progress event log opened at sequence {} in {} ms", eventLog.nextSequence(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // Runs once the schema exists but before the web server accepts requests, so no append races the scan
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (eventLog == null) {
+            return;
+        }
+        long started = System.nanoTime();
+        int[] rebased = new int[1];
+        jdbcTemplate.query(ROWS_SQL, (RowCallbackHandler) rs -> {
+            byte[] bits = rs.getBytes(6);
+            if (reconcile(rs.getLong(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getDate(5),
+                    BitSet.valueOf(bits != null ? bits : new byte[0]))) {
+                rebased[0]++;
+            }
+        });
+        eventLog.sync();
+        log.info("Progress event log reconciled with user_progress: {} learners re-based in {} ms", rebased[0],
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Brings the log's state of one learner to the stored row if they differ: missing lessons
+     * and the last study day as ordinary events, then the counters as set events. Returns
+     * whether anything was appended.
+     */
+    boolean reconcile(long userId, int lessonsCompleted, int studyStreak, int totalStudyTime, Date lastStudied,
+                      BitSet lessons) {
+        LocalDate lastDay = lastStudied != null ? lastStudied.toLocalDate() : null;
+        LearnerState state = eventLog.state(userId).orElse(null);
+        if (state != null && state.lessons().equals(lessons) && state.lessonsCompleted() == lessonsCompleted
+                && state.studyMinutes() == totalStudyTime && Objects.equals(state.lastStudyDay(), lastDay)) {
+            return false;
+        }
+        BitSet missing = (BitSet) lessons.clone();
+        if (state != null) {
+            missing.andNot(state.lessons());
+        }
+        for (int ordinal = missing.nextSetBit(0); ordinal >= 0; ordinal = missing.nextSetBit(ordinal + 1)) {
+            append(userId, ProgressEvent.Type.LESSON_COMPLETED, ordinal);
+        }
+        if (lastDay != null && (state == null || state.lastStudyDay() == null || state.lastStudyDay().isBefore(lastDay))) {
+            append(userId, ProgressEvent.Type.STREAK_TOUCHED, (int) lastDay.toEpochDay());
+        }
+        progressSet(userId, lessonsCompleted, studyStreak, totalStudyTime);
+        return true;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (eventLog != null) {
+            eventLog.close();
+        }
+    }
+
+    public void lessonCompleted(Long userId, int ordinal) {
+        append(userId, ProgressEvent.Type.LESSON_COMPLETED, ordinal);
+    }
+
+    public void minutesStudied(Long userId, int minutes) {
+        append(userId, ProgressEvent.Type.MINUTES_STUDIED, minutes);
+    }
+
+    public void studyDay(Long userId, LocalDate day) {
+        append(userId, ProgressEvent.Type.STREAK_TOUCHED, (int) day.toEpochDay());
+    }
+
+    // An explicit overwrite of the counters (PUT-style update), recorded as three events
+    public void progressSet(Long userId, int lessonsCompleted, int studyStreak, int totalStudyTime) {
+        append(userId, ProgressEvent.Type.LESSON_COUNT_SET, lessonsCompleted);
+        append(userId, ProgressEvent.Type.STREAK_SET, studyStreak);
+        append(userId, ProgressEvent.Type.STUDY_TIME_SET, totalStudyTime);
+    }
+
+    private void append(Long userId, ProgressEvent.Type type, int value) {
+        if (eventLog == null) {
+            return;
+        }
+        try {
+            eventLog.append(userId, type, value);
+            if (eventLog.unsynced() >= fsyncBatch) {
+                eventLog.sync();
+            }
+        } catch (IOException e) {
+            // The row update already happened; losing history must not fail the request
+            log.warn("Could not append {} for user {}", type, userId, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${progress.events.fsync-interval-ms:200}")
+    public void sync() {
+        if (eventLog != null) {
+            eventLog.sync();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${progress.events.snapshot-interval-ms:600000}",
+            fixedDelayString = "${progress.events.snapshot-interval-ms:600000}")
+    public void snapshot() {
+        if (eventLog == null) {
+            return;
+        }
+        try {
+            long through = eventLog.snapshot();
+            if (through != lastSnapshot) {
+                log.info("Progress snapshot written through sequence {}", through);
+                lastSnapshot = through;
+            }
+        } catch (IOException e) {
+            log.warn("Progress snapshot failed", e);
+        }
+    }
+
+    /**
+     * Rebuilds a learner's progress from the log, or empty if the log has no events for
+     * them (e.g. activity from before the log existed).
+     */
+    public Optional<UserProgress> materialize(Long userId) {
+        if (eventLog == null) {
+            return Optional.empty();
+        }
+        return eventLog.state(userId).map(state -> toProgress(state, LocalDate.now()));
+    }
+
+    private static UserProgress toProgress(LearnerState state, LocalDate today) {
+        LocalDate lastDay = state.lastStudyDay();
+        return UserProgress.builder()
+                .lessonsCompleted(state.lessonsCompleted())
+                .completedLessonsBits(state.lessons().toByteArray())
+                .studyStreak(state.streak(today))
+                .totalStudyTime((int) state.studyMinutes())
+                .lastStudiedDate(lastDay != null ? java.sql.Date.valueOf(lastDay) : null)
+                .build();
+    }
+
+    // Streams the history from a sequence number, e.g. for analytics jobs
+    public void replay(long fromSequence, Consumer<ProgressEvent> consumer) {
+        if (eventLog == null) {
+            return;
+        }
+        try {
+            eventLog.replay(fromSequence, consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
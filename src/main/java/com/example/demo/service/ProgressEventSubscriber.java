@@ -0,0 +1,14 @@
+package com.example.demo.service;
+
+import java.util.List;
+
+/**
+ * Receives progress events from {@link ProgressEventBus} on its consumer threads. Delivery
+ * is at-least-once and unordered across batches, so handlers must be idempotent and read
+ * current state rather than trusting the order of events.
+ */
+public interface ProgressEventSubscriber {
+
+    // Throwing leaves the whole batch in the outbox to be retried
+    void onProgressEvents(List<ProgressEventBus.Event> events);
+}
@@ -0,0 +1,248 @@
+package com.example.demo.service;
+
+import com.example.demo.config.CacheConfig;
+import com.example.demo.model.UserProgress;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind buffer for the high-frequency progress writes (study-time heartbeats and
+ * streak touches). Minutes are summed per user and streak touches are coalesced per user
+ * and day; both are flushed to user_progress with JDBC batches on a fixed interval, or
+ * early once the batch size is reached.
+ *
+ * Reads go through {@link #read} which merges pending deltas into the loaded row, so the
+ * API stays read-your-writes. Users are mapped to lock stripes: a flush holds the write
+ * lock of a stripe while its rows are updated and the drained deltas removed, so a reader
+ * never sees a delta both in the row and in the buffer. Each chunk is written in one
+ * transaction, so a failed flush leaves nothing behind that its retry would apply twice.
+ */
+@Slf4j
+@Component
+public class ProgressWriteBuffer {
+
+    private static final int STRIPES = 64;
+
+    private static final String ADD_MINUTES_SQL =
+            "UPDATE user_progress SET total_study_time = total_study_time + ? WHERE user_id = ?";
+
+    // Same rule as UserProgress.recordStudyDay: no-op unless the day is after the last studied date
+    private static final String TOUCH_STREAK_SQL =
+            "UPDATE user_progress SET "
+            + "study_streak = CASE WHEN last_studied_date >= ? THEN study_streak "
+            + "WHEN last_studied_date = ? THEN study_streak + 1 ELSE 1 END, "
+            + "last_studied_date = CASE WHEN last_studied_date >= ? THEN last_studied_date ELSE ? END, "
+            + "version = version + 1 "
+            + "WHERE user_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${progress.write-behind.batch-size:500}")
+    private int batchSize;
+
+    private final ReentrantReadWriteLock[] locks = new ReentrantReadWriteLock[STRIPES];
+    private final Map<Long, Integer> pendingMinutes = new ConcurrentHashMap<>();
+    private final Map<Long, Set<LocalDate>> pendingStreaks = new ConcurrentHashMap<>();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean earlyFlushQueued = new AtomicBoolean();
+    private ExecutorService flusher;
+    private Cache progressCache;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void start() {
+        progressCache = cacheManager.getCache(CacheConfig.PROGRESS);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+        flusher = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "progress-flush");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Flush whatever is still buffered before the DataSource goes away
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+        flush();
+    }
+
+    public void addMinutes(Long userId, int minutes) {
+        pendingMinutes.merge(userId, minutes, Integer::sum);
+        maybeFlushEarly();
+    }
+
+    public void touchStreak(Long userId, LocalDate day) {
+        pendingStreaks.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(day);
+        maybeFlushEarly();
+    }
+
+    /**
+     * Loads the stored progress and returns a copy with this user's pending deltas applied,
+     * or null if the loader finds nothing.
+     */
+    public UserProgress read(Long userId, Supplier<UserProgress> loader) {
+        ReentrantReadWriteLock.ReadLock lock = stripe(userId).readLock();
+        lock.lock();
+        try {
+            UserProgress stored = loader.get();
+            return stored == null ? null : merge(userId, stored.copy());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies pending streak touches to a progress object in place (e.g. a managed entity
+     * that is about to be updated). The touches stay buffered; replaying them is a no-op.
+     */
+    public void applyPendingStreaks(Long userId, UserProgress progress) {
+        Set<LocalDate> days = pendingStreaks.get(userId);
+        if (days != null) {
+            new TreeSet<>(days).forEach(progress::recordStudyDay);
+        }
+    }
+
+    /**
+     * Drops everything buffered for a user, used when the stored values are overwritten wholesale.
+     */
+    public void discard(Long userId) {
+        ReentrantReadWriteLock.WriteLock lock = stripe(userId).writeLock();
+        lock.lock();
+        try {
+            pendingMinutes.remove(userId);
+            pendingStreaks.remove(userId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${progress.write-behind.flush-interval-ms:5000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            earlyFlushQueued.set(false);
+            Set<Long> users = new TreeSet<>(pendingMinutes.keySet());
+            users.addAll(pendingStreaks.keySet());
+            List<Long> all = new ArrayList<>(users);
+            for (int from = 0; from < all.size(); from += batchSize) {
+                flushChunk(all.subList(from, Math.min(from + batchSize, all.size())));
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushChunk(List<Long> users) {
+        // Lock the chunk's stripes in index order so concurrent flushes can't deadlock
+        TreeSet<Integer> stripes = new TreeSet<>();
+        users.forEach(id -> stripes.add(stripeIndex(id)));
+        stripes.forEach(i -> locks[i].writeLock().lock());
+        try {
+            Map<Long, Integer> minutes = new ConcurrentHashMap<>();
+            Map<Long, Set<LocalDate>> touches = new ConcurrentHashMap<>();
+            for (Long id : users) {
+                Integer m = pendingMinutes.remove(id);
+                if (m != null) {
+                    minutes.put(id, m);
+                }
+                Set<LocalDate> days = pendingStreaks.remove(id);
+                if (days != null) {
+                    touches.put(id, days);
+                }
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(minutes, touches));
+                // Cached rows predate the flushed deltas; drop them while readers are still locked out
+                users.forEach(progressCache::evict);
+            } catch (RuntimeException e) {
+                // Nothing was committed; put the deltas back so the next flush retries them
+                log.warn("Progress write-behind flush failed, keeping {} users buffered", users.size(), e);
+                minutes.forEach((id, m) -> pendingMinutes.merge(id, m, Integer::sum));
+                touches.forEach((id, days) -> pendingStreaks
+                        .computeIfAbsent(id, k -> ConcurrentHashMap.newKeySet()).addAll(days));
+            }
+        } finally {
+            stripes.descendingSet().forEach(i -> locks[i].writeLock().unlock());
+        }
+    }
+
+    private void write(Map<Long, Integer> minutes, Map<Long, Set<LocalDate>> touches) {
+        if (!minutes.isEmpty()) {
+            List<Object[]> args = new ArrayList<>(minutes.size());
+            minutes.forEach((id, m) -> args.add(new Object[]{m, id}));
+            jdbcTemplate.batchUpdate(ADD_MINUTES_SQL, args);
+        }
+        if (!touches.isEmpty()) {
+            // Oldest days first, so consecutive touches extend the streak in order
+            List<Object[]> args = new ArrayList<>();
+            touches.forEach((id, days) -> days.forEach(day -> {
+                Date d = Date.valueOf(day);
+                args.add(new Object[]{d, Date.valueOf(day.minusDays(1)), d, d, id});
+            }));
+            args.sort(Comparator.comparing(a -> (Date) a[0]));
+            jdbcTemplate.batchUpdate(TOUCH_STREAK_SQL, args);
+        }
+    }
+
+    private UserProgress merge(Long userId, UserProgress progress) {
+        Integer minutes = pendingMinutes.get(userId);
+        if (minutes != null) {
+            progress.addStudyTime(minutes);
+        }
+        applyPendingStreaks(userId, progress);
+        return progress;
+    }
+
+    private void maybeFlushEarly() {
+        if (pendingMinutes.size() + pendingStreaks.size() >= batchSize && earlyFlushQueued.compareAndSet(false, true)) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    private ReentrantReadWriteLock stripe(Long userId) {
+        return locks[stripeIndex(userId)];
+    }
+
+    private static int stripeIndex(Long userId) {
+        return (int) (userId ^ (userId >>> 32)) & (STRIPES - 1);
+    }
+}
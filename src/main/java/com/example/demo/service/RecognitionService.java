@@ -0,0 +1,227 @@
+package com.example.demo.service;
+
+import com.example.demo.inference.DynamicSignModel;
+import com.example.demo.inference.DynamicSignSession;
+import com.example.demo.inference.Prediction;
+import com.example.demo.inference.StaticSignModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class RecognitionService {
+
+    @Autowired
+    private ModelRegistry modelRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${recognition.max-batch:256}")
+    private int maxBatch;
+
+    @Value("${recognition.dynamic.max-sessions:1000}")
+    private int maxSessions;
+
+    @Value("${recognition.dynamic.session-idle-timeout-ms:60000}")
+    private long sessionIdleTimeoutMs;
+
+    private final Map<String, SessionHolder> sessions = new ConcurrentHashMap<>();
+
+    // Slots are reserved before a session is created, so concurrent opens cannot overshoot maxSessions
+    private final AtomicInteger openSessions = new AtomicInteger();
+
+    private Timer staticInference;
+
+    private Timer dynamicInference;
+
+    // Packed input and output rows, reused by each request thread
+    private final ThreadLocal<float[][]> buffers = ThreadLocal.withInitial(() -> new float[2][0]);
+
+    // Packed window and probabilities for whole-window dynamic requests
+    private final ThreadLocal<float[][]> windowBuffers = ThreadLocal.withInitial(() -> new float[][]{
+            new float[DynamicSignModel.WINDOW * DynamicSignModel.FEATURES], new float[0]});
+
+    /**
+     * Result of feeding frames into a streaming session. {@code predictions} is null until the first full window.
+     */
+    public record StreamResult(long framesSeen, boolean ready, List<Prediction> predictions) {
+    }
+
+    private static class SessionHolder {
+        final DynamicSignSession session;
+        // A lock rather than synchronized, so a waiting virtual thread doesn't pin its carrier
+        final ReentrantLock lock = new ReentrantLock();
+        volatile long lastAccess = System.currentTimeMillis();
+
+        SessionHolder(DynamicSignSession session) {
+            this.session = session;
+        }
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        staticInference = inferenceTimer(meterRegistry, "static", "rest");
+        dynamicInference = inferenceTimer(meterRegistry, "dynamic", "rest");
+        meterRegistry.gaugeMapSize("recognition.sessions", List.of(), sessions);
+    }
+
+    // Model invocation time only, without request parsing; shared with the WebSocket path via the source tag
+    static Timer inferenceTimer(MeterRegistry registry, String model, String source) {
+        return Timer.builder("recognition.inference")
+                .description("Time spent in the sign model forward pass")
+                .tag("model", model)
+                .tag("source", source)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    // Runs a batch of 126-float landmark vectors through the static model and returns the top-k labels per frame
+    public List<List<Prediction>> recognizeStatic(float[][] frames, int topK) {
+        if (frames == null || frames.length == 0) {
+            throw new IllegalArgumentException("At least one frame is required.");
+        }
+        if (frames.length > maxBatch) {
+            throw new IllegalArgumentException("A batch may contain at most " + maxBatch + " frames.");
+        }
+        if (topK < 1) {
+            throw new IllegalArgumentException("topK must be at least 1.");
+        }
+
+        int batch = frames.length;
+        StaticSignModel staticModel = modelRegistry.select().staticModel();
+        float[][] buf = buffers.get();
+        if (buf[0].length < batch * StaticSignModel.FEATURES || buf[1].length < batch * staticModel.classes()) {
+            // Versions may differ in class count, so size for the widest seen so far
+            buf[0] = new float[maxBatch * StaticSignModel.FEATURES];
+            buf[1] = new float[maxBatch * Math.max(staticModel.classes(), buf[1].length / maxBatch)];
+        }
+        float[] input = buf[0];
+        float[] probabilities = buf[1];
+
+        for (int b = 0; b < batch; b++) {
+            if (frames[b] == null || frames[b].length != StaticSignModel.FEATURES) {
+                throw new IllegalArgumentException("Frame " + b + " must contain exactly " + StaticSignModel.FEATURES + " values.");
+            }
+            System.arraycopy(frames[b], 0, input, b * StaticSignModel.FEATURES, StaticSignModel.FEATURES);
+        }
+
+        staticInference.record(() -> staticModel.predict(input, batch, probabilities));
+
+        List<List<Prediction>> results = new ArrayList<>(batch);
+        for (int b = 0; b < batch; b++) {
+            results.add(staticModel.topK(probabilities, b, topK));
+        }
+        return results;
+    }
+
+    // Runs one complete window of 45 x 258-float frames through the dynamic model
+    public List<Prediction> recognizeDynamic(float[][] frames, int topK) {
+        if (frames == null || frames.length != DynamicSignModel.WINDOW) {
+            throw new IllegalArgumentException("A window of exactly " + DynamicSignModel.WINDOW + " frames is required.");
+        }
+        if (topK < 1) {
+            throw new IllegalArgumentException("topK must be at least 1.");
+        }
+        float[][] buf = windowBuffers.get();
+        float[] window = buf[0];
+        for (int t = 0; t < frames.length; t++) {
+            checkDynamicFrame(frames[t], t);
+            System.arraycopy(frames[t], 0, window, t * DynamicSignModel.FEATURES, DynamicSignModel.FEATURES);
+        }
+        DynamicSignModel dynamicModel = modelRegistry.select().dynamicModel();
+        if (buf[1].length != dynamicModel.classes()) {
+            buf[1] = new float[dynamicModel.classes()];
+        }
+        float[] probabilities = buf[1];
+        dynamicInference.record(() -> dynamicModel.predict(window, probabilities));
+        return dynamicModel.topK(probabilities, topK);
+    }
+
+    // Opens a stateful sliding-window session and returns its id
+    public String openSession() {
+        if (openSessions.incrementAndGet() > maxSessions) {
+            openSessions.decrementAndGet();
+            throw new IllegalStateException("Too many active recognition sessions, try again later.");
+        }
+        try {
+            String id = UUID.randomUUID().toString();
+            // The session stays on the version it started with, even across a swap
+            sessions.put(id, new SessionHolder(modelRegistry.select(id).dynamicModel().newSession()));
+            return id;
+        } catch (RuntimeException e) {
+            openSessions.decrementAndGet();
+            throw e;
+        }
+    }
+
+    // Feeds frames into a session; only the newest window's prediction is returned
+    public StreamResult pushFrames(String sessionId, float[][] frames, int topK) {
+        SessionHolder holder = sessions.get(sessionId);
+        if (holder == null) {
+            throw new IllegalStateException("Recognition session not found");
+        }
+        if (frames == null || frames.length == 0) {
+            throw new IllegalArgumentException("At least one frame is required.");
+        }
+        if (topK < 1) {
+            throw new IllegalArgumentException("topK must be at least 1.");
+        }
+        for (int t = 0; t < frames.length; t++) {
+            checkDynamicFrame(frames[t], t);
+        }
+
+        holder.lastAccess = System.currentTimeMillis();
+        DynamicSignSession session = holder.session;
+        holder.lock.lock();
+        try {
+            boolean fresh = false;
+            long started = System.nanoTime();
+            for (float[] frame : frames) {
+                fresh = session.push(frame, 0);
+            }
+            dynamicInference.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            List<Prediction> predictions = fresh ? session.model().topK(session.probabilities(), topK) : null;
+            return new StreamResult(session.frameCount(), session.isReady(), predictions);
+        } finally {
+            holder.lock.unlock();
+        }
+    }
+
+    public void closeSession(String sessionId) {
+        if (sessions.remove(sessionId) == null) {
+            throw new IllegalStateException("Recognition session not found");
+        }
+        openSessions.decrementAndGet();
+    }
+
+    // Drops sessions whose clients went away without closing them
+    @Scheduled(fixedDelayString = "${recognition.dynamic.session-sweep-ms:15000}")
+    public void evictIdleSessions() {
+        long cutoff = System.currentTimeMillis() - sessionIdleTimeoutMs;
+        sessions.forEach((id, holder) -> {
+            if (holder.lastAccess < cutoff && sessions.remove(id, holder)) {
+                openSessions.decrementAndGet();
+            }
+        });
+    }
+
+    private void checkDynamicFrame(float[] frame, int index) {
+        if (frame == null || frame.length != DynamicSignModel.FEATURES) {
+            throw new IllegalArgumentException("Frame " + index + " must contain exactly " + DynamicSignModel.FEATURES + " values.");
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads roster entries a chunk at a time from CSV (header row naming the columns) or
+ * NDJSON (one object per line), so an upload is never held in memory as a whole. A
+ * malformed record becomes an entry carrying its error instead of failing the upload.
+ */
+abstract class RosterReader {
+
+    /**
+     * One student from the roster; {@code row} is the 1-based position among the data
+     * records (the CSV header doesn't count).
+     */
+    record Entry(long row, String name, String email, String password, String cohort, String bio, String error) {
+
+        Entry withError(String message) {
+            return new Entry(row, name, email, password, cohort, bio, message);
+        }
+    }
+
+    static final List<String> COLUMNS = List.of("name", "email", "password", "cohort", "bio");
+
+    protected final BufferedReader in;
+    protected long row;
+
+    RosterReader(Reader reader) {
+        this.in = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+    }
+
+    static RosterReader csv(Reader reader) throws IOException {
+        return new Csv(reader);
+    }
+
+    static RosterReader ndjson(Reader reader, ObjectMapper objectMapper) {
+        return new Ndjson(reader, objectMapper);
+    }
+
+    // Up to max entries; empty once the input is exhausted
+    List<Entry> next(int max) throws IOException {
+        List<Entry> entries = new ArrayList<>(max);
+        Entry entry;
+        while (entries.size() < max && (entry = read()) != null) {
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    protected abstract Entry read() throws IOException;
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static final class Ndjson extends RosterReader {
+
+        private final ObjectMapper objectMapper;
+
+        Ndjson(Reader reader, ObjectMapper objectMapper) {
+            super(reader);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        protected Entry read() throws IOException {
+            String line;
+            do {
+                line = in.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            row++;
+            try {
+                JsonNode node = objectMapper.readTree(line);
+                if (!node.isObject()) {
+                    return new Entry(row, null, null, null, null, null, "Expected a JSON object");
+                }
+                return new Entry(row, text(node, "name"), text(node, "email"), text(node, "password"),
+                        text(node, "cohort"), text(node, "bio"), null);
+            } catch (JsonProcessingException e) {
+                return new Entry(row, null, null, null, null, null, "Malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+
+        private static String text(JsonNode node, String field) {
+            JsonNode value = node.get(field);
+            return value == null || value.isNull() ? null : blankToNull(value.asText());
+        }
+    }
+
+    // RFC 4180: quoted fields may contain commas, doubled quotes and line breaks
+    private static final class Csv extends RosterReader {
+
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        Csv(Reader reader) throws IOException {
+            super(reader);
+            List<String> header = record();
+            if (header == null) {
+                throw new IllegalArgumentException("The CSV is empty; expected a header row");
+            }
+            for (int i = 0; i < header.size(); i++) {
+                String column = header.get(i).trim().toLowerCase(Locale.ROOT);
+                if (i == 0 && column.startsWith("\uFEFF")) {
+                    column = column.substring(1);
+                }
+                if (COLUMNS.contains(column)) {
+                    columns.putIfAbsent(column, i);
+                }
+            }
+            if (!columns.containsKey("name") || !columns.containsKey("email") || !columns.containsKey("password")) {
+                throw new IllegalArgumentException("The CSV header must name the columns name, email and password");
+            }
+        }
+
+        @Override
+        protected Entry read() throws IOException {
+            List<String> fields;
+            do {
+                fields = record();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isBlank());
+            row++;
+            return new Entry(row, field(fields, "name"), field(fields, "email"), field(fields, "password"),
+                    field(fields, "cohort"), field(fields, "bio"), null);
+        }
+
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            return index == null || index >= fields.size() ? null : blankToNull(fields.get(index));
+        }
+
+        // Null at end of input
+        private List<String> record() throws IOException {
+            int c = in.read();
+            if (c < 0) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (c >= 0) {
+                if (quoted) {
+                    if (c == '"') {
+                        in.mark(1);
+                        int next = in.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (next >= 0) {
+                                in.reset();
+                            }
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = in.read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.example.demo.service;
+
+import com.example.demo.model.User;
+import com.example.demo.model.UserProgress;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Bulk onboarding for schools: imports a roster of students (CSV or NDJSON) and exports
+ * their progress for teachers, both streamed.
+ *
+ * The import reads the upload a chunk at a time. While one chunk is written, the next is
+ * validated on the common pool. Each chunk's users and initial progress rows are persisted
+ * in one transaction; pooled sequence ids let Hibernate send them as JDBC batches. Rows
+ * that fail validation or whose email is taken are reported and skipped; the rest go in.
+ */
+@Slf4j
+@Service
+public class RosterService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String EXPORT_SQL =
+            "SELECT u.id, u.name, u.email, u.cohort, p.lessons_completed, p.study_streak, p.total_study_time, "
+            + "p.last_studied_date FROM users u LEFT JOIN user_progress p ON p.user_id = u.id "
+            + "WHERE u.id > ? %s ORDER BY u.id LIMIT ?";
+
+    private static final String CSV_HEADER =
+            "user_id,name,email,cohort,lessons_completed,study_streak,total_study_time,last_studied_date";
+
+    public enum Format {
+        CSV, NDJSON;
+
+        public static Format parse(String value) {
+            if (value != null) {
+                String normalized = value.toLowerCase(Locale.ROOT);
+                if (normalized.contains("csv")) {
+                    return CSV;
+                }
+                if (normalized.contains("ndjson") || normalized.contains("json")) {
+                    return NDJSON;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported roster format: " + value + " (use CSV or NDJSON)");
+        }
+    }
+
+    public record RowError(long row, String email, String error) {
+    }
+
+    /**
+     * Outcome of an import; at most the first 1000 errors are listed.
+     */
+    public record ImportReport(int imported, int failed, List<RowError> errors) {
+    }
+
+    // One learner in the progress export
+    public record ProgressRow(Long userId, String name, String email, String cohort, int lessonsCompleted,
+                              int studyStreak, int totalStudyTime, Date lastStudiedDate) {
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProgressWriteBuffer progressWriteBuffer;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${roster.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${roster.export.page-size:1000}")
+    private int pageSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Mutable tally of one import; only touched by the thread running it
+    private static final class Tally {
+        final Set<String> seenEmails = new HashSet<>();
+        final List<RowError> errors = new ArrayList<>();
+        int imported;
+        int failed;
+
+        void fail(RosterReader.Entry entry, String error) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(entry.row(), entry.email(), error));
+            }
+        }
+    }
+
+    /**
+     * Imports a roster. Throws IllegalArgumentException if the upload can't be read as the
+     * given format at all (e.g. a CSV without the required columns).
+     */
+    public ImportReport importRoster(Reader reader, Format format) throws IOException {
+        RosterReader roster = format == Format.CSV ? RosterReader.csv(reader) : RosterReader.ndjson(reader, objectMapper);
+        Tally tally = new Tally();
+        CompletableFuture<List<RosterReader.Entry>> validated = null;
+        List<RosterReader.Entry> chunk;
+        while (!(chunk = roster.next(chunkSize)).isEmpty()) {
+            List<RosterReader.Entry> parsed = chunk;
+            CompletableFuture<List<RosterReader.Entry>> next = CompletableFuture.supplyAsync(() -> validate(parsed));
+            if (validated != null) {
+                write(await(validated), tally);
+            }
+            validated = next;
+        }
+        if (validated != null) {
+            write(await(validated), tally);
+        }
+        tally.errors.sort(Comparator.comparingLong(RowError::row));
+        log.info("Roster import: {} imported, {} failed", tally.imported, tally.failed);
+        return new ImportReport(tally.imported, tally.failed, tally.errors);
+    }
+
+    private static List<RosterReader.Entry> await(CompletableFuture<List<RosterReader.Entry>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    // Same rules as a single registration, checked in parallel across the chunk
+    private static List<RosterReader.Entry> validate(List<RosterReader.Entry> chunk) {
+        return chunk.parallelStream().map(entry -> {
+            if (entry.error() != null) {
+                return entry;
+            }
+            if (entry.name() == null) {
+                return entry.withError("Name cannot be empty");
+            }
+            try {
+                UserService.validateRegistration(entry.email(), entry.password());
+                return entry;
+            } catch (IllegalArgumentException e) {
+                return entry.withError(e.getMessage());
+            }
+        }).toList();
+    }
+
+    private void write(List<RosterReader.Entry> chunk, Tally tally) {
+        List<RosterReader.Entry> valid = new ArrayList<>(chunk.size());
+        for (RosterReader.Entry entry : chunk) {
+            if (entry.error() != null) {
+                tally.fail(entry, entry.error());
+            } else if (!tally.seenEmails.add(entry.email().toLowerCase(Locale.ROOT))) {
+                tally.fail(entry, "Duplicate email in this roster");
+            } else {
+                valid.add(entry);
+            }
+        }
+        // One indexed IN lookup per chunk instead of a round trip per student
+        Set<String> taken = takenEmails(valid);
+        List<RosterReader.Entry> fresh = new ArrayList<>(valid.size());
+        for (RosterReader.Entry entry : valid) {
+            if (taken.contains(entry.email().toLowerCase(Locale.ROOT))) {
+                tally.fail(entry, "User already exists with this email.");
+            } else {
+                fresh.add(entry);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+        try {
+            publish(persist(fresh));
+            tally.imported += fresh.size();
+        } catch (DataIntegrityViolationException e) {
+            // Someone registered one of these emails since the lookup; find out which, one row at a time
+            for (RosterReader.Entry entry : fresh) {
+                try {
+                    publish(persist(List.of(entry)));
+                    tally.imported++;
+                } catch (DataIntegrityViolationException rowFailure) {
+                    if (UserService.isEmailTaken(rowFailure)) {
+                        tally.fail(entry, "User already exists with this email.");
+                    } else {
+                        // e.g. a value longer than its column; the rest of the roster still goes in
+                        log.warn("Roster row {} rejected by the database", entry.row(), rowFailure);
+                        tally.fail(entry, "Rejected by the database (check field lengths)");
+                    }
+                }
+            }
+        }
+    }
+
+    private Set<String> takenEmails(List<RosterReader.Entry> entries) {
+        if (entries.isEmpty()) {
+            return Set.of();
+        }
+        String placeholders = String.join(",", Collections.nCopies(entries.size(), "?"));
+        Set<String> taken = new HashSet<>();
+        jdbcTemplate.query("SELECT email FROM users WHERE email IN (" + placeholders + ")",
+                (RowCallbackHandler) rs -> taken.add(rs.getString(1).toLowerCase(Locale.ROOT)),
+                entries.stream().map(RosterReader.Entry::email).toArray());
+        return taken;
+    }
+
+    /**
+     * The inserts are batched when the commit flushes, users first, then their progress
+     * rows; a constraint violation surfaces from the commit as DataIntegrityViolationException.
+     */
+    private List<UserProgress> persist(List<RosterReader.Entry> entries) {
+        return transactionTemplate.execute(status -> {
+            List<UserProgress> created = new ArrayList<>(entries.size());
+            for (RosterReader.Entry entry : entries) {
+                User user = User.builder()
+                        .name(entry.name())
+                        .email(entry.email())
+                        .password(entry.password())
+                        .cohort(entry.cohort())
+                        .bio(entry.bio())
+                        .build();
+                entityManager.persist(user);
+                UserProgress progress = UserProgress.builder().user(user).build();
+                entityManager.persist(progress);
+                created.add(progress);
+            }
+            return created;
+        });
+    }
+
+    private void publish(List<UserProgress> created) {
+        for (UserProgress progress : created) {
+            User user = progress.getUser();
+            leaderboardService.add(user.getId(), user.getName(), user.getCohort(), progress);
+        }
+    }
+
+    /**
+     * Writes every learner's progress (optionally one cohort's) as CSV or NDJSON, reading
+     * the users a page at a time by id so no connection is held for the whole download.
+     */
+    public void exportProgress(String cohort, Format format, Writer out) throws IOException {
+        progressWriteBuffer.flush(); // buffered study time would otherwise be missing
+        String filter = cohort == null || cohort.isBlank() ? null : cohort.trim();
+        String sql = String.format(EXPORT_SQL, filter == null ? "" : "AND u.cohort = ?");
+        if (format == Format.CSV) {
+            out.write(CSV_HEADER);
+            out.write('\n');
+        }
+        long after = 0;
+        while (true) {
+            Object[] args = filter == null ? new Object[]{after, pageSize} : new Object[]{after, filter, pageSize};
+            List<ProgressRow> page = jdbcTemplate.query(sql, (rs, n) -> new ProgressRow(rs.getLong(1),
+                    rs.getString(2), rs.getString(3), rs.getString(4), rs.getInt(5), rs.getInt(6), rs.getInt(7),
+                    rs.getDate(8)), args);
+            for (ProgressRow row : page) {
+                if (format == Format.CSV) {
+                    out.write(csvLine(row));
+                } else {
+                    out.write(objectMapper.writeValueAsString(row));
+                }
+                out.write('\n');
+            }
+            out.flush();
+            if (page.size() < pageSize) {
+                return;
+            }
+            after = page.get(page.size() - 1).userId();
+        }
+    }
+
+    private static String csvLine(ProgressRow row) {
+        return String.join(",", row.userId().toString(), csv(row.name()), csv(row.email()), csv(row.cohort()),
+                Integer.toString(row.lessonsCompleted()), Integer.toString(row.studyStreak()),
+                Integer.toString(row.totalStudyTime()), row.lastStudiedDate() == null ? "" : row.lastStudiedDate().toString());
+    }
+
+    // Quotes fields containing separators; leading formula characters are prefixed so spreadsheets show them as text
+    static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        String text = !value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
@@ -1,29 +1,131 @@
 package com.example.demo.service;
 
+import com.example.demo.config.CacheConfig;
 import com.example.demo.model.User;
 import com.example.demo.model.UserProgress;
 import com.example.demo.repository.UserProgressRepository;
 import com.example.demo.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import java.util.Calendar;
-import java.util.Date;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Timed(value = "service.method", histogram = true)
 @Service
 public class UserProgressService {
 
+    // Bounded retries for optimistic writes; contention is per learner, so a few attempts suffice
+    private static final int MAX_OPTIMISTIC_ATTEMPTS = 5;
+
     @Autowired
     private UserProgressRepository userProgressRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ProgressWriteBuffer progressWriteBuffer;
+
+    @Autowired
+    private LessonCatalog lessonCatalog;
+
+    @Autowired
+    private LessonOrdinals lessonOrdinals;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private ProgressEventStore progressEventStore;
+
+    @Autowired
+    private ProgressEventBus progressEventBus;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Cache progressCache;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void initCache() {
+        progressCache = cacheManager.getCache(CacheConfig.PROGRESS);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Study time and streak touches are buffered, so reads merge the pending deltas into the stored row
     public UserProgress getProgressByUserId(Long userId) {
+        return progressWriteBuffer.read(userId, () -> cachedProgress(userId));
+    }
+
+    // The cache holds detached copies of the stored rows; the write buffer evicts them after a flush
+    private UserProgress cachedProgress(Long userId) {
+        UserProgress cached = progressCache.get(userId, UserProgress.class);
+        if (cached == null) {
+            UserProgress stored = loadProgress(userId);
+            if (stored == null) {
+                return null;
+            }
+            cached = describeLessons(stored.copy());
+            progressCache.put(userId, cached);
+        }
+        return cached;
+    }
+
+    // Fills in the lesson ids and per-module counts from the bitset
+    private UserProgress describeLessons(UserProgress progress) {
+        BitSet bits = progress.lessonBits();
+        progress.setCompletedLessons(lessonOrdinals.lessonIds(bits));
+        progress.setModuleCounts(lessonOrdinals.countByModule(bits));
+        return progress;
+    }
+
+    /**
+     * Progress rebuilt from the event log instead of the stored row; null if the log has
+     * no events for the user.
+     */
+    public UserProgress getReplayedProgress(Long userId) {
+        return progressEventStore.materialize(userId).map(this::describeLessons).orElse(null);
+    }
+
+    /**
+     * Drops the cached row after it was written outside this service (applied on commit
+     * when called inside a transaction).
+     */
+    public void evictProgress(Long userId) {
+        progressCache.evict(userId);
+    }
+
+    // Returns the stored progress entity, creating it on first access; null if the user doesn't exist
+    private UserProgress loadProgress(Long userId) {
     return userProgressRepository.findByUserId(userId)
         .orElseGet(() -> {
-            return userRepository.findById(userId)
-                .map(user -> userProgressRepository.save(UserProgress.builder().user(user).build()))
-                .orElse(null); // return null if user not found
+            try {
+                if (!userRepository.existsById(userId)) {
+                    return null; // return null if user not found
+                }
+                // A reference is enough for the foreign key; loading the user would also query its progress
+                return userProgressRepository.save(
+                        UserProgress.builder().user(userRepository.getReferenceById(userId)).build());
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent first request created the row (user_id is unique); use theirs
+                return userProgressRepository.findByUserId(userId).orElseThrow(() -> e);
+            }
         });
 }
 
@@ -31,15 +133,35 @@ public class UserProgressService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalStateException("User not found"));
         UserProgress progress = UserProgress.builder().user(user).build();
-        return userProgressRepository.save(progress);
+        UserProgress saved = userProgressRepository.save(progress);
+        evictProgress(userId);
+        leaderboardService.update(userId, saved);
+        return describeLessons(saved);
     }
 
     public UserProgress updateProgress(Long userId, UserProgress progressDetails) {
-        UserProgress progress = getProgressByUserId(userId);
-        progress.setLessonsCompleted(progressDetails.getLessonsCompleted());
-        progress.setStudyStreak(progressDetails.getStudyStreak());
-        progress.setTotalStudyTime(progressDetails.getTotalStudyTime());
-        return userProgressRepository.save(progress);
+        for (int attempt = 1; ; attempt++) {
+            UserProgress progress = loadProgress(userId);
+            progress.setLessonsCompleted(progressDetails.getLessonsCompleted());
+            progress.setStudyStreak(progressDetails.getStudyStreak());
+            progress.setTotalStudyTime(progressDetails.getTotalStudyTime());
+            // The explicit values replace whatever was still buffered
+            progressWriteBuffer.discard(userId);
+            try {
+                UserProgress saved = userProgressRepository.save(progress);
+                evictProgress(userId);
+                progressEventStore.progressSet(userId, saved.getLessonsCompleted(), saved.getStudyStreak(),
+                        saved.getTotalStudyTime());
+                leaderboardService.update(userId, saved);
+                return describeLessons(saved);
+            } catch (ObjectOptimisticLockingFailureException e) {
+                // A streak write landed in between; reload and apply the values again
+                if (attempt >= MAX_OPTIMISTIC_ATTEMPTS) {
+                    throw e;
+                }
+                backOff(attempt);
+            }
+        }
     }
 
     public UserProgress addStudyTime(Long userId, Integer minutes) {
@@ -48,62 +170,98 @@ public class UserProgressService {
             return getProgressByUserId(userId);
         }
         UserProgress progress = getProgressByUserId(userId);
-        progress.setTotalStudyTime(progress.getTotalStudyTime() + minutes);
-        return userProgressRepository.save(progress);
+        if (progress == null) {
+            throw new IllegalStateException("User not found");
+        }
+        // Heartbeats are summed in memory and written in batches instead of one UPDATE each
+        progressWriteBuffer.addMinutes(userId, minutes);
+        progressEventStore.minutesStudied(userId, minutes);
+        progress.addStudyTime(minutes);
+        leaderboardService.update(userId, progress);
+        progressEventBus.publish(new ProgressEventBus.StudyTimeAdded(userId, minutes));
+        return progress;
     }
 
     public UserProgress updateStudyStreak(Long userId) {
         UserProgress progress = getProgressByUserId(userId);
-        Date today = new Date();
-        Date lastStudied = progress.getLastStudiedDate();
-
-        // If user has never studied before, start the streak at 1
-        if (lastStudied == null) {
-            progress.setStudyStreak(1);
-        } else {
-            // Using Calendar to compare dates (ignoring time)
-            Calendar calToday = Calendar.getInstance();
-            calToday.setTime(today);
-
-            Calendar calLastStudied = Calendar.getInstance();
-            calLastStudied.setTime(lastStudied);
-
-            // Check if the last session was on the same day
-            boolean isSameDay = calToday.get(Calendar.YEAR) == calLastStudied.get(Calendar.YEAR) &&
-                                calToday.get(Calendar.DAY_OF_YEAR) == calLastStudied.get(Calendar.DAY_OF_YEAR);
-
-            if (!isSameDay) {
-                // If it's a new day, check if it was yesterday
-                calLastStudied.add(Calendar.DAY_OF_YEAR, 1);
-                boolean isConsecutiveDay = calToday.get(Calendar.YEAR) == calLastStudied.get(Calendar.YEAR) &&
-                                           calToday.get(Calendar.DAY_OF_YEAR) == calLastStudied.get(Calendar.DAY_OF_YEAR);
-                
-                if (isConsecutiveDay) {
-                    // It was yesterday, so increment the streak
-                    progress.setStudyStreak(progress.getStudyStreak() + 1);
-                } else {
-                    // It was more than a day ago, so reset the streak to 0
-                    progress.setStudyStreak(1);
+        if (progress == null) {
+            throw new IllegalStateException("User not found");
+        }
+        LocalDate today = LocalDate.now();
+        progressWriteBuffer.touchStreak(userId, today);
+        progressEventStore.studyDay(userId, today);
+        progress.recordStudyDay(today);
+        leaderboardService.update(userId, progress);
+        progressEventBus.publish(new ProgressEventBus.StudyDayRecorded(userId, today));
+        return progress;
+    }
+
+    /**
+     * Records a finished lesson and a study session today without a read-modify-write of
+     * the entity: the lesson bit and the streak are computed from the stored columns (plus
+     * buffered streak touches) and written in one UPDATE guarded by the version, retried
+     * a bounded number of times. A new lesson's LessonCompleted event is written to the
+     * outbox in the same transaction. Returns true if the lesson was new.
+     */
+    public boolean recordLessonAndStudyDay(Long userId, String lessonId) {
+        if (lessonId == null || lessonCatalog.moduleOf(lessonId) == null) {
+            throw new IllegalArgumentException("Unknown lesson: " + lessonId);
+        }
+        int ordinal = lessonOrdinals.ordinalOf(lessonId);
+        LocalDate today = LocalDate.now();
+        for (int attempt = 1; attempt <= MAX_OPTIMISTIC_ATTEMPTS; attempt++) {
+            UserProgressRepository.ProgressState state = userProgressRepository.findProgressStateByUserId(userId)
+                    .orElseThrow(() -> new IllegalStateException("User progress not found"));
+            UserProgress next = UserProgress.builder()
+                    .lessonsCompleted(state.getLessonsCompleted())
+                    .completedLessonsBits(state.getCompletedLessonsBits())
+                    .studyStreak(state.getStudyStreak())
+                    .lastStudiedDate(state.getLastStudiedDate())
+                    .build();
+            boolean added = next.completeLesson(ordinal);
+            progressWriteBuffer.applyPendingStreaks(userId, next);
+            next.recordStudyDay(today);
+            if (!added && next.getStudyStreak() == state.getStudyStreak()
+                    && Objects.equals(next.getLastStudiedDate(), state.getLastStudiedDate())) {
+                return false;
+            }
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (userProgressRepository.updateLessonsAndStreak(state.getId(), next.getCompletedLessonsBits(),
+                        next.getLessonsCompleted(), next.getStudyStreak(), next.getLastStudiedDate(), state.getVersion()) == 0) {
+                    return false;
+                }
+                progressEventBus.recordInTransaction(added
+                        ? new ProgressEventBus.LessonCompleted(userId, lessonId)
+                        : new ProgressEventBus.StudyDayRecorded(userId, today));
+                return true;
+            }))) {
+                evictProgress(userId);
+                if (added) {
+                    progressEventStore.lessonCompleted(userId, ordinal);
                 }
+                progressEventStore.studyDay(userId, today);
+                leaderboardService.update(userId, getProgressByUserId(userId));
+                return added;
             }
-            // If it IS the same day, we do nothing to the streak count.
+            backOff(attempt);
         }
-
-        // Always update the last studied date to today
-        progress.setLastStudiedDate(today);
-        return userProgressRepository.save(progress);
+        throw new ObjectOptimisticLockingFailureException(UserProgress.class, userId);
     }
 
-    public UserProgress completeLesson(Long userId, String lessonId) {
-    UserProgress progress = userProgressRepository.findByUserId(userId)
-        .orElseThrow(() -> new IllegalStateException("User progress not found"));
-
-    if (!progress.getCompletedLessons().contains(lessonId)) {
-        progress.getCompletedLessons().add(lessonId);
-        progress.setLessonsCompleted(progress.getLessonsCompleted() + 1);
+    // Jittered pause so writers that collided don't collide again on the next attempt
+    private static void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextInt(1, 5 * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
-    this.updateStudyStreak(userId);
-    return userProgressRepository.save(progress);
 
+    public UserProgress completeLesson(Long userId, String lessonId) {
+        if (getProgressByUserId(userId) == null) {
+            throw new IllegalStateException("User progress not found");
+        }
+        recordLessonAndStudyDay(userId, lessonId);
+        return getProgressByUserId(userId);
     }
-}
\ No newline at end of file
+}
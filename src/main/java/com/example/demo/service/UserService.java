@@ -1,43 +1,48 @@
 package com.example.demo.service;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import com.example.demo.model.User;
 import com.example.demo.repository.UserRepository;
 
+import java.util.Locale;
+import java.util.regex.Pattern;
+
 @Service
 public class UserService {
+
+    private static final Pattern EMAIL = Pattern.compile("^[\\w.-]+@[\\w.-]+\\.com$");
+    private static final Pattern LETTER = Pattern.compile("[A-Za-z]");
+    private static final Pattern DIGIT = Pattern.compile("\\d");
+    private static final Pattern SPECIAL = Pattern.compile("[!@#$%^&*()]");
+
+    private static final String EMAIL_CONSTRAINT = "uk_users_email"; // see User
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private LeaderboardService leaderboardService;
+
     public User registerUser(User user) {
     String email = user.getEmail();
     String password = user.getPassword();
 
-    // --- Email validation ---
-    if (email == null || !email.matches("^[\\w.-]+@[\\w.-]+\\.com$")) {
-    throw new IllegalArgumentException("Email must be valid and end with .com");
-    }
+    validateRegistration(email, password);
 
-    // --- Password validation ---
-    if (password == null || password.length() < 8 ||
-        !password.matches(".*[A-Za-z].*") ||        // at least one letter
-        !password.matches(".*\\d.*") ||             // at least one digit
-        !password.matches(".*[!@#$%^&*()].*")) {     // at least one special char
-    throw new IllegalArgumentException(
-        "Password must be at least 8 characters long and include a letter, a number, and a special character."
-        );
-    }
-
-
-    // Check if user already exists
-    if (userRepository.findByEmail(email).isPresent()) {
-         throw new IllegalStateException("User already exists with this email.");
+    // One INSERT; the unique email index rejects a taken address, with no race between check and save
+    try {
+        return userRepository.save(user);
+    } catch (DataIntegrityViolationException e) {
+        if (!isEmailTaken(e)) {
+            throw e; // a NOT NULL column, an over-long value...: not the client's duplicate
+        }
+        throw new IllegalStateException("User already exists with this email.");
     }
 
-     return userRepository.save(user);
-
     }
 
     public User updateUser(Long id, User userDetails) {
@@ -46,23 +51,58 @@ public class UserService {
 
         user.setName(userDetails.getName());
         user.setBio(userDetails.getBio()); // Set the new bio
+        if (userDetails.getCohort() != null) {
+            // A blank cohort leaves the learner's cohort
+            user.setCohort(userDetails.getCohort().isBlank() ? null : userDetails.getCohort().trim());
+        }
 
         // Only validate and set the password if a new one is provided
         if (userDetails.getPassword() != null && !userDetails.getPassword().isEmpty()) {
             String password = userDetails.getPassword();
             // --- Re-apply the same validation rules from registration ---
-            if (password.length() < 8 ||
-                !password.matches(".*[A-Za-z].*") ||
-                !password.matches(".*\\d.*") ||
-                !password.matches(".*[!@#$%^&*()].*")) {
-                throw new IllegalArgumentException(
-                    "Password must be at least 8 characters long and include a letter, a number, and a special character."
-                );
-            }
+            validatePassword(password);
             user.setPassword(password);
             user.setPasswordLastUpdated(new java.util.Date());
         }
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        leaderboardService.updateProfile(saved.getId(), saved.getName(), saved.getCohort());
+        return saved;
+    }
+
+    /**
+     * Whether the violated constraint is the unique email index. Hibernate names the constraint
+     * when it can; otherwise the driver's message is checked (H2 and MySQL both mention it).
+     * Also used by the roster import.
+     */
+    static boolean isEmailTaken(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String name = cause instanceof ConstraintViolationException violation ? violation.getConstraintName() : null;
+            String text = name != null ? name : cause.getMessage();
+            if (text != null && text.toLowerCase(Locale.ROOT).contains(EMAIL_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Throws IllegalArgumentException with the message shown to the client; also used by the roster import
+    static void validateRegistration(String email, String password) {
+        if (email == null || !EMAIL.matcher(email).matches()) {
+            throw new IllegalArgumentException("Email must be valid and end with .com");
+        }
+        validatePassword(password);
+    }
+
+    // At least 8 characters with a letter, a digit and a special character
+    private static void validatePassword(String password) {
+        if (password == null || password.length() < 8
+                || !LETTER.matcher(password).find()
+                || !DIGIT.matcher(password).find()
+                || !SPECIAL.matcher(password).find()) {
+            throw new IllegalArgumentException(
+                "Password must be at least 8 characters long and include a letter, a number, and a special character."
+            );
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,105 @@
+package com.example.demo.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Index of the lesson videos, built once at startup: size, strong ETag (content hash),
+ * content type and last-modified per clip. Clips always end up as plain files so they can
+ * be sent with sendfile / FileChannel.transferTo; when running from a jar they are
+ * extracted to a temporary directory first.
+ */
+@Slf4j
+@Service
+public class VideoIndex {
+
+    @Value("${videos.location:classpath:static/videos/}")
+    private String location;
+
+    private Map<String, VideoClip> clips = Map.of();
+
+    public record VideoClip(String path, File file, long length, String etag, MediaType contentType, long lastModified) {
+    }
+
+    @PostConstruct
+    public void build() throws IOException {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        String base = resolver.getResource(location).getURL().toString();
+        Path extractDir = null;
+        Map<String, VideoClip> index = new HashMap<>();
+        long total = 0;
+
+        for (Resource resource : resolver.getResources(location + "**/*")) {
+            String url = resource.getURL().toString();
+            if (!resource.isReadable() || url.endsWith("/") || !url.startsWith(base)) {
+                continue;
+            }
+            String path = url.substring(base.length());
+            File file;
+            if (resource.isFile()) {
+                file = resource.getFile();
+            } else {
+                if (extractDir == null) {
+                    extractDir = Files.createTempDirectory("lesson-videos");
+                    extractDir.toFile().deleteOnExit();
+                }
+                Path target = extractDir.resolve(path);
+                Files.createDirectories(target.getParent());
+                try (InputStream in = resource.getInputStream()) {
+                    Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+                file = target.toFile();
+                file.deleteOnExit();
+            }
+
+            MediaType contentType = MediaTypeFactory.getMediaType(path).orElse(MediaType.APPLICATION_OCTET_STREAM);
+            // Resources from a jar report 0; whole seconds are all HTTP dates can carry anyway
+            long lastModified = (resource.lastModified() > 0 ? resource.lastModified() : file.lastModified()) / 1000 * 1000;
+            index.put(path, new VideoClip(path, file, file.length(), etag(file.toPath()), contentType, lastModified));
+            total += file.length();
+        }
+        clips = Map.copyOf(index);
+        log.info("Indexed {} lesson videos ({} MB)", clips.size(), total / (1024 * 1024));
+    }
+
+    // Path relative to the video root, e.g. "sentences/good_morning.mp4"; null if not indexed
+    public VideoClip find(String path) {
+        return clips.get(path);
+    }
+
+    private static String etag(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        byte[] hash = digest.digest();
+        return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash).substring(0, 27) + "\"";
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.websocket;
+
+import com.example.demo.service.LandmarkStreamService;
+import com.example.demo.service.LandmarkStreamService.ModelType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Binary landmark stream at /ws/recognize?model=static|dynamic.
+ *
+ * Each binary message carries one or more frames of packed little-endian float32
+ * landmarks (126 floats per frame for the static model, 258 for the dynamic one).
+ * An empty message means "no hands in view". The server answers with a JSON text
+ * message whenever the stable prediction changes: {"sign":"A","confidence":0.97}.
+ */
+@Component
+public class LandmarkStreamHandler extends BinaryWebSocketHandler {
+
+    private static final int SEND_TIME_LIMIT_MS = 1000;
+    private static final int SEND_BUFFER_LIMIT = 16 * 1024;
+    private static final int MAX_MESSAGE_BYTES = 64 * 1024; // a small burst of 258-float frames
+
+    @Autowired
+    private LandmarkStreamService landmarkStreamService;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        String model = session.getUri() == null ? null
+                : UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams().getFirst("model");
+        ModelType type = "dynamic".equalsIgnoreCase(model) ? ModelType.DYNAMIC : ModelType.STATIC;
+        session.setBinaryMessageSizeLimit(MAX_MESSAGE_BYTES);
+
+        // Predictions are pushed from the inference threads, so sends must be serialized
+        landmarkStreamService.open(
+                new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MS, SEND_BUFFER_LIMIT), type);
+        session.getAttributes().put("model", type);
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+        ByteBuffer payload = message.getPayload().order(ByteOrder.LITTLE_ENDIAN);
+        if (!payload.hasRemaining()) {
+            landmarkStreamService.enqueue(session.getId(), null);
+            return;
+        }
+
+        int frameSize = landmarkStreamService.frameSize((ModelType) session.getAttributes().get("model"));
+        int frameBytes = frameSize * Float.BYTES;
+        if (payload.remaining() % frameBytes != 0) {
+            session.close(CloseStatus.BAD_DATA.withReason("Expected frames of " + frameSize + " float32 values"));
+            return;
+        }
+
+        FloatBuffer floats = payload.asFloatBuffer();
+        float[][] frames = new float[payload.remaining() / frameBytes][frameSize];
+        for (float[] frame : frames) {
+            floats.get(frame);
+        }
+        landmarkStreamService.enqueue(session.getId(), frames);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        landmarkStreamService.close(session.getId());
+    }
+}
@@ -427,19 +427,18 @@ document.addEventListener("DOMContentLoaded", () => {
       }, 5000);
     }
 
-    /* Tracks user progress by fetching, updating, and saving to the backend. */
-    async lessonCompleted(lesson) {
+    /* Tracks user progress: lesson, study time, streak and achievements in one request. */
+    async lessonCompleted(lesson, minutes = 0) {
       const user = AuthManager.getCurrentUser();
       if (!user || !lesson) return; // Only track for logged-in users
 
       try {
-        // Call the endpoint and send lessonId
         const response = await fetch(
-          `/api/progress/complete-lesson/${user.id}`,
+          `/api/progress/lesson-completion/${user.id}`,
           {
             method: "POST",
             headers: { "Content-Type": "application/json" },
-            body: JSON.stringify({ lessonId: lesson.id }), // ✅ send lessonId
+            body: JSON.stringify({ lessonId: lesson.id, minutes }),
           }
         );
 
@@ -447,6 +446,7 @@ document.addEventListener("DOMContentLoaded", () => {
           throw new Error("Server responded with an error.");
         }
 
+        const result = await response.json();
         console.log(`Progress logged for lesson: ${lesson.title}`);
 
         // Also log this as a recent activity for the dashboard.
@@ -454,6 +454,7 @@ document.addEventListener("DOMContentLoaded", () => {
           lessonTitle: lesson.title,
           lessonId: lesson.id,
         });
+        return result;
       } catch (error) {
         console.error("Failed to log lesson completion:", error);
       }
@@ -151,30 +151,30 @@ class LearningManager {
 
   /**
    * Sends a notification to the backend that the current lesson has been completed.
-   * This will trigger updates to the user's progress, streak, and recent activity.
+   * A single request records the lesson and study time and updates the streak; new
+   * achievements are awarded in the background and picked up by polling.
    */
   async _trackLessonCompletion() {
-    await this._trackStudyTime(); // ⏱ Track study time first
     const user = AuthManager.getCurrentUser();
     if (!user || !this.currentLesson) {
       return;
     }
+    const minutes = this._consumeStudyMinutes(); // ⏱ Sent along with the lesson
 
     try {
-      // === 1) COMPLETE THE LESSON (No changes here) ===
-      const completeLessonUrl = `/api/progress/complete-lesson/${user.id}`;
-      const lessonResponse = await fetch(completeLessonUrl, {
+      const completionUrl = `/api/progress/lesson-completion/${user.id}`;
+      const response = await fetch(completionUrl, {
         method: "POST",
         headers: { "Content-Type": "application/json" },
-        body: JSON.stringify({ lessonId: this.currentLesson.id }),
+        body: JSON.stringify({ lessonId: this.currentLesson.id, minutes }),
       });
 
-      if (!lessonResponse.ok) {
-        throw new Error(
-          `API Error (complete-lesson): ${lessonResponse.statusText}`
-        );
+      if (!response.ok) {
+        throw new Error(`API Error (lesson-completion): ${response.statusText}`);
       }
 
+      const result = await response.json();
+
       AuthManager.saveCompletedLesson(this.currentLesson.id);
 
       if (typeof AuthManager.updateUserActivity === "function") {
@@ -187,62 +187,24 @@ class LearningManager {
 
       window.app.showToast("Lesson completed!", "success");
 
-      // === 2) UPDATE THE STUDY STREAK (ONCE PER DAY) --- THIS BLOCK IS MODIFIED ===
-
-      // 1. Get today's date in a consistent format (e.g., "2025-08-26")
+      // The server already advanced the streak; only log it once per day locally
       const today = new Date();
       const todayDateString = today.toISOString().split("T")[0];
-
-      // 2. Get the date of the last streak update from local storage
-      const lastUpdateDate = AuthManager.getUserData("lastStreakUpdate");
-
-      // 3. Only run the update logic if the last update was not today
-      if (todayDateString !== lastUpdateDate) {
-        console.log("First lesson of the day. Updating study streak...");
-
-        const updateStreakUrl = `/api/progress/update-streak/${user.id}`;
-        const streakResponse = await fetch(updateStreakUrl, { method: "POST" });
-
-        if (!streakResponse.ok) {
-          throw new Error(
-            `API Error (update-streak): ${streakResponse.statusText}`
-          );
-        }
-
-        // Log to recent activities only when the streak is actually updated
+      if (todayDateString !== AuthManager.getUserData("lastStreakUpdate")) {
         if (typeof AuthManager.updateUserActivity === "function") {
           AuthManager.updateUserActivity("streak_updated", {
             date: today.toISOString(),
           });
         }
-
-        // 4. IMPORTANT: Save today's date as the new "last update date"
         AuthManager.setUserData("lastStreakUpdate", todayDateString);
-        console.log("Streak update date saved for today.");
-      } else {
-        console.log("Streak has already been updated today. Skipping.");
       }
-      // === END OF MODIFIED BLOCK ===
-
-      // === 3) CHECK FOR NEW ACHIEVEMENTS (No changes here) ===
-      const checkAchievementsUrl = `/api/achievements/check/${user.id}`;
-      const achievementResponse = await fetch(checkAchievementsUrl, {
-        method: "POST",
-      });
 
-      if (!achievementResponse.ok) {
-        throw new Error(
-          `API Error (check-achievements): ${achievementResponse.statusText}`
-        );
-      }
-
-      const updatedAchievements = await achievementResponse.json();
-
-      if (updatedAchievements.length > 0) {
-        AuthManager.setUserData("achievements", updatedAchievements);
+      if (result.achievements && result.achievements.length > 0) {
+        AuthManager.setUserData("achievements", result.achievements);
       }
 
       window.dispatchEvent(new CustomEvent("userProgressUpdated"));
+      this._pollAchievementNotifications(user.id);
     } catch (error) {
       console.error(
         "❌ Failed to track lesson completion, streak, or achievements:",
@@ -251,6 +213,47 @@ class LearningManager {
     }
   }
 
+  /**
+   * Achievements are evaluated off the request thread, so ask a few times shortly after
+   * a lesson for awards we haven't shown yet.
+   */
+  async _pollAchievementNotifications(userId, delays = [1000, 3000, 8000]) {
+    for (const delay of delays) {
+      await new Promise((resolve) => setTimeout(resolve, delay));
+      try {
+        const after = AuthManager.getUserData("lastAchievementNotification") || 0;
+        const response = await fetch(
+          `/api/achievements/${userId}/notifications?after=${after}`
+        );
+        if (!response.ok) return;
+        const notifications = await response.json();
+        if (notifications.length === 0) continue;
+
+        notifications.forEach((n) =>
+          window.app.showToast(`🏆 Achievement unlocked: ${n.achievement.name}`, "success")
+        );
+        AuthManager.setUserData(
+          "lastAchievementNotification",
+          notifications[notifications.length - 1].id
+        );
+        window.dispatchEvent(new CustomEvent("userProgressUpdated"));
+      } catch (error) {
+        console.error("Failed to poll achievement notifications:", error);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Returns the whole minutes spent on the current lesson and resets the timer.
+   */
+  _consumeStudyMinutes() {
+    if (!this.lessonStartTime) return 0;
+    const durationInSeconds = (new Date() - this.lessonStartTime) / 1000;
+    this.lessonStartTime = null; // Reset timer to prevent double-counting
+    return Math.max(0, Math.round(durationInSeconds / 60));
+  }
+
   /**
    * Calculates the time spent on the current lesson and sends it to the backend.
    */
@@ -964,6 +967,32 @@ class LearningManager {
     );
 
     modal.show();
+    this._appendMotionScore(messageEl, this.keypointSequence.slice(), expectedSign);
+  }
+
+  /**
+   * Asks the server how closely the recorded motion follows the reference recordings of the
+   * expected sign, and adds the 0-100 score under the feedback message. Signs without a
+   * reference (404) or any failure just leave the message as it is.
+   */
+  async _appendMotionScore(messageEl, frames, expectedSign) {
+    if (!expectedSign || frames.length === 0) return;
+    try {
+      const response = await fetch("/api/practice/score", {
+        method: "POST",
+        headers: { "Content-Type": "application/json" },
+        body: JSON.stringify({ frames, sign: expectedSign, topK: 1 }),
+      });
+      if (!response.ok) return;
+      const result = await response.json();
+      if (!result.target) return;
+      const line = document.createElement("div");
+      line.className = "small text-muted mt-2";
+      line.textContent = `Motion match: ${result.target.score}/100`;
+      messageEl.appendChild(line);
+    } catch (err) {
+      console.warn("Motion scoring unavailable:", err);
+    }
   }
 
   _resetDynamicPracticeUI() {
@@ -54,6 +54,20 @@ class ProfileManager {
     });
   }
 
+  /**
+   * Loads the full profile from the server, stores it and re-renders the page.
+   */
+  async refreshProfile() {
+    try {
+      const response = await fetch(`${this.baseURL}/${this.currentUser.id}`);
+      if (!response.ok) return;
+      window.app.modules.auth.setCurrentUser(await response.json());
+      this.loadProfileContent();
+    } catch (error) {
+      console.error("Failed to load profile:", error);
+    }
+  }
+
   /**
    * Loads and renders the entire profile page content.
    */
@@ -67,6 +81,11 @@ class ProfileManager {
       return;
     }
 
+    // Login only returns the identity; fetch the rest of the profile once
+    if (this.currentUser.joinDate == null) {
+      this.refreshProfile();
+    }
+
     // --- MODIFIED LOGIC ---
     // This function will now correctly format and display the joinDate.
     container.innerHTML = `
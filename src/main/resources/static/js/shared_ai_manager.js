@@ -19,6 +19,7 @@ class SharedAIManager {
     this.labels = { static: [], dynamic: [] };
     this.mediaPipeHolistic = null;
     this.initialized = false;
+    this.assetManifest = null;
 
     // --- The Key Change: A promise that resolves when loading is complete ---
     // Other modules will wait for this promise.
@@ -37,11 +38,12 @@ class SharedAIManager {
     }
     console.log("--- 🧠 SharedAIManager: Starting initialization ---");
     try {
+      const files = await this.loadModelManifest();
       await Promise.all([
-        this.loadModel("/isl_static_model_tfjs/model.json", "static"),
-        this.loadModel("/isl_dynamic_model_tfjs/model.json", "dynamic"),
-        this.loadLabels("/label_mapping_static.json", "static"),
-        this.loadLabels("/label_mapping_dynamic.json", "dynamic"),
+        this.loadModel(files.staticModel, "static"),
+        this.loadModel(files.dynamicModel, "dynamic"),
+        this.loadLabels(files.staticLabels, "static"),
+        this.loadLabels(files.dynamicLabels, "dynamic"),
         this._loadMediaPipe(),
       ]);
       this.initialized = true;
@@ -59,8 +61,58 @@ class SharedAIManager {
 
   // --- Helper methods for loading ---
 
-  async loadModel(url, type) {
+  /**
+   * Asks the server which model version this browser should run. The manifest is
+   * revalidated by ETag, and each version's files have their own URLs, so weights are only
+   * downloaded again when the version changes. A per-browser id keeps the browser on the
+   * same side of a traffic split. Falls back to the built-in models if the call fails.
+   */
+  async loadModelManifest() {
+    const builtin = {
+      version: "builtin",
+      staticModel: "/isl_static_model_tfjs/model.json",
+      staticLabels: "/label_mapping_static.json",
+      dynamicModel: "/isl_dynamic_model_tfjs/model.json",
+      dynamicLabels: "/label_mapping_dynamic.json",
+    };
+    try {
+      let client = localStorage.getItem("isl_model_client");
+      if (!client) {
+        client = crypto.randomUUID ? crypto.randomUUID() : String(Math.random()).slice(2);
+        localStorage.setItem("isl_model_client", client);
+      }
+      const res = await fetch(`/api/models/manifest?client=${encodeURIComponent(client)}`);
+      if (!res.ok) {
+        return builtin;
+      }
+      const manifest = await res.json();
+      console.log(`🧠 Using sign model version ${manifest.version}`);
+      return manifest;
+    } catch (err) {
+      console.warn("Model manifest unavailable, using the built-in models", err);
+      return builtin;
+    }
+  }
+
+  /**
+   * Maps a static path to its fingerprinted copy from the build's asset manifest.
+   * Hashed copies are served as immutable, so repeat visits load models from the HTTP cache.
+   * Falls back to the plain path when there is no manifest (e.g. running from an IDE).
+   */
+  async resolveAsset(path) {
+    if (!this.assetManifest) {
+      this.assetManifest = fetch("/asset-manifest.json")
+        .then((res) => (res.ok ? res.json() : {}))
+        .catch(() => ({}));
+    }
+    const manifest = await this.assetManifest;
+    const hashed = manifest[path.replace(/^\//, "")];
+    return hashed ? `/${hashed}` : path;
+  }
+
+  async loadModel(path, type) {
     try {
+      const url = await this.resolveAsset(path);
       const res = await fetch(url);
       const text = await res.text();
       console.log(`--- Raw content of ${type} model.json ---`);
@@ -81,9 +133,9 @@ class SharedAIManager {
     }
   }
 
-  async loadLabels(url, type) {
+  async loadLabels(path, type) {
     console.log(`⏳ Loading ${type} labels...`);
-    const response = await fetch(url);
+    const response = await fetch(await this.resolveAsset(path));
     const labelMap = await response.json();
     this.labels[type] = Object.values(labelMap);
   }
@@ -0,0 +1,49 @@
+package com.example.demo.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdminAccessInterceptorTests {
+
+	@Test
+	void requestsNeedTheConfiguredToken() throws Exception {
+		AdminAccessInterceptor interceptor = new AdminAccessInterceptor("s3cret", Set.of());
+
+		assertThat(status(interceptor, "GET", "s3cret")).isEqualTo(200);
+		assertThat(status(interceptor, "GET", "s3cre")).isEqualTo(401);
+		assertThat(status(interceptor, "POST", null)).isEqualTo(401);
+	}
+
+	@Test
+	void withoutATokenTheEndpointsAreDisabled() throws Exception {
+		AdminAccessInterceptor interceptor = new AdminAccessInterceptor(" ", Set.of());
+
+		assertThat(status(interceptor, "GET", "")).isEqualTo(403);
+		assertThat(status(interceptor, "GET", " ")).isEqualTo(403);
+	}
+
+	@Test
+	void onlyTheGivenMethodsAreGuarded() throws Exception {
+		AdminAccessInterceptor interceptor = new AdminAccessInterceptor("s3cret", Set.of("POST", "DELETE"));
+
+		assertThat(status(interceptor, "GET", null)).isEqualTo(200);
+		assertThat(status(interceptor, "DELETE", null)).isEqualTo(401);
+		assertThat(status(interceptor, "POST", "s3cret")).isEqualTo(200);
+	}
+
+	private static int status(AdminAccessInterceptor interceptor, String method, String token) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/roster/export");
+		if (token != null) {
+			request.addHeader(AdminAccessInterceptor.HEADER, token);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		boolean proceed = interceptor.preHandle(request, response, new Object());
+		assertThat(proceed).isEqualTo(response.getStatus() == 200);
+		return response.getStatus();
+	}
+}
@@ -0,0 +1,138 @@
+package com.example.demo.controllers;
+
+import com.example.demo.config.CacheConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * JDBC statements per endpoint, read from the http.server.requests.queries metric.
+ * A higher count usually means an entity or a lazy association started being loaded.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:querycount;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE,YEAR,MONTH,DAY",
+		"spring.datasource.driver-class-name=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureMockMvc
+class QueryCountTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private long userId;
+
+	@BeforeEach
+	void registerUser() throws Exception {
+		String email = "learner" + System.nanoTime() + "@example.com";
+		MvcResult result = mockMvc.perform(post("/api/users/register")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content("{\"name\":\"Learner\",\"email\":\"" + email + "\",\"password\":\"Passw0rd!\"}"))
+				.andExpect(status().isOk())
+				.andReturn();
+		JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+		assertThat(body.has("password")).isFalse();
+		userId = body.get("id").asLong();
+	}
+
+	@Test
+	void userProfileIsOneQuery() throws Exception {
+		MvcResult result = mockMvc.perform(get("/api/users/{id}", userId)).andExpect(status().isOk()).andReturn();
+		assertThat(result.getResponse().getContentAsString()).doesNotContain("password");
+
+		assertThat(statements(get("/api/users/{id}", userId), "GET", "/api/users/{id}")).isEqualTo(1);
+	}
+
+	@Test
+	void progressIsOneQueryWhenNotCached() throws Exception {
+		mockMvc.perform(get("/api/progress/{userId}", userId)).andExpect(status().isOk()); // creates the row
+		cacheManager.getCache(CacheConfig.PROGRESS).evict(userId);
+
+		assertThat(statements(get("/api/progress/{userId}", userId), "GET", "/api/progress/{userId}")).isEqualTo(1);
+		assertThat(statements(get("/api/progress/{userId}", userId), "GET", "/api/progress/{userId}")).isZero();
+	}
+
+	@Test
+	void userAchievementsLoadNoEntities() throws Exception {
+		cacheManager.getCache(CacheConfig.ACHIEVEMENTS).evict(userId);
+		Map<String, Long> before = executedSql();
+
+		assertThat(statements(get("/api/achievements/{userId}", userId), "GET", "/api/achievements/{userId}")).isEqualTo(1);
+		// What the database actually ran: the id lookup only, no user or achievement entity reads
+		assertThat(difference(before, executedSql()))
+				.containsOnlyKeys("SELECT achievement_id FROM user_achievements WHERE user_id = ?");
+
+		assertThat(statements(get("/api/achievements/{userId}", userId), "GET", "/api/achievements/{userId}")).isZero();
+	}
+
+	// Performs the request and returns how many statements it ran
+	private double statements(MockHttpServletRequestBuilder request, String method, String uri) throws Exception {
+		double before = total(method, uri);
+		mockMvc.perform(request).andExpect(status().isOk());
+		return total(method, uri) - before;
+	}
+
+	// Execution counts per statement as recorded by H2 itself, below every JDBC wrapper
+	private Map<String, Long> executedSql() {
+		jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+		Map<String, Long> executed = new HashMap<>();
+		jdbcTemplate.query("SELECT SQL_STATEMENT, EXECUTION_COUNT FROM INFORMATION_SCHEMA.QUERY_STATISTICS",
+				(RowCallbackHandler) rs -> executed.put(rs.getString(1), rs.getLong(2)));
+		return executed;
+	}
+
+	private static Map<String, Long> difference(Map<String, Long> before, Map<String, Long> after) {
+		Map<String, Long> ran = new HashMap<>();
+		after.forEach((sql, count) -> {
+			long delta = count - before.getOrDefault(sql, 0L);
+			if (delta > 0 && !sql.contains("INFORMATION_SCHEMA") && !sql.startsWith("SET QUERY_STATISTICS")) {
+				ran.put(sql, delta);
+			}
+		});
+		return ran;
+	}
+
+	private double total(String method, String uri) {
+		DistributionSummary summary = meterRegistry.find("http.server.requests.queries")
+				.tag("method", method)
+				.tag("uri", uri)
+				.summary();
+		return summary == null ? 0 : summary.totalAmount();
+	}
+}
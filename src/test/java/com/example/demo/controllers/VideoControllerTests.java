@@ -0,0 +1,116 @@
+package com.example.demo.controllers;
+
+import com.example.demo.service.VideoIndex;
+import com.example.demo.service.VideoIndex.VideoClip;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VideoControllerTests {
+
+	private static final long SIZE = 1000;
+
+	@TempDir
+	Path dir;
+
+	private VideoController controller;
+	private VideoIndex index;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		byte[] body = new byte[(int) SIZE];
+		for (int i = 0; i < body.length; i++) {
+			body[i] = (byte) i;
+		}
+		File file = Files.write(dir.resolve("clip.mp4"), body).toFile();
+		index = mock(VideoIndex.class);
+		when(index.find("a+b c.mp4")).thenReturn(
+				new VideoClip("a+b c.mp4", file, SIZE, "\"v1\"", MediaType.parseMediaType("video/mp4"), 1_000_000L));
+		controller = new VideoController();
+		ReflectionTestUtils.setField(controller, "videoIndex", index);
+		ReflectionTestUtils.setField(controller, "cacheMaxAge", 60L);
+	}
+
+	@Test
+	void closedRangeIsClampedToTheFile() {
+		assertThat(VideoController.parseRange("bytes=0-99", SIZE)).containsExactly(0, 99);
+		assertThat(VideoController.parseRange("bytes=900-5000", SIZE)).containsExactly(900, 999);
+		assertThat(VideoController.parseRange("bytes=999-999", SIZE)).containsExactly(999, 999);
+	}
+
+	@Test
+	void openEndedRangeRunsToTheLastByte() {
+		assertThat(VideoController.parseRange("bytes=500-", SIZE)).containsExactly(500, 999);
+		assertThat(VideoController.parseRange("bytes=0-", SIZE)).containsExactly(0, 999);
+	}
+
+	@Test
+	void suffixRangeIsTheFinalBytes() {
+		assertThat(VideoController.parseRange("bytes=-100", SIZE)).containsExactly(900, 999);
+		assertThat(VideoController.parseRange("bytes=-5000", SIZE)).containsExactly(0, 999);
+	}
+
+	@Test
+	void multipleRangesOtherUnitsAndGarbageAreIgnored() {
+		assertThat(VideoController.parseRange("bytes=0-10,20-30", SIZE)).isEmpty();
+		assertThat(VideoController.parseRange("items=0-10", SIZE)).isEmpty();
+		assertThat(VideoController.parseRange("bytes=abc", SIZE)).isEmpty();
+		assertThat(VideoController.parseRange("bytes=x-10", SIZE)).isEmpty();
+		assertThat(VideoController.parseRange("bytes=50-10", SIZE)).isEmpty();
+	}
+
+	@Test
+	void unsatisfiableRangesAreNull() {
+		assertThat(VideoController.parseRange("bytes=1000-", SIZE)).isNull();
+		assertThat(VideoController.parseRange("bytes=5000-6000", SIZE)).isNull();
+		assertThat(VideoController.parseRange("bytes=-0", SIZE)).isNull();
+		assertThat(VideoController.parseRange("bytes=-10", 0)).isNull();
+	}
+
+	@Test
+	void rangeRequestReturnsPartialContent() throws Exception {
+		MockHttpServletResponse response = serve("/videos/a%2Bb%20c.mp4", "bytes=-10");
+
+		assertThat(response.getStatus()).isEqualTo(206);
+		assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 990-999/1000");
+		assertThat(response.getContentAsByteArray()).hasSize(10).startsWith((byte) 990);
+	}
+
+	@Test
+	void unsatisfiableRangeIs416WithTheSize() throws Exception {
+		MockHttpServletResponse response = serve("/videos/a%2Bb%20c.mp4", "bytes=2000-");
+
+		assertThat(response.getStatus()).isEqualTo(416);
+		assertThat(response.getHeader("Content-Range")).isEqualTo("bytes */1000");
+	}
+
+	@Test
+	void plusInThePathIsNotASpace() throws Exception {
+		assertThat(serve("/videos/a+b%20c.mp4", null).getStatus()).isEqualTo(200);
+		assertThat(serve("/videos/a%20b%20c.mp4", null).getStatus()).isEqualTo(404);
+		assertThat(serve("/videos/a%zzb.mp4", null).getStatus()).isEqualTo(400);
+	}
+
+	private MockHttpServletResponse serve(String uri, String range) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+		if (range != null) {
+			request.addHeader("Range", range);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		controller.serve(request, response);
+		return response;
+	}
+}
@@ -0,0 +1,136 @@
+package com.example.demo.eventlog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Recovery of a segment after a clean close, a torn last record, a half-written record and
+ * a record left over from another segment.
+ */
+class LogSegmentTests {
+
+	private static final long BASE = 1000;
+	private static final int CAPACITY = 64;
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void recordsSurviveReopenAndAppendsContinueAfterThem() throws Exception {
+		Path file = dir.resolve("segment.log");
+		writeRecords(file, 10);
+
+		try (LogSegment segment = LogSegment.open(file, BASE, CAPACITY, true)) {
+			assertThat(segment.count()).isEqualTo(10);
+			List<ProgressEvent> events = read(segment);
+			assertThat(events).extracting(ProgressEvent::sequence).containsExactly(
+					1000L, 1001L, 1002L, 1003L, 1004L, 1005L, 1006L, 1007L, 1008L, 1009L);
+			assertThat(events.get(3)).isEqualTo(new ProgressEvent(1003, 3_000, 3, ProgressEvent.Type.MINUTES_STUDIED, 30));
+			assertThat(segment.append(99, 7, ProgressEvent.Type.LESSON_COMPLETED, 5)).isEqualTo(1010);
+		}
+		try (LogSegment readOnly = LogSegment.open(file, BASE, CAPACITY, false)) {
+			assertThat(readOnly.count()).isEqualTo(11);
+		}
+	}
+
+	@Test
+	void tornLastRecordIsDroppedAndOverwritten() throws Exception {
+		Path file = dir.resolve("segment.log");
+		writeRecords(file, 10);
+		corrupt(file, 9 * LogSegment.RECORD_SIZE + 24); // value of the last record, CRC no longer matches
+
+		try (LogSegment segment = LogSegment.open(file, BASE, CAPACITY, true)) {
+			assertThat(segment.count()).isEqualTo(9);
+			assertThat(segment.append(99, 7, ProgressEvent.Type.MINUTES_STUDIED, 42)).isEqualTo(1009);
+			segment.force();
+		}
+		try (LogSegment segment = LogSegment.open(file, BASE, CAPACITY, true)) {
+			assertThat(segment.count()).isEqualTo(10);
+			assertThat(read(segment).get(9).value()).isEqualTo(42);
+		}
+	}
+
+	@Test
+	void halfWrittenRecordEndsTheSegment() throws Exception {
+		Path file = dir.resolve("segment.log");
+		writeRecords(file, 5);
+		// A crash after the sequence and timestamp of record 5 reached the page, but before its checksum
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			ByteBuffer partial = ByteBuffer.allocate(16).putLong(BASE + 5).putLong(5_000).flip();
+			channel.write(partial, 5L * LogSegment.RECORD_SIZE);
+		}
+
+		try (LogSegment segment = LogSegment.open(file, BASE, CAPACITY, true)) {
+			assertThat(segment.count()).isEqualTo(5);
+		}
+	}
+
+	@Test
+	void corruptionInTheMiddleCutsOffEverythingAfterIt() throws Exception {
+		Path file = dir.resolve("segment.log");
+		writeRecords(file, 10);
+		corrupt(file, 4 * LogSegment.RECORD_SIZE + 33);
+
+		try (LogSegment segment = LogSegment.open(file, BASE, CAPACITY, true)) {
+			assertThat(segment.count()).isEqualTo(4);
+		}
+	}
+
+	@Test
+	void intactRecordWithAnotherSegmentsSequenceIsNotAccepted() throws Exception {
+		Path file = dir.resolve("segment.log");
+		writeRecords(file, 3);
+
+		// Same bytes, valid checksums, but opened as a segment starting elsewhere
+		try (LogSegment segment = LogSegment.open(file, BASE + 1, CAPACITY, true)) {
+			assertThat(segment.count()).isZero();
+		}
+	}
+
+	@Test
+	void preallocatedSegmentIsEmptyAndFillsToCapacity() throws Exception {
+		Path file = dir.resolve("segment.log");
+		try (LogSegment segment = LogSegment.open(file, BASE, 4, true)) {
+			assertThat(segment.count()).isZero();
+			assertThat(Files.size(file)).isEqualTo(4L * LogSegment.RECORD_SIZE);
+			for (int i = 0; i < 4; i++) {
+				segment.append(i, 1, ProgressEvent.Type.MINUTES_STUDIED, 1);
+			}
+			assertThat(segment.full()).isTrue();
+		}
+	}
+
+	private static void writeRecords(Path file, int count) throws Exception {
+		try (LogSegment segment = LogSegment.open(file, BASE, CAPACITY, true)) {
+			for (int i = 0; i < count; i++) {
+				segment.append(i * 1_000L, i, ProgressEvent.Type.MINUTES_STUDIED, i * 10);
+			}
+			segment.force();
+		}
+	}
+
+	private static void corrupt(Path file, long offset) throws Exception {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer one = ByteBuffer.allocate(1);
+			channel.read(one, offset);
+			one.put(0, (byte) (one.get(0) ^ 0x5A)).rewind();
+			channel.write(one, offset);
+		}
+	}
+
+	private static List<ProgressEvent> read(LogSegment segment) {
+		List<ProgressEvent> events = new ArrayList<>();
+		segment.read(0, segment.count(), events::add);
+		return events;
+	}
+}
@@ -0,0 +1,96 @@
+package com.example.demo.eventlog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Reopening the log from snapshot + tail across segment rolls, and losing only a torn tail.
+ */
+class ProgressEventLogTests {
+
+	private static final int SEGMENT_RECORDS = 4;
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void stateIsRebuiltFromSnapshotAndTailAfterReopen() throws Exception {
+		LocalDate today = LocalDate.now();
+		try (ProgressEventLog log = ProgressEventLog.open(dir, SEGMENT_RECORDS)) {
+			log.append(1, ProgressEvent.Type.LESSON_COMPLETED, 3);
+			log.append(1, ProgressEvent.Type.LESSON_COMPLETED, 3); // counted once
+			log.append(1, ProgressEvent.Type.STREAK_TOUCHED, (int) today.minusDays(1).toEpochDay());
+			log.append(2, ProgressEvent.Type.MINUTES_STUDIED, 15);
+			log.snapshot();
+			log.append(1, ProgressEvent.Type.STREAK_TOUCHED, (int) today.toEpochDay());
+			log.append(1, ProgressEvent.Type.MINUTES_STUDIED, 20);
+			log.append(2, ProgressEvent.Type.STUDY_TIME_SET, 100);
+			log.sync();
+		}
+
+		try (ProgressEventLog log = ProgressEventLog.open(dir, SEGMENT_RECORDS)) {
+			LearnerState first = log.state(1).orElseThrow();
+			assertThat(first.lessonsCompleted()).isEqualTo(1);
+			assertThat(first.lessons().get(3)).isTrue();
+			assertThat(first.streak(today)).isEqualTo(2);
+			assertThat(first.studyMinutes()).isEqualTo(20);
+			assertThat(log.state(2).orElseThrow().studyMinutes()).isEqualTo(100);
+			assertThat(log.state(3)).isEmpty();
+			assertThat(log.nextSequence()).isEqualTo(7);
+			assertThat(log.append(3, ProgressEvent.Type.MINUTES_STUDIED, 1)).isEqualTo(7);
+		}
+	}
+
+	@Test
+	void replayCrossesSegmentsInOrder() throws Exception {
+		try (ProgressEventLog log = ProgressEventLog.open(dir, SEGMENT_RECORDS)) {
+			for (int i = 0; i < 10; i++) {
+				log.append(i, ProgressEvent.Type.MINUTES_STUDIED, i);
+			}
+			List<Long> sequences = new ArrayList<>();
+			log.replay(3, event -> sequences.add(event.sequence()));
+			assertThat(sequences).containsExactly(3L, 4L, 5L, 6L, 7L, 8L, 9L);
+		}
+		try (Stream<Path> files = Files.list(dir)) {
+			assertThat(files.filter(f -> f.getFileName().toString().startsWith("events-"))).hasSize(3);
+		}
+	}
+
+	@Test
+	void tornTailLosesOnlyTheLastEvent() throws Exception {
+		try (ProgressEventLog log = ProgressEventLog.open(dir, SEGMENT_RECORDS)) {
+			log.append(1, ProgressEvent.Type.MINUTES_STUDIED, 10);
+			log.append(1, ProgressEvent.Type.MINUTES_STUDIED, 5);
+		}
+		Path segment = dir.resolve(String.format("events-%019d.log", 0));
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.allocate(4), LogSegment.RECORD_SIZE + 32L); // checksum of the second record
+		}
+
+		try (ProgressEventLog log = ProgressEventLog.open(dir, SEGMENT_RECORDS)) {
+			assertThat(log.state(1).orElseThrow().studyMinutes()).isEqualTo(10);
+			assertThat(log.nextSequence()).isEqualTo(1);
+		}
+	}
+
+	@Test
+	void directoryHasOneWriter() throws Exception {
+		try (ProgressEventLog ignored = ProgressEventLog.open(dir, SEGMENT_RECORDS)) {
+			assertThatThrownBy(() -> ProgressEventLog.open(dir, SEGMENT_RECORDS))
+					.isInstanceOf(IllegalStateException.class);
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package com.example.demo.inference;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+/**
+ * Both kernels against plain double arithmetic, on lengths that exercise the unrolled or
+ * vector loop and the scalar tail, at unaligned offsets.
+ */
+class DistanceKernelTests {
+
+	@Test
+	void scalarKernelMatchesTheDefinition() {
+		check(DistanceKernel.scalar());
+	}
+
+	// Only with -Pvector-api; otherwise best() is the scalar kernel
+	@Test
+	void vectorKernelAgreesWithTheScalarOne() {
+		DistanceKernel best = DistanceKernel.best();
+		assumeFalse(best == DistanceKernel.scalar(), "vector kernel not available");
+		check(best);
+		Random random = new Random(5);
+		for (int trial = 0; trial < 200; trial++) {
+			int length = 1 + random.nextInt(300);
+			float[] a = values(random, length + 7);
+			float[] b = values(random, length + 7);
+			float[] upper = values(random, length + 7);
+			float[] lower = new float[upper.length];
+			for (int k = 0; k < lower.length; k++) {
+				lower[k] = upper[k] - random.nextFloat();
+			}
+			float scalar = DistanceKernel.scalar().squared(a, 3, b, 7, length);
+			assertThat(best.squared(a, 3, b, 7, length)).isCloseTo(scalar, within(scalar * 1e-5f + 1e-6f));
+			float gap = DistanceKernel.scalar().envelopeGap(a, 1, upper, lower, 5, length);
+			assertThat(best.envelopeGap(a, 1, upper, lower, 5, length)).isCloseTo(gap, within(gap * 1e-5f + 1e-6f));
+		}
+	}
+
+	private static void check(DistanceKernel kernel) {
+		Random random = new Random(1);
+		for (int trial = 0; trial < 200; trial++) {
+			int length = 1 + random.nextInt(300);
+			int aOffset = random.nextInt(5);
+			int bOffset = random.nextInt(5);
+			float[] a = values(random, length + aOffset);
+			float[] b = values(random, length + bOffset);
+			float[] upper = values(random, length + bOffset);
+			float[] lower = new float[upper.length];
+			for (int k = 0; k < lower.length; k++) {
+				lower[k] = upper[k] - random.nextFloat();
+			}
+			double squared = 0;
+			double gap = 0;
+			for (int k = 0; k < length; k++) {
+				double v = a[aOffset + k];
+				double d = v - b[bOffset + k];
+				squared += d * d;
+				double outside = Math.max(0, Math.max(v - upper[bOffset + k], lower[bOffset + k] - v));
+				gap += outside * outside;
+			}
+			assertThat((double) kernel.squared(a, aOffset, b, bOffset, length)).isCloseTo(squared, within(squared * 1e-5 + 1e-6));
+			assertThat((double) kernel.envelopeGap(a, aOffset, upper, lower, bOffset, length)).isCloseTo(gap, within(gap * 1e-5 + 1e-6));
+		}
+	}
+
+	// Between -2 and 2, so some values fall inside an envelope and some outside
+	private static float[] values(Random random, int length) {
+		float[] values = new float[length];
+		for (int k = 0; k < length; k++) {
+			values[k] = 4 * random.nextFloat() - 2;
+		}
+		return values;
+	}
+}
@@ -0,0 +1,131 @@
+package com.example.demo.inference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * The matcher against a brute-force reference. With 8 frames and a band of 2 every warping
+ * path can be enumerated, so the reference needs no dynamic programming at all.
+ */
+class DtwMatcherTests {
+
+	private static final int LENGTH = 8;
+	private static final int BAND = 2;
+	// Landmarks per prepared frame (upper body and both hands), the RMS denominator
+	private static final int LANDMARKS = 67;
+
+	private final DtwMatcher matcher = new DtwMatcher(LENGTH, 0.25, 1.5f, DistanceKernel.scalar());
+
+	@Test
+	void distanceMatchesTheCheapestOfAllWarpingPaths() {
+		Random random = new Random(7);
+		for (int trial = 0; trial < 20; trial++) {
+			int referenceFrames = 5 + random.nextInt(30);
+			SignTemplate reference = matcher.prepare("a", sequence(random, referenceFrames), referenceFrames);
+			int frames = 5 + random.nextInt(30);
+			float[] attempt = sequence(random, frames);
+
+			DtwMatcher.Result result = matcher.match(attempt, frames, List.of(reference), "a", 1);
+
+			double expected = Math.sqrt(bruteForce(matcher.prepare("q", attempt, frames), reference) / (LENGTH * LANDMARKS));
+			assertThat((double) result.target().distance()).isCloseTo(expected, within(expected * 1e-4));
+		}
+	}
+
+	@Test
+	void keoghBoundNeverExceedsTheDtwCost() {
+		Random random = new Random(11);
+		for (int trial = 0; trial < 50; trial++) {
+			SignTemplate reference = matcher.prepare("a", sequence(random, 20), 20);
+			SignTemplate query = matcher.prepare("q", sequence(random, 20), 20);
+
+			float bound = ReflectionTestUtils.invokeMethod(matcher, "lowerBound", query.frames, reference, 0, 1, Float.POSITIVE_INFINITY);
+
+			assertThat((double) bound).isLessThanOrEqualTo(bruteForce(query, reference) * (1 + 1e-5));
+		}
+	}
+
+	@Test
+	void prunedRankingEqualsExhaustiveRanking() {
+		Random random = new Random(3);
+		List<SignTemplate> templates = new ArrayList<>();
+		for (int t = 0; t < 30; t++) {
+			templates.add(matcher.prepare("sign-" + t % 10, sequence(random, 20), 20));
+		}
+		for (int trial = 0; trial < 10; trial++) {
+			float[] attempt = sequence(random, 25);
+			SignTemplate query = matcher.prepare("q", attempt, 25);
+			Map<String, Double> best = new HashMap<>();
+			for (SignTemplate template : templates) {
+				best.merge(template.sign(), bruteForce(query, template), Math::min);
+			}
+			List<String> expected = best.entrySet().stream()
+					.sorted(Map.Entry.comparingByValue())
+					.limit(3)
+					.map(Map.Entry::getKey)
+					.toList();
+			String target = "sign-" + trial;
+
+			DtwMatcher.Result result = matcher.match(attempt, 25, templates, target, 3);
+
+			assertThat(result.ranking()).extracting(DtwMatcher.Candidate::sign).containsExactlyElementsOf(expected);
+			double targetDistance = Math.sqrt(best.get(target) / (LENGTH * LANDMARKS));
+			assertThat((double) result.target().distance()).isCloseTo(targetDistance, within(targetDistance * 1e-4));
+			assertThat(result.evaluated() + result.pruned()).isEqualTo(templates.size());
+		}
+	}
+
+	// Minimum over every monotone path from (0, 0) to the end that stays inside the band
+	private static double bruteForce(SignTemplate query, SignTemplate reference) {
+		int dims = query.frames.length / LENGTH;
+		double[][] cost = new double[LENGTH][LENGTH];
+		for (int i = 0; i < LENGTH; i++) {
+			for (int j = 0; j < LENGTH; j++) {
+				for (int k = 0; k < dims; k++) {
+					double d = query.frames[i * dims + k] - reference.frames[j * dims + k];
+					cost[i][j] += d * d;
+				}
+			}
+		}
+		return cheapestPath(cost, 0, 0);
+	}
+
+	private static double cheapestPath(double[][] cost, int i, int j) {
+		if (i == LENGTH - 1 && j == LENGTH - 1) {
+			return cost[i][j];
+		}
+		double rest = Double.POSITIVE_INFINITY;
+		int[][] steps = {{1, 0}, {0, 1}, {1, 1}};
+		for (int[] step : steps) {
+			int ni = i + step[0];
+			int nj = j + step[1];
+			if (ni < LENGTH && nj < LENGTH && Math.abs(ni - nj) <= BAND) {
+				rest = Math.min(rest, cheapestPath(cost, ni, nj));
+			}
+		}
+		return cost[i][j] + rest;
+	}
+
+	// Random landmarks with the shoulders apart, so every frame has a body frame of its own
+	private static float[] sequence(Random random, int frames) {
+		float[] values = new float[frames * DtwMatcher.FEATURES];
+		for (int f = 0; f < frames; f++) {
+			int base = f * DtwMatcher.FEATURES;
+			for (int k = 0; k < DtwMatcher.FEATURES; k++) {
+				values[base + k] = random.nextFloat();
+			}
+			values[base + 11 * 4] = 0.6f + 0.1f * random.nextFloat();
+			values[base + 12 * 4] = 0.3f + 0.1f * random.nextFloat();
+		}
+		return values;
+	}
+}
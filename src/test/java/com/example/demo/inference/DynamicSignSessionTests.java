@@ -0,0 +1,95 @@
+package com.example.demo.inference;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * The incremental session must produce the same probabilities as a whole-window forward pass
+ * for every window of a stream, including after its ring buffers wrap and after a reset.
+ */
+class DynamicSignSessionTests {
+
+	private static DynamicSignModel model;
+
+	@BeforeAll
+	static void loadModel() throws IOException {
+		model = DynamicSignModel.load(
+				new ClassPathResource("static/isl_dynamic_model_tfjs/model.json"),
+				new ClassPathResource("static/label_mapping_dynamic.json"));
+	}
+
+	@Test
+	void everySlidingWindowMatchesTheFullForwardPass() {
+		int frames = 3 * DynamicSignModel.WINDOW + 17; // well past every ring size
+		float[] stream = randomFrames(new Random(3), frames);
+		DynamicSignSession session = model.newSession();
+		float[] window = new float[DynamicSignModel.WINDOW * DynamicSignModel.FEATURES];
+		float[] expected = new float[model.classes()];
+
+		for (int f = 0; f < frames; f++) {
+			boolean fresh = session.push(stream, f * DynamicSignModel.FEATURES);
+			assertThat(fresh).isEqualTo(f >= DynamicSignModel.WINDOW - 1);
+			if (fresh) {
+				int start = f - DynamicSignModel.WINDOW + 1;
+				System.arraycopy(stream, start * DynamicSignModel.FEATURES, window, 0, window.length);
+				model.predict(window, expected);
+				assertThat(session.probabilities()).as("window starting at %d", start).containsExactly(expected, within(1e-5f));
+			}
+		}
+	}
+
+	@Test
+	void resetStartsAFreshWindow() {
+		Random random = new Random(5);
+		DynamicSignSession session = model.newSession();
+		float[] noise = randomFrames(random, 60);
+		for (int f = 0; f < 60; f++) {
+			session.push(noise, f * DynamicSignModel.FEATURES);
+		}
+		session.reset();
+		assertThat(session.isReady()).isFalse();
+
+		float[] window = randomFrames(random, DynamicSignModel.WINDOW);
+		for (int f = 0; f < DynamicSignModel.WINDOW; f++) {
+			session.push(window, f * DynamicSignModel.FEATURES);
+		}
+		float[] expected = new float[model.classes()];
+		model.predict(window, expected);
+		assertThat(session.probabilities()).containsExactly(expected, within(1e-5f));
+	}
+
+	@Test
+	void wholeWindowPredictDoesNotAllocateOnceWarm() {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		float[] window = randomFrames(new Random(9), DynamicSignModel.WINDOW);
+		float[] probabilities = new float[model.classes()];
+		for (int i = 0; i < 200; i++) {
+			model.predict(window, probabilities);
+		}
+
+		long before = threads.getCurrentThreadAllocatedBytes();
+		for (int i = 0; i < 100; i++) {
+			model.predict(window, probabilities);
+		}
+		long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+		// A single call used to allocate ~30 KB of activations
+		assertThat(allocated).isLessThan(1024);
+	}
+
+	private static float[] randomFrames(Random random, int frames) {
+		float[] data = new float[frames * DynamicSignModel.FEATURES];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = random.nextFloat();
+		}
+		return data;
+	}
+}
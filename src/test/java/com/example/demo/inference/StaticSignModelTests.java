@@ -0,0 +1,232 @@
+package com.example.demo.inference;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * The static model engine on a tiny TFJS graph export whose outputs are worked out by hand,
+ * plus invariants of the shipped model. 126 inputs -> 3 (ReLU) -> 2 classes:
+ * x = (2, 1, 3, 0, ...) gives h = relu(2, 1 + 0.5, -3) = (2, 1.5, 0), logits (2, 1.5).
+ */
+class StaticSignModelTests {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void forwardPassMatchesHandComputedSoftmax() throws IOException {
+		StaticSignModel model = StaticSignModel.load(tinyModel("float32"), labels());
+		float[] input = new float[StaticSignModel.FEATURES];
+		input[0] = 2f;
+		input[1] = 1f;
+		input[2] = 3f;
+		float[] probabilities = new float[2];
+
+		model.predict(input, 1, probabilities);
+
+		double expectedA = Math.exp(0.5) / (1 + Math.exp(0.5));
+		assertThat(probabilities[0]).isCloseTo((float) expectedA, within(1e-6f));
+		assertThat(probabilities[1]).isCloseTo((float) (1 - expectedA), within(1e-6f));
+		assertThat(model.topK(probabilities, 0, 5)).extracting(Prediction::label).containsExactly("A", "B");
+	}
+
+	@Test
+	void quantizedWeightFormatsDecodeToTheSameModel() throws IOException {
+		float[] input = new float[StaticSignModel.FEATURES];
+		input[0] = 2f;
+		input[1] = 1f;
+		input[2] = 3f;
+		float[] expected = new float[2];
+		StaticSignModel.load(tinyModel("float32"), labels()).predict(input, 1, expected);
+
+		// Every weight of the tiny model is exactly representable in float16 and on a 0.5 uint8 grid
+		for (String stored : List.of("float16", "uint8")) {
+			float[] actual = new float[2];
+			StaticSignModel.load(tinyModel(stored), labels()).predict(input, 1, actual);
+			assertThat(actual).as(stored).containsExactly(expected, within(1e-6f));
+		}
+	}
+
+	@Test
+	void int8KernelStaysCloseToFloat32() {
+		Random random = new Random(7);
+		int inputs = 64;
+		int outputs = 16;
+		float[] kernel = new float[inputs * outputs];
+		float[] bias = new float[outputs];
+		for (int i = 0; i < kernel.length; i++) {
+			kernel[i] = (float) random.nextGaussian() * 0.1f;
+		}
+		DenseLayer layer = new DenseLayer(new TfjsModelLoader.Tensor(new int[]{inputs, outputs}, kernel),
+				new TfjsModelLoader.Tensor(new int[]{outputs}, bias), false);
+		float[] in = new float[inputs * 2];
+		for (int i = 0; i < in.length; i++) {
+			in[i] = (float) random.nextGaussian();
+		}
+		float[] exact = new float[outputs * 2];
+		float[] quantized = new float[outputs * 2];
+
+		layer.forward(in, exact, 2);
+		layer.quantized().forward(in, quantized, 2);
+
+		for (int o = 0; o < exact.length; o++) {
+			assertThat(quantized[o]).isCloseTo(exact[o], within(0.02f));
+		}
+	}
+
+	@Test
+	void softmaxIsStableForLargeLogits() {
+		float[] row = {1000f, 1001f, 999f, 0f};
+		InferenceMath.softmax(row, 1, 2);
+
+		assertThat(row[0]).isEqualTo(1000f);
+		assertThat(row[3]).isEqualTo(0f);
+		assertThat(row[1] + row[2]).isCloseTo(1f, within(1e-6f));
+		assertThat(row[1]).isCloseTo((float) (1 / (1 + Math.exp(-2))), within(1e-6f));
+	}
+
+	@Test
+	void topKIsOrderedAndClampedToTheLabelCount() {
+		float[] probabilities = {0.9f, 0.1f, 0.3f, 0.2f, 0.4f};
+		String[] labels = {"B", "C", "D", "E"};
+
+		assertThat(InferenceMath.topK(probabilities, 1, labels, 2))
+				.containsExactly(new Prediction("E", 0.4f), new Prediction("C", 0.3f));
+		assertThat(InferenceMath.topK(probabilities, 1, labels, 10)).extracting(Prediction::label)
+				.containsExactly("E", "C", "D", "B");
+	}
+
+	@Test
+	void shippedModelRowsAreIndependentDistributions() throws IOException {
+		StaticSignModel model = StaticSignModel.load(
+				new ClassPathResource("static/isl_static_model_tfjs/model.json"),
+				new ClassPathResource("static/label_mapping_static.json"));
+		Random random = new Random(42);
+		int batch = 8;
+		float[] input = new float[batch * StaticSignModel.FEATURES];
+		for (int i = 0; i < input.length; i++) {
+			input[i] = random.nextFloat();
+		}
+		float[] batched = new float[batch * model.classes()];
+		model.predict(input, batch, batched);
+
+		float[] single = new float[model.classes()];
+		for (int b = 0; b < batch; b++) {
+			float[] row = new float[StaticSignModel.FEATURES];
+			System.arraycopy(input, b * StaticSignModel.FEATURES, row, 0, row.length);
+			model.predict(row, 1, single);
+			float sum = 0f;
+			for (int c = 0; c < model.classes(); c++) {
+				assertThat(batched[b * model.classes() + c]).isCloseTo(single[c], within(1e-6f));
+				sum += single[c];
+			}
+			assertThat(sum).isCloseTo(1f, within(1e-5f));
+		}
+	}
+
+	private FileSystemResource labels() throws IOException {
+		Path file = dir.resolve("labels.json");
+		MAPPER.writeValue(file.toFile(), Map.of("0", "A", "1", "B"));
+		return new FileSystemResource(file);
+	}
+
+	/**
+	 * Writes model.json and one shard in the TFJS graph-model format, storing every weight as
+	 * {@code stored} (float32, float16 or uint8 with min -1 and scale 0.5). An int32 tensor
+	 * in between checks that non-float weights are skipped.
+	 */
+	private FileSystemResource tinyModel(String stored) throws IOException {
+		float[] w1 = new float[StaticSignModel.FEATURES * 3];
+		w1[0] = 1f;       // input 0 -> unit 0
+		w1[3 + 1] = 1f;   // input 1 -> unit 1
+		w1[6 + 2] = -1f;  // input 2 -> unit 2
+		float[] b1 = {0f, 0.5f, 0f};
+		float[] w2 = {1f, 0f, 0f, 1f, 1f, 1f};
+		float[] b2 = {0f, 0f};
+
+		ObjectNode root = MAPPER.createObjectNode();
+		ArrayNode nodes = root.putObject("modelTopology").putArray("node");
+		nodes.addObject().put("name", "input").put("op", "Placeholder");
+		matMul(nodes.addObject(), "dense_1", "input", "w1", "b1", true);
+		matMul(nodes.addObject(), "dense_2", "dense_1", "w2", "b2", false);
+
+		ByteBuffer shard = ByteBuffer.allocate(8192).order(ByteOrder.LITTLE_ENDIAN);
+		ObjectNode group = root.putArray("weightsManifest").addObject();
+		group.putArray("paths").add("group1-shard1of1.bin");
+		ArrayNode weights = group.putArray("weights");
+		weight(weights, shard, stored, "w1", new int[]{StaticSignModel.FEATURES, 3}, w1);
+		weights.addObject().put("name", "dims").put("dtype", "int32").putArray("shape").add(2);
+		shard.putInt(1).putInt(-1);
+		weight(weights, shard, stored, "b1", new int[]{3}, b1);
+		weight(weights, shard, stored, "w2", new int[]{3, 2}, w2);
+		weight(weights, shard, stored, "b2", new int[]{2}, b2);
+
+		Path modelDir = Files.createDirectories(dir.resolve(stored));
+		Files.write(modelDir.resolve("group1-shard1of1.bin"), java.util.Arrays.copyOf(shard.array(), shard.position()));
+		MAPPER.writeValue(modelDir.resolve("model.json").toFile(), root);
+		return new FileSystemResource(modelDir.resolve("model.json"));
+	}
+
+	private static void matMul(ObjectNode node, String name, String input, String kernel, String bias, boolean relu) {
+		node.put("name", name).put("op", "_FusedMatMul");
+		node.putArray("input").add(input).add(kernel).add(bias);
+		ArrayNode fused = node.putObject("attr").putObject("fused_ops").putObject("list").putArray("s");
+		fused.add(base64("BiasAdd"));
+		if (relu) {
+			fused.add(base64("Relu"));
+		}
+	}
+
+	private static void weight(ArrayNode weights, ByteBuffer shard, String stored, String name, int[] shape, float[] values) {
+		ObjectNode entry = weights.addObject().put("name", name).put("dtype", "float32");
+		ArrayNode dims = entry.putArray("shape");
+		for (int dim : shape) {
+			dims.add(dim);
+		}
+		switch (stored) {
+			case "float32" -> {
+				for (float v : values) {
+					shard.putFloat(v);
+				}
+			}
+			case "float16" -> {
+				entry.putObject("quantization").put("dtype", "float16");
+				for (float v : values) {
+					shard.putShort(InferenceMath.floatToHalf(v));
+				}
+			}
+			case "uint8" -> {
+				entry.putObject("quantization").put("dtype", "uint8").put("min", -1.0).put("scale", 0.5);
+				for (float v : values) {
+					shard.put((byte) Math.round((v + 1f) / 0.5f));
+				}
+			}
+			default -> throw new IllegalArgumentException(stored);
+		}
+	}
+
+	private static String base64(String value) {
+		return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,148 @@
+package com.example.demo.service;
+
+import com.example.demo.config.CacheConfig;
+import com.example.demo.model.Achievement;
+import com.example.demo.model.AchievementMetric;
+import com.example.demo.model.UserProgress;
+import com.example.demo.repository.AchievementNotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The earned-ids cache against a read that races an award: the stale list the read loaded
+ * must not be served once the award has committed. Also which rules a batch of progress
+ * events re-checks.
+ */
+class AchievementServiceTests {
+
+	private static final long USER = 7L;
+
+	private AchievementService service;
+	private AchievementRuleIndex ruleIndex;
+	private JdbcTemplate jdbcTemplate;
+	private Achievement first;
+	private Achievement second;
+
+	@BeforeEach
+	void setUp() {
+		first = Achievement.builder().id(1L).name("First").build();
+		second = Achievement.builder().id(2L).name("Second").build();
+		ruleIndex = mock(AchievementRuleIndex.class);
+		when(ruleIndex.get(1L)).thenReturn(first);
+		when(ruleIndex.get(2L)).thenReturn(second);
+
+		jdbcTemplate = mock(JdbcTemplate.class);
+		when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+		CacheManager cacheManager = new CacheConfig().cacheManager(
+				"maximumSize=100", "maximumSize=100,expireAfterWrite=30m");
+
+		service = new AchievementService();
+		ReflectionTestUtils.setField(service, "achievementRuleIndex", ruleIndex);
+		ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(service, "notificationRepository", mock(AchievementNotificationRepository.class));
+		ReflectionTestUtils.setField(service, "cacheManager", cacheManager);
+		ReflectionTestUtils.setField(service, "transactionManager", new NoOpTransactionManager());
+		service.initCache();
+	}
+
+	@Test
+	void cachedIdsAreServedUntilAnAwardCommits() {
+		when(jdbcTemplate.queryForList(anyString(), eq(Long.class), anyLong())).thenReturn(List.of(1L));
+
+		assertThat(service.getAchievementsForUser(USER)).containsExactly(first);
+		assertThat(service.getAchievementsForUser(USER)).containsExactly(first);
+		verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(Long.class), anyLong());
+	}
+
+	@Test
+	void listLoadedBeforeAnAwardCommittedIsNotServedAfterIt() {
+		AtomicBoolean raced = new AtomicBoolean();
+		when(jdbcTemplate.queryForList(anyString(), eq(Long.class), anyLong())).thenAnswer(inv -> {
+			if (raced.compareAndSet(false, true)) {
+				// The award commits and evicts while this read still holds the old rows
+				ReflectionTestUtils.invokeMethod(service, "award", USER, 2L);
+				return List.of(1L);
+			}
+			return List.of(1L, 2L);
+		});
+
+		assertThat(service.getAchievementsForUser(USER)).containsExactly(first);
+		assertThat(service.getAchievementsForUser(USER)).containsExactlyInAnyOrder(first, second);
+		assertThat(service.getAchievementsForUser(USER)).containsExactlyInAnyOrder(first, second);
+		verify(jdbcTemplate, times(2)).queryForList(anyString(), eq(Long.class), anyLong());
+	}
+
+	@Test
+	void eventsOnlyReCheckTheRulesOfTheMetricTheyChanged() {
+		UserProgress progress = UserProgress.builder().lessonsCompleted(3).studyStreak(2).totalStudyTime(90).build();
+		ProgressWriteBuffer buffer = mock(ProgressWriteBuffer.class);
+		when(buffer.read(eq(USER), any())).thenReturn(progress);
+		LessonCatalog catalog = mock(LessonCatalog.class);
+		when(catalog.moduleOf("greetings-1")).thenReturn("greetings");
+		LessonOrdinals ordinals = mock(LessonOrdinals.class);
+		when(ordinals.countByModule(any())).thenReturn(Map.of("greetings", 2));
+		when(ruleIndex.ruleModules()).thenReturn(Set.of("greetings", "numbers"));
+		ReflectionTestUtils.setField(service, "progressWriteBuffer", buffer);
+		ReflectionTestUtils.setField(service, "lessonCatalog", catalog);
+		ReflectionTestUtils.setField(service, "lessonOrdinals", ordinals);
+
+		service.onProgressEvents(List.of(new ProgressEventBus.StudyTimeAdded(USER, 15),
+				new ProgressEventBus.StudyTimeAdded(USER, 5)));
+
+		verify(ruleIndex).crossed(eq(AchievementMetric.STUDY_TIME), eq(0), eq(90), any());
+		verify(ruleIndex, never()).crossed(eq(AchievementMetric.LESSONS_COMPLETED), anyInt(), anyInt(), any());
+		verify(ruleIndex, never()).crossed(eq(AchievementMetric.STUDY_STREAK), anyInt(), anyInt(), any());
+		verify(ruleIndex, never()).crossedInModule(anyString(), anyInt(), anyInt(), any());
+
+		service.onProgressEvents(List.of(new ProgressEventBus.LessonCompleted(USER, "greetings-1")));
+
+		verify(ruleIndex).crossed(eq(AchievementMetric.LESSONS_COMPLETED), eq(0), eq(3), any());
+		verify(ruleIndex).crossedInModule(eq("greetings"), eq(0), eq(2), any());
+		verify(ruleIndex, never()).crossedInModule(eq("numbers"), anyInt(), anyInt(), any());
+		verify(ruleIndex, never()).crossed(eq(AchievementMetric.STUDY_STREAK), anyInt(), anyInt(), any());
+	}
+
+	// Runs transaction synchronizations without a database
+	private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+		@Override
+		protected Object doGetTransaction() {
+			return new Object();
+		}
+
+		@Override
+		protected void doBegin(Object transaction, TransactionDefinition definition) {
+		}
+
+		@Override
+		protected void doCommit(DefaultTransactionStatus status) {
+		}
+
+		@Override
+		protected void doRollback(DefaultTransactionStatus status) {
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Two "instances" (two lock beans with their own owner ids) competing for the same job lease
+ * in an in-memory database.
+ */
+class BatchJobLockTests {
+
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:locks;DB_CLOSE_DELAY=-1;MODE=MySQL", "sa", "");
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("DROP TABLE IF EXISTS batch_locks");
+		jdbcTemplate.execute("CREATE TABLE batch_locks (job VARCHAR(255) PRIMARY KEY, owner VARCHAR(255) NOT NULL, locked_until TIMESTAMP NOT NULL)");
+	}
+
+	@Test
+	void onlyOneInstanceHoldsTheLeaseUntilItIsReleased() {
+		BatchJobLock first = lock(60_000);
+		BatchJobLock second = lock(60_000);
+
+		assertThat(first.tryAcquire("job")).isTrue();
+		assertThat(second.tryAcquire("job")).isFalse();
+		assertThat(first.tryAcquire("job")).isTrue(); // re-entrant for the holder
+		assertThat(second.tryAcquire("other")).isTrue(); // leases are per job
+
+		first.release("job");
+		assertThat(second.tryAcquire("job")).isTrue();
+		assertThat(first.tryAcquire("job")).isFalse();
+	}
+
+	@Test
+	void expiredLeaseIsTakenOverAndTheOldHolderCannotRenew() {
+		BatchJobLock crashed = lock(-1_000); // every lease it takes is already expired
+		BatchJobLock survivor = lock(60_000);
+
+		assertThat(crashed.tryAcquire("job")).isTrue();
+		assertThat(survivor.tryAcquire("job")).isTrue();
+		assertThatThrownBy(() -> crashed.renew("job")).isInstanceOf(IllegalStateException.class);
+
+		survivor.renew("job");
+		crashed.release("job"); // not the holder: no effect
+		assertThat(crashed.tryAcquire("job")).isFalse();
+	}
+
+	private BatchJobLock lock(long leaseMs) {
+		BatchJobLock lock = new BatchJobLock();
+		ReflectionTestUtils.setField(lock, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(lock, "leaseMs", leaseMs);
+		return lock;
+	}
+}
@@ -0,0 +1,212 @@
+package com.example.demo.service;
+
+import com.example.demo.inference.PredictionDebouncer;
+import com.example.demo.inference.StaticSignModel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Batching, backpressure and debouncing of the WebSocket stream path, driven one tick at a
+ * time. The stub model predicts class {@code frame[0]} with confidence {@code frame[1]}.
+ */
+class LandmarkStreamServiceTests {
+
+	private static final int MAX_BATCH = 4;
+	private static final int MAX_PENDING = 8;
+
+	private LandmarkStreamService service;
+	private StaticSignModel model;
+	private SimpleMeterRegistry meters;
+
+	@BeforeEach
+	void setUp() {
+		model = mock(StaticSignModel.class);
+		when(model.classes()).thenReturn(3);
+		when(model.label(anyInt())).thenAnswer(inv -> String.valueOf((char) ('A' + (int) inv.getArgument(0))));
+		doAnswer(inv -> {
+			float[] input = inv.getArgument(0);
+			int batch = inv.getArgument(1);
+			float[] out = inv.getArgument(2);
+			for (int b = 0; b < batch; b++) {
+				int cls = (int) input[b * StaticSignModel.FEATURES];
+				float confidence = input[b * StaticSignModel.FEATURES + 1];
+				for (int c = 0; c < 3; c++) {
+					out[b * 3 + c] = c == cls ? confidence : (1 - confidence) / 2;
+				}
+			}
+			return null;
+		}).when(model).predict(any(), anyInt(), any());
+		ModelRegistry registry = mock(ModelRegistry.class);
+		when(registry.select(anyString())).thenReturn(new ModelRegistry.Bundle("test", model, null));
+
+		meters = new SimpleMeterRegistry();
+		service = new LandmarkStreamService();
+		ReflectionTestUtils.setField(service, "modelRegistry", registry);
+		ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+		ReflectionTestUtils.setField(service, "meterRegistry", meters);
+		ReflectionTestUtils.setField(service, "tickMs", 3_600_000L); // ticks are driven by the test
+		ReflectionTestUtils.setField(service, "maxBatch", MAX_BATCH);
+		ReflectionTestUtils.setField(service, "maxPendingFrames", MAX_PENDING);
+		ReflectionTestUtils.setField(service, "bufferSize", 3);
+		ReflectionTestUtils.setField(service, "confThreshold", 0.85f);
+		ReflectionTestUtils.setField(service, "workers", 2);
+		service.start();
+	}
+
+	@AfterEach
+	void tearDown() {
+		service.stop();
+	}
+
+	@Test
+	void streamsOnOneModelShareBatchesOfAtMostMaxBatchRows() {
+		open("a");
+		open("b");
+		service.enqueue("a", frames(3, 0, 0.9f));
+		service.enqueue("b", frames(3, 1, 0.9f));
+
+		service.tick();
+
+		ArgumentCaptor<Integer> batches = ArgumentCaptor.forClass(Integer.class);
+		verify(model, times(2)).predict(any(), batches.capture(), any());
+		assertThat(batches.getAllValues()).containsExactlyInAnyOrder(4, 2); // chunks run in parallel
+	}
+
+	@Test
+	void noHandsMarkersAreNotSentThroughTheModel() {
+		WebSocketSession session = open("a");
+		service.enqueue("a", frames(3, 2, 0.95f));
+		service.enqueue("a", null);
+		service.enqueue("a", frames(1, 2, 0.95f));
+
+		service.tick();
+
+		ArgumentCaptor<Integer> batches = ArgumentCaptor.forClass(Integer.class);
+		verify(model).predict(any(), batches.capture(), any());
+		assertThat(batches.getValue()).isEqualTo(4);
+		// Stable "C" after three frames, then cleared by the marker; the last frame alone is not stable
+		assertThat(messages(session)).containsExactly("{\"sign\":\"C\",\"confidence\":0.95}", "{\"sign\":null,\"confidence\":null}");
+	}
+
+	@Test
+	void framesBeyondThePendingLimitAreShedUntilTheTickDrains() {
+		open("a");
+		assertThat(service.enqueue("a", frames(MAX_PENDING, 0, 0.9f))).isTrue();
+		assertThat(service.enqueue("a", frames(1, 0, 0.9f))).isFalse();
+		assertThat(meters.counter("recognition.stream.dropped").count()).isEqualTo(1);
+
+		service.tick();
+
+		assertThat(service.enqueue("a", frames(MAX_PENDING, 0, 0.9f))).isTrue();
+	}
+
+	@Test
+	void noHandsMarkersCountAgainstTheBudget() {
+		open("a");
+		for (int i = 0; i < MAX_PENDING; i++) {
+			assertThat(service.enqueue("a", null)).isTrue();
+		}
+		assertThat(service.enqueue("a", null)).isFalse();
+		assertThat(service.enqueue("a", frames(1, 0, 0.9f))).isFalse();
+		assertThat(meters.counter("recognition.stream.dropped").count()).isEqualTo(2);
+
+		service.tick();
+
+		assertThat(service.enqueue("a", frames(MAX_PENDING, 0, 0.9f))).isTrue();
+	}
+
+	@Test
+	void failedInferenceDoesNotLeakTheStreamsBudget() {
+		open("a");
+		doThrow(new IllegalStateException("boom")).when(model).predict(any(), anyInt(), any());
+		service.enqueue("a", frames(MAX_PENDING, 0, 0.9f));
+
+		service.tick();
+
+		assertThat(service.enqueue("a", frames(MAX_PENDING, 0, 0.9f))).isTrue();
+		assertThat(meters.counter("recognition.stream.dropped").count()).isEqualTo(MAX_PENDING);
+	}
+
+	@Test
+	void onlyChangesOfTheStablePredictionArePublished() throws Exception {
+		WebSocketSession session = open("a");
+		service.enqueue("a", frames(3, 1, 0.5f)); // consistent but under the threshold
+		service.tick();
+		verify(session, never()).sendMessage(any());
+
+		service.enqueue("a", frames(6, 1, 0.9f));
+		service.tick();
+		service.enqueue("a", frames(3, 0, 0.9f));
+		service.tick();
+
+		assertThat(messages(session)).containsExactly(
+				"{\"sign\":\"B\",\"confidence\":0.9}",
+				"{\"sign\":null,\"confidence\":null}",
+				"{\"sign\":\"A\",\"confidence\":0.9}");
+	}
+
+	@Test
+	void debouncerNeedsAFullBufferOfConfidentAgreement() {
+		PredictionDebouncer debouncer = new PredictionDebouncer(3, 0.8f);
+		assertThat(debouncer.accept(1, 0.9f)).isEqualTo(-1);
+		assertThat(debouncer.accept(1, 0.9f)).isEqualTo(-1);
+		assertThat(debouncer.accept(1, 0.9f)).isEqualTo(1);
+		assertThat(debouncer.accept(1, 0.7f)).isEqualTo(-1);
+		assertThat(debouncer.accept(1, 0.9f)).isEqualTo(-1);
+		assertThat(debouncer.accept(1, 0.9f)).isEqualTo(-1);
+		assertThat(debouncer.accept(1, 0.9f)).isEqualTo(1);
+		debouncer.reset();
+		assertThat(debouncer.accept(1, 0.9f)).isEqualTo(-1);
+	}
+
+	private WebSocketSession open(String id) {
+		WebSocketSession session = mock(WebSocketSession.class);
+		when(session.getId()).thenReturn(id);
+		service.open(session, LandmarkStreamService.ModelType.STATIC);
+		return session;
+	}
+
+	private static float[][] frames(int count, int cls, float confidence) {
+		float[][] frames = new float[count][StaticSignModel.FEATURES];
+		for (float[] frame : frames) {
+			frame[0] = cls;
+			frame[1] = confidence;
+		}
+		return frames;
+	}
+
+	private static List<String> messages(WebSocketSession session) {
+		ArgumentCaptor<TextMessage> sent = ArgumentCaptor.forClass(TextMessage.class);
+		try {
+			verify(session, atLeast(0)).sendMessage(sent.capture());
+		} catch (Exception e) {
+			throw new AssertionError(e);
+		}
+		List<String> payloads = new ArrayList<>();
+		sent.getAllValues().forEach(m -> payloads.add(m.getPayload()));
+		return payloads;
+	}
+}
@@ -0,0 +1,114 @@
+package com.example.demo.service;
+
+import com.example.demo.model.UserProgress;
+import com.example.demo.service.LeaderboardService.Metric;
+import com.example.demo.service.LeaderboardService.Standing;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Competition ranking ("1, 2, 2, 4") on the in-memory boards, checked against a brute-force
+ * ranking of the same learners. Learners are placed with {@code add}, so no database is needed.
+ */
+class LeaderboardServiceTests {
+
+	private final LeaderboardService service = new LeaderboardService();
+
+	@Test
+	void tiesShareARankAndTheNextRankSkips() {
+		add(1, "a", 10);
+		add(2, "a", 20);
+		add(3, "a", 20);
+		add(4, "a", 5);
+		add(5, "a", 20);
+
+		assertThat(service.top(Metric.LESSONS_COMPLETED, null, 10).standings())
+				.extracting(Standing::rank, Standing::userId)
+				.containsExactly(
+						tuple(1, 2L),
+						tuple(1, 3L),
+						tuple(1, 5L),
+						tuple(4, 1L),
+						tuple(5, 4L));
+	}
+
+	@Test
+	void randomBoardsMatchABruteForceRanking() {
+		Random random = new Random(7);
+		Map<Long, long[]> learners = new HashMap<>(); // userId -> {score, cohort}
+		for (int step = 0; step < 3000; step++) {
+			long userId = random.nextInt(300);
+			int action = random.nextInt(10);
+			if (action == 0) {
+				service.remove(userId);
+				learners.remove(userId);
+			} else if (action == 1 && learners.containsKey(userId)) {
+				long cohort = random.nextInt(3);
+				service.updateProfile(userId, "user" + userId, "c" + cohort);
+				learners.get(userId)[1] = cohort;
+			} else {
+				long score = random.nextInt(25);
+				long cohort = learners.containsKey(userId) ? learners.get(userId)[1] : random.nextInt(3);
+				service.add(userId, "user" + userId, "c" + cohort, progress((int) score));
+				learners.put(userId, new long[]{score, cohort});
+			}
+
+			if (step % 100 == 0) {
+				for (String cohort : new String[]{null, "c0", "c1", "c2"}) {
+					List<Standing> expected = bruteForce(learners, cohort);
+					assertThat(service.top(Metric.LESSONS_COMPLETED, cohort, Integer.MAX_VALUE).standings())
+							.as("board %s at step %d", cohort, step)
+							.isEqualTo(expected);
+					assertThat(service.top(Metric.LESSONS_COMPLETED, cohort, 5).standings())
+							.isEqualTo(expected.subList(0, Math.min(5, expected.size())));
+				}
+				assertAroundMatches(learners, random);
+			}
+		}
+	}
+
+	private void assertAroundMatches(Map<Long, long[]> learners, Random random) {
+		List<Standing> board = bruteForce(learners, null);
+		for (int i = 0; i < 10 && !board.isEmpty(); i++) {
+			int position = random.nextInt(board.size());
+			int radius = random.nextInt(4);
+			List<Standing> around = service.around(Metric.LESSONS_COMPLETED, null, board.get(position).userId(), radius).standings();
+			assertThat(around).isEqualTo(board.subList(Math.max(0, position - radius), Math.min(board.size(), position + radius + 1)));
+		}
+		assertThat(service.around(Metric.LESSONS_COMPLETED, null, 10_000L, 2).standings()).isEmpty();
+	}
+
+	private static List<Standing> bruteForce(Map<Long, long[]> learners, String cohort) {
+		List<Map.Entry<Long, long[]>> board = new ArrayList<>();
+		for (Map.Entry<Long, long[]> learner : learners.entrySet()) {
+			if (cohort == null || cohort.equals("c" + learner.getValue()[1])) {
+				board.add(learner);
+			}
+		}
+		board.sort(Comparator.comparingLong((Map.Entry<Long, long[]> e) -> -e.getValue()[0]).thenComparing(Map.Entry::getKey));
+		List<Standing> standings = new ArrayList<>();
+		for (Map.Entry<Long, long[]> learner : board) {
+			long score = learner.getValue()[0];
+			int higher = (int) board.stream().filter(other -> other.getValue()[0] > score).count();
+			standings.add(new Standing(higher + 1, learner.getKey(), "user" + learner.getKey(), score));
+		}
+		return standings;
+	}
+
+	private void add(long userId, String cohort, int lessons) {
+		service.add(userId, "user" + userId, cohort, progress(lessons));
+	}
+
+	private static UserProgress progress(int lessons) {
+		return UserProgress.builder().lessonsCompleted(lessons).build();
+	}
+}
@@ -0,0 +1,142 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Versions v1 and v2 are copies of the shipped models in a temporary registry directory.
+ */
+class ModelRegistryTests {
+
+	@TempDir
+	Path dir;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		Path shipped = new ClassPathResource("static").getFile().toPath();
+		for (String version : new String[]{"v1", "v2"}) {
+			Path target = dir.resolve("models").resolve(version);
+			Files.createDirectories(target);
+			for (String file : new String[]{ModelRegistry.STATIC_LABELS, ModelRegistry.DYNAMIC_LABELS}) {
+				Files.copy(shipped.resolve(file), target.resolve(file));
+			}
+			for (String model : new String[]{"isl_static_model_tfjs", "isl_dynamic_model_tfjs"}) {
+				FileSystemUtils.copyRecursively(shipped.resolve(model), target.resolve(model));
+			}
+		}
+	}
+
+	@Test
+	void rollbackSwapsBackToTheLoadedPreviousVersion() throws IOException {
+		ModelRegistry registry = registry();
+		assertThatThrownBy(registry::rollback).isInstanceOf(IllegalStateException.class);
+		ModelRegistry.Bundle builtin = registry.current().active();
+
+		registry.activate("v1");
+		ModelRegistry.Bundle v1 = registry.current().active();
+		ModelRegistry.Status rolledBack = registry.rollback();
+
+		assertThat(rolledBack.active()).isEqualTo(ModelRegistry.BUILTIN);
+		assertThat(rolledBack.previous()).isEqualTo("v1");
+		assertThat(registry.current().active()).isSameAs(builtin); // not loaded again
+		assertThat(registry.rollback().active()).isEqualTo("v1");
+		assertThat(registry.current().active()).isSameAs(v1);
+	}
+
+	@Test
+	void rollingBackToTheCanaryEndsTheSplit() throws IOException {
+		ModelRegistry registry = registry();
+		registry.activate("v1");
+		registry.split(ModelRegistry.BUILTIN, 20);
+
+		ModelRegistry.Status status = registry.rollback();
+
+		assertThat(status.active()).isEqualTo(ModelRegistry.BUILTIN);
+		assertThat(status.canary()).isNull();
+		assertThat(status.canaryPercent()).isZero();
+	}
+
+	@Test
+	void stickyPickSendsTheConfiguredShareToTheCanary() throws IOException {
+		ModelRegistry registry = registry();
+		registry.split("v1", 10);
+
+		int canary = 0;
+		int clients = 20_000;
+		for (int i = 0; i < clients; i++) {
+			String key = "client-" + i;
+			String version = registry.select(key).version();
+			assertThat(registry.select(key).version()).isEqualTo(version);
+			assertThat(registry.manifest(key).version()).isEqualTo(version);
+			if (version.equals("v1")) {
+				canary++;
+			}
+		}
+		assertThat(canary / (double) clients).isBetween(0.09, 0.11);
+
+		registry.split("v1", 100);
+		assertThat(registry.select("client-1").version()).isEqualTo("v1");
+		registry.split("v1", 0);
+		assertThat(registry.select("client-1").version()).isEqualTo(ModelRegistry.BUILTIN);
+		assertThat(registry.manifest(null).version()).isEqualTo(ModelRegistry.BUILTIN);
+	}
+
+	@Test
+	void deploymentIsRestoredFromTheStateFile() throws IOException {
+		ModelRegistry first = registry();
+		first.activate("v1");
+		first.split("v2", 30);
+
+		ModelRegistry.Status restored = registry().status();
+
+		assertThat(restored.active()).isEqualTo("v1");
+		assertThat(restored.previous()).isEqualTo(ModelRegistry.BUILTIN);
+		assertThat(restored.canary()).isEqualTo("v2");
+		assertThat(restored.canaryPercent()).isEqualTo(30);
+	}
+
+	@Test
+	void versionsThatNoLongerLoadAreDroppedOnRestart() throws IOException {
+		ModelRegistry first = registry();
+		first.activate("v1");
+		first.split("v2", 30);
+		FileSystemUtils.deleteRecursively(dir.resolve("models/v1"));
+		FileSystemUtils.deleteRecursively(dir.resolve("models/v2"));
+
+		ModelRegistry.Status restored = registry().status();
+
+		assertThat(restored.active()).isEqualTo(ModelRegistry.BUILTIN);
+		assertThat(restored.canary()).isNull();
+		assertThat(restored.canaryPercent()).isZero();
+	}
+
+	private ModelRegistry registry() throws IOException {
+		ModelRegistry registry = new ModelRegistry();
+		ReflectionTestUtils.setField(registry, "resourceLoader", new DefaultResourceLoader());
+		ReflectionTestUtils.setField(registry, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(registry, "staticModelLocation", "classpath:static/" + ModelRegistry.STATIC_MODEL);
+		ReflectionTestUtils.setField(registry, "staticLabelsLocation", "classpath:static/" + ModelRegistry.STATIC_LABELS);
+		ReflectionTestUtils.setField(registry, "dynamicModelLocation", "classpath:static/" + ModelRegistry.DYNAMIC_MODEL);
+		ReflectionTestUtils.setField(registry, "dynamicLabelsLocation", "classpath:static/" + ModelRegistry.DYNAMIC_LABELS);
+		ReflectionTestUtils.setField(registry, "weights", "float32");
+		ReflectionTestUtils.setField(registry, "maxBatch", 32);
+		ReflectionTestUtils.setField(registry, "directory", dir.resolve("models").toString());
+		ReflectionTestUtils.setField(registry, "stateLocation", dir.resolve("state.properties").toString());
+		ReflectionTestUtils.setField(registry, "warmupIterations", 1);
+		registry.init();
+		return registry;
+	}
+}
@@ -0,0 +1,98 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Randomized comparison of the treap against a plain sorted list. Scores come from a small
+ * range so most entries tie and the user id tiebreak is exercised.
+ */
+class OrderStatisticTreeTests {
+
+	private static final Comparator<OrderStatisticTree.Entry> ORDER =
+			Comparator.comparingLong(OrderStatisticTree.Entry::score).reversed()
+					.thenComparingLong(OrderStatisticTree.Entry::userId);
+
+	@Test
+	void matchesASortedListUnderRandomInsertsAndRemoves() {
+		Random random = new Random(42);
+		OrderStatisticTree tree = new OrderStatisticTree();
+		List<OrderStatisticTree.Entry> expected = new ArrayList<>();
+		Map<Long, Long> scores = new HashMap<>();
+
+		for (int step = 0; step < 20_000; step++) {
+			long userId = random.nextInt(500);
+			Long score = scores.get(userId);
+			if (score == null) {
+				long newScore = random.nextInt(40);
+				tree.insert(userId, newScore);
+				scores.put(userId, newScore);
+				expected.add(new OrderStatisticTree.Entry(userId, newScore));
+				expected.sort(ORDER);
+			} else if (random.nextBoolean()) {
+				assertThat(tree.remove(userId, score)).isTrue();
+				scores.remove(userId);
+				expected.remove(new OrderStatisticTree.Entry(userId, score));
+			} else {
+				// Absent keys: same score under another id, or this id under another score
+				assertThat(tree.remove(userId, score + 1)).isFalse();
+				assertThat(tree.remove(userId + 1000, score)).isFalse();
+			}
+
+			assertThat(tree.size()).isEqualTo(expected.size());
+			if (step % 50 == 0) {
+				assertQueriesMatch(tree, expected, random);
+			}
+		}
+	}
+
+	@Test
+	void rangeWalksTheWholeOrderAndClampsItsBounds() {
+		OrderStatisticTree tree = new OrderStatisticTree();
+		List<OrderStatisticTree.Entry> expected = new ArrayList<>();
+		for (long userId = 0; userId < 200; userId++) {
+			tree.insert(userId, userId % 7);
+			expected.add(new OrderStatisticTree.Entry(userId, userId % 7));
+		}
+		expected.sort(ORDER);
+
+		assertThat(tree.range(0, Integer.MAX_VALUE)).isEqualTo(expected);
+		assertThat(tree.range(-5, 3)).isEqualTo(expected.subList(0, 3));
+		assertThat(tree.range(195, 10)).isEqualTo(expected.subList(195, 200));
+		assertThat(tree.range(200, 10)).isEmpty();
+		assertThat(tree.range(10, 0)).isEmpty();
+	}
+
+	@Test
+	void emptyTree() {
+		OrderStatisticTree tree = new OrderStatisticTree();
+		assertThat(tree.size()).isZero();
+		assertThat(tree.remove(1, 1)).isFalse();
+		assertThat(tree.countBefore(0, Long.MIN_VALUE)).isZero();
+		assertThat(tree.range(0, 10)).isEmpty();
+	}
+
+	private static void assertQueriesMatch(OrderStatisticTree tree, List<OrderStatisticTree.Entry> expected, Random random) {
+		for (int i = 0; i < 20; i++) {
+			long score = random.nextInt(42) - 1;
+			long userId = random.nextBoolean() ? Long.MIN_VALUE : random.nextInt(500);
+			OrderStatisticTree.Entry key = new OrderStatisticTree.Entry(userId, score);
+			long before = expected.stream().filter(e -> ORDER.compare(e, key) < 0).count();
+			assertThat(tree.countBefore(score, userId)).as("countBefore(%d, %d)", score, userId).isEqualTo(before);
+
+			int from = random.nextInt(expected.size() + 5);
+			int limit = random.nextInt(30);
+			List<OrderStatisticTree.Entry> window = expected.subList(
+					Math.min(from, expected.size()), Math.min(from + limit, expected.size()));
+			assertThat(tree.range(from, limit)).as("range(%d, %d)", from, limit).isEqualTo(window);
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package com.example.demo.service;
+
+import com.example.demo.inference.DtwMatcher;
+import com.example.demo.model.SignReference;
+import com.example.demo.repository.SignReferenceRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Adding or removing a reference changes the in-memory templates without preparing every
+ * stored reference again; that is left to the scheduled refresh.
+ */
+class PracticeScoringServiceTests {
+
+	private SignReferenceRepository repository;
+	private PracticeScoringService service;
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(SignReferenceRepository.class);
+		when(repository.findAll()).thenReturn(List.of());
+		when(repository.countBySign()).thenReturn(List.<Object[]>of(new Object[]{"hello", 1L}));
+		service = new PracticeScoringService();
+		ReflectionTestUtils.setField(service, "referenceRepository", repository);
+		ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(service, "length", 16);
+		ReflectionTestUtils.setField(service, "band", 0.1);
+		ReflectionTestUtils.setField(service, "tolerance", 1.5f);
+		ReflectionTestUtils.setField(service, "minFrames", 10);
+		ReflectionTestUtils.setField(service, "maxFrames", 300);
+		service.init();
+	}
+
+	@Test
+	void addingAndRemovingReferencesDoesNotReloadTheRest() {
+		float[][] recording = frames(new Random(1), 12);
+		assertThatThrownBy(() -> service.score(recording, "hello", 1)).isInstanceOf(IllegalStateException.class);
+
+		service.addReference(" hello ", recording);
+		DtwMatcher.Result result = service.score(recording, "HELLO", 1);
+
+		assertThat(result.target().sign()).isEqualTo("hello");
+		assertThat(result.target().score()).isEqualTo(100);
+		verify(repository).save(any(SignReference.class));
+
+		when(repository.deleteBySignIgnoreCase(anyString())).thenReturn(1L);
+		service.removeReferences("Hello");
+		assertThatThrownBy(() -> service.score(recording, "hello", 1)).isInstanceOf(IllegalStateException.class);
+		verify(repository, times(1)).findAll(); // only at startup
+	}
+
+	private static float[][] frames(Random random, int count) {
+		float[][] frames = new float[count][DtwMatcher.FEATURES];
+		for (float[] frame : frames) {
+			for (int k = 0; k < frame.length; k++) {
+				frame[k] = random.nextFloat();
+			}
+		}
+		return frames;
+	}
+}
@@ -0,0 +1,128 @@
+package com.example.demo.service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The outbox relay against an in-memory table: rows it can't read must not hold up the rows
+ * behind them. The consumers aren't started, so requeued events stay on the ring.
+ */
+class ProgressEventBusTests {
+
+	private JdbcTemplate jdbcTemplate;
+
+	private SimpleMeterRegistry meterRegistry;
+
+	@BeforeEach
+	void setUp() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1;MODE=MySQL", "sa", "");
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("DROP TABLE IF EXISTS progress_outbox");
+		jdbcTemplate.execute("CREATE TABLE progress_outbox (id VARCHAR(36) PRIMARY KEY, type VARCHAR(32) NOT NULL, "
+				+ "user_id BIGINT NOT NULL, payload VARCHAR(255), created_at TIMESTAMP NOT NULL, processed_at TIMESTAMP, "
+				+ "attempts INT NOT NULL)");
+		meterRegistry = new SimpleMeterRegistry();
+	}
+
+	@Test
+	void unknownTypeAtTheHeadDoesNotBlockTheRowsBehindIt() {
+		ProgressEventBus bus = bus(8, 3);
+		insert("a", "FROM_A_NEWER_VERSION", "x", 1, 0);
+		insert("b", "LESSON_COMPLETED", "lesson-1", 2, 0);
+
+		bus.relay();
+
+		assertThat(ids(bus)).containsExactly("b");
+		assertThat(attempts("a")).isEqualTo(1);
+		assertThat(deadLettered()).isZero();
+
+		bus.relay();
+		bus.relay(); // third attempt gives up
+		assertThat(attempts("a")).isEqualTo(3);
+		assertThat(deadLettered()).isEqualTo(1);
+	}
+
+	@Test
+	void malformedPayloadIsDeadLetteredAtOnce() {
+		ProgressEventBus bus = bus(8, 10);
+		insert("a", "STUDY_TIME_ADDED", "ten", 1, 0);
+		insert("b", "STUDY_DAY_RECORDED", "not-a-date", 2, 0);
+		insert("c", "STUDY_TIME_ADDED", "10", 3, 0);
+
+		bus.relay();
+
+		assertThat(ids(bus)).containsExactly("c");
+		assertThat(attempts("a")).isEqualTo(10);
+		assertThat(attempts("b")).isEqualTo(10);
+		assertThat(deadLettered()).isEqualTo(2);
+
+		ring(bus).clear();
+		bus.relay(); // dead letters aren't selected again
+		assertThat(ids(bus)).containsExactly("c");
+	}
+
+	@Test
+	void fullRingStopsThePassWithoutCountingAnAttempt() {
+		ProgressEventBus bus = bus(1, 10);
+		insert("a", "LESSON_COMPLETED", "lesson-1", 1, 0);
+		insert("b", "LESSON_COMPLETED", "lesson-2", 2, 0);
+
+		bus.relay();
+
+		assertThat(ids(bus)).containsExactly("a");
+		assertThat(attempts("b")).isZero();
+		assertThat(deadLettered()).isZero();
+	}
+
+	private ProgressEventBus bus(int capacity, int maxAttempts) {
+		ProgressEventBus bus = new ProgressEventBus();
+		ReflectionTestUtils.setField(bus, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(bus, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(bus, "batchSize", 100);
+		ReflectionTestUtils.setField(bus, "relayDelayMs", 0L);
+		ReflectionTestUtils.setField(bus, "maxAttempts", maxAttempts);
+		ReflectionTestUtils.setField(bus, "retentionHours", 24L);
+		ReflectionTestUtils.setField(bus, "ring", new ArrayBlockingQueue<>(capacity));
+		ReflectionTestUtils.setField(bus, "deadLettered", Counter.builder("progress.outbox.dead_lettered").register(meterRegistry));
+		return bus;
+	}
+
+	private void insert(String id, String type, String payload, int order, int attempts) {
+		jdbcTemplate.update("INSERT INTO progress_outbox (id, type, user_id, payload, created_at, attempts) VALUES (?, ?, 7, ?, ?, ?)",
+				id, type, payload, new Timestamp(System.currentTimeMillis() - 60_000 + order * 1000L), attempts);
+	}
+
+	private int attempts(String id) {
+		return jdbcTemplate.queryForObject("SELECT attempts FROM progress_outbox WHERE id = ?", Integer.class, id);
+	}
+
+	private double deadLettered() {
+		return meterRegistry.counter("progress.outbox.dead_lettered").count();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static BlockingQueue<Object> ring(ProgressEventBus bus) {
+		return (BlockingQueue<Object>) ReflectionTestUtils.getField(bus, "ring");
+	}
+
+	private static List<String> ids(ProgressEventBus bus) {
+		List<String> ids = new ArrayList<>();
+		for (Object envelope : ring(bus)) {
+			ids.add((String) ReflectionTestUtils.invokeMethod(envelope, "id"));
+		}
+		return ids;
+	}
+}
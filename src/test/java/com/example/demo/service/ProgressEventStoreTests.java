@@ -0,0 +1,116 @@
+package com.example.demo.service;
+
+import com.example.demo.model.UserProgress;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.BitSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The startup reconciliation: learners whose rows predate the log, or changed while it was
+ * off, are re-based so {@code materialize} matches the stored row.
+ */
+class ProgressEventStoreTests {
+
+	@TempDir
+	Path dir;
+
+	private JdbcTemplate jdbcTemplate;
+	private ProgressEventStore store;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:events;DB_CLOSE_DELAY=-1;MODE=MySQL", "sa", ""));
+		jdbcTemplate.execute("DROP TABLE IF EXISTS user_progress");
+		jdbcTemplate.execute("CREATE TABLE user_progress (user_id BIGINT PRIMARY KEY, lessons_completed INT, study_streak INT, "
+				+ "total_study_time INT, last_studied_date DATE, completed_lessons_bits VARBINARY(1024))");
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		store.close();
+	}
+
+	@Test
+	void rowsFromBeforeTheLogAreBackfilled() throws Exception {
+		LocalDate today = LocalDate.now();
+		insert(1, lessons(0, 4), 3, 75, today);
+		insert(2, lessons(), 0, 0, null);
+		store = open();
+
+		store.afterSingletonsInstantiated();
+
+		UserProgress first = store.materialize(1L).orElseThrow();
+		assertThat(first.getLessonsCompleted()).isEqualTo(2);
+		assertThat(BitSet.valueOf(first.getCompletedLessonsBits())).isEqualTo(lessons(0, 4));
+		assertThat(first.getStudyStreak()).isEqualTo(3);
+		assertThat(first.getTotalStudyTime()).isEqualTo(75);
+		assertThat(first.getLastStudiedDate().toString()).isEqualTo(today.toString());
+		assertThat(store.materialize(2L).orElseThrow().getTotalStudyTime()).isZero();
+	}
+
+	@Test
+	void onlyLearnersThatDriftedAreRebasedAfterARestart() throws Exception {
+		LocalDate today = LocalDate.now();
+		insert(1, lessons(1), 1, 10, today);
+		insert(2, lessons(2), 1, 20, today);
+		store = open();
+		store.afterSingletonsInstantiated();
+		store.minutesStudied(1L, 5);
+		jdbcTemplate.update("UPDATE user_progress SET total_study_time = 15 WHERE user_id = 1");
+		// Changed while the log was off (or by another instance)
+		jdbcTemplate.update("UPDATE user_progress SET lessons_completed = 2, total_study_time = 50, "
+				+ "completed_lessons_bits = ? WHERE user_id = 2", lessons(2, 3).toByteArray());
+		store.close();
+
+		store = open();
+		long before = nextSequence();
+		store.afterSingletonsInstantiated();
+
+		// Learner 1 already matched; learner 2 got one lesson event and three set events
+		assertThat(nextSequence() - before).isEqualTo(4);
+		assertThat(store.materialize(1L).orElseThrow().getTotalStudyTime()).isEqualTo(15);
+		UserProgress second = store.materialize(2L).orElseThrow();
+		assertThat(second.getLessonsCompleted()).isEqualTo(2);
+		assertThat(second.getTotalStudyTime()).isEqualTo(50);
+	}
+
+	private ProgressEventStore open() throws Exception {
+		ProgressEventStore opened = new ProgressEventStore();
+		ReflectionTestUtils.setField(opened, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(opened, "enabled", true);
+		ReflectionTestUtils.setField(opened, "directory", dir.toString());
+		ReflectionTestUtils.setField(opened, "segmentRecords", 1024);
+		ReflectionTestUtils.setField(opened, "fsyncBatch", 1000);
+		opened.open();
+		return opened;
+	}
+
+	private long nextSequence() {
+		Object eventLog = ReflectionTestUtils.getField(store, "eventLog");
+		return (long) ReflectionTestUtils.invokeMethod(eventLog, "nextSequence");
+	}
+
+	private void insert(long userId, BitSet lessons, int streak, int minutes, LocalDate lastStudied) {
+		jdbcTemplate.update("INSERT INTO user_progress VALUES (?, ?, ?, ?, ?, ?)", userId, lessons.cardinality(), streak,
+				minutes, lastStudied != null ? Date.valueOf(lastStudied) : null, lessons.toByteArray());
+	}
+
+	private static BitSet lessons(int... ordinals) {
+		BitSet bits = new BitSet();
+		for (int ordinal : ordinals) {
+			bits.set(ordinal);
+		}
+		return bits;
+	}
+}
@@ -0,0 +1,84 @@
+package com.example.demo.service;
+
+import com.example.demo.config.CacheConfig;
+import com.example.demo.model.UserProgress;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Flushes against an in-memory table. A flush writes minutes and streak touches in one
+ * transaction, so a failure in the second batch must not leave the first one committed.
+ */
+class ProgressWriteBufferTests {
+
+	private JdbcTemplate jdbcTemplate;
+	private ProgressWriteBuffer buffer;
+
+	@BeforeEach
+	void setUp() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:writebehind;DB_CLOSE_DELAY=-1;MODE=MySQL", "sa", "");
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("DROP TABLE IF EXISTS user_progress");
+		jdbcTemplate.execute("CREATE TABLE user_progress (user_id BIGINT PRIMARY KEY, total_study_time INT NOT NULL, "
+				+ "study_streak INT NOT NULL, last_studied_date DATE, version BIGINT NOT NULL)");
+		jdbcTemplate.update("INSERT INTO user_progress VALUES (1, 30, 0, NULL, 0)");
+		buffer = new ProgressWriteBuffer();
+		ReflectionTestUtils.setField(buffer, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(buffer, "cacheManager", new ConcurrentMapCacheManager(CacheConfig.PROGRESS));
+		ReflectionTestUtils.setField(buffer, "transactionManager", new DataSourceTransactionManager(dataSource));
+		ReflectionTestUtils.setField(buffer, "batchSize", 500);
+		buffer.start();
+	}
+
+	@AfterEach
+	void tearDown() {
+		ReflectionTestUtils.invokeMethod(ReflectionTestUtils.getField(buffer, "flusher"), "shutdownNow");
+	}
+
+	@Test
+	void minutesAndStreakTouchesAreFlushedTogether() {
+		buffer.addMinutes(1L, 10);
+		buffer.touchStreak(1L, LocalDate.now());
+
+		buffer.flush();
+
+		assertThat(studyTime()).isEqualTo(40);
+		assertThat(jdbcTemplate.queryForObject("SELECT study_streak FROM user_progress WHERE user_id = 1", Integer.class)).isEqualTo(1);
+	}
+
+	@Test
+	void failedStreakBatchRollsBackTheMinutes() {
+		buffer.addMinutes(1L, 10);
+		buffer.touchStreak(1L, LocalDate.now());
+		jdbcTemplate.execute("ALTER TABLE user_progress DROP COLUMN version"); // the streak update now fails
+
+		buffer.flush();
+
+		assertThat(studyTime()).isEqualTo(30);
+		assertThat(buffer.read(1L, this::stored).getTotalStudyTime()).isEqualTo(40); // still buffered, once
+
+		jdbcTemplate.execute("ALTER TABLE user_progress ADD COLUMN version BIGINT NOT NULL DEFAULT 0");
+		buffer.flush();
+
+		assertThat(studyTime()).isEqualTo(40);
+		assertThat(buffer.read(1L, this::stored).getTotalStudyTime()).isEqualTo(40);
+	}
+
+	private int studyTime() {
+		return jdbcTemplate.queryForObject("SELECT total_study_time FROM user_progress WHERE user_id = 1", Integer.class);
+	}
+
+	private UserProgress stored() {
+		return UserProgress.builder().totalStudyTime(studyTime()).build();
+	}
+}
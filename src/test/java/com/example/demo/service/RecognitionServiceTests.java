@@ -0,0 +1,101 @@
+package com.example.demo.service;
+
+import com.example.demo.inference.DynamicSignModel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RecognitionServiceTests {
+
+	private static final int MAX_SESSIONS = 50;
+
+	private RecognitionService service;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		DynamicSignModel model = DynamicSignModel.load(
+				new ClassPathResource("static/isl_dynamic_model_tfjs/model.json"),
+				new ClassPathResource("static/label_mapping_dynamic.json"));
+		ModelRegistry registry = mock(ModelRegistry.class);
+		when(registry.select(anyString())).thenReturn(new ModelRegistry.Bundle("test", null, model));
+
+		service = new RecognitionService();
+		ReflectionTestUtils.setField(service, "modelRegistry", registry);
+		ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(service, "maxSessions", MAX_SESSIONS);
+		ReflectionTestUtils.setField(service, "sessionIdleTimeoutMs", 60_000L);
+		service.registerMetrics();
+	}
+
+	@Test
+	void concurrentOpensNeverExceedTheSessionLimit() throws Exception {
+		int threads = 16;
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		ConcurrentLinkedQueue<String> opened = new ConcurrentLinkedQueue<>();
+		AtomicInteger rejected = new AtomicInteger();
+		for (int t = 0; t < threads; t++) {
+			pool.execute(() -> {
+				try {
+					start.await();
+					for (int i = 0; i < 10; i++) {
+						try {
+							opened.add(service.openSession());
+						} catch (IllegalStateException e) {
+							rejected.incrementAndGet();
+						}
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+		}
+		start.countDown();
+		pool.shutdown();
+		assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+		assertThat(opened).hasSize(MAX_SESSIONS);
+		assertThat(rejected.get()).isEqualTo(threads * 10 - MAX_SESSIONS);
+
+		// Closing frees exactly one slot
+		service.closeSession(opened.poll());
+		String reopened = service.openSession();
+		assertThat(reopened).isNotNull();
+		assertThatThrownBy(service::openSession).isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void evictedSessionsReleaseTheirSlots() {
+		for (int i = 0; i < MAX_SESSIONS; i++) {
+			service.openSession();
+		}
+		assertThatThrownBy(service::openSession).isInstanceOf(IllegalStateException.class);
+
+		ReflectionTestUtils.setField(service, "sessionIdleTimeoutMs", -1L);
+		service.evictIdleSessions();
+		ReflectionTestUtils.setField(service, "sessionIdleTimeoutMs", 60_000L);
+
+		List<String> reopened = new ArrayList<>();
+		for (int i = 0; i < MAX_SESSIONS; i++) {
+			reopened.add(service.openSession());
+		}
+		assertThat(reopened).doesNotHaveDuplicates().hasSize(MAX_SESSIONS);
+	}
+}
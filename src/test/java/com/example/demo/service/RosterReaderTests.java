@@ -0,0 +1,79 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RosterReaderTests {
+
+	@Test
+	void csvFieldsMayBeQuotedWithCommasQuotesAndLineBreaks() throws Exception {
+		RosterReader reader = RosterReader.csv(new StringReader("\uFEFFEmail,Name,password,bio,ignored\r\n"
+				+ "a@x.com,\"Lee, Ann\",Secret123!,\"said \"\"hi\"\"\nthen left\",x\r\n"
+				+ "\r\n"
+				+ "b@x.com,Bo,Secret123!\n"));
+
+		List<RosterReader.Entry> entries = reader.next(10);
+
+		assertThat(entries).hasSize(2);
+		RosterReader.Entry first = entries.get(0);
+		assertThat(first.row()).isEqualTo(1);
+		assertThat(first.email()).isEqualTo("a@x.com");
+		assertThat(first.name()).isEqualTo("Lee, Ann");
+		assertThat(first.bio()).isEqualTo("said \"hi\"\nthen left");
+		assertThat(first.cohort()).isNull();
+		RosterReader.Entry second = entries.get(1);
+		assertThat(second.row()).isEqualTo(2); // the blank line isn't a record
+		assertThat(second.name()).isEqualTo("Bo");
+		assertThat(second.bio()).isNull(); // short record
+		assertThat(reader.next(10)).isEmpty();
+	}
+
+	@Test
+	void csvWithoutTheRequiredColumnsIsRejected() {
+		assertThatThrownBy(() -> RosterReader.csv(new StringReader("name,email\nAnn,a@x.com\n")))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> RosterReader.csv(new StringReader("")))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void entriesAreReadAChunkAtATime() throws Exception {
+		StringBuilder csv = new StringBuilder("name,email,password\n");
+		for (int i = 1; i <= 5; i++) {
+			csv.append("n").append(i).append(",u").append(i).append("@x.com,Secret123!\n");
+		}
+		RosterReader reader = RosterReader.csv(new StringReader(csv.toString()));
+
+		assertThat(reader.next(2)).extracting(RosterReader.Entry::row).containsExactly(1L, 2L);
+		assertThat(reader.next(2)).extracting(RosterReader.Entry::row).containsExactly(3L, 4L);
+		assertThat(reader.next(2)).extracting(RosterReader.Entry::row).containsExactly(5L);
+		assertThat(reader.next(2)).isEmpty();
+	}
+
+	@Test
+	void malformedNdjsonLinesBecomeEntriesWithAnError() throws Exception {
+		RosterReader reader = RosterReader.ndjson(new StringReader(
+				"{\"name\":\"Ann\",\"email\":\"a@x.com\",\"password\":\"Secret123!\",\"cohort\":\" 7b \"}\n"
+				+ "{\"name\": broken\n"
+				+ "\n"
+				+ "[1,2]\n"
+				+ "{\"name\":\"  \",\"email\":null}\n"), new ObjectMapper());
+
+		List<RosterReader.Entry> entries = reader.next(10);
+
+		assertThat(entries).extracting(RosterReader.Entry::row).containsExactly(1L, 2L, 3L, 4L);
+		assertThat(entries.get(0).cohort()).isEqualTo("7b");
+		assertThat(entries.get(0).error()).isNull();
+		assertThat(entries.get(1).error()).startsWith("Malformed JSON");
+		assertThat(entries.get(2).error()).isEqualTo("Expected a JSON object");
+		assertThat(entries.get(3).error()).isNull();
+		assertThat(entries.get(3).name()).isNull();
+		assertThat(entries.get(3).email()).isNull();
+	}
+}
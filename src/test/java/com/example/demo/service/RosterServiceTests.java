@@ -0,0 +1,122 @@
+package com.example.demo.service;
+
+import com.example.demo.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.io.StringReader;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The import without a database: the entity manager rejects chosen emails the way the
+ * commit would, so the per-row fallback and its error messages can be checked.
+ */
+class RosterServiceTests {
+
+	private EntityManager entityManager;
+	private LeaderboardService leaderboardService;
+	private RosterService service;
+
+	@BeforeEach
+	void setUp() {
+		entityManager = mock(EntityManager.class);
+		leaderboardService = mock(LeaderboardService.class);
+		AtomicLong ids = new AtomicLong();
+		doAnswer(invocation -> {
+			if (invocation.getArgument(0) instanceof User user) {
+				if (user.getEmail().startsWith("taken")) {
+					throw violation("Duplicate entry '" + user.getEmail() + "' for key 'users.uk_users_email'");
+				}
+				if (user.getEmail().startsWith("long")) {
+					throw violation("Data too long for column 'bio' at row 1");
+				}
+				user.setId(ids.incrementAndGet());
+			}
+			return null;
+		}).when(entityManager).persist(any());
+		service = new RosterService();
+		ReflectionTestUtils.setField(service, "entityManager", entityManager);
+		ReflectionTestUtils.setField(service, "transactionManager", new NoOpTransactionManager());
+		ReflectionTestUtils.setField(service, "jdbcTemplate", mock(JdbcTemplate.class));
+		ReflectionTestUtils.setField(service, "leaderboardService", leaderboardService);
+		ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+		ReflectionTestUtils.setField(service, "chunkSize", 3);
+		service.init();
+	}
+
+	@Test
+	void aChunkThatFailsIsRetriedRowByRowAndOnlyDuplicatesAreReportedAsSuch() throws Exception {
+		String roster = "name,email,password\n"
+				+ "A,a@x.com,Secret123!\n"
+				+ "B,taken@x.com,Secret123!\n"
+				+ "C,long@x.com,Secret123!\n"
+				+ "D,d@x.com,Secret123!\n"
+				+ "E,not-an-email,Secret123!\n"
+				+ "F,a@x.com,Secret123!\n";
+
+		RosterService.ImportReport report = service.importRoster(new StringReader(roster), RosterService.Format.CSV);
+
+		assertThat(report.imported()).isEqualTo(2); // A and D
+		assertThat(report.failed()).isEqualTo(4);
+		assertThat(report.errors()).extracting(RosterService.RowError::row).containsExactly(2L, 3L, 5L, 6L);
+		assertThat(report.errors().get(0).error()).isEqualTo("User already exists with this email.");
+		assertThat(report.errors().get(1).error()).startsWith("Rejected by the database");
+		assertThat(report.errors().get(3).error()).isEqualTo("Duplicate email in this roster");
+		verify(leaderboardService, times(2)).add(any(), any(), any(), any());
+	}
+
+	@Test
+	void exportedFieldsCannotStartAFormula() {
+		assertThat(RosterService.csv("=HYPERLINK(\"http://x\")")).isEqualTo("\"'=HYPERLINK(\"\"http://x\"\")\"");
+		assertThat(RosterService.csv("+1")).isEqualTo("'+1");
+		assertThat(RosterService.csv("-1")).isEqualTo("'-1");
+		assertThat(RosterService.csv("@SUM(A1)")).isEqualTo("'@SUM(A1)");
+		assertThat(RosterService.csv("\t=1")).isEqualTo("'\t=1");
+		assertThat(RosterService.csv("\r=1")).isEqualTo("\"'\r=1\"");
+		assertThat(RosterService.csv("Lee, Ann")).isEqualTo("\"Lee, Ann\"");
+		assertThat(RosterService.csv("a=b")).isEqualTo("a=b");
+		assertThat(RosterService.csv(null)).isEmpty();
+	}
+
+	private static DataIntegrityViolationException violation(String message) {
+		return new DataIntegrityViolationException("could not execute statement",
+				new ConstraintViolationException(message, new SQLException(message, "23000"), null));
+	}
+
+	private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+		@Override
+		protected Object doGetTransaction() {
+			return new Object();
+		}
+
+		@Override
+		protected void doBegin(Object transaction, TransactionDefinition definition) {
+		}
+
+		@Override
+		protected void doCommit(DefaultTransactionStatus status) {
+		}
+
+		@Override
+		protected void doRollback(DefaultTransactionStatus status) {
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package com.example.demo.service;
+
+import java.sql.SQLException;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.demo.model.User;
+import com.example.demo.repository.UserRepository;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserServiceTests {
+
+	@Test
+	void takenEmailIsReportedAsAnExistingUser() {
+		UserService service = service(violation("uk_users_email", "Duplicate entry 'a@b.com' for key 'users.uk_users_email'"));
+
+		assertThatThrownBy(() -> service.registerUser(user()))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("already exists");
+	}
+
+	@Test
+	void driverMessageIsCheckedWhenTheConstraintIsUnnamed() {
+		UserService service = service(violation(null, "Unique index or primary key violation: \"PUBLIC.UK_USERS_EMAIL_INDEX_4 ON PUBLIC.USERS(EMAIL)\""));
+
+		assertThatThrownBy(() -> service.registerUser(user()))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void otherViolationsAreNotMistakenForADuplicate() {
+		DataIntegrityViolationException notNull = violation(null, "Column 'name' cannot be null");
+		UserService service = service(notNull);
+
+		assertThatThrownBy(() -> service.registerUser(user())).isSameAs(notNull);
+	}
+
+	private static UserService service(DataIntegrityViolationException thrown) {
+		UserRepository repository = mock(UserRepository.class);
+		when(repository.save(any())).thenThrow(thrown);
+		UserService service = new UserService();
+		ReflectionTestUtils.setField(service, "userRepository", repository);
+		return service;
+	}
+
+	private static DataIntegrityViolationException violation(String constraint, String message) {
+		SQLException sql = new SQLException(message, "23000");
+		return new DataIntegrityViolationException("could not execute statement",
+				new ConstraintViolationException("could not execute statement [" + message + "]", sql, constraint));
+	}
+
+	private static User user() {
+		User user = new User();
+		user.setEmail("a@b.com");
+		user.setPassword("Secret123!");
+		return user;
+	}
+}